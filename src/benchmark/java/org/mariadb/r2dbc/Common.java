@@ -16,6 +16,8 @@
 
 package org.mariadb.r2dbc;
 
+import org.mariadb.r2dbc.fake.FakeServer;
+import org.mariadb.r2dbc.fake.Script;
 import org.openjdk.jmh.annotations.*;
 import reactor.core.publisher.Mono;
 
@@ -44,6 +46,13 @@ public class Common {
     public final String password = System.getProperty("TEST_PASSWORD", "");
     public final String database = System.getProperty("TEST_DATABASE", "testj");
 
+    // in-process fake server, permitting to benchmark driver without database
+    public final boolean fakeServer = Boolean.parseBoolean(System.getProperty("TEST_FAKE_SERVER"));
+    public final int fakeRows = Integer.parseInt(System.getProperty("TEST_FAKE_ROWS", "1"));
+    public final int fakeColumns = Integer.parseInt(System.getProperty("TEST_FAKE_COLUMNS", "50"));
+    public final int fakeThreads = Integer.parseInt(System.getProperty("TEST_FAKE_THREADS", "1"));
+    protected FakeServer server;
+
     // connections
     protected Connection jdbc;
     protected io.r2dbc.spi.Connection r2dbc;
@@ -52,6 +61,16 @@ public class Common {
 
     @Setup(Level.Trial)
     public void doSetup() throws Exception {
+      String host = this.host;
+      int port = this.port;
+      if (fakeServer) {
+        server =
+            FakeServer.start(
+                username, password, Script.defaults(fakeRows, fakeColumns), fakeThreads);
+        host = "localhost";
+        port = server.getPort();
+      }
+
       MariadbConnectionConfiguration conf =
           MariadbConnectionConfiguration.builder()
               .host(host)
@@ -101,6 +120,7 @@ public class Common {
       jdbc.close();
       Mono.from(r2dbc.close()).block();
       Mono.from(r2dbcPrepare.close()).block();
+      if (server != null) server.close();
 //      Mono.from(r2dbcMysql.close()).block();
     }
   }
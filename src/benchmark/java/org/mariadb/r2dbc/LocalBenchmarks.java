@@ -0,0 +1,121 @@
+/*
+ * Copyright 2020 MariaDB Ab.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mariadb.r2dbc;
+
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Run benchmarks not needing a server ("Local_" prefix), with allocation profiling.
+ *
+ * <p>Accept JMH command line options. System properties:
+ *
+ * <ul>
+ *   <li>baseline.save: file where scores are saved, to be used as baseline of next runs
+ *   <li>baseline: baseline file to compare scores with. Process exits with status 1 if a score
+ *       regresses more than baseline.threshold
+ *   <li>baseline.threshold: regression threshold, in percent. Default to 10
+ * </ul>
+ */
+public class LocalBenchmarks {
+
+  public static void main(String[] args) throws Exception {
+    CommandLineOptions cmd = new CommandLineOptions(args);
+    ChainedOptionsBuilder builder = new OptionsBuilder().parent(cmd).addProfiler(GCProfiler.class);
+    if (cmd.getIncludes().isEmpty()) {
+      builder.include(LocalBenchmarks.class.getPackage().getName() + ".Local_");
+    }
+    Collection<RunResult> results = new Runner(builder.build()).run();
+
+    Map<String, RunResult> scores = new TreeMap<>();
+    for (RunResult result : results) {
+      scores.put(key(result), result);
+    }
+
+    String save = System.getProperty("baseline.save");
+    if (save != null) {
+      Properties properties = new Properties();
+      for (Map.Entry<String, RunResult> entry : scores.entrySet()) {
+        RunResult result = entry.getValue();
+        properties.setProperty(
+            entry.getKey(),
+            result.getParams().getMode().shortLabel() + " " + result.getPrimaryResult().getScore());
+      }
+      try (OutputStream out = new FileOutputStream(save)) {
+        properties.store(out, "benchmark=mode score");
+      }
+      System.out.println("Baseline saved to " + save);
+    }
+
+    String baseline = System.getProperty("baseline");
+    if (baseline != null && !compare(scores, baseline)) {
+      System.exit(1);
+    }
+  }
+
+  private static String key(RunResult result) {
+    StringBuilder sb = new StringBuilder(result.getParams().getBenchmark());
+    for (String param : result.getParams().getParamsKeys()) {
+      sb.append(':').append(param).append('=').append(result.getParams().getParam(param));
+    }
+    return sb.toString();
+  }
+
+  private static boolean compare(Map<String, RunResult> scores, String baseline) throws Exception {
+    double threshold = Double.parseDouble(System.getProperty("baseline.threshold", "10"));
+    Properties properties = new Properties();
+    try (InputStream in = new FileInputStream(baseline)) {
+      properties.load(in);
+    }
+
+    boolean success = true;
+    System.out.println();
+    System.out.printf("Comparison with baseline %s (threshold %.1f%%)%n", baseline, threshold);
+    for (Map.Entry<String, RunResult> entry : scores.entrySet()) {
+      String base = properties.getProperty(entry.getKey());
+      if (base == null) {
+        System.out.printf("  %-90s %12s%n", entry.getKey(), "new");
+        continue;
+      }
+      double baseScore = Double.parseDouble(base.substring(base.indexOf(' ') + 1));
+      double score = entry.getValue().getPrimaryResult().getScore();
+      double change = (score - baseScore) * 100 / baseScore;
+
+      // throughput is better when higher, other modes measure time
+      boolean throughput = entry.getValue().getParams().getMode() == Mode.Throughput;
+      double regression = throughput ? -change : change;
+      boolean regressed = regression > threshold;
+      success &= !regressed;
+      System.out.printf(
+          "  %-90s %+11.1f%%%s%n", entry.getKey(), change, regressed ? " REGRESSION" : "");
+    }
+    return success;
+  }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2020 MariaDB Ab.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mariadb.r2dbc;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import java.nio.charset.StandardCharsets;
+import org.mariadb.r2dbc.client.Context;
+import org.mariadb.r2dbc.util.BufferUtils;
+import org.openjdk.jmh.annotations.*;
+
+/** Escaping of text and bytes when writing text protocol parameters. */
+public class Local_Buffer_Write extends Local_Common {
+
+  @State(Scope.Thread)
+  public static class BufferState {
+
+    // plain: ascii only, escaped: one quote every 8 characters, unicode: one non ascii character
+    // every 8 characters
+    @Param({"plain", "escaped", "unicode"})
+    String content;
+
+    @Param({"16", "1024"})
+    int size;
+
+    Context context;
+    String value;
+    byte[] bytes;
+    ByteBuf out;
+
+    @Setup(Level.Trial)
+    public void setup() {
+      context = context();
+      StringBuilder sb = new StringBuilder(size);
+      for (int i = 0; i < size; i++) {
+        if (i % 8 == 7 && "escaped".equals(content)) {
+          sb.append('\'');
+        } else if (i % 8 == 7 && "unicode".equals(content)) {
+          sb.append('\u00e9');
+        } else {
+          sb.append((char) ('a' + i % 26));
+        }
+      }
+      value = sb.toString();
+      bytes = value.getBytes(StandardCharsets.UTF_8);
+      out = Unpooled.buffer(4 * size);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+      out.release();
+    }
+  }
+
+  @Benchmark
+  public int writeEscaped(BufferState state) {
+    ByteBuf out = state.out.clear();
+    BufferUtils.writeEscaped(out, state.bytes, 0, state.bytes.length, state.context);
+    return out.writerIndex();
+  }
+
+  @Benchmark
+  public int writeString(BufferState state) {
+    ByteBuf out = state.out.clear();
+    BufferUtils.write(out, state.value, true, state.context);
+    return out.writerIndex();
+  }
+}
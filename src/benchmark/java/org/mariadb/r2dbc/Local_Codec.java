@@ -0,0 +1,264 @@
+/*
+ * Copyright 2020 MariaDB Ab.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mariadb.r2dbc;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.r2dbc.spi.Blob;
+import io.r2dbc.spi.Clob;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.BitSet;
+import java.util.function.Supplier;
+import org.mariadb.r2dbc.client.Context;
+import org.mariadb.r2dbc.codec.Codec;
+import org.mariadb.r2dbc.codec.DataType;
+import org.mariadb.r2dbc.codec.list.*;
+import org.mariadb.r2dbc.message.server.ColumnDefinitionPacket;
+import org.mariadb.r2dbc.util.BufferUtils;
+import org.openjdk.jmh.annotations.*;
+import reactor.core.publisher.Mono;
+
+/** Decoding and encoding of a value, in text and binary protocol, for each codec. */
+public class Local_Codec extends Local_Common {
+
+  private static final byte[] BYTES = "some binary value".getBytes(StandardCharsets.UTF_8);
+
+  @State(Scope.Thread)
+  public static class CodecState {
+
+    @Param({
+      "BigDecimal",
+      "BigInteger",
+      "BitSet",
+      "Blob",
+      "Boolean",
+      "Byte",
+      "ByteArray",
+      "Clob",
+      "Double",
+      "Duration",
+      "Float",
+      "Int",
+      "LocalDate",
+      "LocalDateTime",
+      "LocalTime",
+      "Long",
+      "Short",
+      "Stream",
+      "String"
+    })
+    String codec;
+
+    Context context;
+    Codec<Object> instance;
+    Class<Object> type;
+    ColumnDefinitionPacket column;
+    Supplier<Object> value;
+    ByteBuf text;
+    ByteBuf binary;
+    ByteBuf out;
+
+    @Setup(Level.Trial)
+    public void setup() {
+      context = context();
+      switch (codec) {
+        case "BigDecimal":
+          init(BigDecimalCodec.INSTANCE, DataType.DECIMAL, "1234.56", new BigDecimal("1234.56"));
+          break;
+        case "BigInteger":
+          init(
+              BigIntegerCodec.INSTANCE,
+              DataType.BIGINT,
+              "9876543210",
+              BigInteger.valueOf(9876543210L));
+          // BigInteger parameter is sent as decimal, BIGINT column value is 8 bytes
+          binary.release();
+          binary = Unpooled.buffer().writeLongLE(9876543210L);
+          break;
+        case "BitSet":
+          // BIT value is sent as raw bytes in text protocol
+          init(
+              BitSetCodec.INSTANCE,
+              column("c", DataType.BIT),
+              new byte[] {0x05},
+              () -> BitSet.valueOf(new byte[] {0x05}));
+          break;
+        case "Blob":
+          init(
+              BlobCodec.INSTANCE,
+              column("c", DataType.BLOB),
+              BYTES,
+              () -> Blob.from(Mono.just(ByteBuffer.wrap(BYTES))));
+          break;
+        case "Boolean":
+          init(BooleanCodec.INSTANCE, DataType.TINYINT, "1", Boolean.TRUE);
+          break;
+        case "Byte":
+          init(ByteCodec.INSTANCE, DataType.TINYINT, "12", (byte) 12);
+          break;
+        case "ByteArray":
+          init(ByteArrayCodec.INSTANCE, column("c", DataType.BLOB), BYTES, () -> BYTES);
+          break;
+        case "Clob":
+          init(
+              ClobCodec.INSTANCE,
+              column("c", DataType.BLOB, UTF8_CHARSET, 0),
+              BYTES,
+              () -> Clob.from(Mono.just("some binary value")));
+          break;
+        case "Double":
+          init(DoubleCodec.INSTANCE, DataType.DOUBLE, "123.25", 123.25D);
+          break;
+        case "Duration":
+          init(
+              DurationCodec.INSTANCE,
+              DataType.TIME,
+              "12:35:46.123456",
+              Duration.ofHours(12).plusMinutes(35).plusSeconds(46).plusNanos(123456000));
+          break;
+        case "Float":
+          init(FloatCodec.INSTANCE, DataType.FLOAT, "2.5", 2.5F);
+          break;
+        case "Int":
+          init(IntCodec.INSTANCE, DataType.INTEGER, "123456", 123456);
+          break;
+        case "LocalDate":
+          init(LocalDateCodec.INSTANCE, DataType.DATE, "2021-01-15", LocalDate.of(2021, 1, 15));
+          break;
+        case "LocalDateTime":
+          init(
+              LocalDateTimeCodec.INSTANCE,
+              DataType.DATETIME,
+              "2021-01-15 12:35:46.123456",
+              LocalDateTime.of(2021, 1, 15, 12, 35, 46, 123456000));
+          break;
+        case "LocalTime":
+          init(
+              LocalTimeCodec.INSTANCE,
+              DataType.TIME,
+              "12:35:46.123456",
+              LocalTime.of(12, 35, 46, 123456000));
+          break;
+        case "Long":
+          init(LongCodec.INSTANCE, DataType.BIGINT, "9876543210", 9876543210L);
+          break;
+        case "Short":
+          init(ShortCodec.INSTANCE, DataType.SMALLINT, "1234", (short) 1234);
+          break;
+        case "Stream":
+          init(
+              StreamCodec.INSTANCE,
+              column("c", DataType.BLOB),
+              BYTES,
+              () -> new ByteArrayInputStream(BYTES));
+          break;
+        case "String":
+          init(StringCodec.INSTANCE, DataType.VARSTRING, "some string value", "some string value");
+          break;
+        default:
+          throw new IllegalArgumentException("unknown codec " + codec);
+      }
+      out = Unpooled.buffer(256);
+    }
+
+    private void init(Codec<?> codec, DataType dataType, String textValue, Object val) {
+      init(codec, column("c", dataType), textValue.getBytes(StandardCharsets.US_ASCII), () -> val);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void init(
+        Codec<?> codec, ColumnDefinitionPacket column, byte[] textValue, Supplier<?> value) {
+      this.instance = (Codec<Object>) codec;
+      this.column = column;
+      this.value = (Supplier<Object>) value;
+      this.type = (Class<Object>) value.get().getClass();
+      this.text = Unpooled.wrappedBuffer(textValue);
+
+      // binary row value is encoded like binary parameter, without length prefix
+      ByteBuf encoded = Unpooled.buffer();
+      instance.encodeBinary(encoded, context, value.get());
+      switch (column.getType()) {
+        case TINYINT:
+        case SMALLINT:
+        case INTEGER:
+        case FLOAT:
+        case BIGINT:
+        case DOUBLE:
+          break;
+        default:
+          BufferUtils.readLengthEncodedInt(encoded);
+      }
+      this.binary = Unpooled.copiedBuffer(encoded);
+      encoded.release();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+      text.release();
+      binary.release();
+      out.release();
+    }
+  }
+
+  @Benchmark
+  public Object decodeText(CodecState state) throws IOException {
+    ByteBuf buf = state.text.readerIndex(0);
+    return release(state.instance.decodeText(buf, buf.readableBytes(), state.column, state.type));
+  }
+
+  @Benchmark
+  public Object decodeBinary(CodecState state) throws IOException {
+    ByteBuf buf = state.binary.readerIndex(0);
+    return release(state.instance.decodeBinary(buf, buf.readableBytes(), state.column, state.type));
+  }
+
+  @Benchmark
+  public int encodeText(CodecState state) {
+    ByteBuf out = state.out.clear();
+    state.instance.encodeText(out, state.context, state.value.get());
+    return out.writerIndex();
+  }
+
+  @Benchmark
+  public int encodeBinary(CodecState state) {
+    ByteBuf out = state.out.clear();
+    state.instance.encodeBinary(out, state.context, state.value.get());
+    return out.writerIndex();
+  }
+
+  private static Object release(Object value) throws IOException {
+    // lob values hold a retained slice of row buffer
+    if (value instanceof Blob) {
+      Mono.from(((Blob) value).discard()).block();
+    } else if (value instanceof Clob) {
+      Mono.from(((Clob) value).discard()).block();
+    } else if (value instanceof InputStream) {
+      ((InputStream) value).close();
+    }
+    return value;
+  }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2020 MariaDB Ab.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mariadb.r2dbc;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.mariadb.r2dbc.client.Context;
+import org.mariadb.r2dbc.codec.DataType;
+import org.mariadb.r2dbc.codec.Parameter;
+import org.mariadb.r2dbc.message.server.ColumnDefinitionPacket;
+import org.mariadb.r2dbc.util.BufferUtils;
+import org.mariadb.r2dbc.util.constants.Capabilities;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Common configuration of benchmarks running without server, on synthetic buffers. Those are
+ * selected by the "Local_" prefix.
+ */
+@Warmup(iterations = 5, timeUnit = TimeUnit.SECONDS, time = 1)
+@Measurement(iterations = 5, timeUnit = TimeUnit.SECONDS, time = 1)
+@Fork(value = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class Local_Common {
+
+  public static final int BINARY_CHARSET = 63;
+  public static final int UTF8_CHARSET = 33;
+
+  public static final long CAPABILITIES =
+      Capabilities.CLIENT_PROTOCOL_41
+          | Capabilities.TRANSACTIONS
+          | Capabilities.SECURE_CONNECTION
+          | Capabilities.MULTI_RESULTS
+          | Capabilities.PS_MULTI_RESULTS
+          | Capabilities.PLUGIN_AUTH
+          | Capabilities.CLIENT_DEPRECATE_EOF;
+
+  /**
+   * Connection context of a MariaDB server, in autocommit mode.
+   *
+   * @return context
+   */
+  public static Context context() {
+    return new Context("10.5.8-MariaDB", 1, new byte[20], CAPABILITIES, (short) 2, true);
+  }
+
+  /**
+   * Column definition packet body, as sent by server.
+   *
+   * @param name column name
+   * @param type data type
+   * @param charset charset number, 63 for binary data
+   * @param flags column flags
+   * @return packet body
+   */
+  public static byte[] columnDefinition(String name, DataType type, int charset, int flags) {
+    ByteBuf buf = Unpooled.buffer();
+    try {
+      writeLengthEncoded(buf, "def"); // catalog
+      writeLengthEncoded(buf, "testj"); // schema
+      writeLengthEncoded(buf, "t"); // table
+      writeLengthEncoded(buf, "t"); // org_table
+      writeLengthEncoded(buf, name);
+      writeLengthEncoded(buf, name); // org_name
+      buf.writeByte(0x0c); // length of fixed fields
+      buf.writeShortLE(charset);
+      buf.writeIntLE(255); // length
+      buf.writeByte(type.get());
+      buf.writeShortLE(flags);
+      buf.writeByte(type == DataType.DOUBLE || type == DataType.DECIMAL ? 2 : 0); // decimals
+      buf.writeShortLE(0); // filler
+      byte[] arr = new byte[buf.readableBytes()];
+      buf.readBytes(arr);
+      return arr;
+    } finally {
+      buf.release();
+    }
+  }
+
+  public static ColumnDefinitionPacket column(String name, DataType type, int charset, int flags) {
+    ByteBuf buf = Unpooled.wrappedBuffer(columnDefinition(name, type, charset, flags));
+    try {
+      return ColumnDefinitionPacket.decode(null, buf, null, false);
+    } finally {
+      buf.release();
+    }
+  }
+
+  public static ColumnDefinitionPacket column(String name, DataType type) {
+    boolean text =
+        type == DataType.VARSTRING || type == DataType.VARCHAR || type == DataType.STRING;
+    return column(name, type, text ? UTF8_CHARSET : BINARY_CHARSET, 0);
+  }
+
+  public static void writeLengthEncoded(ByteBuf buf, String value) {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    BufferUtils.writeLengthEncode(bytes.length, buf);
+    buf.writeBytes(bytes);
+  }
+
+  /**
+   * Text protocol row, values being already in text format.
+   *
+   * @param values text values, null for NULL
+   * @return row packet body
+   */
+  public static ByteBuf textRow(String... values) {
+    ByteBuf buf = Unpooled.buffer();
+    for (String value : values) {
+      if (value == null) {
+        buf.writeByte(0xfb);
+      } else {
+        writeLengthEncoded(buf, value);
+      }
+    }
+    return buf;
+  }
+
+  /**
+   * Binary protocol row. Values are encoded like parameters, parameter data type must then
+   * correspond to column data type.
+   *
+   * @param context connection context
+   * @param values values
+   * @return row packet body
+   */
+  public static ByteBuf binaryRow(Context context, Parameter<?>... values) {
+    ByteBuf buf = Unpooled.buffer();
+    buf.writeByte(0x00);
+    byte[] nullBitmap = new byte[(values.length + 9) / 8];
+    for (int i = 0; i < values.length; i++) {
+      if (values[i].isNull()) {
+        nullBitmap[(i + 2) / 8] |= (byte) (1 << ((i + 2) % 8));
+      }
+    }
+    buf.writeBytes(nullBitmap);
+    for (Parameter<?> value : values) {
+      if (!value.isNull()) {
+        value.encodeBinary(buf, context);
+      }
+    }
+    return buf;
+  }
+}
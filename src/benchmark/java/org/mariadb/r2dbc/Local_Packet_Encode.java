@@ -0,0 +1,93 @@
+/*
+ * Copyright 2020 MariaDB Ab.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mariadb.r2dbc;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import org.mariadb.r2dbc.client.Context;
+import org.mariadb.r2dbc.codec.Parameter;
+import org.mariadb.r2dbc.codec.list.IntCodec;
+import org.mariadb.r2dbc.codec.list.LocalDateTimeCodec;
+import org.mariadb.r2dbc.codec.list.StringCodec;
+import org.mariadb.r2dbc.message.client.ExecutePacket;
+import org.mariadb.r2dbc.message.client.QueryWithParametersPacket;
+import org.mariadb.r2dbc.util.ClientPrepareResult;
+import org.openjdk.jmh.annotations.*;
+
+/** Encoding of parameterized commands, for text (client prepare) and binary (execute) protocol. */
+public class Local_Packet_Encode extends Local_Common {
+
+  @State(Scope.Thread)
+  public static class PacketState {
+
+    @Param({"1", "100"})
+    int parameters;
+
+    Context context;
+    ByteBufAllocator allocator = ByteBufAllocator.DEFAULT;
+    Map<Integer, Parameter<?>> binding = new HashMap<>();
+    Parameter<?>[] textBinding;
+    ClientPrepareResult prepareResult;
+
+    @Setup(Level.Trial)
+    public void setup() {
+      context = context();
+      textBinding = new Parameter<?>[parameters];
+      StringBuilder sb = new StringBuilder("INSERT INTO t VALUES (?");
+      for (int i = 0; i < parameters; i++) {
+        if (i > 0) sb.append(", ?");
+        Parameter<?> param;
+        switch (i % 3) {
+          case 0:
+            param = new Parameter<>(IntCodec.INSTANCE, i);
+            break;
+          case 1:
+            param = new Parameter<>(StringCodec.INSTANCE, "string value " + i);
+            break;
+          default:
+            param =
+                new Parameter<>(
+                    LocalDateTimeCodec.INSTANCE, LocalDateTime.of(2021, 1, 15, 12, 35, 46, i));
+        }
+        binding.put(i, param);
+        textBinding[i] = param;
+      }
+      prepareResult = ClientPrepareResult.parameterParts(sb.append(")").toString(), false);
+    }
+  }
+
+  @Benchmark
+  public int executePacket(PacketState state) {
+    ByteBuf buf = new ExecutePacket(1, state.binding).encode(state.context, state.allocator);
+    int length = buf.readableBytes();
+    buf.release();
+    return length;
+  }
+
+  @Benchmark
+  public int queryWithParametersPacket(PacketState state) {
+    ByteBuf buf =
+        new QueryWithParametersPacket(state.prepareResult, state.textBinding, null)
+            .encode(state.context, state.allocator);
+    int length = buf.readableBytes();
+    buf.release();
+    return length;
+  }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2020 MariaDB Ab.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mariadb.r2dbc;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import java.lang.reflect.Proxy;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import org.mariadb.r2dbc.client.Client;
+import org.mariadb.r2dbc.client.CmdElement;
+import org.mariadb.r2dbc.client.DecoderState;
+import org.mariadb.r2dbc.client.MariadbPacketDecoder;
+import org.mariadb.r2dbc.codec.DataType;
+import org.mariadb.r2dbc.message.server.RowPacket;
+import org.mariadb.r2dbc.message.server.ServerMessage;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import reactor.core.publisher.Flux;
+
+/**
+ * Framing and decoding of a text result-set by MariadbPacketDecoder, socket data being received at
+ * once or in chunks of network packet size.
+ */
+public class Local_Packet_Framing extends Local_Common {
+
+  @State(Scope.Thread)
+  public static class FramingState {
+
+    @Param({"1", "1000"})
+    int rows;
+
+    // size of received socket data, 0 for whole response at once
+    @Param({"0", "1460"})
+    int chunk;
+
+    Queue<CmdElement> responseReceivers = new ConcurrentLinkedQueue<>();
+    EmbeddedChannel channel;
+    ByteBuf response;
+    boolean completed;
+
+    @Setup(Level.Trial)
+    public void setup() {
+      Client client =
+          (Client)
+              Proxy.newProxyInstance(
+                  Client.class.getClassLoader(),
+                  new Class<?>[] {Client.class},
+                  (proxy, method, args) -> {
+                    if ("sendNext".equals(method.getName())) return null;
+                    throw new UnsupportedOperationException(method.getName());
+                  });
+      MariadbPacketDecoder decoder = new MariadbPacketDecoder(responseReceivers, client);
+      decoder.setContext(context());
+      channel = new EmbeddedChannel(decoder);
+
+      response = Unpooled.buffer();
+      byte seq = 1;
+      ByteBuf body = Unpooled.buffer().writeByte(3); // column count
+      seq = writePacket(response, body, seq);
+      seq =
+          writePacket(
+              response,
+              Unpooled.wrappedBuffer(columnDefinition("id", DataType.INTEGER, BINARY_CHARSET, 0)),
+              seq);
+      seq =
+          writePacket(
+              response,
+              Unpooled.wrappedBuffer(columnDefinition("name", DataType.VARSTRING, UTF8_CHARSET, 0)),
+              seq);
+      seq =
+          writePacket(
+              response,
+              Unpooled.wrappedBuffer(
+                  columnDefinition("amount", DataType.DOUBLE, BINARY_CHARSET, 0)),
+              seq);
+      for (int i = 0; i < rows; i++) {
+        seq = writePacket(response, textRow(String.valueOf(i), "name " + i, "123.25"), seq);
+      }
+      // OK packet with EOF header, ending result-set
+      ByteBuf ok = Unpooled.buffer().writeByte(0xfe).writeByte(0).writeByte(0);
+      ok.writeShortLE(2).writeShortLE(0);
+      writePacket(response, ok, seq);
+    }
+
+    private static byte writePacket(ByteBuf out, ByteBuf body, byte seq) {
+      out.writeMediumLE(body.readableBytes());
+      out.writeByte(seq);
+      out.writeBytes(body);
+      body.release();
+      return (byte) (seq + 1);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+      response.release();
+      channel.finishAndReleaseAll();
+    }
+  }
+
+  @Benchmark
+  public void decodeResultSet(FramingState state, Blackhole blackhole) {
+    state.completed = false;
+    Flux.<ServerMessage>create(
+            sink -> state.responseReceivers.add(new CmdElement(sink, DecoderState.QUERY_RESPONSE)))
+        .subscribe(
+            msg -> {
+              blackhole.consume(msg);
+              if (msg instanceof RowPacket) ((RowPacket) msg).release();
+            },
+            blackhole::consume,
+            () -> state.completed = true);
+
+    ByteBuf response = state.response;
+    if (state.chunk == 0) {
+      state.channel.writeInbound(response.retainedDuplicate());
+    } else {
+      for (int pos = 0; pos < response.writerIndex(); pos += state.chunk) {
+        int length = Math.min(state.chunk, response.writerIndex() - pos);
+        state.channel.writeInbound(response.retainedSlice(pos, length));
+      }
+    }
+    if (!state.completed) {
+      throw new IllegalStateException("response not consumed");
+    }
+  }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2020 MariaDB Ab.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mariadb.r2dbc;
+
+import org.mariadb.r2dbc.util.ClientPrepareResult;
+import org.openjdk.jmh.annotations.*;
+
+/** Parsing of client side prepared statement queries. */
+public class Local_Parameter_Parts extends Local_Common {
+
+  @State(Scope.Thread)
+  public static class QueryState {
+
+    @Param({"short", "long", "comments"})
+    String query;
+
+    String sql;
+
+    @Setup(Level.Trial)
+    public void setup() {
+      switch (query) {
+        case "short":
+          sql = "SELECT * FROM users WHERE id = ?";
+          break;
+        case "long":
+          StringBuilder sb = new StringBuilder("INSERT INTO t (c0");
+          for (int i = 1; i < 100; i++) sb.append(", c").append(i);
+          sb.append(") VALUES (?");
+          for (int i = 1; i < 100; i++) sb.append(", ?");
+          sql = sb.append(")").toString();
+          break;
+        default:
+          sql =
+              "SELECT /* comment ? */ a, 'string with ? and \\' quote', `col?`, b -- ?\n"
+                  + "FROM t # other comment ?\n"
+                  + "WHERE a = :name AND b = ? AND c = \"double ? quoted\"";
+      }
+    }
+  }
+
+  @Benchmark
+  public ClientPrepareResult parameterParts(QueryState state) {
+    return ClientPrepareResult.parameterParts(state.sql, false);
+  }
+
+  @Benchmark
+  public boolean hasParameter(QueryState state) {
+    return ClientPrepareResult.hasParameter(state.sql, false);
+  }
+}
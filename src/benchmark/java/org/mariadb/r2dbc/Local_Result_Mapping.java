@@ -0,0 +1,225 @@
+/*
+ * Copyright 2020 MariaDB Ab.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mariadb.r2dbc;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import java.util.ArrayList;
+import java.util.List;
+import org.mariadb.r2dbc.client.Context;
+import org.mariadb.r2dbc.codec.DataType;
+import org.mariadb.r2dbc.codec.Parameter;
+import org.mariadb.r2dbc.codec.list.IntCodec;
+import org.mariadb.r2dbc.codec.list.LongCodec;
+import org.mariadb.r2dbc.codec.list.StringCodec;
+import org.mariadb.r2dbc.message.server.ColumnCountPacket;
+import org.mariadb.r2dbc.message.server.OkPacket;
+import org.mariadb.r2dbc.message.server.RowPacket;
+import org.mariadb.r2dbc.message.server.ServerMessage;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import reactor.core.publisher.Flux;
+
+/**
+ * Mapping of result rows, from already decoded server messages: new row instance per row, reused
+ * row instance, primitive accessors and mapping to objects. {@code primitiveOnly} score and
+ * allocation are per row.
+ */
+public class Local_Result_Mapping extends Local_Common {
+
+  @State(Scope.Thread)
+  public static class ResultState {
+
+    @Param({"text", "binary"})
+    String protocol;
+
+    @Param({"1000"})
+    int rows;
+
+    List<ServerMessage> header = new ArrayList<>();
+    ByteBuf row;
+    OkPacket ok;
+
+    @Setup(Level.Trial)
+    public void setup() {
+      Context context = context();
+      header.add(new ColumnCountPacket(2));
+      header.add(column("id", DataType.INTEGER));
+      header.add(column("first_name", DataType.VARSTRING));
+      if ("text".equals(protocol)) {
+        row = textRow("123456", "some name");
+      } else {
+        row =
+            binaryRow(
+                context,
+                new Parameter<>(IntCodec.INSTANCE, 123456),
+                new Parameter<>(StringCodec.INSTANCE, "some name"));
+      }
+      ByteBuf buf = Unpooled.buffer().writeByte(0xfe).writeByte(0).writeByte(0);
+      buf.writeShortLE(2).writeShortLE(0);
+      ok = OkPacket.decode(null, buf, context);
+      buf.release();
+    }
+
+    MariadbResult result() {
+      List<ServerMessage> messages = new ArrayList<>(header);
+      for (int i = 0; i < rows; i++) {
+        // row packet retains buffer, released by result after mapping
+        messages.add(new RowPacket(row.duplicate()));
+      }
+      messages.add(ok);
+      return new MariadbResult(
+          "text".equals(protocol),
+          Flux.fromIterable(messages),
+          ExceptionFactory.INSTANCE,
+          null,
+          false);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+      row.release();
+    }
+  }
+
+  /**
+   * Result of numeric columns only. Rows are pooled holders of pooled buffer slices, like the ones
+   * emitted by packet decoder from its cumulation buffer.
+   */
+  @State(Scope.Thread)
+  public static class PrimitiveResultState {
+
+    static final int ROWS = 1000;
+
+    @Param({"text", "binary"})
+    String protocol;
+
+    List<ServerMessage> messages = new ArrayList<>();
+    ByteBuf rows;
+    int rowLength;
+
+    @Setup(Level.Trial)
+    public void setup() {
+      Context context = context();
+      messages.add(new ColumnCountPacket(2));
+      messages.add(column("id", DataType.INTEGER));
+      messages.add(column("amount", DataType.BIGINT));
+      ByteBuf row;
+      if ("text".equals(protocol)) {
+        row = textRow("123456", "9876543210");
+      } else {
+        row =
+            binaryRow(
+                context,
+                new Parameter<>(IntCodec.INSTANCE, 123456),
+                new Parameter<>(LongCodec.INSTANCE, 9876543210L));
+      }
+      rowLength = row.readableBytes();
+      rows = PooledByteBufAllocator.DEFAULT.directBuffer(rowLength * ROWS);
+      for (int i = 0; i < ROWS; i++) {
+        rows.writeBytes(row, row.readerIndex(), rowLength);
+        messages.add(null);
+      }
+      row.release();
+      ByteBuf buf = Unpooled.buffer().writeByte(0xfe).writeByte(0).writeByte(0);
+      buf.writeShortLE(2).writeShortLE(0);
+      messages.add(OkPacket.decode(null, buf, context));
+      buf.release();
+    }
+
+    MariadbResult result() {
+      for (int i = 0; i < ROWS; i++) {
+        // same as decoder: retained slice, retained again by row packet, released by result
+        ByteBuf slice = rows.retainedSlice(i * rowLength, rowLength);
+        messages.set(3 + i, RowPacket.newInstance(slice));
+        slice.release();
+      }
+      return new MariadbResult(
+          "text".equals(protocol),
+          Flux.fromIterable(messages),
+          ExceptionFactory.INSTANCE,
+          null,
+          false);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+      rows.release();
+    }
+  }
+
+  public static class Person {
+    private int id;
+    private String firstName;
+
+    public void setId(int id) {
+      this.id = id;
+    }
+
+    public void setFirstName(String firstName) {
+      this.firstName = firstName;
+    }
+  }
+
+  @Benchmark
+  public void newRow(ResultState state, Blackhole blackhole) {
+    state
+        .result()
+        .map((row, metadata) -> row.get(0, Integer.class) + row.get(1, String.class).length())
+        .subscribe(blackhole::consume);
+  }
+
+  @Benchmark
+  public void reusedRow(ResultState state, Blackhole blackhole) {
+    state
+        .result()
+        .reuseRow()
+        .map((row, metadata) -> row.get(0, Integer.class) + row.get(1, String.class).length())
+        .subscribe(blackhole::consume);
+  }
+
+  @Benchmark
+  public void primitiveAccessor(ResultState state, Blackhole blackhole) {
+    state
+        .result()
+        .reuseRow()
+        .map((row, metadata) -> ((MariadbRow) row).getInt(0) + row.get(1, String.class).length())
+        .subscribe(blackhole::consume);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(PrimitiveResultState.ROWS)
+  public void primitiveOnly(PrimitiveResultState state, Blackhole blackhole) {
+    state
+        .result()
+        .reuseRow()
+        .map(
+            (row, metadata) -> {
+              MariadbRow mariadbRow = (MariadbRow) row;
+              blackhole.consume(mariadbRow.getInt(0));
+              blackhole.consume(mariadbRow.getLong(1));
+              return Boolean.TRUE;
+            })
+        .subscribe(blackhole::consume);
+  }
+
+  @Benchmark
+  public void mapTo(ResultState state, Blackhole blackhole) {
+    state.result().mapTo(Person.class).subscribe(blackhole::consume);
+  }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2020 MariaDB Ab.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mariadb.r2dbc;
+
+import io.netty.buffer.ByteBuf;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import org.mariadb.r2dbc.client.Context;
+import org.mariadb.r2dbc.codec.BinaryRowDecoder;
+import org.mariadb.r2dbc.codec.DataType;
+import org.mariadb.r2dbc.codec.Parameter;
+import org.mariadb.r2dbc.codec.RowDecoder;
+import org.mariadb.r2dbc.codec.TextRowDecoder;
+import org.mariadb.r2dbc.codec.list.BigDecimalCodec;
+import org.mariadb.r2dbc.codec.list.DoubleCodec;
+import org.mariadb.r2dbc.codec.list.IntCodec;
+import org.mariadb.r2dbc.codec.list.LocalDateTimeCodec;
+import org.mariadb.r2dbc.codec.list.LongCodec;
+import org.mariadb.r2dbc.codec.list.StringCodec;
+import org.mariadb.r2dbc.message.server.ColumnDefinitionPacket;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/** Decoding of all columns of a row, for text and binary protocol, on narrow and wide rows. */
+public class Local_Row_Decoder extends Local_Common {
+
+  @State(Scope.Thread)
+  public static class RowState {
+
+    @Param({"text", "binary"})
+    String protocol;
+
+    // narrow: one integer column, wide: 24 columns of mixed types
+    @Param({"narrow", "wide"})
+    String width;
+
+    ColumnDefinitionPacket[] columns;
+    Class<?>[] types;
+    RowDecoder decoder;
+    ByteBuf row;
+
+    @Setup(Level.Trial)
+    public void setup() {
+      Context context = context();
+      int repeat = "narrow".equals(width) ? 0 : 4;
+      int count = repeat == 0 ? 1 : repeat * 6;
+      columns = new ColumnDefinitionPacket[count];
+      types = new Class<?>[count];
+      String[] textValues = new String[count];
+      Parameter<?>[] binaryValues = new Parameter<?>[count];
+
+      columns[0] = column("id", DataType.INTEGER);
+      types[0] = Integer.class;
+      textValues[0] = "123456";
+      binaryValues[0] = new Parameter<>(IntCodec.INSTANCE, 123456);
+
+      for (int i = 0; i < repeat; i++) {
+        int pos = i * 6;
+        if (pos > 0) {
+          columns[pos] = column("int" + i, DataType.INTEGER);
+          types[pos] = Integer.class;
+          textValues[pos] = String.valueOf(-i);
+          binaryValues[pos] = new Parameter<>(IntCodec.INSTANCE, -i);
+        }
+        columns[pos + 1] = column("big" + i, DataType.BIGINT);
+        types[pos + 1] = Long.class;
+        textValues[pos + 1] = "9876543210";
+        binaryValues[pos + 1] = new Parameter<>(LongCodec.INSTANCE, 9876543210L);
+
+        columns[pos + 2] = column("dbl" + i, DataType.DOUBLE);
+        types[pos + 2] = Double.class;
+        textValues[pos + 2] = "123.25";
+        binaryValues[pos + 2] = new Parameter<>(DoubleCodec.INSTANCE, 123.25D);
+
+        columns[pos + 3] = column("str" + i, DataType.VARSTRING);
+        types[pos + 3] = String.class;
+        textValues[pos + 3] = "some string value of 32 bytes ..";
+        binaryValues[pos + 3] = new Parameter<>(StringCodec.INSTANCE, textValues[pos + 3]);
+
+        columns[pos + 4] = column("dt" + i, DataType.DATETIME);
+        types[pos + 4] = LocalDateTime.class;
+        textValues[pos + 4] = "2021-01-15 12:35:46.123456";
+        binaryValues[pos + 4] =
+            new Parameter<>(
+                LocalDateTimeCodec.INSTANCE, LocalDateTime.of(2021, 1, 15, 12, 35, 46, 123456000));
+
+        columns[pos + 5] = column("dec" + i, DataType.DECIMAL);
+        types[pos + 5] = BigDecimal.class;
+        textValues[pos + 5] = "1234.56";
+        binaryValues[pos + 5] =
+            new Parameter<>(BigDecimalCodec.INSTANCE, new BigDecimal("1234.56"));
+      }
+
+      if ("text".equals(protocol)) {
+        decoder = new TextRowDecoder(count, columns);
+        row = textRow(textValues);
+      } else {
+        decoder = new BinaryRowDecoder(count, columns);
+        row = binaryRow(context, binaryValues);
+      }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+      row.release();
+    }
+  }
+
+  @Benchmark
+  public void getAll(RowState state, Blackhole blackhole) {
+    state.decoder.resetRow(state.row.readerIndex(0));
+    for (int i = 0; i < state.columns.length; i++) {
+      blackhole.consume(state.decoder.get(i, state.columns[i], state.types[i]));
+    }
+  }
+
+  @Benchmark
+  public void getAllReverse(RowState state, Blackhole blackhole) {
+    state.decoder.resetRow(state.row.readerIndex(0));
+    for (int i = state.columns.length - 1; i >= 0; i--) {
+      blackhole.consume(state.decoder.get(i, state.columns[i], state.types[i]));
+    }
+  }
+
+  @Benchmark
+  public long getLongPrimitive(RowState state) {
+    state.decoder.resetRow(state.row.readerIndex(0));
+    return state.decoder.getLong(0, state.columns[0]);
+  }
+
+  @Benchmark
+  public Object getLongBoxed(RowState state) {
+    state.decoder.resetRow(state.row.readerIndex(0));
+    return state.decoder.get(0, state.columns[0], Long.class);
+  }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2020 MariaDB Ab.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mariadb.r2dbc.fake;
+
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
+import java.net.InetSocketAddress;
+import java.nio.ByteOrder;
+
+/**
+ * In-process server speaking MariaDB protocol, answering queries with scripted results. Permits to
+ * benchmark driver latency and throughput without network nor database.
+ *
+ * <p>Supported commands: handshake with mysql_native_password authentication, COM_QUERY,
+ * COM_STMT_PREPARE, COM_STMT_EXECUTE, COM_STMT_CLOSE, COM_PING, COM_RESET_CONNECTION, COM_INIT_DB
+ * and COM_QUIT. Other commands are answered with an error. Neither SSL nor compression is proposed.
+ */
+public final class FakeServer implements AutoCloseable {
+
+  private final EventLoopGroup group;
+  private final Channel channel;
+
+  private FakeServer(EventLoopGroup group, Channel channel) {
+    this.group = group;
+    this.channel = channel;
+  }
+
+  /**
+   * Start server on a random local port.
+   *
+   * @param username expected user name
+   * @param password expected password, null or empty for none
+   * @param script query responses
+   * @param threads number of server threads
+   * @return started server
+   * @throws InterruptedException if interrupted while binding
+   */
+  public static FakeServer start(String username, String password, Script script, int threads)
+      throws InterruptedException {
+    EventLoopGroup group = new NioEventLoopGroup(threads);
+    try {
+      Channel channel =
+          new ServerBootstrap()
+              .group(group)
+              .channel(NioServerSocketChannel.class)
+              .childOption(ChannelOption.TCP_NODELAY, true)
+              .childHandler(
+                  new ChannelInitializer<SocketChannel>() {
+                    @Override
+                    protected void initChannel(SocketChannel ch) {
+                      ch.pipeline()
+                          .addLast(
+                              new LengthFieldBasedFrameDecoder(
+                                  ByteOrder.LITTLE_ENDIAN, 0xffffff + 4, 0, 3, 1, 0, true))
+                          .addLast(new FakeServerHandler(username, password, script));
+                    }
+                  })
+              .bind("localhost", 0)
+              .sync()
+              .channel();
+      return new FakeServer(group, channel);
+    } catch (InterruptedException | RuntimeException e) {
+      group.shutdownGracefully();
+      throw e;
+    }
+  }
+
+  public int getPort() {
+    return ((InetSocketAddress) channel.localAddress()).getPort();
+  }
+
+  @Override
+  public void close() {
+    channel.close().syncUninterruptibly();
+    group.shutdownGracefully().syncUninterruptibly();
+  }
+}
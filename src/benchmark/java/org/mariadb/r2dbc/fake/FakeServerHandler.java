@@ -0,0 +1,610 @@
+/*
+ * Copyright 2020 MariaDB Ab.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mariadb.r2dbc.fake;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.SimpleChannelInboundHandler;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.mariadb.r2dbc.codec.DataType;
+import org.mariadb.r2dbc.message.client.NativePasswordPacket;
+import org.mariadb.r2dbc.util.BufferUtils;
+import org.mariadb.r2dbc.util.ClientPrepareResult;
+import org.mariadb.r2dbc.util.constants.Capabilities;
+import org.mariadb.r2dbc.util.constants.ServerStatus;
+
+/** Connection of fake server: authenticate, then answer commands using script. */
+final class FakeServerHandler extends SimpleChannelInboundHandler<ByteBuf> {
+
+  private static final AtomicInteger THREAD_ID = new AtomicInteger();
+  private static final String SERVER_VERSION = "5.5.5-10.5.8-MariaDB-fake";
+  private static final String NATIVE_PASSWORD = "mysql_native_password";
+  private static final int UTF8MB4_CHARSET = 45;
+  private static final int BINARY_CHARSET = 63;
+
+  private static final long CAPABILITIES =
+      Capabilities.FOUND_ROWS
+          | Capabilities.LONG_FLAG
+          | Capabilities.CONNECT_WITH_DB
+          | Capabilities.IGNORE_SPACE
+          | Capabilities.CLIENT_PROTOCOL_41
+          | Capabilities.TRANSACTIONS
+          | Capabilities.SECURE_CONNECTION
+          | Capabilities.MULTI_RESULTS
+          | Capabilities.PS_MULTI_RESULTS
+          | Capabilities.PLUGIN_AUTH
+          | Capabilities.CONNECT_ATTRS
+          | Capabilities.PLUGIN_AUTH_LENENC_CLIENT_DATA
+          | Capabilities.CLIENT_DEPRECATE_EOF
+          | Capabilities.LOCAL_FILES
+          | Capabilities.MARIADB_CLIENT_CACHE_METADATA;
+
+  private final String username;
+  private final String password;
+  private final Script script;
+  private final byte[] seed = new byte[20];
+  private final Map<Integer, Statement> statements = new HashMap<>();
+
+  private boolean authenticated;
+  private long clientCapabilities;
+  private short serverStatus = ServerStatus.AUTOCOMMIT;
+  private int statementId;
+  private int lastStatementId = -1;
+  private byte sequence;
+  private CompositeByteBuf multipart;
+  // LOAD DATA LOCAL INFILE in progress: number of received lines, -1 otherwise
+  private long localInfileLines = -1;
+
+  FakeServerHandler(String username, String password, Script script) {
+    this.username = username;
+    this.password = password;
+    this.script = script;
+    SecureRandom random = new SecureRandom();
+    for (int i = 0; i < seed.length; i++) {
+      // printable, non null characters
+      seed[i] = (byte) (33 + random.nextInt(94));
+    }
+  }
+
+  @Override
+  public void channelActive(ChannelHandlerContext ctx) {
+    ByteBuf out = ctx.alloc().ioBuffer();
+    sequence = 0;
+    int start = startPacket(out);
+    out.writeByte(0x0a);
+    writeNullTerminated(out, SERVER_VERSION);
+    out.writeIntLE(THREAD_ID.incrementAndGet());
+    out.writeBytes(seed, 0, 8);
+    out.writeByte(0);
+    out.writeShortLE((int) CAPABILITIES);
+    out.writeByte(UTF8MB4_CHARSET);
+    out.writeShortLE(serverStatus);
+    out.writeShortLE((int) (CAPABILITIES >> 16));
+    out.writeByte(seed.length + 1);
+    out.writeZero(6);
+    out.writeIntLE((int) (CAPABILITIES >> 32)); // MariaDB extended capabilities
+    out.writeBytes(seed, 8, seed.length - 8);
+    out.writeByte(0);
+    writeNullTerminated(out, NATIVE_PASSWORD);
+    endPacket(out, start);
+    ctx.writeAndFlush(out);
+  }
+
+  @Override
+  protected void channelRead0(ChannelHandlerContext ctx, ByteBuf packet) {
+    int length = packet.readUnsignedMediumLE();
+    sequence = (byte) (packet.readByte() + 1);
+    if (localInfileLines >= 0) {
+      receiveLocalInfile(ctx, packet, length);
+      return;
+    }
+    if (length == 0xffffff || multipart != null) {
+      // command exceeding packet size is received in many packets
+      if (multipart == null) multipart = ctx.alloc().compositeBuffer();
+      multipart.addComponent(true, packet.retain());
+      if (length == 0xffffff) return;
+      try {
+        handleCommand(ctx, multipart);
+      } finally {
+        multipart.release();
+        multipart = null;
+      }
+      return;
+    }
+    handleCommand(ctx, packet);
+  }
+
+  private void handleCommand(ChannelHandlerContext ctx, ByteBuf packet) {
+    ByteBuf out = ctx.alloc().ioBuffer();
+    if (!authenticated) {
+      authenticate(packet, out);
+      ctx.writeAndFlush(out);
+      return;
+    }
+
+    int command = packet.readUnsignedByte();
+    switch (command) {
+      case 0x01: // COM_QUIT
+        out.release();
+        ctx.close();
+        return;
+
+      case 0x02: // COM_INIT_DB
+      case 0x0e: // COM_PING
+        writeOk(out, 0);
+        break;
+
+      case 0x1f: // COM_RESET_CONNECTION
+        statements.clear();
+        serverStatus = ServerStatus.AUTOCOMMIT;
+        writeOk(out, 0);
+        break;
+
+      case 0x03: // COM_QUERY
+        String sql = packet.toString(StandardCharsets.UTF_8);
+        if (requestLocalInfile(sql, out)) break;
+        updateStatus(sql);
+        writeResult(out, script.execute(sql, null), null, false);
+        break;
+
+      case 0x16: // COM_STMT_PREPARE
+        prepare(packet.toString(StandardCharsets.UTF_8), out);
+        break;
+
+      case 0x17: // COM_STMT_EXECUTE
+        execute(packet, out);
+        break;
+
+      case 0x18: // COM_STMT_SEND_LONG_DATA
+        appendLongData(packet);
+        out.release();
+        return;
+
+      case 0x19: // COM_STMT_CLOSE
+        statements.remove(packet.readIntLE());
+        out.release();
+        return;
+
+      default:
+        writeError(out, 1047, "08S01", "Unknown command " + command);
+    }
+    ctx.writeAndFlush(out);
+  }
+
+  private void authenticate(ByteBuf packet, ByteBuf out) {
+    long capabilities = packet.readUnsignedIntLE();
+    packet.skipBytes(4 + 1 + 19); // max packet size, charset, filler
+    clientCapabilities = capabilities | (packet.readUnsignedIntLE() << 32);
+    String user = readNullTerminated(packet);
+
+    byte[] authData;
+    if ((clientCapabilities & Capabilities.PLUGIN_AUTH_LENENC_CLIENT_DATA) != 0) {
+      authData = new byte[(int) BufferUtils.readLengthEncodedInt(packet)];
+    } else {
+      authData = new byte[packet.readUnsignedByte()];
+    }
+    packet.readBytes(authData);
+
+    byte[] expected = NativePasswordPacket.encrypt(password, seed);
+    if (!username.equals(user) || !Arrays.equals(expected, authData)) {
+      writeError(
+          out,
+          1045,
+          "28000",
+          String.format("Access denied for user '%s'@'localhost' (using password: YES)", user));
+      return;
+    }
+    authenticated = true;
+    writeOk(out, 0);
+  }
+
+  /**
+   * Answer {@code LOAD DATA LOCAL INFILE 'file' ...} with a LOCAL INFILE request. Received data
+   * isn't stored, answer is an OK packet with the number of received lines as affected rows.
+   */
+  private boolean requestLocalInfile(String sql, ByteBuf out) {
+    String command = sql.trim();
+    if (!command.toLowerCase(Locale.ROOT).startsWith("load data local infile '")) return false;
+    int start = command.indexOf('\'') + 1;
+    String fileName = command.substring(start, command.indexOf('\'', start));
+    if ((clientCapabilities & Capabilities.LOCAL_FILES) == 0) {
+      writeError(out, 1148, "42000", "The used command is not allowed with this MariaDB version");
+      return true;
+    }
+    int packetStart = startPacket(out);
+    out.writeByte(0xfb);
+    out.writeCharSequence(fileName, StandardCharsets.UTF_8);
+    endPacket(out, packetStart);
+    localInfileLines = 0;
+    return true;
+  }
+
+  private void receiveLocalInfile(ChannelHandlerContext ctx, ByteBuf packet, int length) {
+    if (length > 0) {
+      localInfileLines += countLines(packet);
+      return;
+    }
+    ByteBuf out = ctx.alloc().ioBuffer();
+    writeOk(out, localInfileLines);
+    localInfileLines = -1;
+    ctx.writeAndFlush(out);
+  }
+
+  private static int countLines(ByteBuf packet) {
+    int lines = 0;
+    for (int i = packet.readerIndex(); i < packet.writerIndex(); i++) {
+      if (packet.getByte(i) == '\n') lines++;
+    }
+    return lines;
+  }
+
+  private void updateStatus(String sql) {
+    String command = sql.trim().toLowerCase(Locale.ROOT);
+    if (command.startsWith("start transaction") || command.startsWith("begin")) {
+      serverStatus |= ServerStatus.IN_TRANSACTION;
+    } else if (command.startsWith("commit") || command.startsWith("rollback")) {
+      if (!command.contains(" to ")) serverStatus &= ~ServerStatus.IN_TRANSACTION;
+    } else if (command.startsWith("set autocommit=")) {
+      if (command.endsWith("1")) {
+        serverStatus |= ServerStatus.AUTOCOMMIT;
+      } else {
+        serverStatus &= ~ServerStatus.AUTOCOMMIT;
+      }
+    }
+  }
+
+  private void prepare(String sql, ByteBuf out) {
+    int paramCount = ClientPrepareResult.parameterParts(sql, false).getParamCount();
+    Script.Result result = script.execute(sql, Collections.nCopies(paramCount, null));
+    if (result.isError()) {
+      writeError(out, result.getErrorCode(), result.getSqlState(), result.getMessage());
+      return;
+    }
+    Script.Column[] columns = result.isResultSet() ? result.getColumns() : new Script.Column[0];
+    Statement statement = new Statement(sql, paramCount, columns);
+    int id = ++statementId;
+    statements.put(id, statement);
+    lastStatementId = id;
+
+    int start = startPacket(out);
+    out.writeByte(0x00);
+    out.writeIntLE(id);
+    out.writeShortLE(columns.length);
+    out.writeShortLE(paramCount);
+    out.writeByte(0);
+    out.writeShortLE(0); // warnings
+    endPacket(out, start);
+
+    if (paramCount > 0) {
+      for (int i = 0; i < paramCount; i++) {
+        writeColumn(out, new Script.Column("?", DataType.VARSTRING));
+      }
+      writeIntermediateEof(out);
+    }
+    if (columns.length > 0) {
+      for (Script.Column column : columns) {
+        writeColumn(out, column);
+      }
+      writeIntermediateEof(out);
+    }
+  }
+
+  private void execute(ByteBuf packet, ByteBuf out) {
+    int id = packet.readIntLE();
+    Statement statement = statements.get(id == -1 ? lastStatementId : id);
+    if (statement == null) {
+      writeError(out, 1243, "HY000", "Unknown prepared statement handler (" + id + ")");
+      return;
+    }
+    packet.skipBytes(1 + 4); // flags, iteration count
+
+    List<Object> parameters = new ArrayList<>(statement.paramCount);
+    if (statement.paramCount > 0) {
+      byte[] nullBitmap = new byte[(statement.paramCount + 7) / 8];
+      packet.readBytes(nullBitmap);
+      if (packet.readByte() == 1) {
+        for (int i = 0; i < statement.paramCount; i++) {
+          statement.types[i] = packet.readUnsignedByte();
+          packet.skipBytes(1); // unsigned flag
+        }
+      }
+      for (int i = 0; i < statement.paramCount; i++) {
+        boolean isNull = (nullBitmap[i / 8] & (1 << (i % 8))) != 0;
+        if (statement.longData[i] != null) {
+          // value has been sent with COM_STMT_SEND_LONG_DATA
+          parameters.add(new String(statement.longData[i].toByteArray(), StandardCharsets.UTF_8));
+          statement.longData[i] = null;
+        } else {
+          parameters.add(isNull ? null : readBinary(packet, statement.types[i]));
+        }
+      }
+    }
+
+    Script.Result result = script.execute(statement.sql, parameters);
+    // metadata are skipped when unchanged since prepare, if client caches them
+    Boolean metaFollows = null;
+    if (result.isResultSet()
+        && (clientCapabilities & Capabilities.MARIADB_CLIENT_CACHE_METADATA) != 0) {
+      metaFollows = !Arrays.equals(statement.columns, result.getColumns());
+      statement.columns = result.getColumns();
+    }
+    writeResult(out, result, metaFollows, true);
+  }
+
+  private void appendLongData(ByteBuf packet) {
+    Statement statement = statements.get(packet.readIntLE());
+    int index = packet.readUnsignedShortLE();
+    if (statement == null || index >= statement.paramCount) return;
+    if (statement.longData[index] == null) {
+      statement.longData[index] = new ByteArrayOutputStream();
+    }
+    byte[] chunk = new byte[packet.readableBytes()];
+    packet.readBytes(chunk);
+    statement.longData[index].write(chunk, 0, chunk.length);
+  }
+
+  private static Object readBinary(ByteBuf packet, int type) {
+    switch (type) {
+      case 1: // TINYINT
+        return (int) packet.readByte();
+      case 2: // SMALLINT
+      case 13: // YEAR
+        return (int) packet.readShortLE();
+      case 3: // INTEGER
+      case 9: // MEDIUMINT
+        return packet.readIntLE();
+      case 8: // BIGINT
+        return packet.readLongLE();
+      case 4: // FLOAT
+        return (double) packet.readFloatLE();
+      case 5: // DOUBLE
+        return packet.readDoubleLE();
+      case 6: // NULL
+        return null;
+      case 7: // TIMESTAMP
+      case 10: // DATE
+      case 12: // DATETIME
+        int length = packet.readUnsignedByte();
+        if (length == 0) return "0000-00-00 00:00:00";
+        int year = packet.readUnsignedShortLE();
+        int month = packet.readByte();
+        int day = packet.readByte();
+        int hour = length > 4 ? packet.readByte() : 0;
+        int minute = length > 4 ? packet.readByte() : 0;
+        int second = length > 4 ? packet.readByte() : 0;
+        if (length > 7) packet.skipBytes(4); // microseconds
+        return String.format(
+            "%04d-%02d-%02d %02d:%02d:%02d", year, month, day, hour, minute, second);
+      case 11: // TIME
+        packet.skipBytes(packet.readUnsignedByte());
+        return "00:00:00";
+      default:
+        int len = (int) BufferUtils.readLengthEncodedInt(packet);
+        String value = packet.toString(packet.readerIndex(), len, StandardCharsets.UTF_8);
+        packet.skipBytes(len);
+        return value;
+    }
+  }
+
+  /**
+   * Write command response.
+   *
+   * @param out output buffer
+   * @param result scripted result
+   * @param metaFollows metadata follows indicator of execute response, null when not sent
+   * @param binary binary protocol rows
+   */
+  private void writeResult(ByteBuf out, Script.Result result, Boolean metaFollows, boolean binary) {
+    if (result.isError()) {
+      writeError(out, result.getErrorCode(), result.getSqlState(), result.getMessage());
+      return;
+    }
+    if (!result.isResultSet()) {
+      writeOk(out, result.getAffectedRows());
+      return;
+    }
+
+    Script.Column[] columns = result.getColumns();
+    int start = startPacket(out);
+    BufferUtils.writeLengthEncode(columns.length, out);
+    if (metaFollows != null) out.writeByte(metaFollows ? 1 : 0);
+    endPacket(out, start);
+    if (metaFollows == null || metaFollows) {
+      for (Script.Column column : columns) {
+        writeColumn(out, column);
+      }
+      writeIntermediateEof(out);
+    }
+
+    for (Object[] row : result.getRows()) {
+      start = startPacket(out);
+      if (binary) {
+        writeBinaryRow(out, columns, row);
+      } else {
+        for (Object value : row) {
+          if (value == null) {
+            out.writeByte(0xfb);
+          } else {
+            writeLengthEncoded(out, value.toString());
+          }
+        }
+      }
+      endPacket(out, start);
+    }
+
+    // result-set end
+    start = startPacket(out);
+    out.writeByte(0xfe);
+    if ((clientCapabilities & Capabilities.CLIENT_DEPRECATE_EOF) != 0) {
+      out.writeByte(0); // affected rows
+      out.writeByte(0); // insert id
+      out.writeShortLE(serverStatus);
+      out.writeShortLE(0); // warnings
+    } else {
+      out.writeShortLE(0); // warnings
+      out.writeShortLE(serverStatus);
+    }
+    endPacket(out, start);
+  }
+
+  private static void writeBinaryRow(ByteBuf out, Script.Column[] columns, Object[] row) {
+    out.writeByte(0x00);
+    byte[] nullBitmap = new byte[(columns.length + 9) / 8];
+    for (int i = 0; i < columns.length; i++) {
+      if (row[i] == null) nullBitmap[(i + 2) / 8] |= (byte) (1 << ((i + 2) % 8));
+    }
+    out.writeBytes(nullBitmap);
+    for (int i = 0; i < columns.length; i++) {
+      Object value = row[i];
+      if (value == null) continue;
+      switch (columns[i].getType()) {
+        case INTEGER:
+          out.writeIntLE(((Number) value).intValue());
+          break;
+        case BIGINT:
+          out.writeLongLE(((Number) value).longValue());
+          break;
+        case DOUBLE:
+          out.writeDoubleLE(((Number) value).doubleValue());
+          break;
+        default:
+          writeLengthEncoded(out, value.toString());
+      }
+    }
+  }
+
+  private void writeColumn(ByteBuf out, Script.Column column) {
+    boolean text = column.getType() == DataType.VARSTRING;
+    int start = startPacket(out);
+    writeLengthEncoded(out, "def"); // catalog
+    writeLengthEncoded(out, ""); // schema
+    writeLengthEncoded(out, ""); // table
+    writeLengthEncoded(out, ""); // org_table
+    writeLengthEncoded(out, column.getName());
+    writeLengthEncoded(out, column.getName()); // org_name
+    out.writeByte(0x0c);
+    out.writeShortLE(text ? UTF8MB4_CHARSET : BINARY_CHARSET);
+    out.writeIntLE(text ? 1020 : 20); // length
+    out.writeByte(column.getType().get());
+    out.writeShortLE(text ? 0 : 128); // flags: binary for numbers
+    out.writeByte(column.getType() == DataType.DOUBLE || text ? 31 : 0); // decimals
+    out.writeShortLE(0); // filler
+    endPacket(out, start);
+  }
+
+  private void writeIntermediateEof(ByteBuf out) {
+    if ((clientCapabilities & Capabilities.CLIENT_DEPRECATE_EOF) == 0) {
+      int start = startPacket(out);
+      out.writeByte(0xfe);
+      out.writeShortLE(0); // warnings
+      out.writeShortLE(serverStatus);
+      endPacket(out, start);
+    }
+  }
+
+  private void writeOk(ByteBuf out, long affectedRows) {
+    int start = startPacket(out);
+    out.writeByte(0x00);
+    BufferUtils.writeLengthEncode((int) affectedRows, out);
+    out.writeByte(0); // insert id
+    out.writeShortLE(serverStatus);
+    out.writeShortLE(0); // warnings
+    endPacket(out, start);
+  }
+
+  private void writeError(ByteBuf out, int code, String sqlState, String message) {
+    int start = startPacket(out);
+    out.writeByte(0xff);
+    out.writeShortLE(code);
+    out.writeByte('#');
+    out.writeCharSequence(sqlState, StandardCharsets.US_ASCII);
+    out.writeCharSequence(message, StandardCharsets.UTF_8);
+    endPacket(out, start);
+  }
+
+  private int startPacket(ByteBuf out) {
+    int start = out.writerIndex();
+    out.writeMediumLE(0);
+    out.writeByte(sequence++);
+    return start;
+  }
+
+  private void endPacket(ByteBuf out, int start) {
+    int length = out.writerIndex() - start - 4;
+    if (length < 0xffffff) {
+      out.setMediumLE(start, length);
+      return;
+    }
+    // split payload in 16M packets, like server does
+    ByteBuf payload = out.copy(start + 4, length);
+    out.writerIndex(start);
+    sequence--;
+    while (true) {
+      int len = Math.min(0xffffff, payload.readableBytes());
+      out.writeMediumLE(len);
+      out.writeByte(sequence++);
+      out.writeBytes(payload, len);
+      if (len < 0xffffff) break;
+    }
+    payload.release();
+  }
+
+  private static void writeLengthEncoded(ByteBuf out, String value) {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    BufferUtils.writeLengthEncode(bytes.length, out);
+    out.writeBytes(bytes);
+  }
+
+  private static void writeNullTerminated(ByteBuf out, String value) {
+    out.writeCharSequence(value, StandardCharsets.US_ASCII);
+    out.writeByte(0);
+  }
+
+  private static String readNullTerminated(ByteBuf buf) {
+    int length = buf.bytesBefore((byte) 0);
+    String value = buf.toString(buf.readerIndex(), length, StandardCharsets.UTF_8);
+    buf.skipBytes(length + 1);
+    return value;
+  }
+
+  private static final class Statement {
+    private final String sql;
+    private final int paramCount;
+    private final int[] types;
+    private final ByteArrayOutputStream[] longData;
+    private Script.Column[] columns;
+
+    Statement(String sql, int paramCount, Script.Column[] columns) {
+      this.sql = sql;
+      this.paramCount = paramCount;
+      this.types = new int[paramCount];
+      this.longData = new ByteArrayOutputStream[paramCount];
+      this.columns = columns;
+    }
+  }
+}
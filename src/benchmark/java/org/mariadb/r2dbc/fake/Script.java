@@ -0,0 +1,310 @@
+/*
+ * Copyright 2020 MariaDB Ab.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mariadb.r2dbc.fake;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.mariadb.r2dbc.codec.DataType;
+
+/** Responses of fake server to queries. */
+@FunctionalInterface
+public interface Script {
+
+  /**
+   * Response to a query.
+   *
+   * @param sql query
+   * @param parameters parameters of prepared statement, null values for text protocol or prepare
+   * @return result-set, OK or error
+   */
+  Result execute(String sql, List<Object> parameters);
+
+  /**
+   * Default script: transaction and session commands are acknowledged, "SELECT literal, ..."
+   * returns a row of those literals or parameters, "FROM seq_1_to_N" returns N rows of one string
+   * column, other queries return a result-set of configured size.
+   *
+   * @param rows row number of default result-set
+   * @param columns column number of default result-set, alternatively integer and string columns
+   * @return script
+   */
+  static Script defaults(int rows, int columns) {
+    return new DefaultScript(rows, columns);
+  }
+
+  /** Result-set column. */
+  final class Column {
+    private final String name;
+    private final DataType type;
+
+    /**
+     * Column definition.
+     *
+     * @param name column name
+     * @param type column type: INTEGER, BIGINT, DOUBLE or VARSTRING
+     */
+    public Column(String name, DataType type) {
+      this.name = name;
+      this.type = type;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public DataType getType() {
+      return type;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (!(o instanceof Column)) return false;
+      Column column = (Column) o;
+      return name.equals(column.name) && type == column.type;
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * name.hashCode() + type.hashCode();
+    }
+  }
+
+  /** Scripted response. */
+  final class Result {
+    private final Column[] columns;
+    private final List<Object[]> rows;
+    private final long affectedRows;
+    private final int errorCode;
+    private final String sqlState;
+    private final String message;
+
+    private Result(
+        Column[] columns,
+        List<Object[]> rows,
+        long affectedRows,
+        int errorCode,
+        String sqlState,
+        String message) {
+      this.columns = columns;
+      this.rows = rows;
+      this.affectedRows = affectedRows;
+      this.errorCode = errorCode;
+      this.sqlState = sqlState;
+      this.message = message;
+    }
+
+    public static Result ok(long affectedRows) {
+      return new Result(null, null, affectedRows, 0, null, null);
+    }
+
+    public static Result error(int errorCode, String sqlState, String message) {
+      return new Result(null, null, 0, errorCode, sqlState, message);
+    }
+
+    /**
+     * Result-set response.
+     *
+     * @param columns columns
+     * @param rows rows, values being Integer, Long, Double, String or null
+     * @return result-set
+     */
+    public static Result resultSet(Column[] columns, List<Object[]> rows) {
+      return new Result(columns, rows, 0, 0, null, null);
+    }
+
+    public boolean isResultSet() {
+      return columns != null;
+    }
+
+    public boolean isError() {
+      return errorCode != 0;
+    }
+
+    public Column[] getColumns() {
+      return columns;
+    }
+
+    public List<Object[]> getRows() {
+      return rows;
+    }
+
+    public long getAffectedRows() {
+      return affectedRows;
+    }
+
+    public int getErrorCode() {
+      return errorCode;
+    }
+
+    public String getSqlState() {
+      return sqlState;
+    }
+
+    public String getMessage() {
+      return message;
+    }
+  }
+
+  final class DefaultScript implements Script {
+
+    private static final Pattern SEQUENCE = Pattern.compile("seq_1_to_(\\d+)");
+    private static final int MAX_CACHED = 10_000;
+
+    private final Result defaultResult;
+    // results of queries without parameters, to avoid server side generation cost
+    private final Map<String, Result> cache = new ConcurrentHashMap<>();
+
+    private DefaultScript(int rows, int columns) {
+      Column[] cols = new Column[columns];
+      for (int i = 0; i < columns; i++) {
+        cols[i] = new Column("col" + i, i % 2 == 0 ? DataType.INTEGER : DataType.VARSTRING);
+      }
+      List<Object[]> values = new ArrayList<>(rows);
+      for (int r = 0; r < rows; r++) {
+        Object[] row = new Object[columns];
+        for (int i = 0; i < columns; i++) {
+          row[i] = i % 2 == 0 ? (Object) r : "value " + r;
+        }
+        values.add(row);
+      }
+      this.defaultResult = Result.resultSet(cols, Collections.unmodifiableList(values));
+    }
+
+    @Override
+    public Result execute(String sql, List<Object> parameters) {
+      if (parameters == null || parameters.isEmpty()) {
+        Result result = cache.get(sql);
+        if (result == null) {
+          result = generate(sql, Collections.emptyList());
+          if (cache.size() < MAX_CACHED) cache.put(sql, result);
+        }
+        return result;
+      }
+      return generate(sql, parameters);
+    }
+
+    private Result generate(String sql, List<Object> parameters) {
+      String query = sql.trim();
+      String lower = query.toLowerCase(Locale.ROOT);
+      String command = lower.split("[\\s(]", 2)[0];
+      switch (command) {
+        case "insert":
+        case "update":
+        case "delete":
+        case "replace":
+          return Result.ok(1);
+        case "select":
+          break;
+        default:
+          // session, transaction and DDL commands
+          return Result.ok(0);
+      }
+
+      Matcher matcher = SEQUENCE.matcher(lower);
+      if (matcher.find()) {
+        int rows = Integer.parseInt(matcher.group(1));
+        List<Object[]> values = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+          values.add(new Object[] {String.format("%08d", i)});
+        }
+        return Result.resultSet(new Column[] {new Column("rnd_str_8", DataType.VARSTRING)}, values);
+      }
+
+      if (lower.contains(" from ")) {
+        return defaultResult;
+      }
+
+      // select of literals, variables or parameters
+      List<String> items = selectItems(query.substring("select".length()));
+      Column[] columns = new Column[items.size()];
+      Object[] row = new Object[items.size()];
+      int paramIndex = 0;
+      for (int i = 0; i < items.size(); i++) {
+        String item = items.get(i);
+        Object value;
+        if ("?".equals(item)) {
+          value = paramIndex < parameters.size() ? parameters.get(paramIndex) : null;
+          paramIndex++;
+        } else if (item.startsWith("@@")) {
+          value = variable(item.substring(2).toLowerCase(Locale.ROOT));
+        } else if (item.startsWith("'") && item.endsWith("'") && item.length() > 1) {
+          value = item.substring(1, item.length() - 1);
+        } else {
+          try {
+            value = Long.parseLong(item);
+          } catch (NumberFormatException e) {
+            value = item;
+          }
+        }
+        if (value instanceof Long && (Long) value == ((Long) value).intValue()) {
+          value = ((Long) value).intValue();
+        }
+        row[i] = value;
+        columns[i] = new Column(item, type(value));
+      }
+      return Result.resultSet(columns, Collections.singletonList(row));
+    }
+
+    private static DataType type(Object value) {
+      if (value instanceof Integer) return DataType.INTEGER;
+      if (value instanceof Long) return DataType.BIGINT;
+      if (value instanceof Double) return DataType.DOUBLE;
+      return DataType.VARSTRING;
+    }
+
+    private static Object variable(String name) {
+      switch (name) {
+        case "tx_isolation":
+        case "transaction_isolation":
+          return "REPEATABLE-READ";
+        case "max_allowed_packet":
+          return 16777216;
+        case "system_time_zone":
+          return "UTC";
+        case "time_zone":
+          return "SYSTEM";
+        default:
+          return 1;
+      }
+    }
+
+    private static List<String> selectItems(String list) {
+      List<String> items = new ArrayList<>();
+      StringBuilder current = new StringBuilder();
+      boolean quoted = false;
+      for (char c : list.toCharArray()) {
+        if (c == '\'') quoted = !quoted;
+        if (c == ',' && !quoted) {
+          items.add(current.toString().trim());
+          current.setLength(0);
+        } else {
+          current.append(c);
+        }
+      }
+      items.add(current.toString().trim());
+      return items.isEmpty() ? Arrays.asList("1") : items;
+    }
+  }
+}
@@ -23,6 +23,7 @@ import org.mariadb.r2dbc.client.Client;
 import org.mariadb.r2dbc.message.client.QueryPacket;
 import org.mariadb.r2dbc.message.server.ServerMessage;
 import org.mariadb.r2dbc.util.Assert;
+import org.mariadb.r2dbc.util.ClientPrepareResultCache;
 import reactor.core.publisher.Flux;
 
 /** Basic implementation for batch. //TODO implement bulk */
@@ -30,18 +31,23 @@ final class MariadbBatch implements org.mariadb.r2dbc.api.MariadbBatch {
 
   private final Client client;
   private final MariadbConnectionConfiguration configuration;
+  private final ClientPrepareResultCache parseCache;
   private final List<String> statements = new ArrayList<>();
 
-  MariadbBatch(Client client, MariadbConnectionConfiguration configuration) {
+  MariadbBatch(
+      Client client,
+      MariadbConnectionConfiguration configuration,
+      ClientPrepareResultCache parseCache) {
     this.client = client;
     this.configuration = configuration;
+    this.parseCache = parseCache;
   }
 
   @Override
   public MariadbBatch add(String sql) {
     Assert.requireNonNull(sql, "sql must not be null");
 
-    if (!MariadbSimpleQueryStatement.supports(sql, this.client)) {
+    if (!MariadbSimpleQueryStatement.supports(sql, this.client, this.parseCache)) {
       throw new IllegalArgumentException(
           String.format("Statement with parameters cannot be batched (sql:'%s')", sql));
     }
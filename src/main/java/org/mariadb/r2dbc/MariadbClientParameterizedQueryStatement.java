@@ -19,15 +19,18 @@ package org.mariadb.r2dbc;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.mariadb.r2dbc.api.MariadbStatement;
 import org.mariadb.r2dbc.client.Client;
 import org.mariadb.r2dbc.codec.Codec;
 import org.mariadb.r2dbc.codec.Codecs;
 import org.mariadb.r2dbc.codec.Parameter;
+import org.mariadb.r2dbc.message.client.BatchQueryWithParametersPacket;
 import org.mariadb.r2dbc.message.client.QueryWithParametersPacket;
 import org.mariadb.r2dbc.message.server.ServerMessage;
 import org.mariadb.r2dbc.util.Assert;
 import org.mariadb.r2dbc.util.ClientPrepareResult;
+import org.mariadb.r2dbc.util.ClientPrepareResultCache;
 import reactor.core.publisher.Flux;
 import reactor.util.annotation.Nullable;
 
@@ -42,12 +45,14 @@ final class MariadbClientParameterizedQueryStatement implements MariadbStatement
   private String[] generatedColumns;
 
   MariadbClientParameterizedQueryStatement(
-      Client client, String sql, MariadbConnectionConfiguration configuration) {
+      Client client,
+      String sql,
+      MariadbConnectionConfiguration configuration,
+      ClientPrepareResultCache parseCache) {
     this.client = client;
     this.configuration = configuration;
     this.sql = Assert.requireNonNull(sql, "sql must not be null");
-    this.prepareResult =
-        ClientPrepareResult.parameterParts(this.sql, this.client.noBackslashEscapes());
+    this.prepareResult = parseCache.get(this.sql, this.client.noBackslashEscapes());
     this.parameters = new Parameter<?>[prepareResult.getParamCount()];
   }
 
@@ -83,11 +88,10 @@ final class MariadbClientParameterizedQueryStatement implements MariadbStatement
               prepareResult.getParamCount() - 1, index));
     }
 
-    for (Codec<?> codec : Codecs.LIST) {
-      if (codec.canEncode(value.getClass())) {
-        parameters[index] = (Parameter<?>) new Parameter(codec, value);
-        return this;
-      }
+    Codec<?> codec = Codecs.encoder(value.getClass());
+    if (codec != null) {
+      parameters[index] = (Parameter<?>) new Parameter(codec, value);
+      return this;
     }
     throw new IllegalArgumentException(
         String.format(
@@ -136,25 +140,33 @@ final class MariadbClientParameterizedQueryStatement implements MariadbStatement
       }
       return execute(this.sql, this.prepareResult, this.generatedColumns);
     } else {
-      Flux<ServerMessage> fluxMsg =
-          this.client.sendCommand(
-              new QueryWithParametersPacket(
-                  prepareResult,
-                  this.batchingParameters.get(0),
-                  generatedColumns != null && client.getVersion().supportReturning()
-                      ? generatedColumns
-                      : null));
-      int index = 1;
-      while (index < this.batchingParameters.size()) {
+      Flux<ServerMessage> fluxMsg;
+      if (canRewrite()) {
+        fluxMsg =
+            sendRewrite(
+                new ArrayList<>(this.batchingParameters),
+                prepareResult.isQueryMultiValuesRewritable());
+      } else {
         fluxMsg =
-            fluxMsg.concatWith(
-                this.client.sendCommand(
-                    new QueryWithParametersPacket(
-                        prepareResult,
-                        this.batchingParameters.get(index++),
-                        generatedColumns != null && client.getVersion().supportReturning()
-                            ? generatedColumns
-                            : null)));
+            this.client.sendCommand(
+                new QueryWithParametersPacket(
+                    prepareResult,
+                    this.batchingParameters.get(0),
+                    generatedColumns != null && client.getVersion().supportReturning()
+                        ? generatedColumns
+                        : null));
+        int index = 1;
+        while (index < this.batchingParameters.size()) {
+          fluxMsg =
+              fluxMsg.concatWith(
+                  this.client.sendCommand(
+                      new QueryWithParametersPacket(
+                          prepareResult,
+                          this.batchingParameters.get(index++),
+                          generatedColumns != null && client.getVersion().supportReturning()
+                              ? generatedColumns
+                              : null)));
+        }
       }
 
       this.batchingParameters.clear();
@@ -173,8 +185,68 @@ final class MariadbClientParameterizedQueryStatement implements MariadbStatement
     }
   }
 
+  /**
+   * Batch can be rewritten if option rewriteBatchedStatements is set, as multi-values INSERT, or as
+   * multi-statement if allowMultiQueries is set. Streamed parameters can only be read once, and
+   * generated values must be retrieved for each parameter set, so both disable rewriting.
+   *
+   * @return true if batch can be rewritten
+   */
+  private boolean canRewrite() {
+    if (!configuration.rewriteBatchedStatements()
+        || generatedColumns != null
+        || !(prepareResult.isQueryMultiValuesRewritable()
+            || (configuration.allowMultiQueries() && prepareResult.isQueryMultipleRewritable()))) {
+      return false;
+    }
+    for (Parameter<?>[] batchParameters : this.batchingParameters) {
+      for (Parameter<?> parameter : batchParameters) {
+        if (parameter.canEncodeLongData()) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Send all parameter sets using rewritten queries, a new query being sent when previous one has
+   * reached max_allowed_packet.
+   *
+   * @param batchParameters parameter sets
+   * @param multiValues rewrite as multi-values INSERT if true, as multi-statement if false
+   * @return rewritten queries results
+   */
+  private Flux<ServerMessage> sendRewrite(
+      List<Parameter<?>[]> batchParameters, boolean multiValues) {
+    AtomicInteger nextIndex = new AtomicInteger();
+    Flux<ServerMessage> rewrite =
+        Flux.defer(
+                () -> {
+                  BatchQueryWithParametersPacket packet =
+                      new BatchQueryWithParametersPacket(
+                          prepareResult, batchParameters, nextIndex.get(), multiValues);
+                  return this.client
+                      .sendCommand(packet)
+                      .doOnComplete(() -> nextIndex.set(packet.getNextIndex()));
+                })
+            .repeat(() -> nextIndex.get() < batchParameters.size());
+    return MariadbSimpleQueryStatement.loadMaxAllowedPacket(client).thenMany(rewrite);
+  }
+
+  /**
+   * Text protocol doesn't permit server cursors: this is only a hint. Rows are read from socket
+   * following subscriber demand.
+   *
+   * @param rows number of rows to fetch
+   * @return this {@link MariadbClientParameterizedQueryStatement}
+   */
   @Override
   public MariadbClientParameterizedQueryStatement fetchSize(int rows) {
+    if (rows < 0) {
+      throw new IllegalArgumentException(
+          String.format("fetch size must be positive, but value is %d", rows));
+    }
     return this;
   }
 
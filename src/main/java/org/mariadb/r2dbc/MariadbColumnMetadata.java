@@ -22,15 +22,18 @@ import org.mariadb.r2dbc.message.server.ColumnDefinitionPacket;
 
 final class MariadbColumnMetadata implements ColumnMetadata {
 
-  private ColumnDefinitionPacket columnDefinitionPacket;
+  private final ColumnDefinitionPacket columnDefinitionPacket;
+  private final String name;
 
   MariadbColumnMetadata(ColumnDefinitionPacket columnDefinitionPacket) {
     this.columnDefinitionPacket = columnDefinitionPacket;
+    // decoded once, name being read for each row access by name
+    this.name = columnDefinitionPacket.getColumnAlias();
   }
 
   @Override
   public String getName() {
-    return columnDefinitionPacket.getColumnAlias();
+    return name;
   }
 
   @Override
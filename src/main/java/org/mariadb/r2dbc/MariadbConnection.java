@@ -16,15 +16,21 @@
 
 package org.mariadb.r2dbc;
 
+import io.netty.buffer.ByteBuf;
 import io.r2dbc.spi.IsolationLevel;
+import io.r2dbc.spi.R2dbcNonTransientResourceException;
 import io.r2dbc.spi.ValidationDepth;
 import org.mariadb.r2dbc.api.MariadbStatement;
 import org.mariadb.r2dbc.client.Client;
-import org.mariadb.r2dbc.client.ClientBase;
 import org.mariadb.r2dbc.message.client.PingPacket;
 import org.mariadb.r2dbc.message.client.QueryPacket;
+import org.mariadb.r2dbc.message.client.ResetConnectionPacket;
+import org.mariadb.r2dbc.message.server.OkPacket;
 import org.mariadb.r2dbc.util.Assert;
+import org.mariadb.r2dbc.util.ClientPrepareResultCache;
+import org.mariadb.r2dbc.util.LocalInfile;
 import org.mariadb.r2dbc.util.PrepareCache;
+import org.reactivestreams.Publisher;
 import reactor.core.publisher.Mono;
 import reactor.util.Logger;
 import reactor.util.Loggers;
@@ -34,13 +40,22 @@ final class MariadbConnection implements org.mariadb.r2dbc.api.MariadbConnection
   private final Logger logger = Loggers.getLogger(this.getClass());
   private final Client client;
   private final MariadbConnectionConfiguration configuration;
+  private final ClientPrepareResultCache parseCache;
   private volatile IsolationLevel isolationLevel;
+  private final IsolationLevel initialIsolationLevel;
+  private final boolean initialAutoCommit;
 
   MariadbConnection(
-      Client client, IsolationLevel isolationLevel, MariadbConnectionConfiguration configuration) {
+      Client client,
+      IsolationLevel isolationLevel,
+      MariadbConnectionConfiguration configuration,
+      ClientPrepareResultCache parseCache) {
     this.client = Assert.requireNonNull(client, "client must not be null");
     this.isolationLevel = Assert.requireNonNull(isolationLevel, "isolationLevel must not be null");
     this.configuration = Assert.requireNonNull(configuration, "configuration must not be null");
+    this.parseCache = Assert.requireNonNull(parseCache, "parseCache must not be null");
+    this.initialIsolationLevel = isolationLevel;
+    this.initialAutoCommit = client.isAutoCommit();
 
     // save Global isolation level to avoid asking each new connection with same configuration
     if (configuration.getIsolationLevel() == null) {
@@ -50,9 +65,7 @@ final class MariadbConnection implements org.mariadb.r2dbc.api.MariadbConnection
 
   @Override
   public Mono<Void> beginTransaction() {
-    try (ClientBase.LockAction lockAction = this.client.getLockAction()) {
-      return lockAction.beginTransaction();
-    }
+    return this.client.getTransactionAction().beginTransaction();
   }
 
   @Override
@@ -62,22 +75,18 @@ final class MariadbConnection implements org.mariadb.r2dbc.api.MariadbConnection
 
   @Override
   public Mono<Void> commitTransaction() {
-    try (ClientBase.LockAction lockAction = this.client.getLockAction()) {
-      return lockAction.commitTransaction();
-    }
+    return this.client.getTransactionAction().commitTransaction();
   }
 
   @Override
   public MariadbBatch createBatch() {
-    return new MariadbBatch(this.client, this.configuration);
+    return new MariadbBatch(this.client, this.configuration, this.parseCache);
   }
 
   @Override
   public Mono<Void> createSavepoint(String name) {
     Assert.requireNonNull(name, "name must not be null");
-    try (ClientBase.LockAction lockAction = this.client.getLockAction()) {
-      return lockAction.createSavepoint(name);
-    }
+    return this.client.getTransactionAction().createSavepoint(name);
   }
 
   @Override
@@ -86,13 +95,14 @@ final class MariadbConnection implements org.mariadb.r2dbc.api.MariadbConnection
     if (sql.trim().isEmpty()) {
       throw new IllegalArgumentException("Statement cannot be empty.");
     }
-    if (MariadbSimpleQueryStatement.supports(sql, this.client)) {
-      return new MariadbSimpleQueryStatement(this.client, sql);
+    if (MariadbSimpleQueryStatement.supports(sql, this.client, this.parseCache)) {
+      return new MariadbSimpleQueryStatement(this.client, sql, this.parseCache);
     } else {
       if (this.configuration.useServerPrepStmts()) {
         return new MariadbServerParameterizedQueryStatement(this.client, sql, this.configuration);
       }
-      return new MariadbClientParameterizedQueryStatement(this.client, sql, this.configuration);
+      return new MariadbClientParameterizedQueryStatement(
+          this.client, sql, this.configuration, this.parseCache);
     }
   }
 
@@ -111,34 +121,44 @@ final class MariadbConnection implements org.mariadb.r2dbc.api.MariadbConnection
     return this.client.isAutoCommit();
   }
 
+  @Override
+  public Mono<Long> loadData(String sql, Publisher<ByteBuf> data) {
+    Assert.requireNonNull(sql, "sql must not be null");
+    Assert.requireNonNull(data, "data must not be null");
+    ExceptionFactory exceptionFactory = ExceptionFactory.withSql(sql);
+    return client
+        .sendCommand(new QueryPacket(sql, data))
+        .handle(exceptionFactory::handleErrorResponse)
+        .ofType(OkPacket.class)
+        .reduce(0L, (rows, okPacket) -> rows + okPacket.getAffectedRows());
+  }
+
+  @Override
+  public Mono<Long> loadRows(String sql, Publisher<Object[]> rows) {
+    Assert.requireNonNull(rows, "rows must not be null");
+    return loadData(sql, LocalInfile.encodeRows(rows));
+  }
+
   @Override
   public Mono<Void> releaseSavepoint(String name) {
     Assert.requireNonNull(name, "name must not be null");
-    try (ClientBase.LockAction lockAction = this.client.getLockAction()) {
-      return lockAction.releaseSavepoint(name);
-    }
+    return this.client.getTransactionAction().releaseSavepoint(name);
   }
 
   @Override
   public Mono<Void> rollbackTransaction() {
-    try (ClientBase.LockAction lockAction = this.client.getLockAction()) {
-      return lockAction.rollbackTransaction();
-    }
+    return this.client.getTransactionAction().rollbackTransaction();
   }
 
   @Override
   public Mono<Void> rollbackTransactionToSavepoint(String name) {
     Assert.requireNonNull(name, "name must not be null");
-    try (ClientBase.LockAction lockAction = this.client.getLockAction()) {
-      return lockAction.rollbackTransactionToSavepoint(name);
-    }
+    return this.client.getTransactionAction().rollbackTransactionToSavepoint(name);
   }
 
   @Override
   public Mono<Void> setAutoCommit(boolean autoCommit) {
-    try (ClientBase.LockAction lockAction = this.client.getLockAction()) {
-      return lockAction.setAutoCommit(autoCommit);
-    }
+    return this.client.getTransactionAction().setAutoCommit(autoCommit);
   }
 
   @Override
@@ -187,6 +207,61 @@ final class MariadbConnection implements org.mariadb.r2dbc.api.MariadbConnection
         });
   }
 
+  /**
+   * Restore connection initial state, before connection is returned to pool.
+   *
+   * <p>When {@code resetConnection} is set and server supports it, session is reset using
+   * COM_RESET_CONNECTION: server deallocates prepared statements, so prepare cache is cleared, and
+   * session variables are set again. Otherwise, only transaction, autocommit and isolation level
+   * are restored, keeping server prepared statements.
+   *
+   * @param resetConnection use COM_RESET_CONNECTION
+   * @return a {@link Mono} that completes when connection state is restored
+   */
+  Mono<Void> reset(boolean resetConnection) {
+    if (!this.client.isConnected()) {
+      return Mono.error(new R2dbcNonTransientResourceException("Connection is closed"));
+    }
+
+    if (resetConnection && supportResetConnection()) {
+      // COM_RESET_CONNECTION closes all server prepared statements: client cache is cleared before
+      // sending it, so cache never references statements server may already have dropped
+      if (this.client.getPrepareCache() != null) {
+        this.client.getPrepareCache().reset();
+      }
+      return this.client
+          .sendCommand(ResetConnectionPacket.INSTANCE)
+          .handle(ExceptionFactory.INSTANCE::handleErrorResponse)
+          .then(
+              Mono.defer(
+                  () -> {
+                    this.isolationLevel = this.initialIsolationLevel;
+                    return MariadbConnectionFactory.setSessionVariables(
+                        this.client, this.configuration);
+                  }));
+    }
+
+    return Mono.defer(this::rollbackTransaction)
+        .then(Mono.defer(() -> setAutoCommit(this.initialAutoCommit)))
+        .then(
+            Mono.defer(
+                () ->
+                    this.isolationLevel == this.initialIsolationLevel
+                        ? Mono.empty()
+                        : setTransactionIsolationLevel(this.initialIsolationLevel)));
+  }
+
+  boolean isConnected() {
+    return this.client.isConnected();
+  }
+
+  private boolean supportResetConnection() {
+    if (this.client.getVersion().isMariaDBServer()) {
+      return this.client.getVersion().versionGreaterOrEqual(10, 2, 4);
+    }
+    return this.client.getVersion().versionGreaterOrEqual(5, 7, 3);
+  }
+
   public PrepareCache _test_prepareCache() {
     return client.getPrepareCache();
   }
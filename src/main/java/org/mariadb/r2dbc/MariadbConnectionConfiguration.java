@@ -25,8 +25,10 @@ import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.*;
+import org.mariadb.r2dbc.metrics.Metrics;
 import org.mariadb.r2dbc.util.Assert;
 import org.mariadb.r2dbc.util.SslConfig;
+import reactor.netty.resources.LoopResources;
 import reactor.util.annotation.Nullable;
 
 public final class MariadbConnectionConfiguration {
@@ -39,10 +41,20 @@ public final class MariadbConnectionConfiguration {
   private final Duration socketTimeout;
   private final boolean tcpKeepAlive;
   private final boolean tcpAbortiveClose;
+  private final boolean tcpNoDelay;
+  private final Integer socketReceiveBufferSize;
+  private final Integer socketSendBufferSize;
+  private final int adaptiveReadBufferMaxSize;
+  private final LoopResources loopResources;
+  private final int eventLoopThreads;
+  private final boolean preferNativeTransport;
+  private final Duration flushMaxDelay;
+  private final int flushMaxPendingBytes;
   private final CharSequence password;
   private final CharSequence[] pamOtherPwd;
   private final int port;
   private final int prepareCacheSize;
+  private final int parseCacheSize;
   private final String socket;
   private final String username;
   private final boolean allowMultiQueries;
@@ -55,12 +67,35 @@ public final class MariadbConnectionConfiguration {
   private final boolean allowPublicKeyRetrieval;
   private IsolationLevel isolationLevel;
   private final boolean useServerPrepStmts;
+  private final boolean useBulkStmts;
+  private final boolean rewriteBatchedStatements;
+  private final boolean useCompression;
+  private final int compressionThreshold;
+  private final boolean pool;
+  private final int minPoolSize;
+  private final int maxPoolSize;
+  private final Duration maxIdleTime;
+  private final Duration poolValidationInterval;
+  private final Duration poolAcquireTimeout;
+  private final boolean poolResetConnection;
+  private final Metrics metrics;
+  private final int lobChunkSize;
+  private final List<String> localInfileDirectories;
 
   private MariadbConnectionConfiguration(
       @Nullable Duration connectTimeout,
       @Nullable Duration socketTimeout,
       @Nullable Boolean tcpKeepAlive,
       @Nullable Boolean tcpAbortiveClose,
+      @Nullable Boolean tcpNoDelay,
+      @Nullable Integer socketReceiveBufferSize,
+      @Nullable Integer socketSendBufferSize,
+      int adaptiveReadBufferMaxSize,
+      @Nullable LoopResources loopResources,
+      int eventLoopThreads,
+      boolean preferNativeTransport,
+      @Nullable Duration flushMaxDelay,
+      int flushMaxPendingBytes,
       @Nullable String database,
       @Nullable String host,
       @Nullable Map<String, String> connectionAttributes,
@@ -81,12 +116,36 @@ public final class MariadbConnectionConfiguration {
       @Nullable String cachingRsaPublicKey,
       boolean allowPublicKeyRetrieval,
       boolean useServerPrepStmts,
+      boolean useBulkStmts,
+      boolean rewriteBatchedStatements,
+      boolean useCompression,
+      int compressionThreshold,
       @Nullable Integer prepareCacheSize,
-      @Nullable CharSequence[] pamOtherPwd) {
+      @Nullable Integer parseCacheSize,
+      @Nullable CharSequence[] pamOtherPwd,
+      boolean pool,
+      int minPoolSize,
+      int maxPoolSize,
+      @Nullable Duration maxIdleTime,
+      @Nullable Duration poolValidationInterval,
+      @Nullable Duration poolAcquireTimeout,
+      boolean poolResetConnection,
+      @Nullable Metrics metrics,
+      int lobChunkSize,
+      @Nullable List<String> localInfileDirectories) {
     this.connectTimeout = connectTimeout == null ? Duration.ofSeconds(10) : connectTimeout;
     this.socketTimeout = socketTimeout;
     this.tcpKeepAlive = tcpKeepAlive == null ? Boolean.FALSE : tcpKeepAlive;
     this.tcpAbortiveClose = tcpAbortiveClose == null ? Boolean.FALSE : tcpAbortiveClose;
+    this.tcpNoDelay = tcpNoDelay == null ? Boolean.TRUE : tcpNoDelay;
+    this.socketReceiveBufferSize = socketReceiveBufferSize;
+    this.socketSendBufferSize = socketSendBufferSize;
+    this.adaptiveReadBufferMaxSize = adaptiveReadBufferMaxSize;
+    this.loopResources = loopResources;
+    this.eventLoopThreads = eventLoopThreads;
+    this.preferNativeTransport = preferNativeTransport;
+    this.flushMaxDelay = flushMaxDelay == null ? Duration.ofMillis(1) : flushMaxDelay;
+    this.flushMaxPendingBytes = flushMaxPendingBytes;
     this.database = database;
     this.host = host;
     this.connectionAttributes = connectionAttributes;
@@ -108,8 +167,28 @@ public final class MariadbConnectionConfiguration {
     this.cachingRsaPublicKey = cachingRsaPublicKey;
     this.allowPublicKeyRetrieval = allowPublicKeyRetrieval;
     this.useServerPrepStmts = useServerPrepStmts;
+    this.useBulkStmts = useBulkStmts;
+    this.rewriteBatchedStatements = rewriteBatchedStatements;
+    this.useCompression = useCompression;
+    this.compressionThreshold = compressionThreshold;
     this.prepareCacheSize = (prepareCacheSize == null) ? 250 : prepareCacheSize.intValue();
+    this.parseCacheSize = (parseCacheSize == null) ? 250 : parseCacheSize.intValue();
     this.pamOtherPwd = pamOtherPwd;
+    this.pool = pool;
+    this.minPoolSize = minPoolSize;
+    this.maxPoolSize = maxPoolSize;
+    this.maxIdleTime = maxIdleTime == null ? Duration.ofMinutes(10) : maxIdleTime;
+    this.poolValidationInterval =
+        poolValidationInterval == null ? Duration.ofSeconds(30) : poolValidationInterval;
+    this.poolAcquireTimeout =
+        poolAcquireTimeout == null ? Duration.ofSeconds(30) : poolAcquireTimeout;
+    this.poolResetConnection = poolResetConnection;
+    this.metrics = metrics == null ? Metrics.NONE : metrics;
+    this.lobChunkSize = lobChunkSize;
+    this.localInfileDirectories =
+        localInfileDirectories == null
+            ? Collections.emptyList()
+            : Collections.unmodifiableList(localInfileDirectories);
   }
 
   static boolean boolValue(Object value) {
@@ -185,6 +264,76 @@ public final class MariadbConnectionConfiguration {
                   MariadbConnectionFactoryProvider.TCP_ABORTIVE_CLOSE)));
     }
 
+    if (connectionFactoryOptions.hasOption(MariadbConnectionFactoryProvider.TCP_NO_DELAY)) {
+      builder.tcpNoDelay(
+          boolValue(
+              connectionFactoryOptions.getValue(MariadbConnectionFactoryProvider.TCP_NO_DELAY)));
+    }
+
+    if (connectionFactoryOptions.hasOption(
+        MariadbConnectionFactoryProvider.SOCKET_RECEIVE_BUFFER_SIZE)) {
+      builder.socketReceiveBufferSize(
+          intValue(
+              connectionFactoryOptions.getValue(
+                  MariadbConnectionFactoryProvider.SOCKET_RECEIVE_BUFFER_SIZE)));
+    }
+
+    if (connectionFactoryOptions.hasOption(
+        MariadbConnectionFactoryProvider.SOCKET_SEND_BUFFER_SIZE)) {
+      builder.socketSendBufferSize(
+          intValue(
+              connectionFactoryOptions.getValue(
+                  MariadbConnectionFactoryProvider.SOCKET_SEND_BUFFER_SIZE)));
+    }
+
+    if (connectionFactoryOptions.hasOption(
+        MariadbConnectionFactoryProvider.ADAPTIVE_READ_BUFFER_MAX_SIZE)) {
+      builder.adaptiveReadBufferMaxSize(
+          intValue(
+              connectionFactoryOptions.getValue(
+                  MariadbConnectionFactoryProvider.ADAPTIVE_READ_BUFFER_MAX_SIZE)));
+    }
+
+    if (connectionFactoryOptions.hasOption(MariadbConnectionFactoryProvider.LOOP_RESOURCES)) {
+      Object loopResources =
+          connectionFactoryOptions.getValue(MariadbConnectionFactoryProvider.LOOP_RESOURCES);
+      if (!(loopResources instanceof LoopResources)) {
+        throw new IllegalArgumentException(
+            String.format(
+                "Option loopResources must be a %s instance", LoopResources.class.getName()));
+      }
+      builder.loopResources((LoopResources) loopResources);
+    }
+
+    if (connectionFactoryOptions.hasOption(MariadbConnectionFactoryProvider.EVENT_LOOP_THREADS)) {
+      builder.eventLoopThreads(
+          intValue(
+              connectionFactoryOptions.getValue(
+                  MariadbConnectionFactoryProvider.EVENT_LOOP_THREADS)));
+    }
+
+    if (connectionFactoryOptions.hasOption(
+        MariadbConnectionFactoryProvider.PREFER_NATIVE_TRANSPORT)) {
+      builder.preferNativeTransport(
+          boolValue(
+              connectionFactoryOptions.getValue(
+                  MariadbConnectionFactoryProvider.PREFER_NATIVE_TRANSPORT)));
+    }
+
+    if (connectionFactoryOptions.hasOption(MariadbConnectionFactoryProvider.FLUSH_MAX_DELAY)) {
+      builder.flushMaxDelay(
+          durationValue(
+              connectionFactoryOptions.getValue(MariadbConnectionFactoryProvider.FLUSH_MAX_DELAY)));
+    }
+
+    if (connectionFactoryOptions.hasOption(
+        MariadbConnectionFactoryProvider.FLUSH_MAX_PENDING_BYTES)) {
+      builder.flushMaxPendingBytes(
+          intValue(
+              connectionFactoryOptions.getValue(
+                  MariadbConnectionFactoryProvider.FLUSH_MAX_PENDING_BYTES)));
+    }
+
     if (connectionFactoryOptions.hasOption(MariadbConnectionFactoryProvider.ALLOW_PIPELINING)) {
       builder.allowPipelining(
           boolValue(
@@ -198,6 +347,35 @@ public final class MariadbConnectionConfiguration {
               connectionFactoryOptions.getValue(
                   MariadbConnectionFactoryProvider.USE_SERVER_PREPARE)));
     }
+
+    if (connectionFactoryOptions.hasOption(MariadbConnectionFactoryProvider.USE_BULK_STMTS)) {
+      builder.useBulkStmts(
+          boolValue(
+              connectionFactoryOptions.getValue(MariadbConnectionFactoryProvider.USE_BULK_STMTS)));
+    }
+
+    if (connectionFactoryOptions.hasOption(
+        MariadbConnectionFactoryProvider.REWRITE_BATCHED_STATEMENTS)) {
+      builder.rewriteBatchedStatements(
+          boolValue(
+              connectionFactoryOptions.getValue(
+                  MariadbConnectionFactoryProvider.REWRITE_BATCHED_STATEMENTS)));
+    }
+
+    if (connectionFactoryOptions.hasOption(MariadbConnectionFactoryProvider.USE_COMPRESSION)) {
+      builder.useCompression(
+          boolValue(
+              connectionFactoryOptions.getValue(MariadbConnectionFactoryProvider.USE_COMPRESSION)));
+    }
+
+    if (connectionFactoryOptions.hasOption(
+        MariadbConnectionFactoryProvider.COMPRESSION_THRESHOLD)) {
+      builder.compressionThreshold(
+          intValue(
+              connectionFactoryOptions.getValue(
+                  MariadbConnectionFactoryProvider.COMPRESSION_THRESHOLD)));
+    }
+
     if (connectionFactoryOptions.hasOption(
         MariadbConnectionFactoryProvider.CONNECTION_ATTRIBUTES)) {
       Map<String, String> myMap = new HashMap<>();
@@ -219,6 +397,13 @@ public final class MariadbConnectionConfiguration {
                   MariadbConnectionFactoryProvider.PREPARE_CACHE_SIZE)));
     }
 
+    if (connectionFactoryOptions.hasOption(MariadbConnectionFactoryProvider.PARSE_CACHE_SIZE)) {
+      builder.parseCacheSize(
+          intValue(
+              connectionFactoryOptions.getValue(
+                  MariadbConnectionFactoryProvider.PARSE_CACHE_SIZE)));
+    }
+
     if (connectionFactoryOptions.hasOption(MariadbConnectionFactoryProvider.SSL_MODE)) {
       builder.sslMode(
           Enum.valueOf(
@@ -257,6 +442,76 @@ public final class MariadbConnectionConfiguration {
       builder.pamOtherPwd(pairs);
     }
 
+    if (connectionFactoryOptions.hasOption(MariadbConnectionFactoryProvider.POOL)) {
+      builder.pool(
+          boolValue(connectionFactoryOptions.getValue(MariadbConnectionFactoryProvider.POOL)));
+    }
+
+    if (connectionFactoryOptions.hasOption(MariadbConnectionFactoryProvider.MIN_POOL_SIZE)) {
+      builder.minPoolSize(
+          intValue(
+              connectionFactoryOptions.getValue(MariadbConnectionFactoryProvider.MIN_POOL_SIZE)));
+    }
+
+    if (connectionFactoryOptions.hasOption(MariadbConnectionFactoryProvider.MAX_POOL_SIZE)) {
+      builder.maxPoolSize(
+          intValue(
+              connectionFactoryOptions.getValue(MariadbConnectionFactoryProvider.MAX_POOL_SIZE)));
+    }
+
+    if (connectionFactoryOptions.hasOption(MariadbConnectionFactoryProvider.MAX_IDLE_TIME)) {
+      builder.maxIdleTime(
+          durationValue(
+              connectionFactoryOptions.getValue(MariadbConnectionFactoryProvider.MAX_IDLE_TIME)));
+    }
+
+    if (connectionFactoryOptions.hasOption(
+        MariadbConnectionFactoryProvider.POOL_VALIDATION_INTERVAL)) {
+      builder.poolValidationInterval(
+          durationValue(
+              connectionFactoryOptions.getValue(
+                  MariadbConnectionFactoryProvider.POOL_VALIDATION_INTERVAL)));
+    }
+
+    if (connectionFactoryOptions.hasOption(MariadbConnectionFactoryProvider.POOL_ACQUIRE_TIMEOUT)) {
+      builder.poolAcquireTimeout(
+          durationValue(
+              connectionFactoryOptions.getValue(
+                  MariadbConnectionFactoryProvider.POOL_ACQUIRE_TIMEOUT)));
+    }
+
+    if (connectionFactoryOptions.hasOption(
+        MariadbConnectionFactoryProvider.POOL_RESET_CONNECTION)) {
+      builder.poolResetConnection(
+          boolValue(
+              connectionFactoryOptions.getValue(
+                  MariadbConnectionFactoryProvider.POOL_RESET_CONNECTION)));
+    }
+
+    if (connectionFactoryOptions.hasOption(MariadbConnectionFactoryProvider.METRICS)) {
+      Object metrics = connectionFactoryOptions.getValue(MariadbConnectionFactoryProvider.METRICS);
+      if (!(metrics instanceof Metrics)) {
+        throw new IllegalArgumentException(
+            String.format("Option metrics must be a %s instance", Metrics.class.getName()));
+      }
+      builder.metrics((Metrics) metrics);
+    }
+
+    if (connectionFactoryOptions.hasOption(MariadbConnectionFactoryProvider.LOB_CHUNK_SIZE)) {
+      builder.lobChunkSize(
+          intValue(
+              connectionFactoryOptions.getValue(MariadbConnectionFactoryProvider.LOB_CHUNK_SIZE)));
+    }
+
+    if (connectionFactoryOptions.hasOption(
+        MariadbConnectionFactoryProvider.LOCAL_INFILE_DIRECTORIES)) {
+      String[] directories =
+          connectionFactoryOptions
+              .getValue(MariadbConnectionFactoryProvider.LOCAL_INFILE_DIRECTORIES)
+              .split("[,;]");
+      builder.localInfileDirectories(directories);
+    }
+
     return builder;
   }
 
@@ -347,10 +602,30 @@ public final class MariadbConnectionConfiguration {
     return useServerPrepStmts;
   }
 
+  public boolean useBulkStmts() {
+    return useBulkStmts;
+  }
+
+  public boolean rewriteBatchedStatements() {
+    return rewriteBatchedStatements;
+  }
+
+  public boolean useCompression() {
+    return useCompression;
+  }
+
+  public int getCompressionThreshold() {
+    return compressionThreshold;
+  }
+
   public int getPrepareCacheSize() {
     return prepareCacheSize;
   }
 
+  public int getParseCacheSize() {
+    return parseCacheSize;
+  }
+
   public Duration getSocketTimeout() {
     return socketTimeout;
   }
@@ -363,6 +638,85 @@ public final class MariadbConnectionConfiguration {
     return tcpAbortiveClose;
   }
 
+  public boolean isTcpNoDelay() {
+    return tcpNoDelay;
+  }
+
+  @Nullable
+  public Integer getSocketReceiveBufferSize() {
+    return socketReceiveBufferSize;
+  }
+
+  @Nullable
+  public Integer getSocketSendBufferSize() {
+    return socketSendBufferSize;
+  }
+
+  public int getAdaptiveReadBufferMaxSize() {
+    return adaptiveReadBufferMaxSize;
+  }
+
+  public Duration getFlushMaxDelay() {
+    return flushMaxDelay;
+  }
+
+  public int getFlushMaxPendingBytes() {
+    return flushMaxPendingBytes;
+  }
+
+  @Nullable
+  public LoopResources getLoopResources() {
+    return loopResources;
+  }
+
+  public int getEventLoopThreads() {
+    return eventLoopThreads;
+  }
+
+  public boolean isPreferNativeTransport() {
+    return preferNativeTransport;
+  }
+
+  public boolean isPool() {
+    return pool;
+  }
+
+  public int getMinPoolSize() {
+    return minPoolSize;
+  }
+
+  public int getMaxPoolSize() {
+    return maxPoolSize;
+  }
+
+  public Duration getMaxIdleTime() {
+    return maxIdleTime;
+  }
+
+  public Duration getPoolValidationInterval() {
+    return poolValidationInterval;
+  }
+
+  public Duration getPoolAcquireTimeout() {
+    return poolAcquireTimeout;
+  }
+
+  public boolean isPoolResetConnection() {
+    return poolResetConnection;
+  }
+
+  public Metrics getMetrics() {
+    return metrics;
+  }
+
+  public int getLobChunkSize() {
+    return lobChunkSize;
+  }
+
+  public List<String> getLocalInfileDirectories() {
+    return localInfileDirectories;
+  }
+
   @Override
   public String toString() {
     StringBuilder hiddenPwd = new StringBuilder();
@@ -397,12 +751,32 @@ public final class MariadbConnectionConfiguration {
         + tcpKeepAlive
         + ", tcpAbortiveClose="
         + tcpAbortiveClose
+        + ", tcpNoDelay="
+        + tcpNoDelay
+        + ", socketReceiveBufferSize="
+        + socketReceiveBufferSize
+        + ", socketSendBufferSize="
+        + socketSendBufferSize
+        + ", adaptiveReadBufferMaxSize="
+        + adaptiveReadBufferMaxSize
+        + ", loopResources="
+        + loopResources
+        + ", eventLoopThreads="
+        + eventLoopThreads
+        + ", preferNativeTransport="
+        + preferNativeTransport
+        + ", flushMaxDelay="
+        + flushMaxDelay
+        + ", flushMaxPendingBytes="
+        + flushMaxPendingBytes
         + ", password="
         + hiddenPwd
         + ", port="
         + port
         + ", prepareCacheSize="
         + prepareCacheSize
+        + ", parseCacheSize="
+        + parseCacheSize
         + ", socket='"
         + socket
         + '\''
@@ -431,8 +805,36 @@ public final class MariadbConnectionConfiguration {
         + isolationLevel
         + ", useServerPrepStmts="
         + useServerPrepStmts
+        + ", useBulkStmts="
+        + useBulkStmts
+        + ", rewriteBatchedStatements="
+        + rewriteBatchedStatements
+        + ", useCompression="
+        + useCompression
+        + ", compressionThreshold="
+        + compressionThreshold
         + ", pamOtherPwd="
         + hiddenPamPwd
+        + ", pool="
+        + pool
+        + ", minPoolSize="
+        + minPoolSize
+        + ", maxPoolSize="
+        + maxPoolSize
+        + ", maxIdleTime="
+        + maxIdleTime
+        + ", poolValidationInterval="
+        + poolValidationInterval
+        + ", poolAcquireTimeout="
+        + poolAcquireTimeout
+        + ", poolResetConnection="
+        + poolResetConnection
+        + ", metrics="
+        + metrics
+        + ", lobChunkSize="
+        + lobChunkSize
+        + ", localInfileDirectories="
+        + localInfileDirectories
         + '}';
   }
 
@@ -451,6 +853,15 @@ public final class MariadbConnectionConfiguration {
     @Nullable private Duration socketTimeout;
     @Nullable private Boolean tcpKeepAlive;
     @Nullable private Boolean tcpAbortiveClose;
+    @Nullable private Boolean tcpNoDelay;
+    @Nullable private Integer socketReceiveBufferSize;
+    @Nullable private Integer socketSendBufferSize;
+    private int adaptiveReadBufferMaxSize = 0;
+    @Nullable private LoopResources loopResources;
+    private int eventLoopThreads = 0;
+    private boolean preferNativeTransport = true;
+    @Nullable private Duration flushMaxDelay;
+    private int flushMaxPendingBytes = 65536;
     @Nullable private String database;
     @Nullable private String host;
     @Nullable private Map<String, String> sessionVariables;
@@ -461,7 +872,12 @@ public final class MariadbConnectionConfiguration {
     private boolean allowMultiQueries = false;
     private boolean allowPipelining = true;
     private boolean useServerPrepStmts = false;
+    private boolean useBulkStmts = true;
+    private boolean rewriteBatchedStatements = false;
+    private boolean useCompression = false;
+    private int compressionThreshold = 1536;
     @Nullable Integer prepareCacheSize;
+    @Nullable Integer parseCacheSize;
     @Nullable private List<String> tlsProtocol;
     @Nullable private String serverSslCert;
     @Nullable private String clientSslCert;
@@ -469,6 +885,16 @@ public final class MariadbConnectionConfiguration {
     @Nullable private CharSequence clientSslPassword;
     private SslMode sslMode = SslMode.DISABLED;
     private CharSequence[] pamOtherPwd;
+    private boolean pool = false;
+    private int minPoolSize = 0;
+    private int maxPoolSize = 10;
+    @Nullable private Duration maxIdleTime;
+    @Nullable private Duration poolValidationInterval;
+    @Nullable private Duration poolAcquireTimeout;
+    private boolean poolResetConnection = true;
+    @Nullable private Metrics metrics;
+    private int lobChunkSize = 0;
+    @Nullable private List<String> localInfileDirectories;
 
     private Builder() {}
 
@@ -492,11 +918,27 @@ public final class MariadbConnectionConfiguration {
         throw new IllegalArgumentException("username must not be null");
       }
 
+      if (this.pool && (this.minPoolSize < 0 || this.maxPoolSize < Math.max(1, minPoolSize))) {
+        throw new IllegalArgumentException(
+            String.format(
+                "Wrong pool size: minPoolSize (%d) must be positive and less or equal to maxPoolSize (%d)",
+                this.minPoolSize, this.maxPoolSize));
+      }
+
       return new MariadbConnectionConfiguration(
           this.connectTimeout,
           this.socketTimeout,
           this.tcpKeepAlive,
           this.tcpAbortiveClose,
+          this.tcpNoDelay,
+          this.socketReceiveBufferSize,
+          this.socketSendBufferSize,
+          this.adaptiveReadBufferMaxSize,
+          this.loopResources,
+          this.eventLoopThreads,
+          this.preferNativeTransport,
+          this.flushMaxDelay,
+          this.flushMaxPendingBytes,
           this.database,
           this.host,
           this.connectionAttributes,
@@ -517,8 +959,23 @@ public final class MariadbConnectionConfiguration {
           this.cachingRsaPublicKey,
           this.allowPublicKeyRetrieval,
           this.useServerPrepStmts,
+          this.useBulkStmts,
+          this.rewriteBatchedStatements,
+          this.useCompression,
+          this.compressionThreshold,
           this.prepareCacheSize,
-          this.pamOtherPwd);
+          this.parseCacheSize,
+          this.pamOtherPwd,
+          this.pool,
+          this.minPoolSize,
+          this.maxPoolSize,
+          this.maxIdleTime,
+          this.poolValidationInterval,
+          this.poolAcquireTimeout,
+          this.poolResetConnection,
+          this.metrics,
+          this.lobChunkSize,
+          this.localInfileDirectories);
     }
 
     /**
@@ -547,6 +1004,134 @@ public final class MariadbConnectionConfiguration {
       return this;
     }
 
+    /**
+     * Disable Nagle's algorithm (TCP_NODELAY), so small commands are sent without delay. Defaults
+     * to {@code true}.
+     *
+     * @param tcpNoDelay disable Nagle's algorithm
+     * @return this {@link Builder}
+     */
+    public Builder tcpNoDelay(@Nullable Boolean tcpNoDelay) {
+      this.tcpNoDelay = tcpNoDelay;
+      return this;
+    }
+
+    /**
+     * Configure socket receive buffer size (SO_RCVBUF). Defaults to system value.
+     *
+     * @param socketReceiveBufferSize buffer size in bytes
+     * @return this {@link Builder}
+     */
+    public Builder socketReceiveBufferSize(@Nullable Integer socketReceiveBufferSize) {
+      if (socketReceiveBufferSize != null && socketReceiveBufferSize <= 0) {
+        throw new IllegalArgumentException("socketReceiveBufferSize must be positive");
+      }
+      this.socketReceiveBufferSize = socketReceiveBufferSize;
+      return this;
+    }
+
+    /**
+     * Configure socket send buffer size (SO_SNDBUF). Defaults to system value.
+     *
+     * @param socketSendBufferSize buffer size in bytes
+     * @return this {@link Builder}
+     */
+    public Builder socketSendBufferSize(@Nullable Integer socketSendBufferSize) {
+      if (socketSendBufferSize != null && socketSendBufferSize <= 0) {
+        throw new IllegalArgumentException("socketSendBufferSize must be positive");
+      }
+      this.socketSendBufferSize = socketSendBufferSize;
+      return this;
+    }
+
+    /**
+     * Maximum size of buffers reading socket. Buffer size adapts to the amount of data received by
+     * each read, up to this size: a bigger size reduces the number of reads for big results.
+     * Defaults to {@code 0}, using Netty default (64K).
+     *
+     * @param adaptiveReadBufferMaxSize maximum read buffer size in bytes, at least 64
+     * @return this {@link Builder}
+     */
+    public Builder adaptiveReadBufferMaxSize(int adaptiveReadBufferMaxSize) {
+      if (adaptiveReadBufferMaxSize != 0 && adaptiveReadBufferMaxSize < 64) {
+        throw new IllegalArgumentException("adaptiveReadBufferMaxSize must be at least 64");
+      }
+      this.adaptiveReadBufferMaxSize = adaptiveReadBufferMaxSize;
+      return this;
+    }
+
+    /**
+     * Event loops used by connections, to share application event loops. Defaults to reactor-netty
+     * global resources, or to event loops owned by connection factory if {@link
+     * #eventLoopThreads(int)} is set.
+     *
+     * @param loopResources event loop resources
+     * @return this {@link Builder}
+     */
+    public Builder loopResources(@Nullable LoopResources loopResources) {
+      this.loopResources = loopResources;
+      return this;
+    }
+
+    /**
+     * Number of event loop threads created by connection factory for its connections, when no
+     * {@link #loopResources(LoopResources)} is set. Threads are released when factory is closed.
+     * Defaults to {@code 0}, using reactor-netty global event loops.
+     *
+     * @param eventLoopThreads number of threads
+     * @return this {@link Builder}
+     */
+    public Builder eventLoopThreads(int eventLoopThreads) {
+      if (eventLoopThreads < 0) {
+        throw new IllegalArgumentException("eventLoopThreads must not be negative");
+      }
+      this.eventLoopThreads = eventLoopThreads;
+      return this;
+    }
+
+    /**
+     * Use native transport (epoll on Linux, kqueue on macOS) when available on classpath, rather
+     * than NIO. Defaults to {@code true}. Unix domain sockets require native transport.
+     *
+     * @param preferNativeTransport prefer native transport
+     * @return this {@link Builder}
+     */
+    public Builder preferNativeTransport(boolean preferNativeTransport) {
+      this.preferNativeTransport = preferNativeTransport;
+      return this;
+    }
+
+    /**
+     * Maximum time a flush can be postponed to send writes of consecutive commands at once. A
+     * command sent alone is flushed at once, without delay. Defaults to 1ms. {@link Duration#ZERO}
+     * disables flush consolidation, each command being flushed individually.
+     *
+     * @param flushMaxDelay maximum flush delay
+     * @return this {@link Builder}
+     */
+    public Builder flushMaxDelay(@Nullable Duration flushMaxDelay) {
+      if (flushMaxDelay != null && flushMaxDelay.isNegative()) {
+        throw new IllegalArgumentException("flushMaxDelay must not be negative");
+      }
+      this.flushMaxDelay = flushMaxDelay;
+      return this;
+    }
+
+    /**
+     * Amount of written bytes causing an immediate flush, even if flush could be postponed.
+     * Defaults to 65536.
+     *
+     * @param flushMaxPendingBytes maximum pending bytes before flush, strictly positive
+     * @return this {@link Builder}
+     */
+    public Builder flushMaxPendingBytes(int flushMaxPendingBytes) {
+      if (flushMaxPendingBytes <= 0) {
+        throw new IllegalArgumentException("flushMaxPendingBytes must be strictly positive");
+      }
+      this.flushMaxPendingBytes = flushMaxPendingBytes;
+      return this;
+    }
+
     public Builder connectionAttributes(@Nullable Map<String, String> connectionAttributes) {
       this.connectionAttributes = connectionAttributes;
       return this;
@@ -651,6 +1236,24 @@ public final class MariadbConnectionConfiguration {
       return this;
     }
 
+    /**
+     * Client query parsing cache size, shared by all connections of a connection factory. Client
+     * prepared statements use cached parsing result instead of parsing query each time.
+     *
+     * <ul>
+     *   <li>0 = no cache
+     *   <li>null = use default size
+     *   <li>other indicate cache size
+     * </ul>
+     *
+     * @param parseCacheSize parse cache size
+     * @return this {@link Builder}
+     */
+    public Builder parseCacheSize(Integer parseCacheSize) {
+      this.parseCacheSize = parseCacheSize;
+      return this;
+    }
+
     /**
      * Permits providing client's certificate for mutual authentication
      *
@@ -742,6 +1345,60 @@ public final class MariadbConnectionConfiguration {
       return this;
     }
 
+    /**
+     * Permit to use COM_STMT_BULK_EXECUTE for batches of server prepared statements, when server
+     * supports it (MariaDB 10.2+). Defaults to {@code true}.
+     *
+     * @param useBulkStmts use bulk commands
+     * @return this {@link Builder}
+     */
+    public Builder useBulkStmts(boolean useBulkStmts) {
+      this.useBulkStmts = useBulkStmts;
+      return this;
+    }
+
+    /**
+     * Permit to rewrite batches of client prepared statements: INSERT with a single VALUES tuple
+     * are sent as multi-values INSERT, other commands as multi-statement if allowMultiQueries is
+     * set. Defaults to {@code false}.
+     *
+     * @param rewriteBatchedStatements rewrite batches
+     * @return this {@link Builder}
+     */
+    public Builder rewriteBatchedStatements(boolean rewriteBatchedStatements) {
+      this.rewriteBatchedStatements = rewriteBatchedStatements;
+      return this;
+    }
+
+    /**
+     * Use compressed protocol (zlib) when server supports it. This reduces network usage for large
+     * results and commands, at the cost of some CPU. Defaults to {@code false}.
+     *
+     * @param useCompression use compression
+     * @return this {@link Builder}
+     */
+    public Builder useCompression(boolean useCompression) {
+      this.useCompression = useCompression;
+      return this;
+    }
+
+    /**
+     * Minimum packet size to compress when using compression, smaller packets being sent
+     * uncompressed. Defaults to 1536 bytes.
+     *
+     * @param compressionThreshold minimum size in bytes
+     * @return this {@link Builder}
+     */
+    public Builder compressionThreshold(int compressionThreshold) {
+      if (compressionThreshold < 0) {
+        throw new IllegalArgumentException(
+            String.format(
+                "compressionThreshold must be positive, but value is %d", compressionThreshold));
+      }
+      this.compressionThreshold = compressionThreshold;
+      return this;
+    }
+
     /**
      * Permit pipelining (sending request before resolution of previous one).
      *
@@ -753,6 +1410,144 @@ public final class MariadbConnectionConfiguration {
       return this;
     }
 
+    /**
+     * Use a connection pool: connections returned by {@link MariadbConnectionFactory#create()} are
+     * borrowed from pool, and returned to pool when closed. Defaults to {@code false}.
+     *
+     * @param pool indicate if using a connection pool
+     * @return this {@link Builder}
+     */
+    public Builder pool(boolean pool) {
+      this.pool = pool;
+      return this;
+    }
+
+    /**
+     * Minimum number of connections the pool maintains, idle connections included. Defaults to
+     * {@code 0}.
+     *
+     * @param minPoolSize minimum pool size
+     * @return this {@link Builder}
+     */
+    public Builder minPoolSize(int minPoolSize) {
+      this.minPoolSize = minPoolSize;
+      return this;
+    }
+
+    /**
+     * Maximum number of connections the pool can create. Defaults to {@code 10}.
+     *
+     * @param maxPoolSize maximum pool size
+     * @return this {@link Builder}
+     */
+    public Builder maxPoolSize(int maxPoolSize) {
+      this.maxPoolSize = maxPoolSize;
+      return this;
+    }
+
+    /**
+     * Time an idle connection can remain in pool before being closed, while pool has more than
+     * minPoolSize connections. Defaults to 10 minutes.
+     *
+     * @param maxIdleTime maximum idle time
+     * @return this {@link Builder}
+     */
+    public Builder maxIdleTime(@Nullable Duration maxIdleTime) {
+      this.maxIdleTime = maxIdleTime;
+      return this;
+    }
+
+    /**
+     * Idle connections not used for this duration are validated in background using a ping.
+     * Defaults to 30 seconds.
+     *
+     * @param poolValidationInterval validation interval
+     * @return this {@link Builder}
+     */
+    public Builder poolValidationInterval(@Nullable Duration poolValidationInterval) {
+      this.poolValidationInterval = poolValidationInterval;
+      return this;
+    }
+
+    /**
+     * Maximum time to wait for a connection when pool is exhausted, borrower then receiving a
+     * {@link io.r2dbc.spi.R2dbcTimeoutException}. Zero or negative waits indefinitely. Defaults to
+     * 30 seconds.
+     *
+     * @param poolAcquireTimeout acquire timeout
+     * @return this {@link Builder}
+     */
+    public Builder poolAcquireTimeout(@Nullable Duration poolAcquireTimeout) {
+      this.poolAcquireTimeout = poolAcquireTimeout;
+      return this;
+    }
+
+    /**
+     * Reset session state using COM_RESET_CONNECTION when a connection is returned to pool. This
+     * also closes all server prepared statements, so prepare cache is cleared on each release. When
+     * disabled, only transaction, autocommit and isolation level are restored, permitting server
+     * prepared statements to remain in cache between borrows: disable it to reuse prepared
+     * statements when session variables and user variables aren't modified by borrowers. Defaults
+     * to {@code true}.
+     *
+     * @param poolResetConnection reset connection on release
+     * @return this {@link Builder}
+     */
+    public Builder poolResetConnection(boolean poolResetConnection) {
+      this.poolResetConnection = poolResetConnection;
+      return this;
+    }
+
+    /**
+     * Configure driver metrics listener, usually a {@link org.mariadb.r2dbc.metrics.SimpleMetrics}
+     * shared by connections. Default records nothing.
+     *
+     * @param metrics metrics listener
+     * @return this {@link Builder}
+     */
+    public Builder metrics(@Nullable Metrics metrics) {
+      this.metrics = metrics;
+      return this;
+    }
+
+    /**
+     * Stream BLOB/TEXT columns of rows exceeding 16M packet size while they are received, in chunks
+     * of at most this size in bytes, instead of assembling the whole row in memory. Such columns
+     * are only readable as {@link io.r2dbc.spi.Blob} or {@link io.r2dbc.spi.Clob}, as well as
+     * following columns. Defaults to {@code 0} (disabled).
+     *
+     * @param lobChunkSize maximum chunk size, 0 to disable LOB streaming
+     * @return this {@link Builder}
+     */
+    public Builder lobChunkSize(int lobChunkSize) {
+      if (lobChunkSize < 0) {
+        throw new IllegalArgumentException("lobChunkSize must not be negative");
+      }
+      this.lobChunkSize = lobChunkSize;
+      return this;
+    }
+
+    /**
+     * Directories from which files requested by server for {@code LOAD DATA LOCAL INFILE} commands
+     * can be read. Requests for files outside these directories are refused. Defaults to none:
+     * local files are never read, data can only be sent with {@link
+     * org.mariadb.r2dbc.api.MariadbConnection#loadData}.
+     *
+     * @param localInfileDirectories allowed directories
+     * @return this {@link Builder}
+     */
+    public Builder localInfileDirectories(String... localInfileDirectories) {
+      if (localInfileDirectories == null) {
+        this.localInfileDirectories = null;
+        return this;
+      }
+      this.localInfileDirectories = new ArrayList<>();
+      for (String directory : localInfileDirectories) {
+        if (!directory.trim().isEmpty()) this.localInfileDirectories.add(directory.trim());
+      }
+      return this;
+    }
+
     /**
      * Configure the port. Defaults to {@code 3306}.
      *
@@ -836,6 +1631,24 @@ public final class MariadbConnectionConfiguration {
           + tcpKeepAlive
           + ", tcpAbortiveClose="
           + tcpAbortiveClose
+          + ", tcpNoDelay="
+          + tcpNoDelay
+          + ", socketReceiveBufferSize="
+          + socketReceiveBufferSize
+          + ", socketSendBufferSize="
+          + socketSendBufferSize
+          + ", adaptiveReadBufferMaxSize="
+          + adaptiveReadBufferMaxSize
+          + ", loopResources="
+          + loopResources
+          + ", eventLoopThreads="
+          + eventLoopThreads
+          + ", preferNativeTransport="
+          + preferNativeTransport
+          + ", flushMaxDelay="
+          + flushMaxDelay
+          + ", flushMaxPendingBytes="
+          + flushMaxPendingBytes
           + ", database='"
           + database
           + '\''
@@ -859,8 +1672,18 @@ public final class MariadbConnectionConfiguration {
           + allowPipelining
           + ", useServerPrepStmts="
           + useServerPrepStmts
+          + ", useBulkStmts="
+          + useBulkStmts
+          + ", rewriteBatchedStatements="
+          + rewriteBatchedStatements
+          + ", useCompression="
+          + useCompression
+          + ", compressionThreshold="
+          + compressionThreshold
           + ", prepareCacheSize="
           + prepareCacheSize
+          + ", parseCacheSize="
+          + parseCacheSize
           + ", tlsProtocol="
           + tlsProtocol
           + ", serverSslCert='"
@@ -878,6 +1701,26 @@ public final class MariadbConnectionConfiguration {
           + sslMode
           + ", pamOtherPwd="
           + hiddenPamPwd
+          + ", pool="
+          + pool
+          + ", minPoolSize="
+          + minPoolSize
+          + ", maxPoolSize="
+          + maxPoolSize
+          + ", maxIdleTime="
+          + maxIdleTime
+          + ", poolValidationInterval="
+          + poolValidationInterval
+          + ", poolAcquireTimeout="
+          + poolAcquireTimeout
+          + ", poolResetConnection="
+          + poolResetConnection
+          + ", metrics="
+          + metrics
+          + ", lobChunkSize="
+          + lobChunkSize
+          + ", localInfileDirectories="
+          + localInfileDirectories
           + '}';
     }
   }
@@ -22,22 +22,42 @@ import java.net.InetSocketAddress;
 import java.net.SocketAddress;
 import java.util.Iterator;
 import java.util.Map;
+import org.mariadb.r2dbc.api.MariadbPoolMetrics;
 import org.mariadb.r2dbc.client.Client;
 import org.mariadb.r2dbc.client.ClientImpl;
 import org.mariadb.r2dbc.client.ClientPipelineImpl;
 import org.mariadb.r2dbc.message.flow.AuthenticationFlow;
 import org.mariadb.r2dbc.util.Assert;
+import org.mariadb.r2dbc.util.ClientPrepareResultCache;
 import reactor.core.publisher.Mono;
 import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.resources.LoopResources;
+import reactor.util.annotation.Nullable;
 
-public final class MariadbConnectionFactory implements ConnectionFactory {
+public final class MariadbConnectionFactory implements ConnectionFactory, Closeable {
 
   private final MariadbConnectionConfiguration configuration;
   private final SocketAddress endpoint;
+  private final ClientPrepareResultCache parseCache;
+  @Nullable private final MariadbConnectionPool pool;
+  // event loops of connections, null for reactor-netty global event loops
+  @Nullable private final LoopResources loopResources;
+  private final boolean ownLoopResources;
 
   public MariadbConnectionFactory(MariadbConnectionConfiguration configuration) {
     this.configuration = Assert.requireNonNull(configuration, "configuration must not be null");
     this.endpoint = createSocketAddress(configuration);
+    this.ownLoopResources =
+        configuration.getLoopResources() == null && configuration.getEventLoopThreads() > 0;
+    this.loopResources =
+        ownLoopResources
+            ? LoopResources.create("mariadb-r2dbc", configuration.getEventLoopThreads(), true)
+            : configuration.getLoopResources();
+    this.parseCache = new ClientPrepareResultCache(configuration.getParseCacheSize());
+    this.pool =
+        configuration.isPool()
+            ? new MariadbConnectionPool(configuration, this::doCreateConnection)
+            : null;
   }
 
   public static MariadbConnectionFactory from(MariadbConnectionConfiguration configuration) {
@@ -55,19 +75,55 @@ public final class MariadbConnectionFactory implements ConnectionFactory {
 
   @Override
   public Mono<org.mariadb.r2dbc.api.MariadbConnection> create() {
+    if (this.pool != null) {
+      return this.pool.acquire();
+    }
     return doCreateConnection().cast(org.mariadb.r2dbc.api.MariadbConnection.class);
   }
 
+  /**
+   * Connection pool metrics.
+   *
+   * @return pool metrics, or null if factory doesn't use a pool
+   */
+  @Nullable
+  public MariadbPoolMetrics getPoolMetrics() {
+    return this.pool;
+  }
+
+  /**
+   * Client query parsing cache, shared by all connections created by this factory.
+   *
+   * @return parse cache, with hit/miss counters
+   */
+  public ClientPrepareResultCache getParseCache() {
+    return this.parseCache;
+  }
+
+  /**
+   * Close pool idle connections, borrowed connections being closed when released, and release event
+   * loops created by this factory (see {@link
+   * MariadbConnectionConfiguration.Builder#eventLoopThreads(int)}).
+   *
+   * @return a {@link Mono} that completes when idle connections are closed
+   */
+  @Override
+  public Mono<Void> close() {
+    Mono<Void> closing = this.pool == null ? Mono.empty() : this.pool.close();
+    return ownLoopResources ? closing.then(this.loopResources.disposeLater()) : closing;
+  }
+
   private Mono<MariadbConnection> doCreateConnection() {
 
     Mono<Client> clientMono;
     if (configuration.allowPipelining()) {
       clientMono =
           ClientPipelineImpl.connect(
-              ConnectionProvider.newConnection(), this.endpoint, configuration);
+              ConnectionProvider.newConnection(), this.endpoint, configuration, loopResources);
     } else {
       clientMono =
-          ClientImpl.connect(ConnectionProvider.newConnection(), this.endpoint, configuration);
+          ClientImpl.connect(
+              ConnectionProvider.newConnection(), this.endpoint, configuration, loopResources);
     }
 
     return clientMono
@@ -78,21 +134,24 @@ public final class MariadbConnectionFactory implements ConnectionFactory {
               Mono<Void> waiting = Mono.empty();
               if (configuration.getSessionVariables() != null
                   && configuration.getSessionVariables().size() > 0) {
-                waiting = setSessionVariables(client);
+                waiting = setSessionVariables(client, configuration);
               }
 
               if (configuration.getIsolationLevel() == null) {
 
                 Mono<IsolationLevel> isolationLevelMono = waiting.then(getIsolationLevel(client));
                 return isolationLevelMono
-                    .map(it -> new MariadbConnection(client, it, configuration))
+                    .map(it -> new MariadbConnection(client, it, configuration, parseCache))
                     .onErrorResume(throwable -> this.closeWithError(client, throwable));
               } else {
                 return waiting
                     .then(
                         Mono.just(
                             new MariadbConnection(
-                                client, configuration.getIsolationLevel(), configuration)))
+                                client,
+                                configuration.getIsolationLevel(),
+                                configuration,
+                                parseCache)))
                     .onErrorResume(throwable -> this.closeWithError(client, throwable));
               }
             })
@@ -123,7 +182,12 @@ public final class MariadbConnectionFactory implements ConnectionFactory {
     return "MariadbConnectionFactory{configuration=" + this.configuration + '}';
   }
 
-  private Mono<Void> setSessionVariables(Client client) {
+  static Mono<Void> setSessionVariables(
+      Client client, MariadbConnectionConfiguration configuration) {
+    if (configuration.getSessionVariables() == null
+        || configuration.getSessionVariables().isEmpty()) {
+      return Mono.empty();
+    }
     StringBuilder sql = new StringBuilder("SET ");
 
     Map<String, String> sessionVariable = configuration.getSessionVariables();
@@ -22,7 +22,9 @@ import io.r2dbc.spi.ConnectionFactoryOptions;
 import io.r2dbc.spi.ConnectionFactoryProvider;
 import io.r2dbc.spi.Option;
 import java.time.Duration;
+import org.mariadb.r2dbc.metrics.Metrics;
 import org.mariadb.r2dbc.util.Assert;
+import reactor.netty.resources.LoopResources;
 
 public final class MariadbConnectionFactoryProvider implements ConnectionFactoryProvider {
   public static final String MARIADB_DRIVER = "mariadb";
@@ -33,13 +35,46 @@ public final class MariadbConnectionFactoryProvider implements ConnectionFactory
   public static final Option<String> CLIENT_SSL_CERT = Option.valueOf("clientSslCert");
   public static final Option<Boolean> ALLOW_PIPELINING = Option.valueOf("allowPipelining");
   public static final Option<Boolean> USE_SERVER_PREPARE = Option.valueOf("useServerPrepStmts");
+  public static final Option<Boolean> USE_BULK_STMTS = Option.valueOf("useBulkStmts");
+  public static final Option<Boolean> REWRITE_BATCHED_STATEMENTS =
+      Option.valueOf("rewriteBatchedStatements");
+  public static final Option<Boolean> USE_COMPRESSION = Option.valueOf("useCompression");
+  public static final Option<Integer> COMPRESSION_THRESHOLD =
+      Option.valueOf("compressionThreshold");
   public static final Option<Integer> PREPARE_CACHE_SIZE = Option.valueOf("prepareCacheSize");
+  public static final Option<Integer> PARSE_CACHE_SIZE = Option.valueOf("parseCacheSize");
   public static final Option<String> SSL_MODE = Option.valueOf("sslMode");
   public static final Option<String> CONNECTION_ATTRIBUTES = Option.valueOf("connectionAttributes");
   public static final Option<String> PAM_OTHER_PASSWORD = Option.valueOf("pamOtherPwd");
   public static final Option<Duration> SOCKET_TIMEOUT = Option.valueOf("socketTimeout");
   public static final Option<Boolean> TCP_KEEP_ALIVE = Option.valueOf("tcpKeepAlive");
   public static final Option<Boolean> TCP_ABORTIVE_CLOSE = Option.valueOf("tcpAbortiveClose");
+  public static final Option<Boolean> TCP_NO_DELAY = Option.valueOf("tcpNoDelay");
+  public static final Option<Integer> SOCKET_RECEIVE_BUFFER_SIZE =
+      Option.valueOf("socketReceiveBufferSize");
+  public static final Option<Integer> SOCKET_SEND_BUFFER_SIZE =
+      Option.valueOf("socketSendBufferSize");
+  public static final Option<Integer> ADAPTIVE_READ_BUFFER_MAX_SIZE =
+      Option.valueOf("adaptiveReadBufferMaxSize");
+  public static final Option<LoopResources> LOOP_RESOURCES = Option.valueOf("loopResources");
+  public static final Option<Integer> EVENT_LOOP_THREADS = Option.valueOf("eventLoopThreads");
+  public static final Option<Boolean> PREFER_NATIVE_TRANSPORT =
+      Option.valueOf("preferNativeTransport");
+  public static final Option<Duration> FLUSH_MAX_DELAY = Option.valueOf("flushMaxDelay");
+  public static final Option<Integer> FLUSH_MAX_PENDING_BYTES =
+      Option.valueOf("flushMaxPendingBytes");
+  public static final Option<Boolean> POOL = Option.valueOf("pool");
+  public static final Option<Integer> MIN_POOL_SIZE = Option.valueOf("minPoolSize");
+  public static final Option<Integer> MAX_POOL_SIZE = Option.valueOf("maxPoolSize");
+  public static final Option<Duration> MAX_IDLE_TIME = Option.valueOf("maxIdleTime");
+  public static final Option<Duration> POOL_VALIDATION_INTERVAL =
+      Option.valueOf("poolValidationInterval");
+  public static final Option<Duration> POOL_ACQUIRE_TIMEOUT = Option.valueOf("poolAcquireTimeout");
+  public static final Option<Boolean> POOL_RESET_CONNECTION = Option.valueOf("poolResetConnection");
+  public static final Option<Metrics> METRICS = Option.valueOf("metrics");
+  public static final Option<Integer> LOB_CHUNK_SIZE = Option.valueOf("lobChunkSize");
+  public static final Option<String> LOCAL_INFILE_DIRECTORIES =
+      Option.valueOf("localInfileDirectories");
 
   static MariadbConnectionConfiguration createConfiguration(
       ConnectionFactoryOptions connectionFactoryOptions) {
@@ -0,0 +1,460 @@
+/*
+ * Copyright 2020 MariaDB Ab.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mariadb.r2dbc;
+
+import io.r2dbc.spi.R2dbcNonTransientResourceException;
+import io.r2dbc.spi.R2dbcTimeoutException;
+import io.r2dbc.spi.ValidationDepth;
+import java.time.Duration;
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import org.mariadb.r2dbc.api.MariadbPoolMetrics;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.Logger;
+import reactor.util.Loggers;
+
+/**
+ * Connection pool. Idle connections are kept in LIFO order, so the most recently used connections
+ * are borrowed first, letting the others reach maxIdleTime. Connection requests are served in FIFO
+ * order.
+ *
+ * <p>Connection returned to pool are reset before being made available again, and idle connections
+ * are validated in background, once the first connection has been requested. Requests waiting
+ * longer than pool acquire timeout fail.
+ */
+final class MariadbConnectionPool implements MariadbPoolMetrics {
+
+  private static final Logger logger = Loggers.getLogger(MariadbConnectionPool.class);
+
+  private final MariadbConnectionConfiguration configuration;
+  private final Supplier<Mono<MariadbConnection>> connectionSupplier;
+  private final Deque<PooledEntry> idle = new ConcurrentLinkedDeque<>();
+  private final Deque<Borrower> pending = new ConcurrentLinkedDeque<>();
+  private final AtomicInteger wip = new AtomicInteger();
+  private final AtomicInteger allocated = new AtomicInteger();
+  private final AtomicInteger acquired = new AtomicInteger();
+  private final AtomicInteger pendingSize = new AtomicInteger();
+  private final AtomicLong acquireCount = new AtomicLong();
+  private final AtomicLong createdCount = new AtomicLong();
+  private final AtomicLong totalAcquireNanos = new AtomicLong();
+  private final AtomicLong maxAcquireNanos = new AtomicLong();
+  private final long maxIdleNanos;
+  private final long validationNanos;
+  private final long maintenancePeriod;
+  private final long acquireTimeoutMillis;
+  private final AtomicBoolean maintenanceStarted = new AtomicBoolean();
+  private volatile Disposable maintenanceTask;
+  private volatile boolean closed;
+
+  MariadbConnectionPool(
+      MariadbConnectionConfiguration configuration,
+      Supplier<Mono<MariadbConnection>> connectionSupplier) {
+    this.configuration = configuration;
+    this.connectionSupplier = connectionSupplier;
+    this.maxIdleNanos = configuration.getMaxIdleTime().toNanos();
+    this.validationNanos = configuration.getPoolValidationInterval().toNanos();
+    this.maintenancePeriod =
+        Math.max(
+            1,
+            Math.min(
+                configuration.getMaxIdleTime().toMillis(),
+                configuration.getPoolValidationInterval().toMillis()));
+    this.acquireTimeoutMillis = configuration.getPoolAcquireTimeout().toMillis();
+  }
+
+  /** Start background maintenance on first connection request, not when pool is created. */
+  private void startMaintenance() {
+    if (this.maintenanceStarted.compareAndSet(false, true)) {
+      this.maintenanceTask =
+          Schedulers.parallel()
+              .schedulePeriodically(
+                  this::maintain, 0, this.maintenancePeriod, TimeUnit.MILLISECONDS);
+      // pool might have been closed concurrently, before task was registered
+      if (this.closed) {
+        this.maintenanceTask.dispose();
+      }
+    }
+  }
+
+  Mono<org.mariadb.r2dbc.api.MariadbConnection> acquire() {
+    return Mono.create(
+        sink -> {
+          if (this.closed) {
+            sink.error(new R2dbcNonTransientResourceException("Connection pool is closed"));
+            return;
+          }
+          startMaintenance();
+          Borrower borrower = new Borrower(sink);
+          sink.onCancel(borrower::cancel);
+          this.pendingSize.incrementAndGet();
+          if (this.acquireTimeoutMillis > 0) {
+            borrower.timer =
+                Schedulers.parallel()
+                    .schedule(borrower::timeout, this.acquireTimeoutMillis, TimeUnit.MILLISECONDS);
+          }
+          this.pending.offerLast(borrower);
+          drain();
+        });
+  }
+
+  /**
+   * Reset connection state then make it available to other borrowers. Connection is discarded if
+   * reset fails.
+   *
+   * @param entry pooled connection
+   * @return a {@link Mono} that completes when connection is back in pool
+   */
+  Mono<Void> release(PooledEntry entry) {
+    this.acquired.decrementAndGet();
+    if (this.closed) {
+      return destroy(entry);
+    }
+    return entry
+        .connection
+        .reset(this.configuration.isPoolResetConnection())
+        .then(
+            Mono.fromRunnable(
+                () -> {
+                  long now = System.nanoTime();
+                  entry.lastUsed = now;
+                  entry.lastValidated = now;
+                  offerIdle(entry, true);
+                }))
+        .onErrorResume(
+            throwable -> {
+              logger.debug("Connection reset failed, discarding connection", throwable);
+              return destroy(entry);
+            })
+        .then();
+  }
+
+  Mono<Void> close() {
+    return Mono.defer(
+        () -> {
+          if (this.closed) {
+            return Mono.empty();
+          }
+          this.closed = true;
+          Disposable task = this.maintenanceTask;
+          if (task != null) {
+            task.dispose();
+          }
+
+          Borrower borrower;
+          while ((borrower = this.pending.pollFirst()) != null) {
+            borrower.error(new R2dbcNonTransientResourceException("Connection pool is closed"));
+          }
+
+          Mono<Void> closing = Mono.empty();
+          PooledEntry entry;
+          while ((entry = this.idle.pollFirst()) != null) {
+            closing = closing.then(destroy(entry));
+          }
+          return closing;
+        });
+  }
+
+  /** Serve pending requests with idle connections, or create new ones if pool is not full. */
+  private void drain() {
+    if (this.wip.getAndIncrement() != 0) {
+      return;
+    }
+    int missed = 1;
+    for (; ; ) {
+      Borrower borrower;
+      while ((borrower = this.pending.peekFirst()) != null) {
+        if (borrower.isDone()) {
+          this.pending.pollFirst();
+          continue;
+        }
+
+        PooledEntry entry = this.idle.pollFirst();
+        if (entry != null) {
+          if (!entry.connection.isConnected()) {
+            destroy(entry).subscribe();
+            continue;
+          }
+          this.pending.pollFirst();
+          if (!borrower.deliver(entry)) {
+            // borrower has cancelled in the meantime
+            this.idle.offerFirst(entry);
+          }
+          continue;
+        }
+
+        if (!reserveAllocation(this.configuration.getMaxPoolSize())) {
+          break;
+        }
+        this.pending.pollFirst();
+        createConnection(borrower);
+      }
+
+      missed = this.wip.addAndGet(-missed);
+      if (missed == 0) {
+        return;
+      }
+    }
+  }
+
+  private boolean reserveAllocation(int limit) {
+    for (; ; ) {
+      int current = this.allocated.get();
+      if (current >= limit) {
+        return false;
+      }
+      if (this.allocated.compareAndSet(current, current + 1)) {
+        return true;
+      }
+    }
+  }
+
+  /**
+   * Create a new connection, for a waiting borrower, or to fill the pool to minimum size if {@code
+   * borrower} is null.
+   */
+  private void createConnection(Borrower borrower) {
+    this.connectionSupplier
+        .get()
+        .subscribe(
+            connection -> {
+              this.createdCount.incrementAndGet();
+              PooledEntry entry = new PooledEntry(connection);
+              if (borrower == null || !borrower.deliver(entry)) {
+                offerIdle(entry, true);
+              }
+            },
+            throwable -> {
+              this.allocated.decrementAndGet();
+              if (borrower != null) {
+                borrower.error(throwable);
+              } else {
+                logger.debug("Error creating pool connection", throwable);
+              }
+              drain();
+            });
+  }
+
+  private void offerIdle(PooledEntry entry, boolean mostRecent) {
+    if (this.closed) {
+      destroy(entry).subscribe();
+      return;
+    }
+    if (mostRecent) {
+      this.idle.offerFirst(entry);
+    } else {
+      this.idle.offerLast(entry);
+    }
+    drain();
+  }
+
+  private Mono<Void> destroy(PooledEntry entry) {
+    this.allocated.decrementAndGet();
+    return entry
+        .connection
+        .close()
+        .onErrorResume(
+            throwable -> {
+              logger.debug("Error closing pool connection", throwable);
+              return Mono.empty();
+            })
+        .doFinally(s -> drain());
+  }
+
+  /** Evict connections idle for too long, validate idle connections and ensure minimum size. */
+  private void maintain() {
+    if (this.closed) {
+      return;
+    }
+    try {
+      long now = System.nanoTime();
+      for (PooledEntry entry : this.idle) {
+        if (now - entry.lastUsed > this.maxIdleNanos
+            && this.allocated.get() > this.configuration.getMinPoolSize()) {
+          if (this.idle.remove(entry)) {
+            destroy(entry).subscribe();
+          }
+        } else if (now - entry.lastValidated > this.validationNanos) {
+          if (this.idle.remove(entry)) {
+            validate(entry);
+          }
+        }
+      }
+
+      while (reserveAllocation(this.configuration.getMinPoolSize())) {
+        createConnection(null);
+      }
+    } catch (Throwable t) {
+      logger.error("Connection pool maintenance error", t);
+    }
+  }
+
+  private void validate(PooledEntry entry) {
+    entry
+        .connection
+        .validate(ValidationDepth.REMOTE)
+        .subscribe(
+            valid -> {
+              if (valid) {
+                entry.lastValidated = System.nanoTime();
+                offerIdle(entry, false);
+              } else {
+                destroy(entry).subscribe();
+              }
+            },
+            throwable -> destroy(entry).subscribe());
+  }
+
+  @Override
+  public int getAcquiredSize() {
+    return this.acquired.get();
+  }
+
+  @Override
+  public int getIdleSize() {
+    return this.idle.size();
+  }
+
+  @Override
+  public int getAllocatedSize() {
+    return this.allocated.get();
+  }
+
+  @Override
+  public int getPendingAcquireSize() {
+    return this.pendingSize.get();
+  }
+
+  @Override
+  public int getMaxAllocatedSize() {
+    return this.configuration.getMaxPoolSize();
+  }
+
+  @Override
+  public long getAcquireCount() {
+    return this.acquireCount.get();
+  }
+
+  @Override
+  public long getCreatedCount() {
+    return this.createdCount.get();
+  }
+
+  @Override
+  public Duration getTotalAcquireTime() {
+    return Duration.ofNanos(this.totalAcquireNanos.get());
+  }
+
+  @Override
+  public Duration getMaxAcquireTime() {
+    return Duration.ofNanos(this.maxAcquireNanos.get());
+  }
+
+  @Override
+  public String toString() {
+    return "MariadbConnectionPool{acquired="
+        + getAcquiredSize()
+        + ", idle="
+        + getIdleSize()
+        + ", allocated="
+        + getAllocatedSize()
+        + ", pendingAcquire="
+        + getPendingAcquireSize()
+        + ", maxAllocated="
+        + getMaxAllocatedSize()
+        + '}';
+  }
+
+  static final class PooledEntry {
+    final MariadbConnection connection;
+    volatile long lastUsed;
+    volatile long lastValidated;
+
+    PooledEntry(MariadbConnection connection) {
+      this.connection = connection;
+      this.lastUsed = System.nanoTime();
+      this.lastValidated = this.lastUsed;
+    }
+  }
+
+  private final class Borrower {
+    private final MonoSink<org.mariadb.r2dbc.api.MariadbConnection> sink;
+    private final long start = System.nanoTime();
+    private final AtomicBoolean done = new AtomicBoolean();
+    private volatile Disposable timer;
+
+    Borrower(MonoSink<org.mariadb.r2dbc.api.MariadbConnection> sink) {
+      this.sink = sink;
+    }
+
+    boolean isDone() {
+      return this.done.get();
+    }
+
+    void cancel() {
+      if (this.done.compareAndSet(false, true)) {
+        pendingSize.decrementAndGet();
+        disposeTimer();
+      }
+    }
+
+    void timeout() {
+      error(
+          new R2dbcTimeoutException(
+              String.format(
+                  "Connection pool acquire timeout: no connection available after %sms (%s)",
+                  acquireTimeoutMillis, MariadbConnectionPool.this)));
+    }
+
+    boolean deliver(PooledEntry entry) {
+      if (!this.done.compareAndSet(false, true)) {
+        return false;
+      }
+      pendingSize.decrementAndGet();
+      disposeTimer();
+      long elapsed = System.nanoTime() - this.start;
+      acquired.incrementAndGet();
+      acquireCount.incrementAndGet();
+      totalAcquireNanos.addAndGet(elapsed);
+      maxAcquireNanos.accumulateAndGet(elapsed, Math::max);
+      this.sink.success(new MariadbPooledConnection(entry, MariadbConnectionPool.this));
+      return true;
+    }
+
+    void error(Throwable throwable) {
+      if (this.done.compareAndSet(false, true)) {
+        pendingSize.decrementAndGet();
+        disposeTimer();
+        this.sink.error(throwable);
+      }
+    }
+
+    private void disposeTimer() {
+      Disposable timer = this.timer;
+      if (timer != null) {
+        timer.dispose();
+      }
+    }
+  }
+}
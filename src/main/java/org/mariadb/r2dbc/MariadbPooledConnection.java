@@ -0,0 +1,144 @@
+/*
+ * Copyright 2020 MariaDB Ab.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mariadb.r2dbc;
+
+import io.netty.buffer.ByteBuf;
+import io.r2dbc.spi.IsolationLevel;
+import io.r2dbc.spi.ValidationDepth;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.mariadb.r2dbc.api.MariadbStatement;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Mono;
+
+/** Connection borrowed from pool. Closing it returns the underlying connection to pool. */
+final class MariadbPooledConnection implements org.mariadb.r2dbc.api.MariadbConnection {
+
+  private final MariadbConnectionPool.PooledEntry entry;
+  private final MariadbConnectionPool pool;
+  private final AtomicBoolean released = new AtomicBoolean();
+
+  MariadbPooledConnection(MariadbConnectionPool.PooledEntry entry, MariadbConnectionPool pool) {
+    this.entry = entry;
+    this.pool = pool;
+  }
+
+  private MariadbConnection connection() {
+    if (this.released.get()) {
+      throw new IllegalStateException("Connection has been returned to pool");
+    }
+    return this.entry.connection;
+  }
+
+  @Override
+  public Mono<Void> beginTransaction() {
+    return Mono.defer(() -> connection().beginTransaction());
+  }
+
+  @Override
+  public Mono<Void> close() {
+    return Mono.defer(
+        () -> {
+          if (this.released.compareAndSet(false, true)) {
+            return this.pool.release(this.entry);
+          }
+          return Mono.empty();
+        });
+  }
+
+  @Override
+  public Mono<Void> commitTransaction() {
+    return Mono.defer(() -> connection().commitTransaction());
+  }
+
+  @Override
+  public MariadbBatch createBatch() {
+    return connection().createBatch();
+  }
+
+  @Override
+  public Mono<Void> createSavepoint(String name) {
+    return Mono.defer(() -> connection().createSavepoint(name));
+  }
+
+  @Override
+  public MariadbStatement createStatement(String sql) {
+    return connection().createStatement(sql);
+  }
+
+  @Override
+  public MariadbConnectionMetadata getMetadata() {
+    return connection().getMetadata();
+  }
+
+  @Override
+  public IsolationLevel getTransactionIsolationLevel() {
+    return connection().getTransactionIsolationLevel();
+  }
+
+  @Override
+  public boolean isAutoCommit() {
+    return connection().isAutoCommit();
+  }
+
+  @Override
+  public Mono<Long> loadData(String sql, Publisher<ByteBuf> data) {
+    return Mono.defer(() -> connection().loadData(sql, data));
+  }
+
+  @Override
+  public Mono<Long> loadRows(String sql, Publisher<Object[]> rows) {
+    return Mono.defer(() -> connection().loadRows(sql, rows));
+  }
+
+  @Override
+  public Mono<Void> releaseSavepoint(String name) {
+    return Mono.defer(() -> connection().releaseSavepoint(name));
+  }
+
+  @Override
+  public Mono<Void> rollbackTransaction() {
+    return Mono.defer(() -> connection().rollbackTransaction());
+  }
+
+  @Override
+  public Mono<Void> rollbackTransactionToSavepoint(String name) {
+    return Mono.defer(() -> connection().rollbackTransactionToSavepoint(name));
+  }
+
+  @Override
+  public Mono<Void> setAutoCommit(boolean autoCommit) {
+    return Mono.defer(() -> connection().setAutoCommit(autoCommit));
+  }
+
+  @Override
+  public Mono<Void> setTransactionIsolationLevel(IsolationLevel isolationLevel) {
+    return Mono.defer(() -> connection().setTransactionIsolationLevel(isolationLevel));
+  }
+
+  @Override
+  public Mono<Boolean> validate(ValidationDepth depth) {
+    if (this.released.get()) {
+      return Mono.just(false);
+    }
+    return this.entry.connection.validate(depth);
+  }
+
+  @Override
+  public String toString() {
+    return "MariadbPooledConnection{connection=" + this.entry.connection + '}';
+  }
+}
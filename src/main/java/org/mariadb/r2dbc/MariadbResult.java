@@ -26,6 +26,8 @@ import org.mariadb.r2dbc.codec.BinaryRowDecoder;
 import org.mariadb.r2dbc.codec.RowDecoder;
 import org.mariadb.r2dbc.codec.TextRowDecoder;
 import org.mariadb.r2dbc.message.server.*;
+import org.mariadb.r2dbc.util.Assert;
+import org.mariadb.r2dbc.util.ServerPrepareResult;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -42,6 +44,10 @@ final class MariadbResult implements org.mariadb.r2dbc.api.MariadbResult {
   private volatile int metadataIndex;
   private volatile int columnNumber;
   private volatile MariadbRowMetadata rowMetadata;
+  private volatile ServerPrepareResult prepareResult;
+  private volatile boolean reuseRow;
+  private MariadbRow reusableRow;
+  private RowMapper<?> rowMapper;
 
   MariadbResult(
       boolean text,
@@ -71,6 +77,12 @@ final class MariadbResult implements org.mariadb.r2dbc.api.MariadbResult {
                 long affectedRows = okPacket.getAffectedRows();
                 sink.next((int) affectedRows);
                 sink.complete();
+                return;
+              }
+
+              if (serverMessage instanceof StreamedRowPacket) {
+                // streamed LOBs must be consumed for following data to be read
+                ((StreamedRowPacket) serverMessage).discard();
               }
             });
     return f.singleOrEmpty();
@@ -90,7 +102,21 @@ final class MariadbResult implements org.mariadb.r2dbc.api.MariadbResult {
               }
 
               if (serverMessage instanceof ColumnCountPacket) {
-                this.columnNumber = ((ColumnCountPacket) serverMessage).getColumnCount();
+                ColumnCountPacket packet = (ColumnCountPacket) serverMessage;
+                this.columnNumber = packet.getColumnCount();
+                this.prepareResult = packet.getPrepareResult();
+                if (!packet.isMetaFollows()) {
+                  // server skipped metadata: use prepared statement cached columns
+                  ColumnDefinitionPacket[] columns = prepareResult.getColumns();
+                  if (columns == null || columns.length != columnNumber) {
+                    sink.error(
+                        this.factory.createException(
+                            "Missing result-set metadata of prepared statement", "HY000", -1));
+                    return;
+                  }
+                  setMetadata(columns);
+                  return;
+                }
                 metadataList = new ColumnDefinitionPacket[this.columnNumber];
                 return;
               }
@@ -98,22 +124,48 @@ final class MariadbResult implements org.mariadb.r2dbc.api.MariadbResult {
               if (serverMessage instanceof ColumnDefinitionPacket) {
                 this.metadataList[metadataIndex++] = (ColumnDefinitionPacket) serverMessage;
                 if (metadataIndex == columnNumber) {
-                  rowMetadata = MariadbRowMetadata.toRowMetadata(this.metadataList);
-                  this.decoder =
-                      text
-                          ? new TextRowDecoder(columnNumber, this.metadataList)
-                          : new BinaryRowDecoder(columnNumber, this.metadataList);
+                  if (prepareResult == null) {
+                    setMetadata(this.metadataList);
+                    return;
+                  }
+                  ColumnDefinitionPacket[] cached = prepareResult.getColumns();
+                  if (sameDefinitions(cached, this.metadataList)) {
+                    // keep cached columns, and row metadata built from them
+                    setMetadata(cached);
+                  } else {
+                    // first execute, or metadata have changed since prepare
+                    prepareResult.setColumns(this.metadataList);
+                    setMetadata(this.metadataList);
+                  }
                 }
                 return;
               }
 
               if (serverMessage instanceof RowPacket) {
-                ByteBuf buf = ((RowPacket) serverMessage).getRaw();
+                RowPacket packet = (RowPacket) serverMessage;
+                try {
+                  sink.next(f.apply(row(packet.getRaw()), rowMetadata));
+                } catch (IllegalArgumentException i) {
+                  sink.error(this.factory.createException(i.getMessage(), "HY000", -1));
+                } finally {
+                  packet.release();
+                }
+                return;
+              }
+
+              if (serverMessage instanceof StreamedRowPacket) {
+                StreamedRowPacket packet = (StreamedRowPacket) serverMessage;
+                ByteBuf buf = packet.getRaw();
                 try {
-                  sink.next(f.apply(new MariadbRow(metadataList, decoder, buf), rowMetadata));
+                  sink.next(
+                      f.apply(
+                          new MariadbRow(metadataList, rowMetadata, decoder, buf, packet),
+                          rowMetadata));
                 } catch (IllegalArgumentException i) {
                   sink.error(this.factory.createException(i.getMessage(), "HY000", -1));
                 } finally {
+                  // LOBs not retrieved during mapping will never be consumed
+                  packet.discardUnclaimed();
                   buf.release();
                 }
                 return;
@@ -142,7 +194,9 @@ final class MariadbResult implements org.mariadb.r2dbc.api.MariadbResult {
                 ByteBuf buf = getLongTextEncoded(okPacket.getLastInsertId());
                 decoder = new TextRowDecoder(1, this.metadataList);
                 try {
-                  sink.next(f.apply(new MariadbRow(metadataList, decoder, buf), rowMetadata));
+                  sink.next(
+                      f.apply(
+                          new MariadbRow(metadataList, rowMetadata, decoder, buf), rowMetadata));
                 } finally {
                   buf.release();
                 }
@@ -150,6 +204,67 @@ final class MariadbResult implements org.mariadb.r2dbc.api.MariadbResult {
             });
   }
 
+  @Override
+  public <T> Flux<T> mapTo(Class<T> type) {
+    Assert.requireNonNull(type, "type must not be null");
+    return map((row, metadata) -> rowMapper(type).map((MariadbRow) row));
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T> RowMapper<T> rowMapper(Class<T> type) {
+    // bindings are resolved once, from first row metadata
+    if (rowMapper == null) {
+      rowMapper = RowMapper.of(type, metadataList, rowMetadata);
+    }
+    return (RowMapper<T>) rowMapper;
+  }
+
+  @Override
+  public MariadbResult reuseRow() {
+    this.reuseRow = true;
+    return this;
+  }
+
+  private MariadbRow row(ByteBuf buf) {
+    if (!reuseRow) {
+      return new MariadbRow(metadataList, rowMetadata, decoder, buf);
+    }
+    if (reusableRow == null) {
+      reusableRow = new MariadbRow(metadataList, rowMetadata, decoder, buf);
+    } else {
+      reusableRow.reset(buf);
+    }
+    return reusableRow;
+  }
+
+  private void setMetadata(ColumnDefinitionPacket[] columns) {
+    metadataList = columns;
+    if (prepareResult != null) {
+      // row metadata is shared by all results of prepared statement
+      MariadbRowMetadata cached = (MariadbRowMetadata) prepareResult.getRowMetadata(columns);
+      if (cached == null) {
+        cached = MariadbRowMetadata.toRowMetadata(columns);
+        prepareResult.setRowMetadata(columns, cached);
+      }
+      rowMetadata = cached;
+    } else {
+      rowMetadata = MariadbRowMetadata.toRowMetadata(columns);
+    }
+    this.decoder =
+        text
+            ? new TextRowDecoder(columnNumber, columns)
+            : new BinaryRowDecoder(columnNumber, columns);
+  }
+
+  private static boolean sameDefinitions(
+      ColumnDefinitionPacket[] cached, ColumnDefinitionPacket[] columns) {
+    if (cached == null || cached.length != columns.length) return false;
+    for (int i = 0; i < columns.length; i++) {
+      if (cached[i] == null || !cached[i].sameDefinition(columns[i])) return false;
+    }
+    return true;
+  }
+
   private ByteBuf getLongTextEncoded(long value) {
     byte[] byteValue = Long.toString(value).getBytes(StandardCharsets.US_ASCII);
     byte[] encodedLength;
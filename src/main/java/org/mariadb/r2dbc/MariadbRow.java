@@ -17,26 +17,51 @@
 package org.mariadb.r2dbc;
 
 import io.netty.buffer.ByteBuf;
-import io.r2dbc.spi.Row;
-import java.util.Collections;
-import java.util.Set;
-import java.util.TreeSet;
+import io.r2dbc.spi.R2dbcNonTransientResourceException;
+import org.mariadb.r2dbc.codec.Codec;
 import org.mariadb.r2dbc.codec.RowDecoder;
 import org.mariadb.r2dbc.message.server.ColumnDefinitionPacket;
+import org.mariadb.r2dbc.message.server.StreamedRowPacket;
 import org.mariadb.r2dbc.util.Assert;
 import reactor.util.annotation.Nullable;
 
-public class MariadbRow implements Row {
+public class MariadbRow implements org.mariadb.r2dbc.api.MariadbRow {
 
   private final ColumnDefinitionPacket[] columnDefinitionPackets;
+  private final MariadbRowMetadata rowMetadata;
   private final RowDecoder decoder;
-  private final ByteBuf raw;
+  // row exceeding packet size, whose last columns are streamed
+  @Nullable private final StreamedRowPacket streamed;
+  private ByteBuf raw;
 
-  MariadbRow(ColumnDefinitionPacket[] columnDefinitionPackets, RowDecoder decoder, ByteBuf data) {
+  MariadbRow(
+      ColumnDefinitionPacket[] columnDefinitionPackets,
+      MariadbRowMetadata rowMetadata,
+      RowDecoder decoder,
+      ByteBuf data) {
+    this(columnDefinitionPackets, rowMetadata, decoder, data, null);
+  }
+
+  MariadbRow(
+      ColumnDefinitionPacket[] columnDefinitionPackets,
+      MariadbRowMetadata rowMetadata,
+      RowDecoder decoder,
+      ByteBuf data,
+      @Nullable StreamedRowPacket streamed) {
     this.columnDefinitionPackets = columnDefinitionPackets;
+    this.rowMetadata = rowMetadata;
     this.decoder = decoder;
-    this.raw = data;
+    this.streamed = streamed;
+    reset(data);
+  }
 
+  /**
+   * Point this row to another row data, for results reusing their row instance.
+   *
+   * @param data row data
+   */
+  void reset(ByteBuf data) {
+    this.raw = data;
     decoder.resetRow(raw);
   }
 
@@ -44,6 +69,9 @@ public class MariadbRow implements Row {
   @Override
   public <T> T get(int index, Class<T> type) {
     Assert.requireNonNull(type, "type must not be null");
+    if (isStreamed(index)) {
+      return streamed.get(index, columnDefinitionPackets[index], type);
+    }
     return decoder.get(index, getMeta(index), type);
   }
 
@@ -52,25 +80,134 @@ public class MariadbRow implements Row {
   public <T> T get(String name, Class<T> type) {
     Assert.requireNonNull(name, "name must not be null");
     Assert.requireNonNull(type, "type must not be null");
-    return get(getColumn(name), type);
+    return get(rowMetadata.getColumn(name), type);
   }
 
-  private int getColumn(String name) {
-    Assert.requireNonNull(name, "name must not be null");
-    for (int i = 0; i < this.columnDefinitionPackets.length; i++) {
-      if (this.columnDefinitionPackets[i].getColumnAlias().equalsIgnoreCase(name)) {
-        return i;
-      }
+  /**
+   * Decode column using a codec already resolved for this column and type.
+   *
+   * @param index column index
+   * @param codec codec
+   * @param type requested type
+   * @param <T> requested type
+   * @return decoded value
+   */
+  <T> T decode(int index, Codec<T> codec, Class<? extends T> type) {
+    if (isStreamed(index)) {
+      return streamed.get(index, columnDefinitionPackets[index], type);
+    }
+    return decoder.decode(index, columnDefinitionPackets[index], codec, type);
+  }
+
+  @Override
+  public int getInt(int index) {
+    ColumnDefinitionPacket column = getMeta(index);
+    if (!RowDecoder.isLongCompatible(column)) {
+      Integer value = decoder.get(index, column, Integer.class);
+      return value == null ? 0 : value;
+    }
+    long value = decoder.getLong(index, column);
+    if ((int) value != value) {
+      throw new R2dbcNonTransientResourceException("integer overflow");
+    }
+    return (int) value;
+  }
+
+  @Override
+  public int getInt(String name) {
+    return getInt(rowMetadata.getColumn(name));
+  }
+
+  @Override
+  public long getLong(int index) {
+    return decoder.getLong(index, getMeta(index));
+  }
+
+  @Override
+  public long getLong(String name) {
+    return getLong(rowMetadata.getColumn(name));
+  }
+
+  @Override
+  public double getDouble(int index) {
+    return decoder.getDouble(index, getMeta(index));
+  }
+
+  @Override
+  public double getDouble(String name) {
+    return getDouble(rowMetadata.getColumn(name));
+  }
+
+  @Override
+  public float getFloat(int index) {
+    return decoder.getFloat(index, getMeta(index));
+  }
+
+  @Override
+  public float getFloat(String name) {
+    return getFloat(rowMetadata.getColumn(name));
+  }
+
+  @Override
+  public boolean getBoolean(int index) {
+    ColumnDefinitionPacket column = getMeta(index);
+    if (!RowDecoder.isLongCompatible(column)) {
+      Boolean value = decoder.get(index, column, Boolean.class);
+      return value != null && value;
+    }
+    return decoder.getLong(index, column) != 0;
+  }
+
+  @Override
+  public boolean getBoolean(String name) {
+    return getBoolean(rowMetadata.getColumn(name));
+  }
+
+  @Override
+  public short getShort(int index) {
+    ColumnDefinitionPacket column = getMeta(index);
+    if (!RowDecoder.isLongCompatible(column)) {
+      Short value = decoder.get(index, column, Short.class);
+      return value == null ? 0 : value;
+    }
+    long value = decoder.getLong(index, column);
+    if ((short) value != value) {
+      throw new R2dbcNonTransientResourceException("Short overflow");
     }
+    return (short) value;
+  }
+
+  @Override
+  public short getShort(String name) {
+    return getShort(rowMetadata.getColumn(name));
+  }
 
-    Set<String> columnNames = new TreeSet<>();
-    for (ColumnDefinitionPacket columnDef : columnDefinitionPackets) {
-      columnNames.add(columnDef.getColumnAlias());
+  @Override
+  public byte getByte(int index) {
+    ColumnDefinitionPacket column = getMeta(index);
+    if (!RowDecoder.isLongCompatible(column)) {
+      Byte value = decoder.get(index, column, Byte.class);
+      return value == null ? 0 : value;
+    }
+    long value = decoder.getLong(index, column);
+    if ((byte) value != value) {
+      throw new R2dbcNonTransientResourceException("byte overflow");
     }
-    throw new IllegalArgumentException(
-        String.format(
-            "Column name '%s' does not exist in column names %s",
-            name, Collections.unmodifiableCollection(columnNames)));
+    return (byte) value;
+  }
+
+  @Override
+  public byte getByte(String name) {
+    return getByte(rowMetadata.getColumn(name));
+  }
+
+  @Override
+  public boolean wasNull() {
+    return decoder.wasNull();
+  }
+
+  private boolean isStreamed(int index) {
+    return streamed != null && streamed.isStreamed(index) && index < columnDefinitionPackets.length;
   }
 
   private ColumnDefinitionPacket getMeta(int index) {
@@ -83,6 +220,10 @@ public class MariadbRow implements Row {
               "Column index %d not in range [0-%s]",
               index, this.columnDefinitionPackets.length - 1));
     }
+    if (isStreamed(index)) {
+      throw new R2dbcNonTransientResourceException(
+          String.format("Streamed column %d can only be read as Blob or Clob", index));
+    }
     return this.columnDefinitionPackets[index];
   }
 }
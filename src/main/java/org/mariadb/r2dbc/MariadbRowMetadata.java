@@ -24,10 +24,30 @@ import org.mariadb.r2dbc.util.Assert;
 final class MariadbRowMetadata implements RowMetadata {
 
   private final List<MariadbColumnMetadata> metadataList;
+  private final Map<String, Integer> nameIndex;
   private volatile Collection<String> columnNames;
 
   MariadbRowMetadata(List<MariadbColumnMetadata> metadataList) {
     this.metadataList = metadataList;
+    this.nameIndex = nameIndex(metadataList);
+  }
+
+  /**
+   * Build column name to index map, shared by all rows of a result. Names are indexed as received
+   * and lower-cased, for case-insensitive lookup. First column wins when names are duplicated.
+   *
+   * @param metadataList column metadata
+   * @return name index
+   */
+  private static Map<String, Integer> nameIndex(List<MariadbColumnMetadata> metadataList) {
+    Map<String, Integer> index = new HashMap<>(metadataList.size() * 4);
+    for (int i = 0; i < metadataList.size(); i++) {
+      index.putIfAbsent(metadataList.get(i).getName().toLowerCase(Locale.ROOT), i);
+    }
+    for (int i = 0; i < metadataList.size(); i++) {
+      index.putIfAbsent(metadataList.get(i).getName(), i);
+    }
+    return index;
   }
 
   static MariadbRowMetadata toRowMetadata(ColumnDefinitionPacket[] metadataList) {
@@ -53,12 +73,14 @@ final class MariadbRowMetadata implements RowMetadata {
     return metadataList.get(getColumn(name));
   }
 
-  private int getColumn(String name) {
+  int getColumn(String name) {
     Assert.requireNonNull(name, "name must not be null");
-    for (int i = 0; i < this.metadataList.size(); i++) {
-      if (this.metadataList.get(i).getName().equalsIgnoreCase(name)) {
-        return i;
-      }
+    Integer index = nameIndex.get(name);
+    if (index == null) {
+      index = nameIndex.get(name.toLowerCase(Locale.ROOT));
+    }
+    if (index != null) {
+      return index;
     }
     throw new IllegalArgumentException(
         String.format(
@@ -16,11 +16,15 @@
 
 package org.mariadb.r2dbc;
 
+import io.netty.buffer.ByteBuf;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.mariadb.r2dbc.api.MariadbStatement;
 import org.mariadb.r2dbc.client.Client;
 import org.mariadb.r2dbc.client.DecoderState;
@@ -28,12 +32,21 @@ import org.mariadb.r2dbc.codec.Codec;
 import org.mariadb.r2dbc.codec.Codecs;
 import org.mariadb.r2dbc.codec.DataType;
 import org.mariadb.r2dbc.codec.Parameter;
+import org.mariadb.r2dbc.message.client.BulkExecutePacket;
 import org.mariadb.r2dbc.message.client.ExecutePacket;
+import org.mariadb.r2dbc.message.client.FetchPacket;
+import org.mariadb.r2dbc.message.client.LongDataPacket;
 import org.mariadb.r2dbc.message.client.PreparePacket;
+import org.mariadb.r2dbc.message.client.ResetStatementPacket;
+import org.mariadb.r2dbc.message.server.EofPacket;
+import org.mariadb.r2dbc.message.server.ErrorPacket;
+import org.mariadb.r2dbc.message.server.OkPacket;
 import org.mariadb.r2dbc.message.server.PrepareResultPacket;
 import org.mariadb.r2dbc.message.server.ServerMessage;
 import org.mariadb.r2dbc.util.Assert;
 import org.mariadb.r2dbc.util.ServerPrepareResult;
+import org.mariadb.r2dbc.util.constants.Capabilities;
+import org.mariadb.r2dbc.util.constants.ServerStatus;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.util.annotation.Nullable;
@@ -47,6 +60,7 @@ final class MariadbServerParameterizedQueryStatement implements MariadbStatement
   private List<Map<Integer, Parameter<?>>> batchingParameters;
   private String[] generatedColumns;
   private ServerPrepareResult prepareResult;
+  private int fetchSize;
 
   MariadbServerParameterizedQueryStatement(
       Client client, String sql, MariadbConnectionConfiguration configuration) {
@@ -102,12 +116,10 @@ final class MariadbServerParameterizedQueryStatement implements MariadbStatement
     }
     if (value == null) return bindNull(index, null);
 
-    for (Codec<?> codec : Codecs.LIST) {
-      if (codec.canEncode(value.getClass())) {
-
-        parameters.put(index, (Parameter<?>) new Parameter(codec, value));
-        return this;
-      }
+    Codec<?> codec = Codecs.encoder(value.getClass());
+    if (codec != null) {
+      parameters.put(index, (Parameter<?>) new Parameter(codec, value));
+      return this;
     }
     throw new IllegalArgumentException(
         String.format(
@@ -137,23 +149,20 @@ final class MariadbServerParameterizedQueryStatement implements MariadbStatement
     }
     Parameter<?> parameter = null;
     if (type != null) {
-      for (Codec<?> codec : Codecs.LIST) {
-        if (codec.canEncode(type)) {
-
-          parameter =
-              new Parameter(codec, null) {
-                @Override
-                public DataType getBinaryEncodeType() {
-                  return DataType.VARCHAR;
-                }
-
-                @Override
-                public boolean isNull() {
-                  return true;
-                }
-              };
-          break;
-        }
+      Codec<?> codec = Codecs.encoder(type);
+      if (codec != null) {
+        parameter =
+            new Parameter(codec, null) {
+              @Override
+              public DataType getBinaryEncodeType() {
+                return DataType.VARCHAR;
+              }
+
+              @Override
+              public boolean isNull() {
+                return true;
+              }
+            };
       }
     }
     if (parameter == null) {
@@ -196,30 +205,9 @@ final class MariadbServerParameterizedQueryStatement implements MariadbStatement
       validateParameters();
       return execute(sql, parameters, this.generatedColumns);
     } else {
-      if (prepareResult == null) {
-        prepareResult = client.getPrepareCache().get(sql);
-        if (prepareResult == null) {
-          sendPrepare(sql).block();
-        }
-      }
-      Flux<ServerMessage> fluxMsg =
-          this.client.sendCommand(
-              new ExecutePacket(prepareResult.getStatementId(), this.batchingParameters.get(0)));
-      int index = 1;
-      while (index < this.batchingParameters.size()) {
-        fluxMsg =
-            fluxMsg.concatWith(
-                this.client.sendCommand(
-                    new ExecutePacket(
-                        prepareResult.getStatementId(), this.batchingParameters.get(index++))));
-      }
-      fluxMsg =
-          fluxMsg.concatWith(
-              Flux.create(
-                  sink -> {
-                    prepareResult.decrementUse(client);
-                    sink.complete();
-                  }));
+      List<Map<Integer, Parameter<?>>> batchParameters = new ArrayList<>(this.batchingParameters);
+      String batchSql = sql;
+      Flux<ServerMessage> fluxMsg = Flux.defer(() -> executeBatch(batchSql, batchParameters));
 
       this.batchingParameters.clear();
       this.parameters = new HashMap<>();
@@ -237,8 +225,160 @@ final class MariadbServerParameterizedQueryStatement implements MariadbStatement
     }
   }
 
+  /**
+   * Execute batch without blocking: when statement is not already prepared, prepare command is
+   * either pipelined with all execute commands, or sent first when result is needed to choose
+   * between bulk and execute commands.
+   *
+   * @param sql sql command
+   * @param batchParameters parameter sets
+   * @return batch results
+   */
+  private Flux<ServerMessage> executeBatch(
+      String sql, List<Map<Integer, Parameter<?>>> batchParameters) {
+    if (hasLongData(batchParameters)) {
+      return sendPrepare(sql, false)
+          .flatMapMany(
+              prepared ->
+                  sendBatch(prepared, batchParameters)
+                      .doFinally(s -> prepared.decrementUse(client)));
+    }
+
+    if (prepareResult == null && client.getPrepareCache() != null) {
+      prepareResult = client.getPrepareCache().get(sql);
+    }
+    if (prepareResult != null && prepareResult.incrementUse()) {
+      client.getPrepareCache().recordHit(sql);
+      ServerPrepareResult res = prepareResult;
+      return sendBatch(res, batchParameters).concatWith(releaseAfterBatch(res));
+    }
+    prepareResult = null;
+
+    if (configuration.allowPipelining()
+        && !supportBulk()
+        && client.getVersion().isMariaDBServer()
+        && client.getVersion().versionGreaterOrEqual(10, 2, 0)) {
+      List<ExecutePacket> executePackets = new ArrayList<>(batchParameters.size());
+      for (Map<Integer, Parameter<?>> parameters : batchParameters) {
+        executePackets.add(new ExecutePacket(-1, parameters));
+      }
+      prepareResult = null;
+      return this.client
+          .sendCommand(new PreparePacket(sql), executePackets)
+          .doOnNext(this::keepPrepareResult)
+          .concatWith(
+              Flux.defer(
+                  () -> prepareResult == null ? Flux.empty() : releaseAfterBatch(prepareResult)));
+    }
+
+    return sendPrepare(sql, true)
+        .flatMapMany(
+            prepared -> {
+              // decoder already substituted the cached result if any, keeping a use of it
+              prepareResult = prepared;
+              return sendBatch(prepared, batchParameters).concatWith(releaseAfterBatch(prepared));
+            });
+  }
+
+  private Flux<ServerMessage> sendBatch(
+      ServerPrepareResult res, List<Map<Integer, Parameter<?>>> batchParameters) {
+    if (useBulk(res, batchParameters)) {
+      return sendBulk(res, batchParameters);
+    }
+    AtomicInteger index = new AtomicInteger();
+    return Flux.defer(
+            () -> {
+              Map<Integer, Parameter<?>> parameters = batchParameters.get(index.getAndIncrement());
+              return sendLongData(res, parameters)
+                  .thenMany(
+                      Flux.defer(
+                          () ->
+                              this.client.sendCommand(new ExecutePacket(res, parameters, false))));
+            })
+        .repeat(() -> index.get() < batchParameters.size());
+  }
+
+  private Flux<ServerMessage> releaseAfterBatch(ServerPrepareResult res) {
+    return Flux.create(
+        sink -> {
+          res.decrementUse(client);
+          sink.complete();
+        });
+  }
+
+  private boolean supportBulk() {
+    return configuration.useBulkStmts()
+        && (client.getContext().getServerCapabilities()
+                & Capabilities.MARIADB_CLIENT_STMT_BULK_OPERATIONS)
+            != 0;
+  }
+
+  /**
+   * Bulk command can be used for batch if server supports it, and for commands that don't return
+   * result-set, except generated values using RETURNING. Streamed parameters can only be read once,
+   * so are not permitted.
+   *
+   * @param res prepare result
+   * @param batchParameters parameter sets
+   * @return true if batch can use COM_STMT_BULK_EXECUTE
+   */
+  private boolean useBulk(
+      ServerPrepareResult res, List<Map<Integer, Parameter<?>>> batchParameters) {
+    if (!supportBulk()) {
+      return false;
+    }
+    if (res.getNumColumns() > 0
+        && (generatedColumns == null || !client.getVersion().supportReturning())) {
+      return false;
+    }
+    for (Map<Integer, Parameter<?>> parameters : batchParameters) {
+      for (Parameter<?> parameter : parameters.values()) {
+        if (parameter.canEncodeLongData()) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Send all parameter sets using COM_STMT_BULK_EXECUTE commands. A new bulk command is sent when
+   * previous one has reached max_allowed_packet or a parameter type changes.
+   *
+   * @param res prepare result
+   * @param batchParameters parameter sets
+   * @return bulk commands results
+   */
+  private Flux<ServerMessage> sendBulk(
+      ServerPrepareResult res, List<Map<Integer, Parameter<?>>> batchParameters) {
+    AtomicInteger nextIndex = new AtomicInteger();
+    Flux<ServerMessage> bulk =
+        Flux.defer(
+                () -> {
+                  BulkExecutePacket packet =
+                      new BulkExecutePacket(res, batchParameters, nextIndex.get());
+                  return this.client
+                      .sendCommand(packet)
+                      .doOnComplete(() -> nextIndex.set(packet.getNextIndex()));
+                })
+            .repeat(() -> nextIndex.get() < batchParameters.size());
+    return MariadbSimpleQueryStatement.loadMaxAllowedPacket(client).thenMany(bulk);
+  }
+
+  /**
+   * Indicate to use a server read-only cursor, retrieving results by chunks of {@code rows} rows.
+   * Value 0 (default) disables cursor use: all rows are then sent by server at once.
+   *
+   * @param rows number of rows to fetch
+   * @return this {@link MariadbServerParameterizedQueryStatement}
+   */
   @Override
   public MariadbServerParameterizedQueryStatement fetchSize(int rows) {
+    if (rows < 0) {
+      throw new IllegalArgumentException(
+          String.format("fetch size must be positive, but value is %d", rows));
+    }
+    this.fetchSize = rows;
     return this;
   }
 
@@ -259,6 +399,10 @@ final class MariadbServerParameterizedQueryStatement implements MariadbStatement
       String sql, Map<Integer, Parameter<?>> parameters, String[] generatedColumns) {
     ExceptionFactory factory = ExceptionFactory.withSql(sql);
 
+    if (hasLongData(Collections.singletonList(parameters))) {
+      return executeWithLongData(sql, factory, parameters, generatedColumns);
+    }
+
     if (prepareResult == null && client.getPrepareCache() != null) {
       prepareResult = client.getPrepareCache().get(sql);
     }
@@ -279,7 +423,8 @@ final class MariadbServerParameterizedQueryStatement implements MariadbStatement
       }
 
       if (prepareResult != null) {
-        return sendExecuteCmd(factory, parameters, generatedColumns)
+        client.getPrepareCache().recordHit(sql);
+        return sendExecuteCmd(prepareResult, factory, parameters, generatedColumns)
             .concatWith(
                 Flux.create(
                     sink -> {
@@ -291,22 +436,23 @@ final class MariadbServerParameterizedQueryStatement implements MariadbStatement
     }
 
     if (configuration.allowPipelining()
+        && fetchSize == 0
         && client.getVersion().isMariaDBServer()
         && client.getVersion().versionGreaterOrEqual(10, 2, 0)) {
       flux = sendPrepareAndExecute(sql, factory, parameters, generatedColumns);
     } else {
       flux =
-          sendPrepare(sql)
+          sendPrepare(sql, true)
               .flatMapMany(
                   prepareResult1 -> {
                     prepareResult = prepareResult1;
-                    return sendExecuteCmd(factory, parameters, generatedColumns);
+                    return sendExecuteCmd(prepareResult1, factory, parameters, generatedColumns);
                   });
     }
     return flux.concatWith(
         Flux.create(
             sink -> {
-              prepareResult = client.getPrepareCache().get(sql);
+              // release prepare result received, that may not have been cached
               if (prepareResult != null) {
                 prepareResult.decrementUse(client);
               }
@@ -315,13 +461,85 @@ final class MariadbServerParameterizedQueryStatement implements MariadbStatement
             }));
   }
 
+  /**
+   * Execute command with long parameters, sent by chunks with COM_STMT_SEND_LONG_DATA before the
+   * execute command. Server accumulates chunks on the prepared statement, so statement is prepared
+   * for this execution only, and closed afterward.
+   *
+   * @param sql sql command
+   * @param factory exception factory
+   * @param parameters parameters
+   * @param generatedColumns generated columns
+   * @return results
+   */
+  private Flux<org.mariadb.r2dbc.api.MariadbResult> executeWithLongData(
+      String sql,
+      ExceptionFactory factory,
+      Map<Integer, Parameter<?>> parameters,
+      String[] generatedColumns) {
+    return sendPrepare(sql, false)
+        .flatMapMany(
+            prepared ->
+                sendLongData(prepared, parameters)
+                    .thenMany(
+                        Flux.defer(
+                            () -> sendExecuteCmd(prepared, factory, parameters, generatedColumns)))
+                    .doFinally(
+                        s -> {
+                          prepared.decrementUse(client);
+                          parameters.clear();
+                        }));
+  }
+
+  private static boolean hasLongData(List<Map<Integer, Parameter<?>>> batchParameters) {
+    for (Map<Integer, Parameter<?>> parameters : batchParameters) {
+      for (Parameter<?> parameter : parameters.values()) {
+        if (parameter.useLongData()) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Send long parameters by chunks. Next chunk is only read from source when previous one has been
+   * written to socket, so memory stays bounded whatever the parameter size.
+   *
+   * @param res prepare result
+   * @param parameters parameters
+   * @return publisher completing when all chunks are sent
+   */
+  private Mono<Void> sendLongData(ServerPrepareResult res, Map<Integer, Parameter<?>> parameters) {
+    if (!hasLongData(Collections.singletonList(parameters))) {
+      return Mono.empty();
+    }
+    return Flux.fromIterable(parameters.entrySet())
+        .filter(entry -> entry.getValue().useLongData())
+        .concatMap(
+            entry ->
+                entry
+                    .getValue()
+                    .encodeLongData(LongDataPacket.MAX_CHUNK_SIZE)
+                    .concatMap(
+                        chunk ->
+                            client.sendLongData(
+                                new LongDataPacket(res.getStatementId(), entry.getKey(), chunk)),
+                        1),
+            1)
+        .doOnDiscard(ByteBuf.class, ByteBuf::release)
+        .then();
+  }
+
   private Flux<org.mariadb.r2dbc.api.MariadbResult> sendPrepareAndExecute(
       String sql,
       ExceptionFactory factory,
       Map<Integer, Parameter<?>> parameters,
       String[] generatedColumns) {
+    prepareResult = null;
     return this.client
         .sendCommand(new PreparePacket(sql), new ExecutePacket(-1, parameters))
+        .doOnNext(this::keepPrepareResult)
         .windowUntil(it -> it.resultSetEnd())
         .map(
             dataRow ->
@@ -333,18 +551,38 @@ final class MariadbServerParameterizedQueryStatement implements MariadbStatement
                     client.getVersion().supportReturning()));
   }
 
-  private Mono<ServerPrepareResult> sendPrepare(String sql) {
+  /**
+   * Keep prepare result of a pipelined prepare command. It holds a use that must be released after
+   * execution.
+   *
+   * @param msg server message
+   */
+  private void keepPrepareResult(ServerMessage msg) {
+    if (msg instanceof PrepareResultPacket) {
+      prepareResult = ((PrepareResultPacket) msg).getPrepareResult();
+    }
+  }
+
+  /**
+   * Prepare command.
+   *
+   * @param sql sql command
+   * @param cacheable if prepare result can be shared using prepare cache
+   * @return prepare result
+   */
+  private Mono<ServerPrepareResult> sendPrepare(String sql, boolean cacheable) {
     Flux<ServerPrepareResult> f =
         this.client
-            .sendCommand(new PreparePacket(sql), DecoderState.PREPARE_RESPONSE, sql)
+            .sendCommand(
+                new PreparePacket(sql), DecoderState.PREPARE_RESPONSE, cacheable ? sql : null)
             .handle(
                 (it, sink) -> {
+                  if (it instanceof ErrorPacket) {
+                    sink.error(ExceptionFactory.withSql(sql).from((ErrorPacket) it));
+                    return;
+                  }
                   if (it instanceof PrepareResultPacket) {
-                    PrepareResultPacket packet = (PrepareResultPacket) it;
-                    prepareResult =
-                        new ServerPrepareResult(
-                            packet.getStatementId(), packet.getNumColumns(), packet.getNumParams());
-                    sink.next(prepareResult);
+                    sink.next(((PrepareResultPacket) it).getPrepareResult());
                   }
                   if (it.ending()) sink.complete();
                 });
@@ -352,11 +590,20 @@ final class MariadbServerParameterizedQueryStatement implements MariadbStatement
   };
 
   private Flux<org.mariadb.r2dbc.api.MariadbResult> sendExecuteCmd(
-      ExceptionFactory factory, Map<Integer, Parameter<?>> parameters, String[] generatedColumns) {
-    return this.client
-        .sendCommand(
-            new ExecutePacket(
-                prepareResult != null ? prepareResult.getStatementId() : -1, parameters))
+      ServerPrepareResult res,
+      ExceptionFactory factory,
+      Map<Integer, Parameter<?>> parameters,
+      String[] generatedColumns) {
+    int statementId = res.getStatementId();
+    // cursor only make sense for command returning a result-set
+    boolean openCursor = fetchSize > 0 && res.getNumColumns() > 0;
+
+    Flux<ServerMessage> response =
+        this.client.sendCommand(new ExecutePacket(res, parameters, openCursor));
+    if (openCursor) {
+      response = fetchFromCursor(response, statementId, fetchSize);
+    }
+    return response
         .windowUntil(it -> it.resultSetEnd())
         .map(
             dataRow ->
@@ -368,6 +615,67 @@ final class MariadbServerParameterizedQueryStatement implements MariadbStatement
                     client.getVersion().supportReturning()));
   }
 
+  /**
+   * Retrieve rows from an opened server cursor, by chunks of fetchSize rows. Next COM_STMT_FETCH
+   * command is only sent when subscriber has consumed the rows of the previous one. If subscriber
+   * cancels before end, cursor is closed with COM_STMT_RESET, so next execution of the statement
+   * doesn't depend on server closing the remaining cursor.
+   *
+   * @param response COM_STMT_EXECUTE response
+   * @param statementId prepared statement identifier
+   * @param fetchSize number of rows to fetch per COM_STMT_FETCH command
+   * @return complete result-set messages
+   */
+  private Flux<ServerMessage> fetchFromCursor(
+      Flux<ServerMessage> response, int statementId, int fetchSize) {
+    AtomicBoolean cursorOpen = new AtomicBoolean();
+
+    // each command ending packet indicate if cursor has remaining rows.
+    // those intermediate ending packets are filtered to let result-set continue.
+    Flux<ServerMessage> fetch =
+        Flux.defer(
+                () ->
+                    this.client.sendCommand(
+                        new FetchPacket(statementId, fetchSize), DecoderState.FETCH_RESPONSE))
+            .filter(msg -> !cursorHasRemainingRows(msg, cursorOpen))
+            .repeat(cursorOpen::get);
+
+    return response
+        .filter(msg -> !cursorHasRemainingRows(msg, cursorOpen))
+        .concatWith(Flux.defer(() -> cursorOpen.get() ? fetch : Flux.empty()))
+        .doOnCancel(() -> resetCursor(statementId));
+  }
+
+  /**
+   * Close cursor of a cancelled execution. Cursor may still be opening when cancelled, so reset is
+   * always sent, queued after the remaining responses of the cancelled commands.
+   *
+   * @param statementId prepared statement identifier
+   */
+  private void resetCursor(int statementId) {
+    if (!client.isConnected()) return;
+    // an error only means statement has already been closed: no cursor remains
+    this.client.sendCommand(new ResetStatementPacket(statementId)).subscribe(msg -> {}, err -> {});
+  }
+
+  private static boolean cursorHasRemainingRows(ServerMessage msg, AtomicBoolean cursorOpen) {
+    if (!msg.ending()) return false;
+    short serverStatus;
+    if (msg instanceof EofPacket) {
+      serverStatus = ((EofPacket) msg).getServerStatus();
+    } else if (msg instanceof OkPacket) {
+      serverStatus = ((OkPacket) msg).getServerStatus();
+    } else {
+      cursorOpen.set(false);
+      return false;
+    }
+    boolean remaining =
+        (serverStatus & ServerStatus.CURSOR_EXISTS) != 0
+            && (serverStatus & ServerStatus.LAST_ROW_SENT) == 0;
+    cursorOpen.set(remaining);
+    return remaining;
+  }
+
   @Override
   public String toString() {
     return "MariadbServerParameterizedQueryStatement{"
@@ -22,28 +22,59 @@ import org.mariadb.r2dbc.message.client.QueryPacket;
 import org.mariadb.r2dbc.message.server.ServerMessage;
 import org.mariadb.r2dbc.util.Assert;
 import org.mariadb.r2dbc.util.ClientPrepareResult;
+import org.mariadb.r2dbc.util.ClientPrepareResultCache;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import reactor.util.annotation.Nullable;
 
 final class MariadbSimpleQueryStatement implements MariadbStatement {
 
   private final Client client;
   private final String sql;
+  @Nullable private final ClientPrepareResultCache parseCache;
   private String[] generatedColumns;
 
   MariadbSimpleQueryStatement(Client client, String sql) {
+    this(client, sql, null);
+  }
+
+  MariadbSimpleQueryStatement(
+      Client client, String sql, @Nullable ClientPrepareResultCache parseCache) {
     this.client = client;
     this.sql = Assert.requireNonNull(sql, "sql must not be null");
+    this.parseCache = parseCache;
   }
 
-  static boolean supports(String sql, Client client) {
+  static boolean supports(String sql, Client client, ClientPrepareResultCache parseCache) {
     Assert.requireNonNull(sql, "sql must not be null");
     if (sql.contains("?") || sql.contains(":")) {
-      return !ClientPrepareResult.hasParameter(sql, client.noBackslashEscapes());
+      return parseCache.get(sql, client.noBackslashEscapes()).getParamCount() == 0;
     }
     return true;
   }
 
+  /**
+   * Retrieve server max_allowed_packet, needed to split batch commands. Value is retrieved only
+   * once per connection.
+   *
+   * @param client client
+   * @return a {@link Mono} that completes when value is known
+   */
+  static Mono<Void> loadMaxAllowedPacket(Client client) {
+    if (client.getContext().getMaxAllowedPacket() > 0) {
+      return Mono.empty();
+    }
+    return new MariadbSimpleQueryStatement(client, "SELECT @@max_allowed_packet")
+        .execute()
+        .flatMap(r -> r.map((row, metadata) -> row.get(0, Long.class)))
+        .doOnNext(
+            maxAllowedPacket ->
+                client
+                    .getContext()
+                    .setMaxAllowedPacket((int) Math.min(maxAllowedPacket, Integer.MAX_VALUE)))
+        .then();
+  }
+
   @Override
   public MariadbSimpleQueryStatement add() {
     return this;
@@ -79,8 +110,19 @@ final class MariadbSimpleQueryStatement implements MariadbStatement {
     return execute(this.sql, this.generatedColumns);
   }
 
+  /**
+   * Text protocol doesn't permit server cursors: this is only a hint. Rows are read from socket
+   * following subscriber demand.
+   *
+   * @param rows number of rows to fetch
+   * @return this {@link MariadbSimpleQueryStatement}
+   */
   @Override
   public MariadbSimpleQueryStatement fetchSize(int rows) {
+    if (rows < 0) {
+      throw new IllegalArgumentException(
+          String.format("fetch size must be positive, but value is %d", rows));
+    }
     return this;
   }
 
@@ -94,7 +136,9 @@ final class MariadbSimpleQueryStatement implements MariadbStatement {
     }
 
     ClientPrepareResult prepareResult =
-        ClientPrepareResult.parameterParts(this.sql, this.client.noBackslashEscapes());
+        parseCache == null
+            ? ClientPrepareResult.parameterParts(this.sql, this.client.noBackslashEscapes())
+            : parseCache.get(this.sql, this.client.noBackslashEscapes());
     prepareResult.validateAddingReturning();
 
     this.generatedColumns = columns;
@@ -0,0 +1,291 @@
+/*
+ * Copyright 2020 MariaDB Ab.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mariadb.r2dbc;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Parameter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import org.mariadb.r2dbc.codec.Codec;
+import org.mariadb.r2dbc.codec.Codecs;
+import org.mariadb.r2dbc.message.server.ColumnDefinitionPacket;
+
+/**
+ * Map rows to objects of a class, binding columns to a constructor or to setters. Bindings and
+ * codecs are resolved once per result, from its metadata.
+ *
+ * <p>Constructor with as many parameters as columns is used first: parameters are bound by name
+ * when compiled with parameter names (records, or -parameters flag), by position otherwise. If
+ * none, default constructor is used, and columns set using setters of same name. Names are compared
+ * ignoring case and underscores.
+ *
+ * @param <T> mapped type
+ */
+final class RowMapper<T> {
+
+  private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+  // class introspection, done once per class
+  private static final ClassValue<MappedType> TYPES =
+      new ClassValue<MappedType>() {
+        @Override
+        protected MappedType computeValue(Class<?> type) {
+          return new MappedType(type);
+        }
+      };
+
+  private final Class<T> type;
+  private final MethodHandle constructor;
+  private final int[] indexes;
+  private final Class<?>[] types;
+  private final Codec<?>[] codecs;
+  private final MethodHandle[] setters;
+
+  private RowMapper(
+      Class<T> type,
+      MethodHandle constructor,
+      int[] indexes,
+      Class<?>[] types,
+      Codec<?>[] codecs,
+      MethodHandle[] setters) {
+    this.type = type;
+    this.constructor = constructor;
+    this.indexes = indexes;
+    this.types = types;
+    this.codecs = codecs;
+    this.setters = setters;
+  }
+
+  /**
+   * Create mapper of result rows to type.
+   *
+   * @param type mapped type
+   * @param columns result columns
+   * @param rowMetadata result row metadata
+   * @param <T> mapped type
+   * @return row mapper
+   * @throws IllegalArgumentException if no constructor or setters can be bound to columns
+   */
+  static <T> RowMapper<T> of(
+      Class<T> type, ColumnDefinitionPacket[] columns, MariadbRowMetadata rowMetadata) {
+    MappedType mapped = TYPES.get(type);
+    Map<String, Integer> columnIndexes = new HashMap<>();
+    for (int i = 0; i < columns.length; i++) {
+      columnIndexes.putIfAbsent(normalize(rowMetadata.getColumnMetadata(i).getName()), i);
+    }
+
+    // constructor binding
+    Constructor<?> positional = null;
+    int positionalCandidates = 0;
+    for (Constructor<?> ctor : mapped.constructors) {
+      if (ctor.getParameterCount() != columns.length) continue;
+      int[] indexes = namedIndexes(ctor, columnIndexes);
+      if (indexes != null) {
+        return constructorMapper(type, ctor, indexes, columns);
+      }
+      positional = ctor;
+      positionalCandidates++;
+    }
+    if (positionalCandidates == 1) {
+      int[] indexes = new int[columns.length];
+      for (int i = 0; i < indexes.length; i++) indexes[i] = i;
+      return constructorMapper(type, positional, indexes, columns);
+    }
+
+    // setters binding
+    if (mapped.defaultConstructor != null) {
+      List<Integer> indexes = new ArrayList<>();
+      List<Method> methods = new ArrayList<>();
+      for (int i = 0; i < columns.length; i++) {
+        Method setter = mapped.setters.get(normalize(rowMetadata.getColumnMetadata(i).getName()));
+        if (setter != null) {
+          indexes.add(i);
+          methods.add(setter);
+        }
+      }
+      if (!indexes.isEmpty()) {
+        int[] idx = new int[indexes.size()];
+        Class<?>[] types = new Class<?>[idx.length];
+        Codec<?>[] codecs = new Codec<?>[idx.length];
+        MethodHandle[] setters = new MethodHandle[idx.length];
+        for (int i = 0; i < idx.length; i++) {
+          idx[i] = indexes.get(i);
+          types[i] = methods.get(i).getParameterTypes()[0];
+          codecs[i] = codec(type, columns[idx[i]], types[i]);
+          setters[i] =
+              unreflect(methods.get(i))
+                  .asType(MethodType.methodType(void.class, Object.class, Object.class));
+        }
+        return new RowMapper<>(type, mapped.defaultConstructor, idx, types, codecs, setters);
+      }
+    }
+
+    throw new IllegalArgumentException(
+        String.format(
+            "Cannot map result to %s: no constructor with %d parameters, nor setters for columns %s",
+            type.getName(), columns.length, rowMetadata.getColumnNames()));
+  }
+
+  /**
+   * Create object from row.
+   *
+   * @param row current row
+   * @return mapped object
+   */
+  T map(MariadbRow row) {
+    try {
+      if (setters == null) {
+        Object[] args = new Object[indexes.length];
+        for (int i = 0; i < indexes.length; i++) {
+          args[i] = decode(row, i);
+        }
+        return type.cast((Object) constructor.invokeExact(args));
+      }
+
+      Object instance = (Object) constructor.invokeExact();
+      for (int i = 0; i < indexes.length; i++) {
+        setters[i].invokeExact(instance, decode(row, i));
+      }
+      return type.cast(instance);
+    } catch (RuntimeException | Error e) {
+      throw e;
+    } catch (Throwable t) {
+      throw new IllegalArgumentException(
+          String.format("Cannot map row to %s: %s", type.getName(), t.getMessage()), t);
+    }
+  }
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private Object decode(MariadbRow row, int i) {
+    return row.decode(indexes[i], (Codec) codecs[i], (Class) types[i]);
+  }
+
+  private static <T> RowMapper<T> constructorMapper(
+      Class<T> type, Constructor<?> ctor, int[] indexes, ColumnDefinitionPacket[] columns) {
+    Class<?>[] types = ctor.getParameterTypes();
+    Codec<?>[] codecs = new Codec<?>[types.length];
+    for (int i = 0; i < types.length; i++) {
+      codecs[i] = codec(type, columns[indexes[i]], types[i]);
+    }
+    MethodHandle handle;
+    try {
+      setAccessible(ctor);
+      handle =
+          LOOKUP
+              .unreflectConstructor(ctor)
+              .asSpreader(Object[].class, types.length)
+              .asType(MethodType.methodType(Object.class, Object[].class));
+    } catch (IllegalAccessException e) {
+      throw new IllegalArgumentException(
+          String.format("Cannot map result to %s: constructor not accessible", type.getName()), e);
+    }
+    return new RowMapper<>(type, handle, indexes, types, codecs, null);
+  }
+
+  private static int[] namedIndexes(Constructor<?> ctor, Map<String, Integer> columnIndexes) {
+    Parameter[] parameters = ctor.getParameters();
+    int[] indexes = new int[parameters.length];
+    for (int i = 0; i < parameters.length; i++) {
+      if (!parameters[i].isNamePresent()) return null;
+      Integer index = columnIndexes.get(normalize(parameters[i].getName()));
+      if (index == null) return null;
+      indexes[i] = index;
+    }
+    return indexes;
+  }
+
+  private static Codec<?> codec(Class<?> type, ColumnDefinitionPacket column, Class<?> target) {
+    if (target == Object.class) {
+      return column.getDefaultCodec();
+    }
+    Codec<?> codec = Codecs.decoder(column, target);
+    if (codec == null) {
+      throw new IllegalArgumentException(
+          String.format(
+              "Cannot map result to %s: no decoder for type %s and column type %s",
+              type.getName(), target.getName(), column.getType()));
+    }
+    return codec;
+  }
+
+  private static String normalize(String name) {
+    return name.replace("_", "").toLowerCase(Locale.ROOT);
+  }
+
+  private static void setAccessible(AccessibleObject member) {
+    try {
+      // permits mapping to public members of non public classes
+      member.setAccessible(true);
+    } catch (SecurityException e) {
+      // keep default access
+    }
+  }
+
+  private static MethodHandle unreflect(Method method) {
+    try {
+      setAccessible(method);
+      return LOOKUP.unreflect(method);
+    } catch (IllegalAccessException e) {
+      throw new IllegalArgumentException(
+          String.format("Cannot map result: setter %s not accessible", method), e);
+    }
+  }
+
+  private static final class MappedType {
+    private final List<Constructor<?>> constructors;
+    private final MethodHandle defaultConstructor;
+    private final Map<String, Method> setters = new HashMap<>();
+
+    MappedType(Class<?> type) {
+      this.constructors = new ArrayList<>(Arrays.asList(type.getConstructors()));
+      MethodHandle defaultConstructor = null;
+      if (!Modifier.isAbstract(type.getModifiers())) {
+        for (Constructor<?> ctor : constructors) {
+          if (ctor.getParameterCount() == 0) {
+            try {
+              setAccessible(ctor);
+              defaultConstructor =
+                  LOOKUP.unreflectConstructor(ctor).asType(MethodType.methodType(Object.class));
+            } catch (IllegalAccessException e) {
+              // setters binding not possible
+            }
+          }
+        }
+      }
+      this.defaultConstructor = defaultConstructor;
+
+      for (Method method : type.getMethods()) {
+        if (method.getName().length() > 3
+            && method.getName().startsWith("set")
+            && method.getParameterCount() == 1
+            && !Modifier.isStatic(method.getModifiers())) {
+          setters.putIfAbsent(normalize(method.getName().substring(3)), method);
+        }
+      }
+    }
+  }
+}
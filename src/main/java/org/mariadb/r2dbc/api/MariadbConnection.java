@@ -16,9 +16,11 @@
 
 package org.mariadb.r2dbc.api;
 
+import io.netty.buffer.ByteBuf;
 import io.r2dbc.spi.Connection;
 import io.r2dbc.spi.IsolationLevel;
 import io.r2dbc.spi.ValidationDepth;
+import org.reactivestreams.Publisher;
 import reactor.core.publisher.Mono;
 
 public interface MariadbConnection extends Connection {
@@ -50,6 +52,32 @@ public interface MariadbConnection extends Connection {
   @Override
   boolean isAutoCommit();
 
+  /**
+   * Execute a {@code LOAD DATA LOCAL INFILE} command, file content being sent from data instead of
+   * read from a local file: file name of command is ignored. Data is sent following socket speed,
+   * in packets of bounded size. If data publisher fails, data already sent is loaded: command
+   * should be executed in a transaction to be rolled back.
+   *
+   * @param sql {@code LOAD DATA LOCAL INFILE} command
+   * @param data file content, buffers being released once sent
+   * @return number of loaded rows
+   */
+  Mono<Long> loadData(String sql, Publisher<ByteBuf> data);
+
+  /**
+   * Execute a {@code LOAD DATA LOCAL INFILE} command, rows being serialized in the default format
+   * of this command (tab separated fields, new line terminated rows, backslash escaping, {@code \N}
+   * for null), so command must not set {@code FIELDS} or {@code LINES} options. Values are written
+   * as text using {@code toString()}, except byte arrays, {@link java.nio.ByteBuffer} and booleans.
+   *
+   * @param sql {@code LOAD DATA LOCAL INFILE} command
+   * @param rows rows, each value corresponding to a table column, or to a column of command column
+   *     list
+   * @return number of loaded rows
+   * @see #loadData(String, Publisher)
+   */
+  Mono<Long> loadRows(String sql, Publisher<Object[]> rows);
+
   @Override
   Mono<Void> releaseSavepoint(String name);
 
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2020 MariaDB Ab.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mariadb.r2dbc.api;
+
+import java.time.Duration;
+
+/** Connection pool metrics, when factory is configured with option pool. */
+public interface MariadbPoolMetrics {
+
+  /**
+   * Number of connections currently borrowed.
+   *
+   * @return borrowed connections
+   */
+  int getAcquiredSize();
+
+  /**
+   * Number of connections currently idle in pool.
+   *
+   * @return idle connections
+   */
+  int getIdleSize();
+
+  /**
+   * Number of connections allocated by pool, borrowed, idle or being created.
+   *
+   * @return allocated connections
+   */
+  int getAllocatedSize();
+
+  /**
+   * Number of connection requests waiting for a connection.
+   *
+   * @return pending requests
+   */
+  int getPendingAcquireSize();
+
+  /**
+   * Maximum number of connections the pool can allocate.
+   *
+   * @return maximum pool size
+   */
+  int getMaxAllocatedSize();
+
+  /**
+   * Total number of connection acquisitions since pool creation.
+   *
+   * @return acquisition count
+   */
+  long getAcquireCount();
+
+  /**
+   * Total number of connections created since pool creation.
+   *
+   * @return creation count
+   */
+  long getCreatedCount();
+
+  /**
+   * Cumulated time spent waiting for connections since pool creation.
+   *
+   * @return total acquisition time
+   */
+  Duration getTotalAcquireTime();
+
+  /**
+   * Longest time spent waiting for a connection since pool creation.
+   *
+   * @return maximum acquisition time
+   */
+  Duration getMaxAcquireTime();
+}
@@ -30,4 +30,24 @@ public interface MariadbResult extends Result {
 
   @Override
   <T> Flux<T> map(BiFunction<Row, RowMetadata, ? extends T> mappingFunction);
+
+  /**
+   * Map rows to objects of type. Columns are bound to a constructor with as many parameters as
+   * columns (by parameter name when available, by position otherwise), or else to setters of
+   * default constructed objects, names being compared ignoring case and underscores. Bindings and
+   * decoders are resolved once, on first row.
+   *
+   * @param type mapped type
+   * @param <T> mapped type
+   * @return mapped objects
+   */
+  <T> Flux<T> mapTo(Class<T> type);
+
+  /**
+   * Use a single row instance for all rows of this result, avoiding a row allocation per row. Row
+   * is then only valid during mapping function call, and must not be kept.
+   *
+   * @return this {@link MariadbResult}
+   */
+  MariadbResult reuseRow();
 }
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2020 MariaDB Ab.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mariadb.r2dbc.api;
+
+import io.r2dbc.spi.Row;
+
+/**
+ * Row with primitive accessors. Integer columns are decoded directly from row data, without boxing;
+ * other column types are converted as with {@link #get(int, Class)}. A null value is returned as 0
+ * (false for boolean), {@link #wasNull()} then indicating that value was null.
+ *
+ * <p>Rows of {@link MariadbResult#map} can be cast to this interface.
+ */
+public interface MariadbRow extends Row {
+
+  int getInt(int index);
+
+  int getInt(String name);
+
+  long getLong(int index);
+
+  long getLong(String name);
+
+  double getDouble(int index);
+
+  double getDouble(String name);
+
+  float getFloat(int index);
+
+  float getFloat(String name);
+
+  boolean getBoolean(int index);
+
+  boolean getBoolean(String name);
+
+  short getShort(int index);
+
+  short getShort(String name);
+
+  byte getByte(int index);
+
+  byte getByte(String name);
+
+  /**
+   * Indicate if last value read was null.
+   *
+   * @return true if last value read was null
+   */
+  boolean wasNull();
+}
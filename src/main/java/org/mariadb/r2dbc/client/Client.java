@@ -16,12 +16,15 @@
 
 package org.mariadb.r2dbc.client;
 
+import java.util.List;
 import org.mariadb.r2dbc.MariadbConnectionConfiguration;
 import org.mariadb.r2dbc.message.client.ClientMessage;
 import org.mariadb.r2dbc.message.client.ExecutePacket;
+import org.mariadb.r2dbc.message.client.LongDataPacket;
 import org.mariadb.r2dbc.message.client.PreparePacket;
 import org.mariadb.r2dbc.message.client.SslRequestPacket;
 import org.mariadb.r2dbc.message.server.InitialHandshakePacket;
+import org.mariadb.r2dbc.message.server.LocalInfilePacket;
 import org.mariadb.r2dbc.message.server.ServerMessage;
 import org.mariadb.r2dbc.util.PrepareCache;
 import reactor.core.publisher.Flux;
@@ -43,10 +46,28 @@ public interface Client {
 
   Flux<ServerMessage> sendCommand(PreparePacket preparePacket, ExecutePacket executePacket);
 
+  Flux<ServerMessage> sendCommand(PreparePacket preparePacket, List<ExecutePacket> executePackets);
+
+  /**
+   * Send a chunk of a long parameter. Server sends no response to this command.
+   *
+   * @param packet long data packet
+   * @return publisher completing when packet is written to socket
+   */
+  Mono<Void> sendLongData(LongDataPacket packet);
+
+  /**
+   * Answer a LOCAL INFILE request of server, sending file content. Called by decoder.
+   *
+   * @param request server request
+   * @param element command element requesting file
+   */
+  void sendLocalInfile(LocalInfilePacket request, CmdElement element);
+
   Mono<Void> sendSslRequest(
       SslRequestPacket sslRequest, MariadbConnectionConfiguration configuration);
 
-  ClientBase.LockAction getLockAction();
+  ClientBase.TransactionAction getTransactionAction();
 
   boolean isAutoCommit();
 
@@ -61,4 +82,14 @@ public interface Client {
   void sendNext();
 
   PrepareCache getPrepareCache();
+
+  Context getContext();
+
+  /**
+   * Switch to compressed protocol. Must be called once authentication is done, before sending any
+   * other command.
+   *
+   * @param threshold minimum payload size to compress
+   */
+  void enableCompression(int threshold);
 }
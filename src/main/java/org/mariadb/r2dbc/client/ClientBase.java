@@ -16,8 +16,15 @@
 
 package org.mariadb.r2dbc.client;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.AdaptiveRecvByteBufAllocator;
 import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelOption;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.EventLoop;
 import io.netty.handler.logging.LogLevel;
 import io.netty.handler.logging.LoggingHandler;
 import io.netty.handler.ssl.SslHandler;
@@ -28,52 +35,81 @@ import io.r2dbc.spi.R2dbcTransientResourceException;
 import java.util.Queue;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import javax.net.ssl.SSLEngine;
 import javax.net.ssl.SSLException;
 import org.mariadb.r2dbc.ExceptionFactory;
 import org.mariadb.r2dbc.MariadbConnectionConfiguration;
+import org.mariadb.r2dbc.message.client.BulkExecutePacket;
 import org.mariadb.r2dbc.message.client.ClientMessage;
+import org.mariadb.r2dbc.message.client.ExecutePacket;
+import org.mariadb.r2dbc.message.client.LocalInfileDataPacket;
 import org.mariadb.r2dbc.message.client.QueryPacket;
 import org.mariadb.r2dbc.message.client.QuitPacket;
 import org.mariadb.r2dbc.message.client.SslRequestPacket;
 import org.mariadb.r2dbc.message.server.InitialHandshakePacket;
+import org.mariadb.r2dbc.message.server.LocalInfilePacket;
+import org.mariadb.r2dbc.message.server.Sequencer;
 import org.mariadb.r2dbc.message.server.ServerMessage;
+import org.mariadb.r2dbc.metrics.Metrics;
+import org.mariadb.r2dbc.util.LocalInfile;
 import org.mariadb.r2dbc.util.PrepareCache;
 import org.mariadb.r2dbc.util.constants.ServerStatus;
+import org.reactivestreams.Publisher;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
 import reactor.core.publisher.Mono;
 import reactor.netty.Connection;
+import reactor.netty.resources.LoopResources;
 import reactor.netty.tcp.TcpClient;
+import reactor.netty.tcp.TcpResources;
 import reactor.util.Logger;
 import reactor.util.Loggers;
+import reactor.util.annotation.Nullable;
 import reactor.util.concurrent.Queues;
 
 public abstract class ClientBase implements Client {
 
   private static final Logger logger = Loggers.getLogger(ClientBase.class);
-  protected final ReentrantLock lock = new ReentrantLock();
   private final MariadbConnectionConfiguration configuration;
   protected final Connection connection;
   protected final Queue<CmdElement> responseReceivers = Queues.<CmdElement>unbounded().get();
+
+  // command writes submitted by any thread, run by event loop in submission order
+  private final Queue<Submission> submissions = Queues.<Submission>unboundedMultiproducer().get();
+  private final AtomicInteger submissionsWip = new AtomicInteger();
   private final AtomicBoolean isClosed = new AtomicBoolean(false);
   private final MariadbPacketDecoder mariadbPacketDecoder;
-  private final MariadbPacketEncoder mariadbPacketEncoder = new MariadbPacketEncoder();
+  private final MariadbPacketEncoder mariadbPacketEncoder;
   private volatile Context context;
   private final PrepareCache prepareCache;
+  protected final Metrics metrics;
 
   protected ClientBase(Connection connection, MariadbConnectionConfiguration configuration) {
     this.connection = connection;
     this.configuration = configuration;
+    this.metrics = configuration.getMetrics();
     this.prepareCache =
         this.configuration.useServerPrepStmts()
-            ? new PrepareCache(this.configuration.getPrepareCacheSize(), this)
+            ? new PrepareCache(this.configuration.getPrepareCacheSize(), this, metrics)
             : null;
-    this.mariadbPacketDecoder = new MariadbPacketDecoder(responseReceivers, this);
+    this.mariadbPacketDecoder =
+        new MariadbPacketDecoder(responseReceivers, this, metrics, configuration.getLobChunkSize());
+    this.mariadbPacketEncoder = new MariadbPacketEncoder(metrics);
+    metrics.connectionCreated();
 
     connection.addHandler(mariadbPacketDecoder);
     connection.addHandler(mariadbPacketEncoder);
 
+    // flush consolidation is set before compression and SSL handlers: one flush, one TLS record
+    if (!configuration.getFlushMaxDelay().isZero()) {
+      connection.addHandlerFirst(
+          MariadbFlushConsolidationHandler.class.getSimpleName(),
+          new MariadbFlushConsolidationHandler(
+              configuration.getFlushMaxDelay().toNanos(), configuration.getFlushMaxPendingBytes()));
+    }
+
     if (logger.isTraceEnabled()) {
       connection.addHandlerFirst(
           LoggingHandler.class.getSimpleName(),
@@ -89,8 +125,44 @@ public abstract class ClientBase implements Client {
         .subscribe();
   }
 
+  /**
+   * Configure event loops and socket options.
+   *
+   * @param configuration configuration
+   * @param tcpClient tcp client
+   * @param loopResources event loops, null for reactor-netty global event loops
+   * @return configured tcp client
+   */
   public static TcpClient setSocketOption(
-      MariadbConnectionConfiguration configuration, TcpClient tcpClient) {
+      MariadbConnectionConfiguration configuration,
+      TcpClient tcpClient,
+      @Nullable LoopResources loopResources) {
+    if (loopResources != null) {
+      tcpClient = tcpClient.runOn(loopResources, configuration.isPreferNativeTransport());
+    } else if (!configuration.isPreferNativeTransport()) {
+      tcpClient = tcpClient.runOn(TcpResources.get(), false);
+    }
+
+    tcpClient = tcpClient.option(ChannelOption.TCP_NODELAY, configuration.isTcpNoDelay());
+
+    if (configuration.getSocketReceiveBufferSize() != null) {
+      tcpClient =
+          tcpClient.option(ChannelOption.SO_RCVBUF, configuration.getSocketReceiveBufferSize());
+    }
+
+    if (configuration.getSocketSendBufferSize() != null) {
+      tcpClient =
+          tcpClient.option(ChannelOption.SO_SNDBUF, configuration.getSocketSendBufferSize());
+    }
+
+    if (configuration.getAdaptiveReadBufferMaxSize() > 0) {
+      int max = configuration.getAdaptiveReadBufferMaxSize();
+      tcpClient =
+          tcpClient.option(
+              ChannelOption.RCVBUF_ALLOCATOR,
+              new AdaptiveRecvByteBufAllocator(64, Math.min(2048, max), max));
+    }
+
     if (configuration.getConnectTimeout() != null) {
       tcpClient =
           tcpClient.option(
@@ -118,6 +190,7 @@ public abstract class ClientBase implements Client {
   private void handleConnectionError(Throwable throwable) {
     R2dbcNonTransientResourceException err;
     if (this.isClosed.compareAndSet(false, true)) {
+      metrics.connectionClosed();
       err =
           new R2dbcNonTransientResourceException("Connection unexpected error", "08000", throwable);
       logger.error("Connection unexpected error", throwable);
@@ -133,7 +206,7 @@ public abstract class ClientBase implements Client {
     return Mono.defer(
         () -> {
           if (this.isClosed.compareAndSet(false, true)) {
-
+            metrics.connectionClosed();
             Channel channel = this.connection.channel();
             if (!channel.isOpen()) {
               this.connection.dispose();
@@ -155,6 +228,20 @@ public abstract class ClientBase implements Client {
     return sendCommand(message, DecoderState.QUERY_RESPONSE);
   }
 
+  @Override
+  public void enableCompression(int threshold) {
+    // compression handlers are set between packet encoder/decoder and ssl handler if any
+    // decoder share received compressed sequence with encoder: LOCAL INFILE content continues it
+    String decoderName = MariadbPacketDecoder.class.getSimpleName();
+    CompressionEncoder encoder = new CompressionEncoder(threshold);
+    connection
+        .channel()
+        .pipeline()
+        .addBefore(
+            decoderName, CompressionDecoder.class.getSimpleName(), new CompressionDecoder(encoder))
+        .addBefore(decoderName, CompressionEncoder.class.getSimpleName(), encoder);
+  }
+
   @Override
   public Mono<Void> sendSslRequest(
       SslRequestPacket sslRequest, MariadbConnectionConfiguration configuration) {
@@ -183,18 +270,174 @@ public abstract class ClientBase implements Client {
     }
   }
 
+  /**
+   * Submit a command write. Submission is lock-free: writes are queued by any thread, then run by
+   * connection event loop in submission order, so commands are always written in response receivers
+   * order. Writes must not flush: all writes run by the same drain are flushed at once.
+   *
+   * @param write task registering and writing command
+   * @param fail command failure, if write task fails
+   */
+  protected void submit(Runnable write, Consumer<Throwable> fail) {
+    submissions.offer(new Submission(write, fail));
+    if (submissionsWip.getAndIncrement() == 0) {
+      runOnEventLoop(this::drainSubmissions);
+    }
+  }
+
+  private void drainSubmissions() {
+    Channel channel = connection.channel();
+    int missed = 1;
+    do {
+      Submission submission;
+      boolean written = false;
+      while ((submission = submissions.poll()) != null) {
+        written = true;
+        try {
+          submission.write.run();
+        } catch (Throwable t) {
+          logger.error("Error writing command", t);
+          submission.fail.accept(
+              new R2dbcNonTransientResourceException("Failed to send data", "08000", t));
+        }
+      }
+      // submissions counted in missed may already have been written by previous pass
+      if (written) channel.flush();
+      missed = submissionsWip.addAndGet(-missed);
+    } while (missed != 0);
+  }
+
+  /**
+   * Run task on connection event loop, immediately if already on event loop.
+   *
+   * @param task task
+   */
+  protected void runOnEventLoop(Runnable task) {
+    EventLoop eventLoop = connection.channel().eventLoop();
+    if (eventLoop.inEventLoop()) {
+      task.run();
+    } else {
+      eventLoop.execute(task);
+    }
+  }
+
+  /**
+   * Publisher completing when write is done.
+   *
+   * @param future write future
+   * @return publisher
+   */
+  protected static Mono<Void> toMono(ChannelFuture future) {
+    return Mono.create(
+        sink ->
+            future.addListener(
+                f -> {
+                  if (f.isSuccess()) {
+                    sink.success();
+                  } else {
+                    sink.error(
+                        new R2dbcNonTransientResourceException(
+                            "Failed to send data", "08000", f.cause()));
+                  }
+                }));
+  }
+
   public Flux<ServerMessage> sendCommand(ClientMessage message, DecoderState initialState) {
     return sendCommand(message, initialState, null);
   }
 
+  /**
+   * Answer server LOCAL INFILE request with command data, or else with requested file if in an
+   * allowed directory. Data is sent packet by packet, next one being read from source when previous
+   * is written to socket, followed by an empty packet. A refused request or a data error is
+   * answered with end of file too, command then failing once server response is received.
+   *
+   * @param request server LOCAL INFILE request
+   * @param element command element
+   */
+  public void sendLocalInfile(LocalInfilePacket request, CmdElement element) {
+    ByteBufAllocator allocator = connection.channel().alloc();
+    Publisher<ByteBuf> data = element.getLocalInfileData();
+    if (data == null) {
+      data =
+          LocalInfile.readFile(
+              request.getFileName(),
+              configuration.getLocalInfileDirectories(),
+              LocalInfileDataPacket.MAX_PACKET_SIZE,
+              allocator);
+    }
+    Sequencer sequencer = request.getSequencer();
+    LocalInfile.packets(data, LocalInfileDataPacket.MAX_PACKET_SIZE, allocator)
+        .concatMap(chunk -> writeDirect(new LocalInfileDataPacket(sequencer, chunk)), 1)
+        .doOnDiscard(ByteBuf.class, ByteBuf::release)
+        .onErrorResume(
+            e -> {
+              element.setLocalInfileError(e);
+              return Mono.empty();
+            })
+        .then(
+            Mono.defer(
+                () -> writeDirect(new LocalInfileDataPacket(sequencer, Unpooled.EMPTY_BUFFER))))
+        .subscribe(null, e -> logger.debug("Error sending LOCAL INFILE data", e));
+  }
+
+  /**
+   * Write a message part of current command exchange, bypassing command queue.
+   *
+   * @param message message
+   * @return publisher completing when message is written to socket
+   */
+  private Mono<Void> writeDirect(ClientMessage message) {
+    ChannelPromise promise = connection.channel().newPromise();
+    runOnEventLoop(() -> connection.channel().writeAndFlush(message, promise));
+    return toMono(promise);
+  }
+
   public abstract Flux<ServerMessage> sendCommand(
       ClientMessage message, DecoderState initialState, String sql);
 
+  /**
+   * Create command response receiver. Execute and bulk command receivers know their prepared
+   * statement, in order to use cached columns when server skips result-set metadata.
+   *
+   * @param sink response sink
+   * @param message command
+   * @param initialState decoder state of response
+   * @param sql sql command, used for prepare caching
+   * @return command element
+   */
+  protected static CmdElement createCmdElement(
+      FluxSink<ServerMessage> sink, ClientMessage message, DecoderState initialState, String sql) {
+    CmdElement element = new CmdElement(sink, initialState, sql);
+    if (message instanceof ExecutePacket) {
+      element.setPrepareResult(((ExecutePacket) message).getPrepareResult());
+    } else if (message instanceof BulkExecutePacket) {
+      element.setPrepareResult(((BulkExecutePacket) message).getPrepareResult());
+    } else if (message instanceof QueryPacket) {
+      element.setLocalInfileData(((QueryPacket) message).getLocalInfileData());
+    }
+    return element;
+  }
+
+  /**
+   * Register command response receiver. Must be called from event loop, just before sending
+   * command.
+   *
+   * @param element command element
+   */
+  protected void addResponseReceiver(CmdElement element) {
+    if (metrics != Metrics.NONE) {
+      element.setSubmitTime(System.nanoTime());
+      metrics.commandSubmitted();
+    }
+    this.responseReceivers.add(element);
+  }
+
   @Override
   public Flux<ServerMessage> receive(DecoderState initialState) {
     return Flux.create(
         sink -> {
-          this.responseReceivers.add(new CmdElement(sink, initialState));
+          submit(() -> addResponseReceiver(new CmdElement(sink, initialState)), sink::error);
         });
   }
 
@@ -211,8 +454,8 @@ public abstract class ClientBase implements Client {
     mariadbPacketEncoder.setContext(context);
   }
 
-  public LockAction getLockAction() {
-    return new LockAction();
+  public TransactionAction getTransactionAction() {
+    return new TransactionAction();
   }
 
   /**
@@ -245,6 +488,7 @@ public abstract class ClientBase implements Client {
 
   private void closedServlet() {
     if (this.isClosed.compareAndSet(false, true)) {
+      metrics.connectionClosed();
       clearWaitingListWithError(
           new R2dbcNonTransientResourceException("Connection unexpectedly closed"));
 
@@ -253,10 +497,11 @@ public abstract class ClientBase implements Client {
     }
   }
 
-  private void clearWaitingListWithError(Throwable exception) {
+  protected void clearWaitingListWithError(Throwable exception) {
     mariadbPacketDecoder.connectionError(exception);
     CmdElement response;
     while ((response = this.responseReceivers.poll()) != null) {
+      metrics.commandAborted();
       response.getSink().error(exception);
     }
   }
@@ -267,19 +512,45 @@ public abstract class ClientBase implements Client {
     return prepareCache;
   }
 
+  @Override
+  public Context getContext() {
+    return context;
+  }
+
   @Override
   public String toString() {
     return "Client{isClosed=" + isClosed + ", context=" + context + '}';
   }
 
-  public class LockAction implements AutoCloseable {
-    public LockAction() {
-      lock.lock();
+  /**
+   * Indicate if a command is submitted and not yet completed. Submissions are checked before
+   * response receivers, since a drained submission registers its receiver before leaving work in
+   * progress.
+   *
+   * @return true if a command may still change server status
+   */
+  private boolean commandInProgress() {
+    return submissionsWip.get() != 0 || !submissions.isEmpty() || !responseReceivers.isEmpty();
+  }
+
+  private static final class Submission {
+    private final Runnable write;
+    private final Consumer<Throwable> fail;
+
+    private Submission(Runnable write, Consumer<Throwable> fail) {
+      this.write = write;
+      this.fail = fail;
     }
+  }
+
+  /**
+   * Transaction commands, skipped when server status shows they are useless. Status is only relied
+   * on when no command is in progress, submitted commands included, since they may change it.
+   */
+  public class TransactionAction {
 
     public Mono<Void> rollbackTransaction() {
-      if (!responseReceivers.isEmpty()
-          || (context.getServerStatus() & ServerStatus.IN_TRANSACTION) > 0) {
+      if (commandInProgress() || (context.getServerStatus() & ServerStatus.IN_TRANSACTION) > 0) {
         return exchange("ROLLBACK").then();
       } else {
         logger.debug("Skipping savepoint release because no active transaction");
@@ -292,8 +563,7 @@ public abstract class ClientBase implements Client {
     }
 
     public Mono<Void> beginTransaction() {
-      if (!responseReceivers.isEmpty()
-          || (context.getServerStatus() & ServerStatus.IN_TRANSACTION) == 0) {
+      if (commandInProgress() || (context.getServerStatus() & ServerStatus.IN_TRANSACTION) == 0) {
         return exchange("BEGIN").then();
       } else {
         logger.debug("Skipping begin transaction because already in transaction");
@@ -302,8 +572,7 @@ public abstract class ClientBase implements Client {
     }
 
     public Mono<Void> commitTransaction() {
-      if (!responseReceivers.isEmpty()
-          || (context.getServerStatus() & ServerStatus.IN_TRANSACTION) > 0) {
+      if (commandInProgress() || (context.getServerStatus() & ServerStatus.IN_TRANSACTION) > 0) {
         return exchange("COMMIT").then();
       } else {
         logger.debug("Skipping commit transaction because no active transaction");
@@ -321,8 +590,7 @@ public abstract class ClientBase implements Client {
     }
 
     public Mono<Void> rollbackTransactionToSavepoint(String name) {
-      if (!responseReceivers.isEmpty()
-          || (context.getServerStatus() & ServerStatus.IN_TRANSACTION) > 0) {
+      if (commandInProgress() || (context.getServerStatus() & ServerStatus.IN_TRANSACTION) > 0) {
         return exchange(String.format("ROLLBACK TO SAVEPOINT `%s`", name.replace("`", "``")))
             .then();
       } else {
@@ -332,15 +600,10 @@ public abstract class ClientBase implements Client {
     }
 
     public Mono<Void> setAutoCommit(boolean autoCommit) {
-      if (!responseReceivers.isEmpty() || autoCommit != isAutoCommit()) {
+      if (commandInProgress() || autoCommit != isAutoCommit()) {
         return exchange("SET autocommit=" + (autoCommit ? '1' : '0')).then();
       }
       return Mono.empty();
     }
-
-    @Override
-    public void close() {
-      lock.unlock();
-    }
   }
 }
@@ -16,20 +16,25 @@
 
 package org.mariadb.r2dbc.client;
 
+import io.netty.channel.ChannelPromise;
 import io.r2dbc.spi.R2dbcNonTransientResourceException;
 import java.net.SocketAddress;
+import java.util.List;
 import java.util.Queue;
 import java.util.concurrent.atomic.AtomicBoolean;
 import org.mariadb.r2dbc.MariadbConnectionConfiguration;
 import org.mariadb.r2dbc.message.client.ClientMessage;
 import org.mariadb.r2dbc.message.client.ExecutePacket;
+import org.mariadb.r2dbc.message.client.LongDataPacket;
 import org.mariadb.r2dbc.message.client.PreparePacket;
 import org.mariadb.r2dbc.message.server.ServerMessage;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.netty.Connection;
 import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.resources.LoopResources;
 import reactor.netty.tcp.TcpClient;
+import reactor.util.annotation.Nullable;
 import reactor.util.concurrent.Queues;
 
 /** Client that only send query one by one. */
@@ -38,28 +43,76 @@ public final class ClientImpl extends ClientBase {
     super(connection, configuration);
   }
 
+  // commands waiting for previous command response. Accessed from event loop only.
   protected final Queue<ClientMessage> sendingQueue = Queues.<ClientMessage>unbounded().get();
 
   public static Mono<Client> connect(
       ConnectionProvider connectionProvider,
       SocketAddress socketAddress,
-      MariadbConnectionConfiguration configuration) {
+      MariadbConnectionConfiguration configuration,
+      @Nullable LoopResources loopResources) {
 
     TcpClient tcpClient = TcpClient.create(connectionProvider).remoteAddress(() -> socketAddress);
-    tcpClient = setSocketOption(configuration, tcpClient);
+    tcpClient = setSocketOption(configuration, tcpClient, loopResources);
     return tcpClient.connect().flatMap(it -> Mono.just(new ClientImpl(it, configuration)));
   }
 
   public void sendCommandWithoutResult(ClientMessage message) {
-    try {
-      lock.lock();
-      if (this.responseReceivers.isEmpty()) {
-        connection.channel().writeAndFlush(message);
-      } else {
-        sendingQueue.add(message);
+    submit(
+        () -> {
+          if (this.responseReceivers.isEmpty() && sendingQueue.isEmpty()) {
+            connection.channel().write(message);
+          } else {
+            sendingQueue.add(message);
+            metrics.commandQueued();
+          }
+        },
+        e -> {});
+  }
+
+  /**
+   * Send a long data chunk. When commands are waiting, chunk is queued, and returned publisher
+   * completes only when chunk is effectively written, so reading of source is slowed down to socket
+   * speed.
+   *
+   * @param packet long data packet
+   * @return publisher completing when packet is written to socket
+   */
+  public Mono<Void> sendLongData(LongDataPacket packet) {
+    if (!isConnected()) {
+      packet.release();
+      return Mono.error(
+          new R2dbcNonTransientResourceException("Connection is close. Cannot send anything"));
+    }
+    ChannelPromise promise = connection.channel().newPromise();
+    packet.setPromise(promise);
+    submit(
+        () -> {
+          if (this.responseReceivers.isEmpty() && sendingQueue.isEmpty()) {
+            connection.channel().write(packet, promise);
+          } else {
+            sendingQueue.add(packet);
+            metrics.commandQueued();
+          }
+        },
+        e -> {
+          packet.release();
+          promise.tryFailure(e);
+        });
+    return toMono(promise);
+  }
+
+  @Override
+  protected void clearWaitingListWithError(Throwable exception) {
+    super.clearWaitingListWithError(exception);
+    ClientMessage next;
+    while ((next = sendingQueue.poll()) != null) {
+      metrics.commandDequeued();
+      if (next instanceof LongDataPacket) {
+        LongDataPacket packet = (LongDataPacket) next;
+        packet.release();
+        packet.getPromise().tryFailure(exception);
       }
-    } finally {
-      lock.unlock();
     }
   }
 
@@ -67,6 +120,11 @@ public final class ClientImpl extends ClientBase {
     return Flux.error(new R2dbcNonTransientResourceException("Cannot pipeline"));
   }
 
+  public Flux<ServerMessage> sendCommand(
+      PreparePacket preparePacket, List<ExecutePacket> executePackets) {
+    return Flux.error(new R2dbcNonTransientResourceException("Cannot pipeline"));
+  }
+
   public Flux<ServerMessage> sendCommand(
       ClientMessage message, DecoderState initialState, String sql) {
     AtomicBoolean atomicBoolean = new AtomicBoolean();
@@ -79,29 +137,38 @@ public final class ClientImpl extends ClientBase {
             return;
           }
           if (atomicBoolean.compareAndSet(false, true)) {
-            try {
-              lock.lock();
-              if (this.responseReceivers.isEmpty()) {
-                this.responseReceivers.add(new CmdElement(sink, initialState, sql));
-                connection.channel().writeAndFlush(message);
-              } else {
-                this.responseReceivers.add(new CmdElement(sink, initialState, sql));
-                sendingQueue.add(message);
-              }
-            } finally {
-              lock.unlock();
-            }
+            submit(
+                () -> {
+                  // decoder may already wait for a command still in sending queue
+                  if (this.responseReceivers.isEmpty() && sendingQueue.isEmpty()) {
+                    addResponseReceiver(createCmdElement(sink, message, initialState, sql));
+                    connection.channel().write(message);
+                  } else {
+                    addResponseReceiver(createCmdElement(sink, message, initialState, sql));
+                    sendingQueue.add(message);
+                    metrics.commandQueued();
+                  }
+                },
+                sink::error);
           }
         });
   }
 
+  /** Send queued commands, up to the next one expecting a response. Called by decoder. */
   public void sendNext() {
-    lock.lock();
-    try {
-      ClientMessage next = sendingQueue.poll();
-      if (next != null) connection.channel().writeAndFlush(next);
-    } finally {
-      lock.unlock();
+    // commands without response, like COM_STMT_CLOSE, won't trigger sending of the next one
+    ClientMessage next;
+    boolean written = false;
+    while ((next = sendingQueue.poll()) != null) {
+      metrics.commandDequeued();
+      written = true;
+      if (next instanceof LongDataPacket) {
+        connection.channel().write(next, ((LongDataPacket) next).getPromise());
+      } else {
+        connection.channel().write(next);
+      }
+      if (next.expectResponse()) break;
     }
+    if (written) connection.channel().flush();
   }
 }
@@ -16,22 +16,38 @@
 
 package org.mariadb.r2dbc.client;
 
+import io.netty.channel.ChannelPromise;
 import io.r2dbc.spi.R2dbcNonTransientResourceException;
 import java.net.SocketAddress;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 import org.mariadb.r2dbc.MariadbConnectionConfiguration;
 import org.mariadb.r2dbc.message.client.ClientMessage;
 import org.mariadb.r2dbc.message.client.ExecutePacket;
+import org.mariadb.r2dbc.message.client.LongDataPacket;
 import org.mariadb.r2dbc.message.client.PreparePacket;
+import org.mariadb.r2dbc.message.client.QueryPacket;
 import org.mariadb.r2dbc.message.server.ServerMessage;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.netty.Connection;
 import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.resources.LoopResources;
 import reactor.netty.tcp.TcpClient;
+import reactor.util.annotation.Nullable;
 
 /** Client that send queries pipelining (without waiting for result). */
 public final class ClientPipelineImpl extends ClientBase {
+
+  // command that may make server read LOCAL INFILE data from connection: following commands wait
+  // for its completion. Accessed from event loop only.
+  private CmdElement exclusiveElement;
+  private final Queue<PendingCommand> pendingCommands = new ArrayDeque<>();
+
   public ClientPipelineImpl(Connection connection, MariadbConnectionConfiguration configuration) {
     super(connection, configuration);
   }
@@ -39,23 +55,49 @@ public final class ClientPipelineImpl extends ClientBase {
   public static Mono<Client> connect(
       ConnectionProvider connectionProvider,
       SocketAddress socketAddress,
-      MariadbConnectionConfiguration configuration) {
+      MariadbConnectionConfiguration configuration,
+      @Nullable LoopResources loopResources) {
 
     TcpClient tcpClient = TcpClient.create(connectionProvider).remoteAddress(() -> socketAddress);
-    tcpClient = setSocketOption(configuration, tcpClient);
+    tcpClient = setSocketOption(configuration, tcpClient, loopResources);
     return tcpClient.connect().flatMap(it -> Mono.just(new ClientPipelineImpl(it, configuration)));
   }
 
   public void sendCommandWithoutResult(ClientMessage message) {
-    try {
-      lock.lock();
-      connection.channel().writeAndFlush(message);
-    } finally {
-      lock.unlock();
+    submit(() -> sendOrHold(() -> connection.channel().write(message), e -> {}), e -> {});
+  }
+
+  public Mono<Void> sendLongData(LongDataPacket packet) {
+    if (!isConnected()) {
+      packet.release();
+      return Mono.error(
+          new R2dbcNonTransientResourceException("Connection is close. Cannot send anything"));
     }
+    ChannelPromise promise = connection.channel().newPromise();
+    Consumer<Throwable> fail =
+        e -> {
+          packet.release();
+          promise.tryFailure(e);
+        };
+    submit(() -> sendOrHold(() -> connection.channel().write(packet, promise), fail), fail);
+    return toMono(promise);
   }
 
   public Flux<ServerMessage> sendCommand(PreparePacket preparePacket, ExecutePacket executePacket) {
+    return sendCommand(preparePacket, Collections.singletonList(executePacket));
+  }
+
+  /**
+   * Send prepare command and many execute commands of this prepared statement at once, without
+   * waiting for prepare result. Execute commands use statement id -1, meaning last prepared
+   * statement (MariaDB 10.2+). All responses are received in the returned {@link Flux}.
+   *
+   * @param preparePacket prepare packet
+   * @param executePackets execute packets
+   * @return responses
+   */
+  public Flux<ServerMessage> sendCommand(
+      PreparePacket preparePacket, List<ExecutePacket> executePackets) {
     AtomicBoolean atomicBoolean = new AtomicBoolean();
     return Flux.create(
         sink -> {
@@ -66,16 +108,23 @@ public final class ClientPipelineImpl extends ClientBase {
             return;
           }
           if (atomicBoolean.compareAndSet(false, true)) {
-            try {
-              lock.lock();
-              this.responseReceivers.add(
-                  new CmdElement(
-                      sink, DecoderState.PREPARE_AND_EXECUTE_RESPONSE, preparePacket.getSql()));
-              connection.channel().writeAndFlush(preparePacket);
-              connection.channel().writeAndFlush(executePacket);
-            } finally {
-              lock.unlock();
-            }
+            submit(
+                () ->
+                    sendOrHold(
+                        () -> {
+                          addResponseReceiver(
+                              new CmdElement(
+                                  sink,
+                                  DecoderState.PREPARE_AND_EXECUTE_RESPONSE,
+                                  preparePacket.getSql(),
+                                  executePackets.size()));
+                          connection.channel().write(preparePacket);
+                          for (ExecutePacket executePacket : executePackets) {
+                            connection.channel().write(executePacket);
+                          }
+                        },
+                        sink::error),
+                sink::error);
           }
         });
   }
@@ -92,16 +141,74 @@ public final class ClientPipelineImpl extends ClientBase {
             return;
           }
           if (atomicBoolean.compareAndSet(false, true)) {
-            try {
-              lock.lock();
-              this.responseReceivers.add(new CmdElement(sink, initialState, sql));
-              connection.channel().writeAndFlush(message);
-            } finally {
-              lock.unlock();
-            }
+            submit(
+                () ->
+                    sendOrHold(
+                        () -> {
+                          // evaluated first: command must not be registered nor written if failing
+                          boolean exclusive =
+                              message instanceof QueryPacket
+                                  && ((QueryPacket) message)
+                                      .mayRequestLocalInfile(noBackslashEscapes());
+                          CmdElement element = createCmdElement(sink, message, initialState, sql);
+                          addResponseReceiver(element);
+                          connection.channel().write(message);
+                          if (exclusive) exclusiveElement = element;
+                        },
+                        sink::error),
+                sink::error);
           }
         });
   }
 
-  public void sendNext() {}
+  /**
+   * Write command, or queue it while a command may make server read LOCAL INFILE data from
+   * connection. Must be called from event loop.
+   *
+   * @param send command writing
+   * @param fail command failure, if connection fails before command is sent
+   */
+  private void sendOrHold(Runnable send, Consumer<Throwable> fail) {
+    if (exclusiveElement != null) {
+      pendingCommands.add(new PendingCommand(send, fail));
+      metrics.commandQueued();
+      return;
+    }
+    send.run();
+  }
+
+  /** Send commands waiting for LOCAL INFILE command completion. Called by decoder. */
+  public void sendNext() {
+    if (exclusiveElement == null || !exclusiveElement.isCompleted()) return;
+    exclusiveElement = null;
+    PendingCommand next;
+    boolean written = false;
+    while (exclusiveElement == null && (next = pendingCommands.poll()) != null) {
+      metrics.commandDequeued();
+      next.send.run();
+      written = true;
+    }
+    if (written) connection.channel().flush();
+  }
+
+  @Override
+  protected void clearWaitingListWithError(Throwable exception) {
+    super.clearWaitingListWithError(exception);
+    exclusiveElement = null;
+    PendingCommand next;
+    while ((next = pendingCommands.poll()) != null) {
+      metrics.commandDequeued();
+      next.fail.accept(exception);
+    }
+  }
+
+  private static final class PendingCommand {
+    private final Runnable send;
+    private final Consumer<Throwable> fail;
+
+    private PendingCommand(Runnable send, Consumer<Throwable> fail) {
+      this.send = send;
+      this.fail = fail;
+    }
+  }
 }
@@ -16,7 +16,11 @@
 
 package org.mariadb.r2dbc.client;
 
+import io.netty.buffer.ByteBuf;
+import java.util.concurrent.atomic.AtomicLong;
 import org.mariadb.r2dbc.message.server.ServerMessage;
+import org.mariadb.r2dbc.util.ServerPrepareResult;
+import org.reactivestreams.Publisher;
 import reactor.core.publisher.FluxSink;
 
 public class CmdElement {
@@ -25,16 +29,48 @@ public class CmdElement {
   private final DecoderState initialState;
   private final String sql;
 
+  // number of command responses this element still expects. Accessed by decoder thread only.
+  private int remainingResponses;
+
+  // prepared statement of prepare or execute command, caching result-set columns
+  private ServerPrepareResult prepareResult;
+
+  // subscriber demand minus emitted messages: negative value is the number of buffered messages
+  private final AtomicLong demand = new AtomicLong();
+  private volatile Runnable demandListener;
+
+  // System.nanoTime() of command submission, set only when metrics are enabled
+  private long submitTime;
+
+  // content sent when server requests a LOCAL INFILE, instead of reading a local file
+  private Publisher<ByteBuf> localInfileData;
+
+  // error sending LOCAL INFILE content, reported once server response is received
+  private volatile Throwable localInfileError;
+
   public CmdElement(FluxSink<ServerMessage> sink, DecoderState initialState) {
-    this.sink = sink;
-    this.initialState = initialState;
-    this.sql = null;
+    this(sink, initialState, null);
   }
 
   public CmdElement(FluxSink<ServerMessage> sink, DecoderState initialState, String sql) {
+    this(sink, initialState, sql, 1);
+  }
+
+  /**
+   * Command element receiving the responses of many pipelined commands in one sink.
+   *
+   * @param sink sink
+   * @param initialState decoder state of first response
+   * @param sql sql command, used for prepare caching
+   * @param responses number of command responses to receive
+   */
+  public CmdElement(
+      FluxSink<ServerMessage> sink, DecoderState initialState, String sql, int responses) {
     this.sink = sink;
     this.initialState = initialState;
     this.sql = sql;
+    this.remainingResponses = responses;
+    this.sink.onRequest(this::request);
   }
 
   public FluxSink<ServerMessage> getSink() {
@@ -48,4 +84,102 @@ public class CmdElement {
   public String getSql() {
     return sql;
   }
+
+  public ServerPrepareResult getPrepareResult() {
+    return prepareResult;
+  }
+
+  public void setPrepareResult(ServerPrepareResult prepareResult) {
+    this.prepareResult = prepareResult;
+  }
+
+  public long getSubmitTime() {
+    return submitTime;
+  }
+
+  public void setSubmitTime(long submitTime) {
+    this.submitTime = submitTime;
+  }
+
+  public Publisher<ByteBuf> getLocalInfileData() {
+    return localInfileData;
+  }
+
+  public void setLocalInfileData(Publisher<ByteBuf> localInfileData) {
+    this.localInfileData = localInfileData;
+  }
+
+  public Throwable getLocalInfileError() {
+    return localInfileError;
+  }
+
+  public void setLocalInfileError(Throwable localInfileError) {
+    this.localInfileError = localInfileError;
+  }
+
+  /**
+   * Indicate if all command responses have been received.
+   *
+   * @return true if no other response is expected
+   */
+  public boolean isCompleted() {
+    return remainingResponses <= 0;
+  }
+
+  /**
+   * Indicate that a command response has been fully received.
+   *
+   * @return true if no other response is expected
+   */
+  public boolean endResponse() {
+    return --remainingResponses <= 0;
+  }
+
+  private void request(long n) {
+    long current;
+    long next;
+    do {
+      current = demand.get();
+      if (current == Long.MAX_VALUE) return;
+      next = (n == Long.MAX_VALUE || current + n < current) ? Long.MAX_VALUE : current + n;
+    } while (!demand.compareAndSet(current, next));
+
+    Runnable listener = this.demandListener;
+    if (listener != null) listener.run();
+  }
+
+  /**
+   * Send message to subscriber.
+   *
+   * @param msg server message
+   * @return number of messages buffered in sink, waiting for subscriber demand
+   */
+  public long emit(ServerMessage msg) {
+    long current;
+    do {
+      current = demand.get();
+      if (current == Long.MAX_VALUE) break;
+    } while (!demand.compareAndSet(current, current - 1));
+    sink.next(msg);
+    return getBuffered();
+  }
+
+  /**
+   * Number of messages emitted, but not yet requested by subscriber.
+   *
+   * @return number of buffered messages
+   */
+  public long getBuffered() {
+    long current = demand.get();
+    return current < 0 ? -current : 0;
+  }
+
+  /**
+   * Register listener called each time subscriber request more messages.
+   *
+   * @param demandListener listener
+   */
+  public void setDemandListener(Runnable demandListener) {
+    this.demandListener = demandListener;
+  }
 }
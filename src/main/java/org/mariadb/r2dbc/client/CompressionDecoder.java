@@ -0,0 +1,130 @@
+/*
+ * Copyright 2020 MariaDB Ab.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mariadb.r2dbc.client;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.ByteToMessageDecoder;
+import io.netty.handler.codec.DecoderException;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Unwrap inbound compressed protocol packets, forwarding uncompressed data to {@link
+ * MariadbPacketDecoder}. A compressed packet can contain partial or many standard packets.
+ *
+ * <p>Compressed data is inflated directly from heap buffers. Otherwise, it is copied to a scratch
+ * array, kept between packets up to 64KB.
+ */
+public class CompressionDecoder extends ByteToMessageDecoder {
+
+  private final Inflater inflater = new Inflater();
+  private final CompressionEncoder encoder;
+  private byte[] input = new byte[0];
+
+  public CompressionDecoder() {
+    this(null);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param encoder encoder continuing compressed sequence of received packets, if any
+   */
+  public CompressionDecoder(CompressionEncoder encoder) {
+    this.encoder = encoder;
+  }
+
+  @Override
+  protected void decode(ChannelHandlerContext ctx, ByteBuf buf, List<Object> out) {
+    while (buf.readableBytes() >= 7) {
+      int compressedLength = buf.getUnsignedMediumLE(buf.readerIndex());
+      if (buf.readableBytes() < compressedLength + 7) return;
+
+      if (encoder != null) encoder.received(buf.getByte(buf.readerIndex() + 3));
+      int length = buf.getUnsignedMediumLE(buf.readerIndex() + 4);
+      buf.skipBytes(7);
+      if (length == 0) {
+        // payload not compressed
+        out.add(buf.readRetainedSlice(compressedLength));
+        continue;
+      }
+
+      ByteBuf scratch = null;
+      byte[] in;
+      int inOffset;
+      if (buf.hasArray()) {
+        in = buf.array();
+        inOffset = buf.arrayOffset() + buf.readerIndex();
+      } else if (compressedLength <= CompressionEncoder.MAX_RETAINED) {
+        if (input.length < compressedLength) input = new byte[compressedLength];
+        buf.getBytes(buf.readerIndex(), input, 0, compressedLength);
+        in = input;
+        inOffset = 0;
+      } else {
+        // large packet: pooled buffer released after use, not kept for connection lifetime
+        scratch = ctx.alloc().heapBuffer(compressedLength);
+        in = scratch.array();
+        inOffset = scratch.arrayOffset();
+        buf.getBytes(buf.readerIndex(), in, inOffset, compressedLength);
+      }
+      buf.skipBytes(compressedLength);
+      ByteBuf uncompressed = ctx.alloc().heapBuffer(length, length);
+      inflater.reset();
+      inflater.setInput(in, inOffset, compressedLength);
+      try {
+        int read = 0;
+        while (read < length && !inflater.finished()) {
+          int n =
+              inflater.inflate(
+                  uncompressed.array(), uncompressed.arrayOffset() + read, length - read);
+          if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) break;
+          read += n;
+        }
+        if (read != length) {
+          throw new DecoderException(
+              String.format("Compressed packet expected length %s, but was %s", length, read));
+        }
+      } catch (DataFormatException | DecoderException e) {
+        uncompressed.release();
+        throw e instanceof DecoderException
+            ? (DecoderException) e
+            : new DecoderException("Wrong compressed packet", e);
+      } finally {
+        if (scratch != null) scratch.release();
+      }
+      out.add(uncompressed.writerIndex(length));
+    }
+  }
+
+  @Override
+  public void channelReadComplete(ChannelHandlerContext ctx) throws Exception {
+    if (!ctx.channel().config().isAutoRead()) {
+      // reading has been paused by MariadbPacketDecoder, waiting for subscriber demand
+      discardSomeReadBytes();
+      ctx.fireChannelReadComplete();
+      return;
+    }
+    super.channelReadComplete(ctx);
+  }
+
+  @Override
+  protected void handlerRemoved0(ChannelHandlerContext ctx) {
+    inflater.end();
+  }
+}
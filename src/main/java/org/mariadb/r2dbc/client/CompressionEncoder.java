@@ -0,0 +1,140 @@
+/*
+ * Copyright 2020 MariaDB Ab.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mariadb.r2dbc.client;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.MessageToByteEncoder;
+import java.util.zip.Deflater;
+
+/**
+ * Wrap outbound packets in compressed protocol packets (7 bytes header: compressed payload length,
+ * compressed sequence, uncompressed payload length or 0 if payload is not compressed).
+ *
+ * <p>Each outbound buffer contains complete standard packets. Compressed sequence restarts at 0
+ * when a buffer starts a new command (first standard packet having sequence 0). Otherwise, buffer
+ * continues an exchange, like LOCAL INFILE content, and compressed sequence follows the last one
+ * received from server. Payloads smaller than threshold are sent uncompressed.
+ *
+ * <p>Scratch arrays are kept between packets up to 64KB: bigger packets use pooled buffers,
+ * released after use.
+ */
+public class CompressionEncoder extends MessageToByteEncoder<ByteBuf> {
+
+  private static final int MAX_PAYLOAD = 0xffffff;
+  // maximum size of scratch arrays kept between packets
+  static final int MAX_RETAINED = 64 * 1024;
+  private final int threshold;
+  private final Deflater deflater = new Deflater();
+  private byte[] input = new byte[0];
+  private byte[] output = new byte[0];
+  // next compressed sequence of current command exchange
+  private byte sequence;
+
+  public CompressionEncoder(int threshold) {
+    this.threshold = threshold;
+  }
+
+  @Override
+  protected void encode(ChannelHandlerContext ctx, ByteBuf msg, ByteBuf out) {
+    if (msg.readableBytes() < 4 || msg.getByte(msg.readerIndex() + 3) == 0) sequence = 0;
+    do {
+      int length = Math.min(msg.readableBytes(), MAX_PAYLOAD);
+      if (length < threshold || !writeCompressed(ctx.alloc(), msg, length, sequence, out)) {
+        out.writeMediumLE(length);
+        out.writeByte(sequence);
+        out.writeMediumLE(0);
+        out.writeBytes(msg, length);
+      }
+      sequence++;
+    } while (msg.isReadable());
+  }
+
+  private boolean writeCompressed(
+      ByteBufAllocator alloc, ByteBuf msg, int length, byte sequence, ByteBuf out) {
+    // deflate output can be slightly bigger than input for incompressible data
+    int maxCompressed = length + length / 1000 + 64;
+    ByteBuf scratch = null;
+    try {
+      byte[] in;
+      int inOffset;
+      byte[] res;
+      int resOffset;
+      if (maxCompressed <= MAX_RETAINED) {
+        if (output.length < maxCompressed) {
+          input = new byte[maxCompressed];
+          output = new byte[maxCompressed];
+        }
+        in = input;
+        inOffset = 0;
+        res = output;
+        resOffset = 0;
+      } else {
+        // large packet: pooled buffer released after use, not kept for connection lifetime
+        scratch = alloc.heapBuffer(length + maxCompressed);
+        in = scratch.array();
+        inOffset = scratch.arrayOffset();
+        res = in;
+        resOffset = inOffset + length;
+      }
+      if (msg.hasArray()) {
+        in = msg.array();
+        inOffset = msg.arrayOffset() + msg.readerIndex();
+      } else {
+        msg.getBytes(msg.readerIndex(), in, inOffset, length);
+      }
+
+      deflater.reset();
+      deflater.setInput(in, inOffset, length);
+      deflater.finish();
+      int compressedLength = 0;
+      while (!deflater.finished() && compressedLength < maxCompressed) {
+        compressedLength +=
+            deflater.deflate(res, resOffset + compressedLength, maxCompressed - compressedLength);
+      }
+
+      // send uncompressed if compression doesn't reduce size
+      if (!deflater.finished() || compressedLength >= length) return false;
+
+      out.writeMediumLE(compressedLength);
+      out.writeByte(sequence);
+      out.writeMediumLE(length);
+      out.writeBytes(res, resOffset, compressedLength);
+      msg.skipBytes(length);
+      return true;
+    } finally {
+      if (scratch != null) scratch.release();
+    }
+  }
+
+  /**
+   * Register compressed sequence of a packet received from server, next packets of the same
+   * exchange continuing from it.
+   *
+   * @param received compressed sequence received
+   */
+  public void received(byte received) {
+    sequence = (byte) (received + 1);
+  }
+
+  @Override
+  public void handlerRemoved(ChannelHandlerContext ctx) throws Exception {
+    deflater.end();
+    super.handlerRemoved(ctx);
+  }
+}
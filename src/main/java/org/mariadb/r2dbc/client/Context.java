@@ -24,6 +24,7 @@ public class Context {
   private short serverStatus;
   private String database = null;
   private ServerVersion version;
+  private volatile int maxAllowedPacket;
 
   public Context(
       String serverVersion,
@@ -72,6 +73,19 @@ public class Context {
     return version;
   }
 
+  /**
+   * Server max_allowed_packet value.
+   *
+   * @return max_allowed_packet, or 0 if not yet retrieved
+   */
+  public int getMaxAllowedPacket() {
+    return maxAllowedPacket;
+  }
+
+  public void setMaxAllowedPacket(int maxAllowedPacket) {
+    this.maxAllowedPacket = maxAllowedPacket;
+  }
+
   @Override
   public String toString() {
     return "ConnectionContext{" + "threadId=" + threadId + ", version=" + version + '}';
@@ -24,6 +24,7 @@ import org.mariadb.r2dbc.message.server.ColumnDefinitionPacket;
 import org.mariadb.r2dbc.message.server.EofPacket;
 import org.mariadb.r2dbc.message.server.ErrorPacket;
 import org.mariadb.r2dbc.message.server.InitialHandshakePacket;
+import org.mariadb.r2dbc.message.server.LocalInfilePacket;
 import org.mariadb.r2dbc.message.server.OkPacket;
 import org.mariadb.r2dbc.message.server.PrepareResultPacket;
 import org.mariadb.r2dbc.message.server.RowPacket;
@@ -133,6 +134,8 @@ public enum DecoderState implements DecoderStateInterface {
       switch (val) {
         case 0:
           return OK_PACKET;
+        case 251: // 0xFB
+          return LOCAL_INFILE;
         case 255: // 0xFF
           return ERROR;
         default:
@@ -141,20 +144,39 @@ public enum DecoderState implements DecoderStateInterface {
     }
   },
 
+  LOCAL_INFILE {
+    @Override
+    public ServerMessage decode(
+        ByteBuf body, Sequencer sequencer, MariadbPacketDecoder decoder, CmdElement element) {
+      LocalInfilePacket packet = LocalInfilePacket.decode(sequencer, body);
+      decoder.getClient().sendLocalInfile(packet, element);
+      return packet;
+    }
+
+    @Override
+    public DecoderState next(MariadbPacketDecoder decoder) {
+      return QUERY_RESPONSE;
+    }
+  },
+
   COLUMN_COUNT {
 
     @Override
     public ServerMessage decode(
         ByteBuf body, Sequencer sequencer, MariadbPacketDecoder decoder, CmdElement element) {
       ColumnCountPacket columnCountPacket =
-          ColumnCountPacket.decode(sequencer, body, decoder.getContext());
-      decoder.setStateCounter(columnCountPacket.getColumnCount());
+          ColumnCountPacket.decode(
+              sequencer, body, decoder.getContext(), element.getPrepareResult());
+      decoder.setStateCounter(
+          columnCountPacket.isMetaFollows() ? columnCountPacket.getColumnCount() : 0);
+      decoder.initColumns(columnCountPacket);
       return columnCountPacket;
     }
 
     @Override
     public DecoderState next(MariadbPacketDecoder decoder) {
-      return COLUMN_DEFINITION;
+      // cached prepared statement columns are used when server skips metadata
+      return decoder.getStateCounter() > 0 ? COLUMN_DEFINITION : afterColumns(decoder);
     }
   },
 
@@ -168,17 +190,16 @@ public enum DecoderState implements DecoderStateInterface {
     public ServerMessage decode(
         ByteBuf body, Sequencer sequencer, MariadbPacketDecoder decoder, CmdElement element) {
       decoder.decrementStateCounter();
-      return ColumnDefinitionPacket.decode(sequencer, body, decoder.getContext(), false);
+      ColumnDefinitionPacket column =
+          ColumnDefinitionPacket.decode(sequencer, body, decoder.getContext(), false);
+      decoder.addColumn(column);
+      return column;
     }
 
     @Override
     public DecoderState next(MariadbPacketDecoder decoder) {
       if (decoder.getStateCounter() <= 0) {
-        if ((decoder.getServerCapabilities() & Capabilities.CLIENT_DEPRECATE_EOF) > 0) {
-          return ROW_RESPONSE;
-        } else {
-          return EOF_INTERMEDIATE_RESPONSE;
-        }
+        return afterColumns(decoder);
       }
       return this;
     }
@@ -242,7 +263,7 @@ public enum DecoderState implements DecoderStateInterface {
     @Override
     public ServerMessage decode(
         ByteBuf body, Sequencer sequencer, MariadbPacketDecoder decoder, CmdElement element) {
-      return new RowPacket(body);
+      return RowPacket.newInstance(body);
     }
 
     @Override
@@ -251,48 +272,36 @@ public enum DecoderState implements DecoderStateInterface {
     }
   },
 
-  PREPARE_RESPONSE {
-    PrepareResultPacket packet;
+  FETCH_RESPONSE {
+    public DecoderState decoder(short val, int len, long serverCapabilities) {
+      // COM_STMT_FETCH response only contains rows, ending with EOF/OK packet
+      return ROW_RESPONSE.decoder(val, len, serverCapabilities);
+    }
+  },
 
+  PREPARE_RESPONSE {
     public DecoderState decoder(short val, int len, long serverCapabilities) {
-      return this;
+      switch (val) {
+        case 255: // 0xFF
+          return ERROR;
+        default:
+          return this;
+      }
     }
 
     @Override
     public ServerMessage decode(
         ByteBuf body, Sequencer sequencer, MariadbPacketDecoder decoder, CmdElement element) {
-      packet = PrepareResultPacket.decode(sequencer, body, decoder.getContext());
-      ServerPrepareResult prepareResult =
-          new ServerPrepareResult(
-              packet.getStatementId(), packet.getNumColumns(), packet.getNumParams());
-
-      PrepareCache prepareCache = decoder.getClient().getPrepareCache();
-      if (prepareCache != null && prepareCache.put(element.getSql(), prepareResult) != null) {
-        // race condition, remove new one to get the one in cache
-        prepareResult.decrementUse(decoder.getClient());
-      }
-      return packet;
+      return decodePrepare(body, sequencer, decoder, element, false);
     }
 
     @Override
     public DecoderState next(MariadbPacketDecoder decoder) {
-      if ((decoder.getServerCapabilities() & Capabilities.CLIENT_DEPRECATE_EOF) > 0) {
-        decoder.setStateCounter(packet.getNumParams() + packet.getNumColumns());
-      } else {
-        decoder.setStateCounter(
-            (packet.getNumParams() > 0 ? packet.getNumParams() + 1 : 0)
-                + (packet.getNumColumns() > 0 ? packet.getNumColumns() + 1 : 0));
-      }
-      if (decoder.getStateCounter() > 0) {
-        return SKIP;
-      }
-      throw new IllegalArgumentException("unexpected state");
+      return afterPrepare(decoder);
     }
   },
 
   PREPARE_AND_EXECUTE_RESPONSE {
-    PrepareResultPacket packet;
-
     public DecoderState decoder(short val, int len, long serverCapabilities) {
       switch (val) {
         case 255: // 0xFF
@@ -305,39 +314,37 @@ public enum DecoderState implements DecoderStateInterface {
     @Override
     public ServerMessage decode(
         ByteBuf body, Sequencer sequencer, MariadbPacketDecoder decoder, CmdElement element) {
+      return decodePrepare(body, sequencer, decoder, element, true);
+    }
 
-      packet = PrepareResultPacket.decode(sequencer, body, decoder.getContext());
-
-      ServerPrepareResult prepareResult =
-          new ServerPrepareResult(
-              packet.getStatementId(), packet.getNumColumns(), packet.getNumParams());
+    @Override
+    public DecoderState next(MariadbPacketDecoder decoder) {
+      return afterPrepare(decoder);
+    }
+  },
 
-      PrepareCache prepareCache = decoder.getClient().getPrepareCache();
-      if (prepareCache != null && prepareCache.put(element.getSql(), prepareResult) != null) {
-        // race condition, remove new one to get the one in cache
-        prepareResult.decrementUse(decoder.getClient());
-      }
+  PREPARE_PARAMETER {
+    public DecoderState decoder(short val, int len, long serverCapabilities) {
+      return this;
+    }
 
-      return packet;
+    @Override
+    public ServerMessage decode(
+        ByteBuf body, Sequencer sequencer, MariadbPacketDecoder decoder, CmdElement element) {
+      decoder.decrementStateCounter();
+      return SkipPacket.decode(
+          decoder.getStateCounter() == 0
+              && element.getPrepareResult().getNumColumns() == 0
+              && element.getInitialState() == PREPARE_RESPONSE);
     }
 
     @Override
     public DecoderState next(MariadbPacketDecoder decoder) {
-      if ((decoder.getServerCapabilities() & Capabilities.CLIENT_DEPRECATE_EOF) > 0) {
-        decoder.setStateCounter(packet.getNumParams() + packet.getNumColumns());
-      } else {
-        decoder.setStateCounter(
-            (packet.getNumParams() > 0 ? packet.getNumParams() + 1 : 0)
-                + (packet.getNumColumns() > 0 ? packet.getNumColumns() + 1 : 0));
-      }
-      if (decoder.getStateCounter() > 0) {
-        return SKIP_EXECUTE;
-      }
-      return QUERY_RESPONSE;
+      return decoder.getStateCounter() > 0 ? this : afterParameters(decoder);
     }
   },
 
-  SKIP {
+  PREPARE_COLUMN {
     public DecoderState decoder(short val, int len, long serverCapabilities) {
       return this;
     }
@@ -345,13 +352,24 @@ public enum DecoderState implements DecoderStateInterface {
     @Override
     public ServerMessage decode(
         ByteBuf body, Sequencer sequencer, MariadbPacketDecoder decoder, CmdElement element) {
+      ServerPrepareResult prepareResult = element.getPrepareResult();
+      ColumnDefinitionPacket[] columns = prepareResult.getColumns();
+      int numColumns = prepareResult.getNumColumns();
+      int index = definitionPackets(decoder, numColumns) - decoder.getStateCounter();
+      if (columns != null && index < numColumns) {
+        columns[index] =
+            ColumnDefinitionPacket.decode(sequencer, body, decoder.getContext(), false);
+      } // else intermediate EOF packet, or columns that cannot be reused
+
+      // column definitions are kept for execute responses, not emitted
       decoder.decrementStateCounter();
-      return SkipPacket.decode(decoder.getStateCounter() == 0);
+      return SkipPacket.decode(
+          decoder.getStateCounter() == 0 && element.getInitialState() == PREPARE_RESPONSE);
     }
 
     @Override
     public DecoderState next(MariadbPacketDecoder decoder) {
-      return SKIP;
+      return decoder.getStateCounter() > 0 ? this : QUERY_RESPONSE;
     }
   },
 
@@ -408,5 +426,71 @@ public enum DecoderState implements DecoderStateInterface {
     public DecoderState next(MariadbPacketDecoder decoder) {
       return SKIP_EXECUTE;
     }
+  };
+
+  private static DecoderState afterColumns(MariadbPacketDecoder decoder) {
+    if ((decoder.getServerCapabilities() & Capabilities.CLIENT_DEPRECATE_EOF) > 0) {
+      return ROW_RESPONSE;
+    }
+    return EOF_INTERMEDIATE_RESPONSE;
+  }
+
+  private static PrepareResultPacket decodePrepare(
+      ByteBuf body,
+      Sequencer sequencer,
+      MariadbPacketDecoder decoder,
+      CmdElement element,
+      boolean executeFollows) {
+    PrepareResultPacket packet =
+        PrepareResultPacket.decode(sequencer, body, decoder.getContext(), executeFollows);
+    ServerPrepareResult prepareResult =
+        new ServerPrepareResult(
+            packet.getStatementId(), packet.getNumColumns(), packet.getNumParams());
+    // filled by following column definition packets, only when execute responses may skip
+    // metadata: otherwise, columns are those of the first execute response
+    if ((decoder.getServerCapabilities() & Capabilities.MARIADB_CLIENT_CACHE_METADATA) != 0) {
+      prepareResult.setColumns(new ColumnDefinitionPacket[packet.getNumColumns()]);
+    }
+    element.setPrepareResult(prepareResult);
+    packet.setPrepareResult(prepareResult);
+
+    PrepareCache prepareCache = decoder.getClient().getPrepareCache();
+    ServerPrepareResult cached;
+    // statement prepared without sql is exclusive to its command, never cached
+    if (prepareCache != null
+        && element.getSql() != null
+        && (cached = prepareCache.put(element.getSql(), prepareResult)) != null) {
+      // race condition, remove new one to get the one in cache
+      prepareResult.decrementUse(decoder.getClient());
+      packet.setPrepareResult(cached);
+    }
+    return packet;
+  }
+
+  private static int definitionPackets(MariadbPacketDecoder decoder, int definitions) {
+    if (definitions == 0
+        || (decoder.getServerCapabilities() & Capabilities.CLIENT_DEPRECATE_EOF) > 0) {
+      return definitions;
+    }
+    return definitions + 1;
+  }
+
+  private static DecoderState afterPrepare(MariadbPacketDecoder decoder) {
+    ServerPrepareResult prepareResult = decoder.getCmdElement().getPrepareResult();
+    if (prepareResult.getNumParams() > 0) {
+      decoder.setStateCounter(definitionPackets(decoder, prepareResult.getNumParams()));
+      return PREPARE_PARAMETER;
+    }
+    return afterParameters(decoder);
+  }
+
+  private static DecoderState afterParameters(MariadbPacketDecoder decoder) {
+    ServerPrepareResult prepareResult = decoder.getCmdElement().getPrepareResult();
+    if (prepareResult.getNumColumns() > 0) {
+      decoder.setStateCounter(definitionPackets(decoder, prepareResult.getNumColumns()));
+      return PREPARE_COLUMN;
+    }
+    // prepare response without definition is followed by pipelined execute response
+    return QUERY_RESPONSE;
   }
 }
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2020 MariaDB Ab.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mariadb.r2dbc.client;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufHolder;
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+
+/**
+ * Outbound stage consolidating flushes, so that commands written by consecutive event loop tasks
+ * are sent with a single syscall (and a single TLS record when using SSL).
+ *
+ * <p>A flush is never delayed by a timer: the first flush request schedules a flush at the end of
+ * the current event loop tasks, so an isolated command is sent immediately. If other flush requests
+ * arrived meanwhile, the flush is postponed again, until no more flush are requested, pending bytes
+ * reach {@code maxPendingBytes} or first flush request is older than {@code maxDelayNanos}. Flushes
+ * requested while reading (commands sent on responses) are done when read completes.
+ */
+public class MariadbFlushConsolidationHandler extends ChannelDuplexHandler {
+
+  private final long maxDelayNanos;
+  private final int maxPendingBytes;
+  private final Runnable flushTask = this::runFlushTask;
+  private ChannelHandlerContext ctx;
+  private boolean readInProgress;
+  private boolean flushPending;
+  private boolean flushScheduled;
+  private int flushRequests;
+  private long pendingBytes;
+  private long firstRequestNanos;
+
+  /**
+   * Flush consolidation stage.
+   *
+   * @param maxDelayNanos maximum time a flush request can be postponed
+   * @param maxPendingBytes written bytes that cause immediate flush
+   */
+  public MariadbFlushConsolidationHandler(long maxDelayNanos, int maxPendingBytes) {
+    this.maxDelayNanos = maxDelayNanos;
+    this.maxPendingBytes = maxPendingBytes;
+  }
+
+  @Override
+  public void handlerAdded(ChannelHandlerContext ctx) {
+    this.ctx = ctx;
+  }
+
+  @Override
+  public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
+    if (msg instanceof ByteBuf) {
+      pendingBytes += ((ByteBuf) msg).readableBytes();
+    } else if (msg instanceof ByteBufHolder) {
+      pendingBytes += ((ByteBufHolder) msg).content().readableBytes();
+    }
+    ctx.write(msg, promise);
+  }
+
+  @Override
+  public void flush(ChannelHandlerContext ctx) {
+    if (pendingBytes >= maxPendingBytes) {
+      flushNow(ctx);
+    } else if (readInProgress) {
+      flushPending = true;
+    } else if (flushScheduled) {
+      flushRequests++;
+    } else {
+      flushScheduled = true;
+      firstRequestNanos = System.nanoTime();
+      ctx.channel().eventLoop().execute(flushTask);
+    }
+  }
+
+  @Override
+  public void channelRead(ChannelHandlerContext ctx, Object msg) {
+    readInProgress = true;
+    ctx.fireChannelRead(msg);
+  }
+
+  @Override
+  public void channelReadComplete(ChannelHandlerContext ctx) {
+    readInProgress = false;
+    if (flushPending) flushNow(ctx);
+    ctx.fireChannelReadComplete();
+  }
+
+  @Override
+  public void channelWritabilityChanged(ChannelHandlerContext ctx) {
+    if (!ctx.channel().isWritable()) flushIfNeeded(ctx);
+    ctx.fireChannelWritabilityChanged();
+  }
+
+  @Override
+  public void disconnect(ChannelHandlerContext ctx, ChannelPromise promise) {
+    flushIfNeeded(ctx);
+    ctx.disconnect(promise);
+  }
+
+  @Override
+  public void close(ChannelHandlerContext ctx, ChannelPromise promise) {
+    flushIfNeeded(ctx);
+    ctx.close(promise);
+  }
+
+  @Override
+  public void handlerRemoved(ChannelHandlerContext ctx) {
+    flushIfNeeded(ctx);
+  }
+
+  private void runFlushTask() {
+    if (!flushScheduled) return;
+    if (flushRequests > 0
+        && pendingBytes < maxPendingBytes
+        && System.nanoTime() - firstRequestNanos < maxDelayNanos) {
+      // more commands were flushed since this task was scheduled: wait for next ones
+      flushRequests = 0;
+      ctx.channel().eventLoop().execute(flushTask);
+      return;
+    }
+    flushNow(ctx);
+  }
+
+  private void flushIfNeeded(ChannelHandlerContext ctx) {
+    if (flushPending || flushScheduled) flushNow(ctx);
+  }
+
+  private void flushNow(ChannelHandlerContext ctx) {
+    flushPending = false;
+    flushScheduled = false;
+    flushRequests = 0;
+    pendingBytes = 0;
+    ctx.flush();
+  }
+}
@@ -18,39 +18,81 @@ package org.mariadb.r2dbc.client;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.CompositeByteBuf;
+import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.ByteToMessageDecoder;
 import io.r2dbc.spi.R2dbcNonTransientResourceException;
 import java.util.List;
 import java.util.Queue;
+import org.mariadb.r2dbc.message.server.ColumnCountPacket;
+import org.mariadb.r2dbc.message.server.ColumnDefinitionPacket;
+import org.mariadb.r2dbc.message.server.LobStream;
 import org.mariadb.r2dbc.message.server.Sequencer;
 import org.mariadb.r2dbc.message.server.ServerMessage;
+import org.mariadb.r2dbc.message.server.StreamedRowPacket;
+import org.mariadb.r2dbc.metrics.Metrics;
+import org.mariadb.r2dbc.util.ServerPrepareResult;
 
 public class MariadbPacketDecoder extends ByteToMessageDecoder {
 
+  /** Number of messages waiting subscriber demand before stopping socket reading. */
+  public static final int HIGH_WATER_MARK = 1024;
+
+  /** Number of messages waiting subscriber demand under which socket reading resumes. */
+  public static final int LOW_WATER_MARK = 256;
+
   private final Queue<CmdElement> responseReceivers;
   private final Client client;
+  private final Metrics metrics;
+  private final int lobChunkSize;
 
   private Context context = null;
   private boolean isMultipart = false;
   private DecoderState state = DecoderState.INIT_HANDSHAKE;
-  private CmdElement cmdElement;
+  // current command, read by subscriber threads when signaling demand
+  private volatile CmdElement cmdElement;
   private CompositeByteBuf multipart;
   private long serverCapabilities;
   private int stateCounter = 0;
+  private volatile Channel channel;
+  // changed only on channel event loop, read by subscriber threads
+  private volatile boolean readPaused = false;
+
+  // current result-set columns, only kept when LOB streaming is enabled
+  private ColumnDefinitionPacket[] columns;
+  // row exceeding packet size being streamed, with remaining bytes of current packet
+  private volatile StreamingRowDecoder streamingRow;
+  private int packetRemaining;
+  private boolean lastPacket;
 
   public MariadbPacketDecoder(Queue<CmdElement> responseReceivers, Client client) {
+    this(responseReceivers, client, Metrics.NONE, 0);
+  }
+
+  public MariadbPacketDecoder(
+      Queue<CmdElement> responseReceivers, Client client, Metrics metrics, int lobChunkSize) {
     this.responseReceivers = responseReceivers;
     this.client = client;
+    this.metrics = metrics;
+    this.lobChunkSize = lobChunkSize;
   }
 
   @Override
   protected void decode(ChannelHandlerContext ctx, ByteBuf buf, List<Object> out) throws Exception {
-    while (buf.readableBytes() > 4) {
+    channel = ctx.channel();
+    while (streamingRow != null || buf.readableBytes() > 4) {
+      if (streamingRow != null) {
+        if (!decodeStreamingRow(buf)) return;
+        continue;
+      }
       int length = buf.getUnsignedMediumLE(buf.readerIndex());
 
+      // row exceeding packet size: stream it instead of waiting for complete packet
+      if (length == 0xffffff && !isMultipart && startStreamingRow(buf)) continue;
+
       // packet not complete
       if (buf.readableBytes() < length + 4) return;
+      metrics.packetReceived(length + 4);
 
       // extract packet
       if (length == 0xffffff) {
@@ -99,22 +141,190 @@ public class MariadbPacketDecoder extends ByteToMessageDecoder {
             packet.readableBytes(),
             serverCapabilities);
     ServerMessage msg = state.decode(packet, sequencer, this, cmdElement);
-    cmdElement.getSink().next(msg);
+    long buffered = cmdElement.emit(msg);
     if (msg.ending()) {
-      if (cmdElement != null) {
+      if (state == DecoderState.ERROR_AND_EXECUTE_RESPONSE || !cmdElement.endResponse()) {
+        // a pipelined command response follows: failing prepare is followed by execute error
+        state = DecoderState.QUERY_RESPONSE;
+      } else {
         // complete executed only after setting next element.
         CmdElement element = cmdElement;
         loadNextResponse();
-        element.getSink().complete();
+        if (metrics != Metrics.NONE) {
+          metrics.commandCompleted(System.nanoTime() - element.getSubmitTime());
+        }
+        Throwable localInfileError = element.getLocalInfileError();
+        if (localInfileError != null) {
+          element.getSink().error(localInfileError);
+        } else {
+          element.getSink().complete();
+        }
+        // command response is complete, buffered messages won't grow anymore
+        resumeReading();
       }
       client.sendNext();
     } else {
       state = state.next(this);
+      if (buffered > HIGH_WATER_MARK && !readPaused) {
+        pauseReading(cmdElement);
+      }
+    }
+  }
+
+  /**
+   * Start streaming a row exceeding packet size, when LOB streaming is enabled.
+   *
+   * @param buf received data, starting with a 16M packet header
+   * @return true if row is streamed, false if packet must be assembled
+   */
+  private boolean startStreamingRow(ByteBuf buf) {
+    if (lobChunkSize == 0
+        || columns == null
+        || state != DecoderState.ROW_RESPONSE
+        || state.decoder(buf.getUnsignedByte(buf.readerIndex() + 4), 0xffffff, serverCapabilities)
+            != DecoderState.ROW) {
+      return false;
+    }
+    metrics.packetReceived(0xffffff + 4);
+    buf.skipBytes(4); // skip length + header
+    packetRemaining = 0xffffff;
+    lastPacket = false;
+    state = DecoderState.ROW;
+    StreamingRowDecoder row =
+        new StreamingRowDecoder(
+            columns, cmdElement.getPrepareResult() != null, lobChunkSize, buf.alloc());
+    row.setDemandListener(() -> onLobDemand(row));
+    streamingRow = row;
+    return true;
+  }
+
+  /**
+   * Decode available part of streamed row.
+   *
+   * @param buf received data
+   * @return false if more data is needed
+   */
+  private boolean decodeStreamingRow(ByteBuf buf) {
+    StreamingRowDecoder row = streamingRow;
+    if (packetRemaining == 0) {
+      if (lastPacket) {
+        ServerMessage rowPacket = row.end();
+        streamingRow = null;
+        state = DecoderState.ROW_RESPONSE;
+        if (rowPacket != null) emitRow(rowPacket);
+        if (readPaused && canResume(cmdElement)) resumeReading();
+        return true;
+      }
+      if (buf.readableBytes() < 4) return false;
+      packetRemaining = buf.readUnsignedMediumLE();
+      buf.skipBytes(1); // skip sequence
+      lastPacket = packetRemaining < 0xffffff;
+      metrics.packetReceived(packetRemaining + 4);
+      return true;
+    }
+
+    if (!buf.isReadable()) return false;
+    int len = Math.min(packetRemaining, buf.readableBytes());
+    row.feed(buf.readSlice(len));
+    packetRemaining -= len;
+
+    StreamedRowPacket rowPacket = row.pollRow();
+    if (rowPacket != null) {
+      if (cmdElement.getSink().isCancelled()) {
+        rowPacket.discard();
+      } else {
+        emitRow(rowPacket);
+      }
+    }
+    if (!readPaused && row.isBackpressured(LobStream.HIGH_WATER_MARK)) {
+      pauseReading(cmdElement);
+    }
+    return true;
+  }
+
+  private void emitRow(ServerMessage row) {
+    long buffered = cmdElement.emit(row);
+    if (buffered > HIGH_WATER_MARK && !readPaused) {
+      pauseReading(cmdElement);
+    }
+  }
+
+  @Override
+  public void channelReadComplete(ChannelHandlerContext ctx) throws Exception {
+    if (readPaused) {
+      // ByteToMessageDecoder would ask for another read since no message is fired down the
+      // pipeline. Reading will be resumed when subscriber request more data.
+      discardSomeReadBytes();
+      ctx.fireChannelReadComplete();
+      return;
+    }
+    super.channelReadComplete(ctx);
+  }
+
+  /**
+   * Stop reading socket when subscriber doesn't follow. Remaining data will stay in socket buffer,
+   * letting TCP flow control slow down server.
+   *
+   * <p>Reading state is only changed on channel event loop: subscriber threads signaling demand
+   * re-submit resumption to event loop, so pausing and resuming cannot interleave.
+   *
+   * @param element current command element
+   */
+  private void pauseReading(CmdElement element) {
+    readPaused = true;
+    channel.config().setAutoRead(false);
+    // demand may have arrived before pausing, when readPaused wasn't visible to subscriber
+    if (canResume(element)) {
+      resumeReading();
+    }
+  }
+
+  private boolean canResume(CmdElement element) {
+    StreamingRowDecoder row = streamingRow;
+    return element.getBuffered() <= LOW_WATER_MARK
+        && (row == null || !row.isBackpressured(LobStream.LOW_WATER_MARK));
+  }
+
+  private void resumeReading() {
+    if (readPaused) {
+      readPaused = false;
+      channel.config().setAutoRead(true);
+    }
+  }
+
+  private void onDemand(CmdElement element) {
+    if (!readPaused) return;
+    Channel ch = channel;
+    if (!ch.eventLoop().inEventLoop()) {
+      ch.eventLoop().execute(() -> onDemand(element));
+      return;
+    }
+    if (element == cmdElement && canResume(element)) {
+      resumeReading();
+    }
+  }
+
+  private void onLobDemand(StreamingRowDecoder row) {
+    if (!readPaused) return;
+    Channel ch = channel;
+    if (!ch.eventLoop().inEventLoop()) {
+      ch.eventLoop().execute(() -> onLobDemand(row));
+      return;
+    }
+    CmdElement element = cmdElement;
+    if (row == streamingRow && element != null && canResume(element)) {
+      resumeReading();
     }
   }
 
   public void connectionError(Throwable err) {
+    readPaused = false;
+    if (streamingRow != null) {
+      streamingRow.error(err);
+      streamingRow = null;
+    }
     if (cmdElement != null) {
+      metrics.commandAborted();
       cmdElement.getSink().error(err);
       cmdElement = null;
       state = null;
@@ -129,6 +339,10 @@ public class MariadbPacketDecoder extends ByteToMessageDecoder {
     return context;
   }
 
+  CmdElement getCmdElement() {
+    return cmdElement;
+  }
+
   public int getStateCounter() {
     return stateCounter;
   }
@@ -145,9 +359,36 @@ public class MariadbPacketDecoder extends ByteToMessageDecoder {
     return serverCapabilities;
   }
 
+  /**
+   * Keep result-set columns, needed for decoding rows exceeding packet size.
+   *
+   * @param packet column count packet
+   */
+  void initColumns(ColumnCountPacket packet) {
+    if (lobChunkSize == 0) return;
+    if (packet.isMetaFollows()) {
+      columns = new ColumnDefinitionPacket[packet.getColumnCount()];
+    } else {
+      ServerPrepareResult prepareResult = packet.getPrepareResult();
+      columns = prepareResult == null ? null : prepareResult.getColumns();
+    }
+  }
+
+  /**
+   * Keep result-set column definition, state counter being already decremented.
+   *
+   * @param column column definition
+   */
+  void addColumn(ColumnDefinitionPacket column) {
+    if (columns != null) columns[columns.length - stateCounter - 1] = column;
+  }
+
   private boolean loadNextResponse() {
+    columns = null;
     this.cmdElement = responseReceivers.poll();
     if (cmdElement != null) {
+      CmdElement element = cmdElement;
+      element.setDemandListener(() -> onDemand(element));
       state = cmdElement.getInitialState();
       return true;
     }
@@ -20,10 +20,20 @@ import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.MessageToByteEncoder;
 import org.mariadb.r2dbc.message.client.ClientMessage;
+import org.mariadb.r2dbc.metrics.Metrics;
 
 public class MariadbPacketEncoder extends MessageToByteEncoder<ClientMessage> {
+  private final Metrics metrics;
   private Context context = null;
 
+  public MariadbPacketEncoder() {
+    this(Metrics.NONE);
+  }
+
+  public MariadbPacketEncoder(Metrics metrics) {
+    this.metrics = metrics;
+  }
+
   @Override
   protected void encode(ChannelHandlerContext ctx, ClientMessage msg, ByteBuf out)
       throws Exception {
@@ -34,10 +44,12 @@ public class MariadbPacketEncoder extends MessageToByteEncoder<ClientMessage> {
 
       // single mysql packet
       if (buf.writerIndex() - buf.readerIndex() < 0xffffff) {
-        out.writeMediumLE(buf.writerIndex() - buf.readerIndex());
+        int length = buf.writerIndex() - buf.readerIndex();
+        out.writeMediumLE(length);
         out.writeByte(msg.getSequencer().next());
         out.writeBytes(buf);
         //        buf.release();
+        metrics.packetSent(length + 4);
         return;
       }
 
@@ -49,13 +61,15 @@ public class MariadbPacketEncoder extends MessageToByteEncoder<ClientMessage> {
         out.writeMediumLE(packetLength);
         out.writeByte(msg.getSequencer().next());
         out.writeBytes(buf.slice(readerIndex, packetLength));
+        metrics.packetSent(packetLength + 4);
         readerIndex += packetLength;
       }
 
       if (packetLength == 0xffffff) {
         // in case last packet is full, sending an empty packet to indicate that command is complete
-        out.writeMediumLE(packetLength);
+        out.writeMediumLE(0);
         out.writeByte(msg.getSequencer().next());
+        metrics.packetSent(4);
       }
 
     } finally {
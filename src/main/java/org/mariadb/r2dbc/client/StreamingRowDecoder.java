@@ -0,0 +1,313 @@
+/*
+ * Copyright 2020 MariaDB Ab.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mariadb.r2dbc.client;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.r2dbc.spi.R2dbcNonTransientResourceException;
+import java.nio.ByteBuffer;
+import org.mariadb.r2dbc.message.server.ColumnDefinitionPacket;
+import org.mariadb.r2dbc.message.server.LobStream;
+import org.mariadb.r2dbc.message.server.RowPacket;
+import org.mariadb.r2dbc.message.server.ServerMessage;
+import org.mariadb.r2dbc.message.server.StreamedRowPacket;
+
+/**
+ * Incremental decoder of a row exceeding packet size, fed with packet payloads as they are
+ * received. Columns are accumulated until reaching a LOB column bigger than chunk size: row is then
+ * available using {@link #pollRow()}, this column and following LOB columns being streamed by
+ * chunks.
+ */
+final class StreamingRowDecoder {
+
+  private enum Target {
+    ROW,
+    LOB,
+    SKIP
+  }
+
+  private final ColumnDefinitionPacket[] columns;
+  private final boolean binary;
+  private final int chunkSize;
+  private final ByteBuf head;
+
+  private final byte[] nullBitmap;
+  private int headerRemaining;
+
+  // current column
+  private int index;
+  private final byte[] lengthBytes = new byte[9];
+  private int lengthPosition;
+  private int lengthSize;
+  private long remaining;
+  private Target target;
+  private ByteBuffer chunk;
+
+  private int firstStreamed = -1;
+  private LobStream[] lobs;
+  private StreamedRowPacket row;
+  private boolean rowPolled;
+  private Runnable demandListener;
+
+  StreamingRowDecoder(
+      ColumnDefinitionPacket[] columns, boolean binary, int chunkSize, ByteBufAllocator alloc) {
+    this.columns = columns;
+    this.binary = binary;
+    this.chunkSize = chunkSize;
+    this.head = alloc.buffer();
+    if (binary) {
+      // 0x00 header + null bitmap
+      this.nullBitmap = new byte[(columns.length + 9) / 8];
+      this.headerRemaining = 1 + nullBitmap.length;
+      this.index = -1;
+    } else {
+      this.nullBitmap = null;
+      startColumn(0);
+    }
+  }
+
+  /**
+   * Decode part of row.
+   *
+   * @param payload packet payload part, entirely consumed
+   */
+  void feed(ByteBuf payload) {
+    while (payload.isReadable()) {
+      if (index == columns.length) {
+        throw new R2dbcNonTransientResourceException("unexpected data after row end");
+      }
+
+      if (index < 0) {
+        // binary row header
+        int len = Math.min(headerRemaining, payload.readableBytes());
+        int offset = 1 + nullBitmap.length - headerRemaining;
+        for (int i = 0; i < len; i++) {
+          byte b = payload.readByte();
+          if (offset + i > 0) nullBitmap[offset + i - 1] = b;
+          head.writeByte(b);
+        }
+        headerRemaining -= len;
+        if (headerRemaining == 0) startColumn(0);
+        continue;
+      }
+
+      if (lengthPosition < lengthSize) {
+        lengthBytes[lengthPosition++] = payload.readByte();
+        if (lengthPosition == 1) lengthSize = 1 + encodedLengthSize(lengthBytes[0] & 0xff);
+        if (lengthPosition == lengthSize) startValue();
+        continue;
+      }
+
+      int len = (int) Math.min(remaining, payload.readableBytes());
+      switch (target) {
+        case ROW:
+          head.writeBytes(payload, len);
+          break;
+        case LOB:
+          writeLob(payload, len);
+          break;
+        default:
+          payload.skipBytes(len);
+      }
+      remaining -= len;
+      if (remaining == 0) endColumn();
+    }
+  }
+
+  /**
+   * Streamed row, available once reaching first streamed column.
+   *
+   * @return streamed row if not already returned, or null
+   */
+  StreamedRowPacket pollRow() {
+    if (row == null || rowPolled) return null;
+    rowPolled = true;
+    return row;
+  }
+
+  /**
+   * Row has been entirely received.
+   *
+   * @return row if no column was streamed, or null
+   */
+  ServerMessage end() {
+    if (index != columns.length) {
+      error(new R2dbcNonTransientResourceException("unexpected row end"));
+      throw new R2dbcNonTransientResourceException("unexpected row end");
+    }
+    if (row == null) {
+      RowPacket rowPacket = new RowPacket(head);
+      head.release();
+      return rowPacket;
+    }
+    return null;
+  }
+
+  /**
+   * Indicate if LOB subscribers don't follow.
+   *
+   * @param limit number of buffered chunks
+   * @return true if a LOB has more than limit chunks waiting subscriber demand
+   */
+  boolean isBackpressured(int limit) {
+    if (lobs == null) return false;
+    for (LobStream lob : lobs) {
+      if (lob != null && lob.isBackpressured(limit)) return true;
+    }
+    return false;
+  }
+
+  void setDemandListener(Runnable demandListener) {
+    this.demandListener = demandListener;
+    if (lobs != null) {
+      for (LobStream lob : lobs) {
+        if (lob != null) lob.setDemandListener(demandListener);
+      }
+    }
+  }
+
+  void error(Throwable err) {
+    if (row == null) {
+      head.release();
+    } else {
+      for (int i = Math.max(index, firstStreamed); i < columns.length; i++) {
+        if (lobs[i] != null) lobs[i].error(err);
+      }
+    }
+  }
+
+  private static int encodedLengthSize(int header) {
+    switch (header) {
+      case 252:
+        return 2;
+      case 253:
+        return 3;
+      case 254:
+        return 8;
+      default:
+        // 0-250 length, or 251 NULL
+        return 0;
+    }
+  }
+
+  private boolean isNull(int i) {
+    return (nullBitmap[(i + 2) / 8] & (1 << ((i + 2) % 8))) != 0;
+  }
+
+  private void startColumn(int i) {
+    index = i;
+    if (i == columns.length) return;
+    lengthPosition = 0;
+    lengthSize = 1;
+    if (binary) {
+      if (isNull(i)) {
+        // null value are only set in null bitmap
+        lengthSize = 0;
+        target = Target.SKIP;
+        endColumn();
+        return;
+      }
+      int fixedLength = fixedLength(columns[i]);
+      if (fixedLength > 0) {
+        lengthSize = 0;
+        remaining = fixedLength;
+        target = firstStreamed < 0 ? Target.ROW : Target.SKIP;
+      }
+    }
+  }
+
+  private static int fixedLength(ColumnDefinitionPacket column) {
+    switch (column.getType()) {
+      case BIGINT:
+      case DOUBLE:
+        return 8;
+      case INTEGER:
+      case MEDIUMINT:
+      case FLOAT:
+        return 4;
+      case SMALLINT:
+      case YEAR:
+        return 2;
+      case TINYINT:
+        return 1;
+      default:
+        return 0;
+    }
+  }
+
+  /** Value length has been read, decide what to do with value. */
+  private void startValue() {
+    int header = lengthBytes[0] & 0xff;
+    boolean nullValue = !binary && header == 251;
+    remaining = 0;
+    for (int i = lengthSize - 1; i > 0; i--) {
+      remaining = (remaining << 8) | (lengthBytes[i] & 0xff);
+    }
+    if (lengthSize == 1) remaining = nullValue ? 0 : header;
+
+    if (firstStreamed < 0) {
+      if (!nullValue && remaining > chunkSize && StreamedRowPacket.isLob(columns[index])) {
+        startStreaming();
+        target = Target.LOB;
+      } else {
+        head.writeBytes(lengthBytes, 0, lengthSize);
+        target = Target.ROW;
+      }
+    } else {
+      target = lobs[index] != null ? Target.LOB : Target.SKIP;
+    }
+    if (remaining == 0) endColumn();
+  }
+
+  private void startStreaming() {
+    firstStreamed = index;
+    lobs = new LobStream[columns.length];
+    for (int i = index; i < columns.length; i++) {
+      // binary null LOBs are known, text null LOBs will be empty
+      if (StreamedRowPacket.isLob(columns[i]) && !(binary && isNull(i))) {
+        lobs[i] = new LobStream();
+        lobs[i].setDemandListener(demandListener);
+      }
+    }
+    row = new StreamedRowPacket(head, firstStreamed, lobs);
+  }
+
+  private void writeLob(ByteBuf payload, int len) {
+    long valueRemaining = remaining;
+    while (len > 0) {
+      if (chunk == null) chunk = ByteBuffer.allocate((int) Math.min(chunkSize, valueRemaining));
+      int n = Math.min(len, chunk.remaining());
+      payload.readBytes(chunk.array(), chunk.position(), n);
+      chunk.position(chunk.position() + n);
+      len -= n;
+      valueRemaining -= n;
+      if (!chunk.hasRemaining()) {
+        chunk.flip();
+        lobs[index].next(chunk);
+        chunk = null;
+      }
+    }
+  }
+
+  private void endColumn() {
+    if (lobs != null && lobs[index] != null) {
+      // empty or null LOB following streamed column are completed without chunk
+      lobs[index].complete();
+    }
+    startColumn(index + 1);
+  }
+}
@@ -23,10 +23,11 @@ public class BinaryRowDecoder extends RowDecoder {
 
   private int columnNumber;
   private ColumnDefinitionPacket[] columns;
-  private byte[] nullBitmap;
+  // null bitmap is read in place, in row buffer
+  private int nullBitmapIndex;
 
   public BinaryRowDecoder(int columnNumber, ColumnDefinitionPacket[] columns) {
-    super();
+    super(columnNumber);
     this.columns = columns;
     this.columnNumber = columnNumber;
   }
@@ -36,7 +37,8 @@ public class BinaryRowDecoder extends RowDecoder {
       throws IllegalArgumentException {
 
     // check NULL-Bitmap that indicate if field is null
-    if ((nullBitmap[(index + 2) / 8] & (1 << ((index + 2) % 8))) != 0) {
+    wasNull = isNull(index);
+    if (wasNull) {
       if (type.isPrimitive()) {
         throw new IllegalArgumentException(
             String.format("Cannot return null for primitive %s", type.getName()));
@@ -52,10 +54,9 @@ public class BinaryRowDecoder extends RowDecoder {
       return defaultCodec.decodeBinary(buf, length, column, type);
     }
 
-    for (Codec<?> codec : Codecs.LIST) {
-      if (codec.canDecode(column, type)) {
-        return ((Codec<T>) codec).decodeBinary(buf, length, column, type);
-      }
+    Codec<T> codec = (Codec<T>) decoder(index, column, type);
+    if (codec != null) {
+      return codec.decodeBinary(buf, length, column, type);
     }
 
     buf.skipBytes(length);
@@ -63,134 +64,148 @@ public class BinaryRowDecoder extends RowDecoder {
     throw noDecoderException(column, type);
   }
 
-  @Override
-  public void resetRow(ByteBuf buf) {
-    buf.skipBytes(1); // skip 0x00 header
-    nullBitmap = new byte[(columnNumber + 9) / 8];
-    buf.readBytes(nullBitmap);
-    super.resetRow(buf);
+  public <T> T decode(
+      int index, ColumnDefinitionPacket column, Codec<T> codec, Class<? extends T> type) {
+    wasNull = isNull(index);
+    if (wasNull) {
+      if (type.isPrimitive()) throw nullPrimitiveException(type);
+      return null;
+    }
+    setPosition(index);
+    return codec.decodeBinary(buf, length, column, type);
+  }
+
+  public long getLong(int index, ColumnDefinitionPacket column) {
+    if (!isLongCompatible(column)) {
+      return getLongUsingCodec(index, column);
+    }
+    wasNull = isNull(index);
+    if (wasNull) return 0L;
+    setPosition(index);
+    return readLong(column);
+  }
+
+  public double getDouble(int index, ColumnDefinitionPacket column) {
+    switch (column.getType()) {
+      case FLOAT:
+        wasNull = isNull(index);
+        if (wasNull) return 0D;
+        setPosition(index);
+        return buf.readFloatLE();
+      case DOUBLE:
+        wasNull = isNull(index);
+        if (wasNull) return 0D;
+        setPosition(index);
+        return buf.readDoubleLE();
+      default:
+        if (!isLongCompatible(column)) {
+          return getDoubleUsingCodec(index, column);
+        }
+        wasNull = isNull(index);
+        if (wasNull) return 0D;
+        setPosition(index);
+        return readLong(column);
+    }
+  }
+
+  public float getFloat(int index, ColumnDefinitionPacket column) {
+    if (column.getType() == DataType.FLOAT) {
+      wasNull = isNull(index);
+      if (wasNull) return 0F;
+      setPosition(index);
+      return buf.readFloatLE();
+    }
+    if (!isLongCompatible(column)) {
+      return getFloatUsingCodec(index, column);
+    }
+    wasNull = isNull(index);
+    if (wasNull) return 0F;
+    setPosition(index);
+    return readLong(column);
+  }
+
+  private boolean isNull(int index) {
+    return (buf.getByte(nullBitmapIndex + (index + 2) / 8) & (1 << ((index + 2) % 8))) != 0;
   }
 
   /**
-   * Set length and pos indicator to asked index.
+   * Read value of a {@link #isLongCompatible long compatible} column, current position being set.
    *
-   * @param newIndex index (0 is first).
+   * @param column column definition
+   * @return value
    */
-  public void setPosition(int newIndex) {
-
-    if (index >= newIndex) {
-      index = 0;
-      buf.resetReaderIndex();
-    } else {
-      index++;
+  private long readLong(ColumnDefinitionPacket column) {
+    switch (column.getType()) {
+      case TINYINT:
+        return column.isSigned() ? buf.readByte() : buf.readUnsignedByte();
+      case YEAR:
+      case SMALLINT:
+        return column.isSigned() ? buf.readShortLE() : buf.readUnsignedShortLE();
+      case MEDIUMINT:
+        return column.isSigned() ? buf.readMediumLE() : buf.readUnsignedMediumLE();
+      case INTEGER:
+        return column.isSigned() ? buf.readIntLE() : buf.readUnsignedIntLE();
+      default:
+        return buf.readLongLE();
     }
+  }
 
-    for (; index <= newIndex; index++) {
-      if ((nullBitmap[(index + 2) / 8] & (1 << ((index + 2) % 8))) == 0) {
-        if (index != newIndex) {
-          // skip bytes
-          switch (columns[index].getType()) {
-            case BIGINT:
-            case DOUBLE:
-              buf.skipBytes(8);
-              break;
-
-            case INTEGER:
-            case MEDIUMINT:
-            case FLOAT:
-              buf.skipBytes(4);
-              break;
-
-            case SMALLINT:
-            case YEAR:
-              buf.skipBytes(2);
-              break;
-
-            case TINYINT:
-              buf.skipBytes(1);
-              break;
-
-            default:
-              int type = this.buf.readUnsignedByte();
-              switch (type) {
-                case 251:
-                  break;
-
-                case 252:
-                  this.buf.skipBytes(this.buf.readUnsignedShortLE());
-                  break;
-
-                case 253:
-                  this.buf.skipBytes(this.buf.readUnsignedMediumLE());
-                  break;
-
-                case 254:
-                  this.buf.skipBytes((int) this.buf.readLongLE());
-                  break;
-
-                default:
-                  this.buf.skipBytes(type);
-                  break;
-              }
-              break;
-          }
-        } else {
-          // read asked field position and length
-          switch (columns[index].getType()) {
-            case BIGINT:
-            case DOUBLE:
-              length = 8;
-              return;
-
-            case INTEGER:
-            case MEDIUMINT:
-            case FLOAT:
-              length = 4;
-              return;
-
-            case SMALLINT:
-            case YEAR:
-              length = 2;
-              return;
-
-            case TINYINT:
-              length = 1;
-              return;
-
-            default:
-              // field with variable length
-              int len = this.buf.readUnsignedByte();
-              switch (len) {
-                case 251:
-                  // null length field
-                  // must never occur
-                  // null value are set in NULL-Bitmap, not send with a null length indicator.
-                  throw new IllegalStateException(
-                      "null data is encoded in binary protocol but NULL-Bitmap is not set");
-
-                case 252:
-                  // length is encoded on 3 bytes (0xfc header + 2 bytes indicating length)
-                  length = this.buf.readUnsignedShortLE();
-                  return;
-
-                case 253:
-                  // length is encoded on 4 bytes (0xfd header + 3 bytes indicating length)
-                  length = this.buf.readUnsignedMediumLE();
-                  return;
-
-                case 254:
-                  // length is encoded on 9 bytes (0xfe header + 8 bytes indicating length)
-                  length = (int) this.buf.readLongLE();
-                  return;
-
-                default:
-                  // length is encoded on 1 bytes (is then less than 251)
-                  length = len;
-                  return;
-              }
-          }
+  @Override
+  public void resetRow(ByteBuf buf) {
+    buf.skipBytes(1); // skip 0x00 header
+    nullBitmapIndex = buf.readerIndex();
+    buf.skipBytes((columnNumber + 9) / 8);
+    super.resetRow(buf);
+  }
+
+  protected int readLength(int index) {
+    if (isNull(index)) {
+      return NULL_LENGTH;
+    }
+    switch (columns[index].getType()) {
+      case BIGINT:
+      case DOUBLE:
+        return 8;
+
+      case INTEGER:
+      case MEDIUMINT:
+      case FLOAT:
+        return 4;
+
+      case SMALLINT:
+      case YEAR:
+        return 2;
+
+      case TINYINT:
+        return 1;
+
+      default:
+        // field with variable length
+        int len = this.buf.readUnsignedByte();
+        switch (len) {
+          case 251:
+            // null length field
+            // must never occur
+            // null value are set in NULL-Bitmap, not send with a null length indicator.
+            throw new IllegalStateException(
+                "null data is encoded in binary protocol but NULL-Bitmap is not set");
+
+          case 252:
+            // length is encoded on 3 bytes (0xfc header + 2 bytes indicating length)
+            return this.buf.readUnsignedShortLE();
+
+          case 253:
+            // length is encoded on 4 bytes (0xfd header + 3 bytes indicating length)
+            return this.buf.readUnsignedMediumLE();
+
+          case 254:
+            // length is encoded on 9 bytes (0xfe header + 8 bytes indicating length)
+            return (int) this.buf.readLongLE();
+
+          default:
+            // length is encoded on 1 bytes (is then less than 251)
+            return len;
         }
-      }
     }
   }
 }
@@ -19,9 +19,18 @@ package org.mariadb.r2dbc.codec;
 import io.netty.buffer.ByteBuf;
 import org.mariadb.r2dbc.client.Context;
 import org.mariadb.r2dbc.message.server.ColumnDefinitionPacket;
+import reactor.core.publisher.Flux;
 
 public interface Codec<T> {
 
+  /**
+   * Indicate if codec can decode column to requested type. Result must only depend on column data
+   * type, since it is cached for each data type / class pair.
+   *
+   * @param column column definition
+   * @param type requested type
+   * @return true if codec can decode column
+   */
   boolean canDecode(ColumnDefinitionPacket column, Class<?> type);
 
   boolean canEncode(Class<?> value);
@@ -36,4 +45,38 @@ public interface Codec<T> {
   void encodeBinary(ByteBuf buf, Context context, T value);
 
   DataType getBinaryEncodeType();
+
+  /**
+   * Indicate if value is read from a stream, and so can be encoded only once.
+   *
+   * @return true if value is streamed
+   */
+  default boolean canEncodeLongData() {
+    return false;
+  }
+
+  /**
+   * Indicate if value must be sent by chunks with COM_STMT_SEND_LONG_DATA before execute command,
+   * rather than in the execute command itself.
+   *
+   * @param value value to encode
+   * @return true if value must be sent as long data
+   */
+  default boolean useLongData(T value) {
+    return canEncodeLongData();
+  }
+
+  /**
+   * Encode value as binary chunks of at most {@code maxChunkSize} bytes. Source is only read when a
+   * chunk is requested.
+   *
+   * @param value value to encode
+   * @param maxChunkSize maximum chunk size
+   * @return chunks, at least one
+   */
+  default Flux<ByteBuf> encodeLongData(T value, int maxChunkSize) {
+    return Flux.error(
+        new UnsupportedOperationException(
+            String.format("%s cannot encode long data", getClass().getSimpleName())));
+  }
 }
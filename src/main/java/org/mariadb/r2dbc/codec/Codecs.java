@@ -19,6 +19,7 @@ package org.mariadb.r2dbc.codec;
 import java.util.HashMap;
 import java.util.Map;
 import org.mariadb.r2dbc.codec.list.*;
+import org.mariadb.r2dbc.message.server.ColumnDefinitionPacket;
 
 public class Codecs {
 
@@ -45,6 +46,66 @@ public class Codecs {
         StringCodec.INSTANCE
       };
 
+  private static final Object NO_CODEC = new Object();
+  private static final int DATA_TYPE_NUMBER = DataType.values().length;
+
+  // encoder resolved once per value class
+  private static final ClassValue<Codec<?>> ENCODERS =
+      new ClassValue<Codec<?>>() {
+        @Override
+        protected Codec<?> computeValue(Class<?> type) {
+          for (Codec<?> codec : LIST) {
+            if (codec.canEncode(type)) return codec;
+          }
+          return null;
+        }
+      };
+
+  // decoders per requested class, indexed by column data type, resolved lazily
+  private static final ClassValue<Object[]> DECODERS =
+      new ClassValue<Object[]>() {
+        @Override
+        protected Object[] computeValue(Class<?> type) {
+          return new Object[DATA_TYPE_NUMBER];
+        }
+      };
+
+  /**
+   * Get codec able to encode a value of this class.
+   *
+   * @param type value class
+   * @return codec, or null if no codec can encode this class
+   */
+  public static Codec<?> encoder(Class<?> type) {
+    return ENCODERS.get(type);
+  }
+
+  /**
+   * Get codec able to decode column to requested class. Codecs decoding capability only depends on
+   * column data type, so result is cached for each data type / class pair.
+   *
+   * @param column column definition
+   * @param type requested class
+   * @return codec, or null if no codec can decode column to this class
+   */
+  public static Codec<?> decoder(ColumnDefinitionPacket column, Class<?> type) {
+    Object[] decoders = DECODERS.get(type);
+    int index = column.getType().ordinal();
+    Object decoder = decoders[index];
+    if (decoder == null) {
+      decoder = NO_CODEC;
+      for (Codec<?> codec : LIST) {
+        if (codec.canDecode(column, type)) {
+          decoder = codec;
+          break;
+        }
+      }
+      // concurrent resolution give the same result
+      decoders[index] = decoder;
+    }
+    return decoder == NO_CODEC ? null : (Codec<?>) decoder;
+  }
+
   // association with enum, since doesn't supporting generics in enum :(
   public static final Map<DataType, Codec<?>> CODEC_LIST = new HashMap<>();
 
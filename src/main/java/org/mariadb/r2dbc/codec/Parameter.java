@@ -19,6 +19,7 @@ package org.mariadb.r2dbc.codec;
 import io.netty.buffer.ByteBuf;
 import org.mariadb.r2dbc.client.Context;
 import org.mariadb.r2dbc.util.BufferUtils;
+import reactor.core.publisher.Flux;
 
 public class Parameter<T> {
   @SuppressWarnings({"rawtypes", "unchecked"})
@@ -64,6 +65,18 @@ public class Parameter<T> {
     return false;
   }
 
+  public boolean canEncodeLongData() {
+    return codec != null && codec.canEncodeLongData();
+  }
+
+  public boolean useLongData() {
+    return codec != null && !isNull() && codec.useLongData(value);
+  }
+
+  public Flux<ByteBuf> encodeLongData(int maxChunkSize) {
+    return codec.encodeLongData(value, maxChunkSize);
+  }
+
   @Override
   public String toString() {
     return "Parameter{codec=" + codec.getClass().getSimpleName() + ", value=" + value + '}';
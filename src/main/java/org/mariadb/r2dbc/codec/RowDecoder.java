@@ -26,15 +26,81 @@ public abstract class RowDecoder {
   public ByteBuf buf;
   protected int length;
   protected int index;
+  protected boolean wasNull;
 
-  public RowDecoder() {}
+  // offsets and lengths of current row columns already scanned, reused for all rows
+  protected final int[] offsets;
+  protected final int[] lengths;
+  protected int scanned;
+  protected int scanPosition;
+
+  // last decoder resolved for each column, reused for all rows of the result-set
+  private final Class<?>[] decoderTypes;
+  private final Codec<?>[] decoders;
+
+  public RowDecoder(int columnNumber) {
+    this.decoderTypes = new Class<?>[columnNumber];
+    this.decoders = new Codec<?>[columnNumber];
+    this.offsets = new int[columnNumber];
+    this.lengths = new int[columnNumber];
+  }
+
+  /**
+   * Get codec able to decode column at index to requested type.
+   *
+   * @param index column index
+   * @param column column definition
+   * @param type requested type
+   * @return codec, or null if no codec can decode column to this type
+   */
+  protected Codec<?> decoder(int index, ColumnDefinitionPacket column, Class<?> type) {
+    if (index < decoders.length) {
+      if (decoderTypes[index] == type) return decoders[index];
+      Codec<?> codec = Codecs.decoder(column, type);
+      decoderTypes[index] = type;
+      decoders[index] = codec;
+      return codec;
+    }
+    return Codecs.decoder(column, type);
+  }
 
   public void resetRow(ByteBuf buf) {
     this.buf = buf;
-    this.buf.markReaderIndex();
     index = -1;
+    scanned = 0;
+    scanPosition = buf.readerIndex();
+  }
+
+  /**
+   * Set length and pos indicator to asked index. Columns are scanned once per row, up to the
+   * highest index asked, so accessing a previous column doesn't need to scan row again.
+   *
+   * @param newIndex index (0 is first).
+   */
+  public void setPosition(int newIndex) {
+    if (newIndex >= scanned) {
+      buf.readerIndex(scanPosition);
+      for (; scanned <= newIndex; scanned++) {
+        int len = readLength(scanned);
+        offsets[scanned] = buf.readerIndex();
+        lengths[scanned] = len;
+        if (len > 0) buf.skipBytes(len);
+      }
+      scanPosition = buf.readerIndex();
+    }
+    index = newIndex;
+    length = lengths[newIndex];
+    buf.readerIndex(offsets[newIndex]);
   }
 
+  /**
+   * Read length of column data at current position, leaving position at data start.
+   *
+   * @param index column index
+   * @return data length, or NULL_LENGTH if value is null
+   */
+  protected abstract int readLength(int index);
+
   protected IllegalArgumentException noDecoderException(
       ColumnDefinitionPacket column, Class<?> type) {
 
@@ -78,9 +144,93 @@ public abstract class RowDecoder {
             type.getName(), column.getType().toString()));
   }
 
-  public abstract void setPosition(int position);
+  /**
+   * Indicate if column can be decoded as a primitive long directly from row data.
+   *
+   * @param column column definition
+   * @return true for integer columns, except unsigned BIGINT
+   */
+  public static boolean isLongCompatible(ColumnDefinitionPacket column) {
+    switch (column.getType()) {
+      case TINYINT:
+      case SMALLINT:
+      case MEDIUMINT:
+      case INTEGER:
+      case YEAR:
+        return true;
+      case BIGINT:
+        return column.isSigned();
+      default:
+        return false;
+    }
+  }
+
+  public boolean wasNull() {
+    return wasNull;
+  }
+
+  /**
+   * Decode column as primitive long. Columns that aren't {@link #isLongCompatible long compatible}
+   * are decoded using codec.
+   *
+   * @param index column index
+   * @param column column definition
+   * @return value, 0 if null
+   */
+  public abstract long getLong(int index, ColumnDefinitionPacket column);
+
+  /**
+   * Decode column as primitive double. Integer and floating point columns don't use codec.
+   *
+   * @param index column index
+   * @param column column definition
+   * @return value, 0 if null
+   */
+  public abstract double getDouble(int index, ColumnDefinitionPacket column);
+
+  /**
+   * Decode column as primitive float. Integer and FLOAT columns don't use codec.
+   *
+   * @param index column index
+   * @param column column definition
+   * @return value, 0 if null
+   */
+  public abstract float getFloat(int index, ColumnDefinitionPacket column);
+
+  protected long getLongUsingCodec(int index, ColumnDefinitionPacket column) {
+    Long value = get(index, column, Long.class);
+    return value == null ? 0L : value;
+  }
+
+  protected double getDoubleUsingCodec(int index, ColumnDefinitionPacket column) {
+    Double value = get(index, column, Double.class);
+    return value == null ? 0D : value;
+  }
+
+  protected float getFloatUsingCodec(int index, ColumnDefinitionPacket column) {
+    Float value = get(index, column, Float.class);
+    return value == null ? 0F : value;
+  }
 
   @SuppressWarnings("unchecked")
   public abstract <T> T get(int index, ColumnDefinitionPacket column, Class<T> type)
       throws IllegalArgumentException;
+
+  /**
+   * Decode column using a codec already resolved for this column and type.
+   *
+   * @param index column index
+   * @param column column definition
+   * @param codec codec able to decode column to type
+   * @param type requested type
+   * @param <T> requested type
+   * @return decoded value, null if value is null
+   */
+  public abstract <T> T decode(
+      int index, ColumnDefinitionPacket column, Codec<T> codec, Class<? extends T> type);
+
+  protected static IllegalArgumentException nullPrimitiveException(Class<?> type) {
+    return new IllegalArgumentException(
+        String.format("Cannot return null for primitive %s", type.getName()));
+  }
 }
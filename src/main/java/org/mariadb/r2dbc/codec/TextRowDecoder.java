@@ -16,12 +16,14 @@
 
 package org.mariadb.r2dbc.codec;
 
+import java.nio.charset.StandardCharsets;
+import org.mariadb.r2dbc.codec.list.LongCodec;
 import org.mariadb.r2dbc.message.server.ColumnDefinitionPacket;
 
 public class TextRowDecoder extends RowDecoder {
 
   public TextRowDecoder(int columnNumber, ColumnDefinitionPacket[] columns) {
-    super();
+    super(columnNumber);
   }
 
   @SuppressWarnings("unchecked")
@@ -29,7 +31,8 @@ public class TextRowDecoder extends RowDecoder {
       throws IllegalArgumentException {
     setPosition(index);
 
-    if (length == NULL_LENGTH) {
+    wasNull = length == NULL_LENGTH;
+    if (wasNull) {
       if (type.isPrimitive()) {
         throw new IllegalArgumentException(
             String.format("Cannot return null for primitive %s", type.getName()));
@@ -43,10 +46,9 @@ public class TextRowDecoder extends RowDecoder {
       return defaultCodec.decodeText(buf, length, column, type);
     }
 
-    for (Codec<?> codec : Codecs.LIST) {
-      if (codec.canDecode(column, type)) {
-        return ((Codec<T>) codec).decodeText(buf, length, column, type);
-      }
+    Codec<T> codec = (Codec<T>) decoder(index, column, type);
+    if (codec != null) {
+      return codec.decodeText(buf, length, column, type);
     }
 
     buf.skipBytes(length);
@@ -54,55 +56,75 @@ public class TextRowDecoder extends RowDecoder {
     throw noDecoderException(column, type);
   }
 
-  /**
-   * Set length and pos indicator to asked index.
-   *
-   * @param newIndex index (0 is first).
-   */
-  public void setPosition(int newIndex) {
-    if (index >= newIndex) {
-      index = -1;
-      buf.resetReaderIndex();
+  public <T> T decode(
+      int index, ColumnDefinitionPacket column, Codec<T> codec, Class<? extends T> type) {
+    setPosition(index);
+    wasNull = length == NULL_LENGTH;
+    if (wasNull) {
+      if (type.isPrimitive()) throw nullPrimitiveException(type);
+      return null;
     }
+    return codec.decodeText(buf, length, column, type);
+  }
 
-    index++;
+  public long getLong(int index, ColumnDefinitionPacket column) {
+    if (!isLongCompatible(column)) {
+      return getLongUsingCodec(index, column);
+    }
+    setPosition(index);
+    wasNull = length == NULL_LENGTH;
+    return wasNull ? 0L : LongCodec.parse(buf, length);
+  }
 
-    for (; index < newIndex; index++) {
-      int type = this.buf.readUnsignedByte();
-      switch (type) {
-        case 252:
-          buf.skipBytes(buf.readUnsignedShortLE());
-          break;
-        case 253:
-          buf.skipBytes(buf.readUnsignedMediumLE());
-          break;
-        case 254:
-          buf.skipBytes((int) (buf.readLongLE()));
-          break;
-        case 251:
-          break;
-        default:
-          buf.skipBytes(type);
-          break;
-      }
+  public double getDouble(int index, ColumnDefinitionPacket column) {
+    switch (column.getType()) {
+      case FLOAT:
+      case DOUBLE:
+        setPosition(index);
+        wasNull = length == NULL_LENGTH;
+        return wasNull
+            ? 0D
+            : Double.parseDouble(
+                buf.readCharSequence(length, StandardCharsets.US_ASCII).toString());
+      default:
+        if (!isLongCompatible(column)) {
+          return getDoubleUsingCodec(index, column);
+        }
+        setPosition(index);
+        wasNull = length == NULL_LENGTH;
+        return wasNull ? 0D : (double) LongCodec.parse(buf, length);
+    }
+  }
+
+  public float getFloat(int index, ColumnDefinitionPacket column) {
+    if (column.getType() == DataType.FLOAT) {
+      setPosition(index);
+      wasNull = length == NULL_LENGTH;
+      return wasNull
+          ? 0F
+          : Float.parseFloat(buf.readCharSequence(length, StandardCharsets.US_ASCII).toString());
     }
+    if (!isLongCompatible(column)) {
+      return getFloatUsingCodec(index, column);
+    }
+    setPosition(index);
+    wasNull = length == NULL_LENGTH;
+    return wasNull ? 0F : (float) LongCodec.parse(buf, length);
+  }
+
+  protected int readLength(int index) {
     short type = this.buf.readUnsignedByte();
     switch (type) {
       case 251:
-        length = NULL_LENGTH;
-        break;
+        return NULL_LENGTH;
       case 252:
-        length = buf.readUnsignedShortLE();
-        break;
+        return buf.readUnsignedShortLE();
       case 253:
-        length = buf.readUnsignedMediumLE();
-        break;
+        return buf.readUnsignedMediumLE();
       case 254:
-        length = (int) buf.readLongLE();
-        break;
+        return (int) buf.readLongLE();
       default:
-        length = type;
-        break;
+        return type;
     }
   }
 }
@@ -17,6 +17,7 @@
 package org.mariadb.r2dbc.codec.list;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import io.r2dbc.spi.Blob;
 import io.r2dbc.spi.R2dbcNonTransientResourceException;
 import java.nio.ByteBuffer;
@@ -148,6 +149,14 @@ public class BlobCodec implements Codec<Blob> {
         .subscribe();
   }
 
+  @Override
+  public Flux<ByteBuf> encodeLongData(Blob value, int maxChunkSize) {
+    // buffers are copied, since publisher may reuse or release them once consumed
+    return Flux.from(value.stream())
+        .concatMap(tempVal -> BufferUtils.split(Unpooled.copiedBuffer(tempVal), maxChunkSize), 1)
+        .defaultIfEmpty(Unpooled.EMPTY_BUFFER);
+  }
+
   private class MariaDbBlob implements Blob {
     private ByteBuf data;
 
@@ -173,4 +182,9 @@ public class BlobCodec implements Codec<Blob> {
   public DataType getBinaryEncodeType() {
     return DataType.BLOB;
   }
+
+  @Override
+  public boolean canEncodeLongData() {
+    return true;
+  }
 }
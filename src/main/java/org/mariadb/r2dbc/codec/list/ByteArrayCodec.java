@@ -17,12 +17,15 @@
 package org.mariadb.r2dbc.codec.list;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import java.util.EnumSet;
 import org.mariadb.r2dbc.client.Context;
 import org.mariadb.r2dbc.codec.Codec;
 import org.mariadb.r2dbc.codec.DataType;
+import org.mariadb.r2dbc.message.client.LongDataPacket;
 import org.mariadb.r2dbc.message.server.ColumnDefinitionPacket;
 import org.mariadb.r2dbc.util.BufferUtils;
+import reactor.core.publisher.Flux;
 
 public class ByteArrayCodec implements Codec<byte[]> {
 
@@ -82,6 +85,23 @@ public class ByteArrayCodec implements Codec<byte[]> {
     buf.writeBytes(value);
   }
 
+  /**
+   * Arrays bigger than a long data chunk are sent using COM_STMT_SEND_LONG_DATA, to avoid building
+   * a huge execute packet.
+   *
+   * @param value value to encode
+   * @return true if value is bigger than a chunk
+   */
+  @Override
+  public boolean useLongData(byte[] value) {
+    return value.length > LongDataPacket.MAX_CHUNK_SIZE;
+  }
+
+  @Override
+  public Flux<ByteBuf> encodeLongData(byte[] value, int maxChunkSize) {
+    return BufferUtils.split(Unpooled.wrappedBuffer(value), maxChunkSize);
+  }
+
   public DataType getBinaryEncodeType() {
     return DataType.BLOB;
   }
@@ -17,6 +17,7 @@
 package org.mariadb.r2dbc.codec.list;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import io.r2dbc.spi.Clob;
 import java.nio.charset.StandardCharsets;
 import java.util.EnumSet;
@@ -70,6 +71,17 @@ public class ClobCodec implements Codec<Clob> {
     buf.writeByte('\'');
   }
 
+  @Override
+  public Flux<ByteBuf> encodeLongData(Clob value, int maxChunkSize) {
+    return Flux.from(value.stream())
+        .concatMap(
+            tempVal ->
+                BufferUtils.split(
+                    Unpooled.copiedBuffer(tempVal, StandardCharsets.UTF_8), maxChunkSize),
+            1)
+        .defaultIfEmpty(Unpooled.EMPTY_BUFFER);
+  }
+
   @Override
   public void encodeBinary(ByteBuf buf, Context context, Clob value) {
     buf.writeByte(0xfe);
@@ -95,4 +107,9 @@ public class ClobCodec implements Codec<Clob> {
   public DataType getBinaryEncodeType() {
     return DataType.VARSTRING;
   }
+
+  @Override
+  public boolean canEncodeLongData() {
+    return true;
+  }
 }
@@ -18,6 +18,7 @@ package org.mariadb.r2dbc.codec.list;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.Unpooled;
 import io.r2dbc.spi.R2dbcNonTransientResourceException;
 import java.io.IOException;
 import java.io.InputStream;
@@ -28,6 +29,8 @@ import org.mariadb.r2dbc.codec.Codec;
 import org.mariadb.r2dbc.codec.DataType;
 import org.mariadb.r2dbc.message.server.ColumnDefinitionPacket;
 import org.mariadb.r2dbc.util.BufferUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
 
 public class StreamCodec implements Codec<InputStream> {
 
@@ -104,7 +107,48 @@ public class StreamCodec implements Codec<InputStream> {
     buf.writerIndex(endPos);
   }
 
+  /**
+   * Read stream by chunks, one chunk being read only when requested. Reading is blocking, so done
+   * on a bounded elastic thread, not on connection event loop.
+   *
+   * @param value stream
+   * @param maxChunkSize maximum chunk size
+   * @return chunks
+   */
+  @Override
+  public Flux<ByteBuf> encodeLongData(InputStream value, int maxChunkSize) {
+    return Flux.<ByteBuf>generate(
+            sink -> {
+              byte[] array = new byte[maxChunkSize];
+              int pos = 0;
+              int len;
+              try {
+                while (pos < maxChunkSize
+                    && (len = value.read(array, pos, maxChunkSize - pos)) > 0) {
+                  pos += len;
+                }
+              } catch (IOException ioe) {
+                sink.error(
+                    new R2dbcNonTransientResourceException("Failed to read InputStream", ioe));
+                return;
+              }
+              if (pos > 0) {
+                sink.next(Unpooled.wrappedBuffer(array, 0, pos));
+              }
+              if (pos < maxChunkSize) {
+                sink.complete();
+              }
+            })
+        .defaultIfEmpty(Unpooled.EMPTY_BUFFER)
+        .subscribeOn(Schedulers.boundedElastic());
+  }
+
   public DataType getBinaryEncodeType() {
     return DataType.BLOB;
   }
+
+  @Override
+  public boolean canEncodeLongData() {
+    return true;
+  }
 }
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2020 MariaDB Ab.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mariadb.r2dbc.message.client;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import java.util.List;
+import org.mariadb.r2dbc.client.Context;
+import org.mariadb.r2dbc.codec.Parameter;
+import org.mariadb.r2dbc.message.server.Sequencer;
+import org.mariadb.r2dbc.util.ClientPrepareResult;
+
+/**
+ * COM_QUERY packet sending many parameter sets at once, either rewriting VALUES tuple of an INSERT
+ * (like {@code INSERT INTO t VALUES (1, 'a'),(2, 'b')}), or concatenating queries as a
+ * multi-statement (like {@code UPDATE t SET a=1 WHERE id=1;UPDATE t SET a=2 WHERE id=2}).
+ *
+ * <p>Parameter sets are encoded from {@code fromIndex} until packet would exceed server
+ * max_allowed_packet. {@link #getNextIndex()} then indicates the first parameter set that remains
+ * to be sent.
+ */
+public final class BatchQueryWithParametersPacket implements ClientMessage {
+
+  private final ClientPrepareResult prepareResult;
+  private final List<Parameter<?>[]> parameters;
+  private final int fromIndex;
+  private final boolean multiValues;
+  private final Sequencer sequencer = new Sequencer((byte) 0xff);
+  private volatile int nextIndex;
+
+  /**
+   * Batch COM_QUERY packet.
+   *
+   * @param prepareResult query parts
+   * @param parameters parameter sets
+   * @param fromIndex index of first parameter set to send
+   * @param multiValues rewrite VALUES tuple if true, use multi-statement if false
+   */
+  public BatchQueryWithParametersPacket(
+      ClientPrepareResult prepareResult,
+      List<Parameter<?>[]> parameters,
+      int fromIndex,
+      boolean multiValues) {
+    this.prepareResult = prepareResult;
+    this.parameters = parameters;
+    this.fromIndex = fromIndex;
+    this.multiValues = multiValues;
+    this.nextIndex = fromIndex;
+  }
+
+  public Sequencer getSequencer() {
+    return sequencer;
+  }
+
+  /**
+   * Index of first parameter set not sent by this packet. Only significant once packet is encoded.
+   *
+   * @return next index to send
+   */
+  public int getNextIndex() {
+    return nextIndex;
+  }
+
+  @Override
+  public ByteBuf encode(Context context, ByteBufAllocator allocator) {
+    int maxAllowedPacket =
+        context.getMaxAllowedPacket() > 0 ? context.getMaxAllowedPacket() : 0xffffff;
+    List<byte[]> parts = prepareResult.getQueryParts();
+    int paramCount = prepareResult.getParamCount();
+    byte[] firstPart = parts.get(0);
+    byte[] lastPart = parts.get(paramCount);
+
+    ByteBuf out = allocator.ioBuffer();
+    out.writeByte(0x03);
+
+    int suffixLength = 0;
+    int row = fromIndex;
+    while (row < parameters.size()) {
+      Parameter<?>[] rowParameters = parameters.get(row);
+      int mark = out.writerIndex();
+
+      if (multiValues) {
+        int tupleStart = prepareResult.getValuesTupleStart();
+        int tupleEnd = prepareResult.getValuesTupleEnd();
+        if (row == fromIndex) {
+          out.writeBytes(firstPart);
+        } else {
+          out.writeByte(',');
+          out.writeBytes(firstPart, tupleStart, firstPart.length - tupleStart);
+        }
+        for (int i = 0; i < paramCount; i++) {
+          rowParameters[i].encodeText(out, context);
+          if (i < paramCount - 1) {
+            out.writeBytes(parts.get(i + 1));
+          } else {
+            out.writeBytes(lastPart, 0, tupleEnd);
+          }
+        }
+        suffixLength = lastPart.length - tupleEnd;
+      } else {
+        if (row > fromIndex) out.writeByte(';');
+        out.writeBytes(firstPart);
+        for (int i = 0; i < paramCount; i++) {
+          rowParameters[i].encodeText(out, context);
+          out.writeBytes(parts.get(i + 1));
+        }
+      }
+
+      if (out.writerIndex() + suffixLength > maxAllowedPacket && row > fromIndex) {
+        // remaining parameter sets will be sent in a new command
+        out.writerIndex(mark);
+        break;
+      }
+      row++;
+    }
+
+    if (multiValues) {
+      int tupleEnd = prepareResult.getValuesTupleEnd();
+      out.writeBytes(lastPart, tupleEnd, lastPart.length - tupleEnd);
+    }
+    nextIndex = row;
+    return out;
+  }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2020 MariaDB Ab.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mariadb.r2dbc.message.client;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import java.util.List;
+import java.util.Map;
+import org.mariadb.r2dbc.client.Context;
+import org.mariadb.r2dbc.codec.DataType;
+import org.mariadb.r2dbc.codec.Parameter;
+import org.mariadb.r2dbc.message.server.Sequencer;
+import org.mariadb.r2dbc.util.ServerPrepareResult;
+
+/**
+ * COM_STMT_BULK_EXECUTE packet, executing a prepared statement for many parameter sets at once. See
+ * https://mariadb.com/kb/en/com_stmt_bulk_execute/
+ *
+ * <p>Parameter sets are encoded from {@code fromIndex} until packet would exceed server
+ * max_allowed_packet, or until a parameter type differs from types sent in header. {@link
+ * #getNextIndex()} then indicates the first parameter set that remains to be sent.
+ */
+public final class BulkExecutePacket implements ClientMessage {
+
+  private static final int SEND_TYPES_TO_SERVER = 128;
+  private static final byte INDICATOR_NONE = 0;
+  private static final byte INDICATOR_NULL = 1;
+
+  private final int statementId;
+  private final int parameterCount;
+  private final List<Map<Integer, Parameter<?>>> parameters;
+  private final int fromIndex;
+  private final Sequencer sequencer = new Sequencer((byte) 0xff);
+  private final ServerPrepareResult prepareResult;
+  private volatile int nextIndex;
+
+  /**
+   * COM_STMT_BULK_EXECUTE packet.
+   *
+   * @param statementId prepared statement identifier
+   * @param parameterCount number of statement parameters
+   * @param parameters parameter sets
+   * @param fromIndex index of first parameter set to send
+   */
+  public BulkExecutePacket(
+      int statementId,
+      int parameterCount,
+      List<Map<Integer, Parameter<?>>> parameters,
+      int fromIndex) {
+    this.statementId = statementId;
+    this.parameterCount = parameterCount;
+    this.parameters = parameters;
+    this.fromIndex = fromIndex;
+    this.nextIndex = fromIndex;
+    this.prepareResult = null;
+  }
+
+  /**
+   * COM_STMT_BULK_EXECUTE packet of a prepared statement, whose cached columns are used when server
+   * skips result-set metadata (INSERT ... RETURNING).
+   *
+   * @param prepareResult prepared statement
+   * @param parameters parameter sets
+   * @param fromIndex index of first parameter set to send
+   */
+  public BulkExecutePacket(
+      ServerPrepareResult prepareResult,
+      List<Map<Integer, Parameter<?>>> parameters,
+      int fromIndex) {
+    this.statementId = prepareResult.getStatementId();
+    this.parameterCount = prepareResult.getNumParams();
+    this.parameters = parameters;
+    this.fromIndex = fromIndex;
+    this.nextIndex = fromIndex;
+    this.prepareResult = prepareResult;
+  }
+
+  public ServerPrepareResult getPrepareResult() {
+    return prepareResult;
+  }
+
+  public Sequencer getSequencer() {
+    return sequencer;
+  }
+
+  /**
+   * Index of first parameter set not sent by this packet. Only significant once packet is encoded.
+   *
+   * @return next index to send
+   */
+  public int getNextIndex() {
+    return nextIndex;
+  }
+
+  @Override
+  public ByteBuf encode(Context context, ByteBufAllocator allocator) {
+    int maxAllowedPacket =
+        context.getMaxAllowedPacket() > 0 ? context.getMaxAllowedPacket() : 0xffffff;
+
+    ByteBuf buf = allocator.ioBuffer();
+    buf.writeByte(0xfa);
+    buf.writeIntLE(statementId);
+    buf.writeShortLE(SEND_TYPES_TO_SERVER);
+
+    // parameter types are sent once, using first non-null value of each parameter
+    short[] types = new short[parameterCount];
+    for (int i = 0; i < parameterCount; i++) {
+      types[i] = DataType.VARCHAR.get();
+      for (int row = fromIndex; row < parameters.size(); row++) {
+        Parameter<?> p = parameters.get(row).get(i);
+        if (p != null && !p.isNull()) {
+          types[i] = p.getBinaryEncodeType().get();
+          break;
+        }
+      }
+      buf.writeShortLE(types[i]);
+    }
+
+    int row = fromIndex;
+    rows:
+    while (row < parameters.size()) {
+      Map<Integer, Parameter<?>> rowParameters = parameters.get(row);
+      if (row > fromIndex) {
+        // type change must be sent in a new bulk command
+        for (int i = 0; i < parameterCount; i++) {
+          Parameter<?> p = rowParameters.get(i);
+          if (p != null && !p.isNull() && p.getBinaryEncodeType().get() != types[i]) {
+            break rows;
+          }
+        }
+      }
+
+      int mark = buf.writerIndex();
+      for (int i = 0; i < parameterCount; i++) {
+        Parameter<?> p = rowParameters.get(i);
+        if (p == null || p.isNull()) {
+          buf.writeByte(INDICATOR_NULL);
+        } else {
+          buf.writeByte(INDICATOR_NONE);
+          p.encodeBinary(buf, context);
+        }
+      }
+
+      if (buf.writerIndex() > maxAllowedPacket && row > fromIndex) {
+        // remaining parameter sets will be sent in a new bulk command
+        buf.writerIndex(mark);
+        break;
+      }
+      row++;
+    }
+    nextIndex = row;
+    return buf;
+  }
+}
@@ -27,4 +27,13 @@ public interface ClientMessage {
   }
 
   ByteBuf encode(Context context, ByteBufAllocator byteBufAllocator);
+
+  /**
+   * Indicate if server answers this command.
+   *
+   * @return false if server sends no response
+   */
+  default boolean expectResponse() {
+    return true;
+  }
 }
@@ -39,4 +39,9 @@ public final class ClosePreparePacket implements ClientMessage {
     buf.writeIntLE(statementId);
     return buf;
   }
+
+  @Override
+  public boolean expectResponse() {
+    return false;
+  }
 }
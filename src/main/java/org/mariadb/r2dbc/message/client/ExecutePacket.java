@@ -23,15 +23,54 @@ import org.mariadb.r2dbc.client.Context;
 import org.mariadb.r2dbc.codec.DataType;
 import org.mariadb.r2dbc.codec.Parameter;
 import org.mariadb.r2dbc.message.server.Sequencer;
+import org.mariadb.r2dbc.util.ServerPrepareResult;
 
 public final class ExecutePacket implements ClientMessage {
   private final Map<Integer, Parameter<?>> parameters;
   private final int statementId;
+  private final boolean openCursor;
+  private final ServerPrepareResult prepareResult;
   private final Sequencer sequencer = new Sequencer((byte) 0xff);
 
   public ExecutePacket(int statementId, Map<Integer, Parameter<?>> parameters) {
+    this(statementId, parameters, false);
+  }
+
+  /**
+   * COM_STMT_EXECUTE packet.
+   *
+   * @param statementId prepared statement identifier
+   * @param parameters parameters
+   * @param openCursor ask server to open a read-only cursor, rows then being retrieved using
+   *     COM_STMT_FETCH
+   */
+  public ExecutePacket(int statementId, Map<Integer, Parameter<?>> parameters, boolean openCursor) {
     this.parameters = parameters;
     this.statementId = statementId;
+    this.openCursor = openCursor;
+    this.prepareResult = null;
+  }
+
+  /**
+   * COM_STMT_EXECUTE packet of a prepared statement, whose cached columns are used when server
+   * skips result-set metadata.
+   *
+   * @param prepareResult prepared statement
+   * @param parameters parameters
+   * @param openCursor ask server to open a read-only cursor
+   */
+  public ExecutePacket(
+      ServerPrepareResult prepareResult,
+      Map<Integer, Parameter<?>> parameters,
+      boolean openCursor) {
+    this.parameters = parameters;
+    this.statementId = prepareResult.getStatementId();
+    this.openCursor = openCursor;
+    this.prepareResult = prepareResult;
+  }
+
+  public ServerPrepareResult getPrepareResult() {
+    return prepareResult;
   }
 
   public Sequencer getSequencer() {
@@ -43,7 +82,7 @@ public final class ExecutePacket implements ClientMessage {
     ByteBuf buf = allocator.ioBuffer();
     buf.writeByte(0x17);
     buf.writeIntLE(statementId);
-    buf.writeByte(0x00); // NO CURSOR
+    buf.writeByte(openCursor ? 0x01 : 0x00); // CURSOR_TYPE_READ_ONLY or NO CURSOR
     buf.writeIntLE(1); // Iteration pos
 
     Integer[] keys = parameters.keySet().toArray(new Integer[0]);
@@ -77,10 +116,10 @@ public final class ExecutePacket implements ClientMessage {
       }
     }
 
-    // TODO avoid to send long data here.
+    // long data values have already been sent using COM_STMT_SEND_LONG_DATA
     for (int i = 0; i < parameterCount; i++) {
       Parameter<?> p = parameters.get(i);
-      if (p != null && !p.isNull()) {
+      if (p != null && !p.isNull() && !p.useLongData()) {
         p.encodeBinary(buf, context);
       }
     }
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2020 MariaDB Ab.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mariadb.r2dbc.message.client;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import org.mariadb.r2dbc.client.Context;
+
+/**
+ * COM_STMT_FETCH packet, fetching rows from an opened server cursor. See
+ * https://mariadb.com/kb/en/com_stmt_fetch/
+ */
+public final class FetchPacket implements ClientMessage {
+
+  private final int statementId;
+  private final int fetchSize;
+
+  public FetchPacket(int statementId, int fetchSize) {
+    this.statementId = statementId;
+    this.fetchSize = fetchSize;
+  }
+
+  @Override
+  public ByteBuf encode(Context context, ByteBufAllocator allocator) {
+    ByteBuf buf = allocator.ioBuffer(9);
+    buf.writeByte(0x1c);
+    buf.writeIntLE(statementId);
+    buf.writeIntLE(fetchSize);
+    return buf;
+  }
+}
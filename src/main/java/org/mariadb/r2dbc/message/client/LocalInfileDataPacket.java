@@ -0,0 +1,69 @@
+/*
+ * Copyright 2020 MariaDB Ab.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mariadb.r2dbc.message.client;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import org.mariadb.r2dbc.client.Context;
+import org.mariadb.r2dbc.message.server.Sequencer;
+
+/**
+ * Content of a file requested by a LOCAL INFILE packet. Content is sent as raw packets continuing
+ * the sequence of server request, an empty packet indicating end of file.
+ */
+public final class LocalInfileDataPacket implements ClientMessage {
+
+  /**
+   * Maximum size of file data sent in one packet, kept well under 16M packet size so data is
+   * streamed without big buffers.
+   */
+  public static final int MAX_PACKET_SIZE = 1024 * 1024;
+
+  private final Sequencer sequencer;
+  private final ByteBuf chunk;
+
+  /**
+   * Create packet.
+   *
+   * @param sequencer sequencer of server LOCAL INFILE request
+   * @param chunk data, released when encoded. Empty buffer for end of file packet.
+   */
+  public LocalInfileDataPacket(Sequencer sequencer, ByteBuf chunk) {
+    this.sequencer = sequencer;
+    this.chunk = chunk;
+  }
+
+  @Override
+  public ByteBuf encode(Context context, ByteBufAllocator allocator) {
+    return chunk;
+  }
+
+  @Override
+  public Sequencer getSequencer() {
+    return sequencer;
+  }
+
+  @Override
+  public boolean expectResponse() {
+    return false;
+  }
+
+  /** Release data of a packet that will not be sent. */
+  public void release() {
+    chunk.release();
+  }
+}
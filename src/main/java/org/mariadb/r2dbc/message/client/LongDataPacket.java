@@ -0,0 +1,88 @@
+/*
+ * Copyright 2020 MariaDB Ab.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mariadb.r2dbc.message.client;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.channel.ChannelPromise;
+import org.mariadb.r2dbc.client.Context;
+
+/**
+ * COM_STMT_SEND_LONG_DATA packet, sending a chunk of a parameter value before execute command.
+ * Server appends chunks of the same parameter, and sends no response. See
+ * https://mariadb.com/kb/en/com_stmt_send_long_data/
+ */
+public final class LongDataPacket implements ClientMessage {
+
+  /** Maximum size of parameter data sent in one packet. */
+  public static final int MAX_CHUNK_SIZE = 256 * 1024;
+
+  private final int statementId;
+  private final int parameterIndex;
+  private final ByteBuf chunk;
+  private ChannelPromise promise;
+
+  /**
+   * Create packet.
+   *
+   * @param statementId prepared statement identifier
+   * @param parameterIndex parameter index
+   * @param chunk data, released when encoded
+   */
+  public LongDataPacket(int statementId, int parameterIndex, ByteBuf chunk) {
+    this.statementId = statementId;
+    this.parameterIndex = parameterIndex;
+    this.chunk = chunk;
+  }
+
+  @Override
+  public ByteBuf encode(Context context, ByteBufAllocator allocator) {
+    try {
+      ByteBuf buf = allocator.ioBuffer(7 + chunk.readableBytes());
+      buf.writeByte(0x18);
+      buf.writeIntLE(statementId);
+      buf.writeShortLE(parameterIndex);
+      buf.writeBytes(chunk);
+      return buf;
+    } finally {
+      chunk.release();
+    }
+  }
+
+  @Override
+  public boolean expectResponse() {
+    return false;
+  }
+
+  /**
+   * Promise completed when packet is written to socket.
+   *
+   * @return write promise
+   */
+  public ChannelPromise getPromise() {
+    return promise;
+  }
+
+  public void setPromise(ChannelPromise promise) {
+    this.promise = promise;
+  }
+
+  /** Release data of a packet that will not be sent. */
+  public void release() {
+    chunk.release();
+  }
+}
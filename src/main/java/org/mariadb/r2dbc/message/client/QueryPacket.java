@@ -22,14 +22,28 @@ import java.nio.charset.StandardCharsets;
 import org.mariadb.r2dbc.client.Context;
 import org.mariadb.r2dbc.message.server.Sequencer;
 import org.mariadb.r2dbc.util.Assert;
+import org.mariadb.r2dbc.util.ClientPrepareResult;
+import org.reactivestreams.Publisher;
 
 public final class QueryPacket implements ClientMessage {
 
   private final String sql;
+  private final Publisher<ByteBuf> localInfileData;
   private final Sequencer sequencer = new Sequencer((byte) 0xff);
 
   public QueryPacket(String sql) {
+    this(sql, null);
+  }
+
+  /**
+   * Create a query, whose LOCAL INFILE content is sent from a publisher.
+   *
+   * @param sql {@code LOAD DATA LOCAL INFILE} command
+   * @param localInfileData file content, sent when server requests it
+   */
+  public QueryPacket(String sql, Publisher<ByteBuf> localInfileData) {
     this.sql = Assert.requireNonNull(sql, "query must not be null");
+    this.localInfileData = localInfileData;
   }
 
   @Override
@@ -44,4 +58,19 @@ public final class QueryPacket implements ClientMessage {
   public Sequencer getSequencer() {
     return sequencer;
   }
+
+  public Publisher<ByteBuf> getLocalInfileData() {
+    return localInfileData;
+  }
+
+  /**
+   * Indicate if server may answer with a LOCAL INFILE request, reading file content from
+   * connection: nothing else must be sent until command is complete.
+   *
+   * @param noBackslashEscapes escape mode
+   * @return true if command contains {@code LOAD DATA LOCAL}
+   */
+  public boolean mayRequestLocalInfile(boolean noBackslashEscapes) {
+    return localInfileData != null || ClientPrepareResult.isLoadDataLocal(sql, noBackslashEscapes);
+  }
 }
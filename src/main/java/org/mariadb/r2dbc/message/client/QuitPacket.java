@@ -29,4 +29,9 @@ public final class QuitPacket implements ClientMessage {
     buf.writeByte(0x01);
     return buf;
   }
+
+  @Override
+  public boolean expectResponse() {
+    return false;
+  }
 }
@@ -64,6 +64,10 @@ public final class AuthenticationFlow {
             state -> {
               if (State.COMPLETED == state) {
                 if (flow.authMoreDataPacket != null) flow.authMoreDataPacket.deallocate();
+                // compressed protocol starts after authentication OK packet
+                if ((flow.clientCapabilities & Capabilities.COMPRESS) != 0) {
+                  flow.client.enableCompression(flow.configuration.getCompressionThreshold());
+                }
                 flow.sink.complete();
               } else {
                 if (logger.isTraceEnabled()) {
@@ -99,7 +103,9 @@ public final class AuthenticationFlow {
             | Capabilities.CONNECT_ATTRS
             | Capabilities.PLUGIN_AUTH_LENENC_CLIENT_DATA
             | Capabilities.CLIENT_SESSION_TRACK
-            | Capabilities.FOUND_ROWS;
+            | Capabilities.FOUND_ROWS
+            // server file requests are only served from localInfileDirectories
+            | Capabilities.LOCAL_FILES;
 
     if (configuration.allowMultiQueries()) {
       capabilities |= Capabilities.MULTI_STATEMENTS;
@@ -109,6 +115,18 @@ public final class AuthenticationFlow {
       capabilities |= Capabilities.CLIENT_DEPRECATE_EOF;
     }
 
+    if ((serverCapabilities & Capabilities.MARIADB_CLIENT_STMT_BULK_OPERATIONS) != 0) {
+      capabilities |= Capabilities.MARIADB_CLIENT_STMT_BULK_OPERATIONS;
+    }
+
+    if ((serverCapabilities & Capabilities.MARIADB_CLIENT_CACHE_METADATA) != 0) {
+      capabilities |= Capabilities.MARIADB_CLIENT_CACHE_METADATA;
+    }
+
+    if (configuration.useCompression() && (serverCapabilities & Capabilities.COMPRESS) != 0) {
+      capabilities |= Capabilities.COMPRESS;
+    }
+
     if (configuration.getDatabase() != null && !configuration.getDatabase().isEmpty()) {
       capabilities |= Capabilities.CONNECT_WITH_DB;
     }
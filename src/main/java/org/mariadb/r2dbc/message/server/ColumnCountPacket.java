@@ -19,21 +19,63 @@ package org.mariadb.r2dbc.message.server;
 import io.netty.buffer.ByteBuf;
 import org.mariadb.r2dbc.client.Context;
 import org.mariadb.r2dbc.util.BufferUtils;
+import org.mariadb.r2dbc.util.ServerPrepareResult;
+import org.mariadb.r2dbc.util.constants.Capabilities;
 
 public class ColumnCountPacket implements ServerMessage {
 
-  private int columnCount;
+  private final int columnCount;
+  private final boolean metaFollows;
+  private final ServerPrepareResult prepareResult;
 
   public ColumnCountPacket(int columnCount) {
+    this(columnCount, true, null);
+  }
+
+  /**
+   * Column count packet.
+   *
+   * @param columnCount number of columns
+   * @param metaFollows indicate if column definitions follow
+   * @param prepareResult prepared statement of execute response, caching its columns
+   */
+  public ColumnCountPacket(
+      int columnCount, boolean metaFollows, ServerPrepareResult prepareResult) {
     this.columnCount = columnCount;
+    this.metaFollows = metaFollows;
+    this.prepareResult = prepareResult;
   }
 
-  public static ColumnCountPacket decode(Sequencer sequencer, ByteBuf buf, Context context) {
+  /**
+   * Decode column count packet.
+   *
+   * @param sequencer packet sequencer
+   * @param buf packet buffer
+   * @param context connection context
+   * @param prepareResult prepared statement when packet is an execute response, null otherwise
+   * @return column count packet
+   */
+  public static ColumnCountPacket decode(
+      Sequencer sequencer, ByteBuf buf, Context context, ServerPrepareResult prepareResult) {
     long columnCount = BufferUtils.readLengthEncodedInt(buf);
+    if (prepareResult != null
+        && (context.getServerCapabilities() & Capabilities.MARIADB_CLIENT_CACHE_METADATA) != 0) {
+      // server only sends execute metadata when changed since last sent
+      boolean metaFollows = !buf.isReadable() || buf.readByte() != 0;
+      return new ColumnCountPacket((int) columnCount, metaFollows, prepareResult);
+    }
     return new ColumnCountPacket((int) columnCount);
   }
 
   public int getColumnCount() {
     return columnCount;
   }
+
+  public boolean isMetaFollows() {
+    return metaFollows;
+  }
+
+  public ServerPrepareResult getPrepareResult() {
+    return prepareResult;
+  }
 }
@@ -26,6 +26,7 @@ import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.BitSet;
 import org.mariadb.r2dbc.client.Context;
 import org.mariadb.r2dbc.codec.Codec;
@@ -131,6 +132,21 @@ public final class ColumnDefinitionPacket implements ServerMessage {
     this.ending = false;
   }
 
+  /**
+   * Indicate if column has the same definition as another one.
+   *
+   * @param other other column definition
+   * @return true if definitions are identical
+   */
+  public boolean sameDefinition(ColumnDefinitionPacket other) {
+    return charset == other.charset
+        && length == other.length
+        && dataType == other.dataType
+        && decimals == other.decimals
+        && flags == other.flags
+        && Arrays.equals(meta, other.meta);
+  }
+
   public static ColumnDefinitionPacket decode(
       Sequencer sequencer, ByteBuf buf, Context context, boolean ending) {
     byte[] meta = new byte[buf.readableBytes() - 12];
@@ -47,12 +47,12 @@ public class EofPacket implements ServerMessage {
     short warningCount = buf.readShortLE();
     short serverStatus = buf.readShortLE();
     context.setServerStatus(serverStatus);
-    return new EofPacket(
-        sequencer,
-        serverStatus,
-        warningCount,
-        resultSetEnd,
-        resultSetEnd && (serverStatus & ServerStatus.MORE_RESULTS_EXISTS) == 0);
+    boolean ending =
+        resultSetEnd
+            ? (serverStatus & ServerStatus.MORE_RESULTS_EXISTS) == 0
+            // when a cursor is opened, rows are not sent until a COM_STMT_FETCH command
+            : (serverStatus & ServerStatus.CURSOR_EXISTS) != 0;
+    return new EofPacket(sequencer, serverStatus, warningCount, resultSetEnd, ending);
   }
 
   public short getServerStatus() {
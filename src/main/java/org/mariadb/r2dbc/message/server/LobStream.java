@@ -0,0 +1,186 @@
+/*
+ * Copyright 2020 MariaDB Ab.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mariadb.r2dbc.message.server;
+
+import io.r2dbc.spi.Blob;
+import io.r2dbc.spi.Clob;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.concurrent.Queues;
+
+/**
+ * LOB column value of a streamed row, filled by decoder as packets are received. Chunks are
+ * buffered until subscriber consume them.
+ */
+public final class LobStream {
+
+  /** Number of chunks waiting subscriber demand before stopping socket reading. */
+  public static final int HIGH_WATER_MARK = 16;
+
+  /** Number of chunks waiting subscriber demand under which socket reading resumes. */
+  public static final int LOW_WATER_MARK = 4;
+
+  private final Queue<ByteBuffer> queue = Queues.<ByteBuffer>unbounded().get();
+  private final Sinks.Many<ByteBuffer> sink = Sinks.many().unicast().onBackpressureBuffer(queue);
+  private final AtomicBoolean subscribed = new AtomicBoolean();
+  private volatile boolean claimed;
+  private volatile boolean discarded;
+  private volatile Runnable demandListener;
+
+  /**
+   * Add chunk received from server. Accessed by decoder thread only.
+   *
+   * @param chunk chunk
+   */
+  public void next(ByteBuffer chunk) {
+    if (!discarded) sink.tryEmitNext(chunk);
+  }
+
+  public void complete() {
+    sink.tryEmitComplete();
+  }
+
+  public void error(Throwable err) {
+    sink.tryEmitError(err);
+  }
+
+  /**
+   * Indicate if subscriber doesn't follow.
+   *
+   * @param limit number of buffered chunks
+   * @return true if more than limit chunks are waiting subscriber demand
+   */
+  public boolean isBackpressured(int limit) {
+    return !discarded && queue.size() > limit;
+  }
+
+  public boolean isClaimed() {
+    return claimed;
+  }
+
+  /**
+   * Register listener called each time buffered chunks decrease.
+   *
+   * @param demandListener listener
+   */
+  public void setDemandListener(Runnable demandListener) {
+    this.demandListener = demandListener;
+  }
+
+  /** Drop current and following chunks. */
+  public void discard() {
+    discarded = true;
+    if (subscribed.compareAndSet(false, true)) {
+      sink.asFlux().subscribe(chunk -> {}, err -> {});
+    }
+    onDemand();
+  }
+
+  private void onDemand() {
+    Runnable listener = this.demandListener;
+    if (listener != null) listener.run();
+  }
+
+  private Flux<ByteBuffer> chunks() {
+    if (!subscribed.compareAndSet(false, true)) {
+      return Flux.error(new IllegalStateException("LOB stream can only be consumed once"));
+    }
+    return sink.asFlux()
+        .doOnNext(chunk -> onDemand())
+        .doOnCancel(
+            () -> {
+              discarded = true;
+              onDemand();
+            });
+  }
+
+  public Blob toBlob() {
+    claimed = true;
+    return new Blob() {
+      @Override
+      public Publisher<ByteBuffer> stream() {
+        return Flux.defer(LobStream.this::chunks);
+      }
+
+      @Override
+      public Publisher<Void> discard() {
+        return Mono.fromRunnable(LobStream.this::discard);
+      }
+    };
+  }
+
+  public Clob toClob() {
+    claimed = true;
+    return new Clob() {
+      @Override
+      public Publisher<CharSequence> stream() {
+        return Flux.defer(() -> decodeUtf8(chunks()));
+      }
+
+      @Override
+      public Publisher<Void> discard() {
+        return Mono.fromRunnable(LobStream.this::discard);
+      }
+    };
+  }
+
+  /**
+   * Decode UTF-8 chunks, a character possibly being split between two chunks.
+   *
+   * @param chunks binary chunks
+   * @return decoded chunks
+   */
+  private static Flux<CharSequence> decodeUtf8(Flux<ByteBuffer> chunks) {
+    CharsetDecoder decoder =
+        StandardCharsets.UTF_8
+            .newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    ByteBuffer[] remaining = new ByteBuffer[1];
+    return chunks
+        .<CharSequence>handle(
+            (chunk, sink) -> {
+              ByteBuffer in = chunk;
+              if (remaining[0] != null) {
+                in = ByteBuffer.allocate(remaining[0].remaining() + chunk.remaining());
+                in.put(remaining[0]).put(chunk).flip();
+              }
+              CharBuffer out = CharBuffer.allocate(in.remaining());
+              decoder.decode(in, out, false);
+              remaining[0] = in.hasRemaining() ? in : null;
+              if (out.position() > 0) sink.next(out.flip().toString());
+            })
+        .concatWith(
+            Mono.fromSupplier(
+                () -> {
+                  CharBuffer out = CharBuffer.allocate(4);
+                  ByteBuffer in = remaining[0] == null ? ByteBuffer.allocate(0) : remaining[0];
+                  decoder.decode(in, out, true);
+                  decoder.flush(out);
+                  return out.position() > 0 ? out.flip().toString() : null;
+                }));
+  }
+}
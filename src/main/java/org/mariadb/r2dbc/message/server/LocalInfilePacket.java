@@ -0,0 +1,50 @@
+/*
+ * Copyright 2020 MariaDB Ab.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mariadb.r2dbc.message.server;
+
+import io.netty.buffer.ByteBuf;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * LOCAL INFILE request: server asks for the content of the file of a {@code LOAD DATA LOCAL INFILE}
+ * command. Client answers with file content, followed by an empty packet. See
+ * https://mariadb.com/kb/en/local_infile-packet/
+ */
+public class LocalInfilePacket implements ServerMessage {
+
+  private final Sequencer sequencer;
+  private final String fileName;
+
+  private LocalInfilePacket(Sequencer sequencer, String fileName) {
+    this.sequencer = sequencer;
+    this.fileName = fileName;
+  }
+
+  public static LocalInfilePacket decode(Sequencer sequencer, ByteBuf buf) {
+    buf.skipBytes(1); // 0xFB header
+    String fileName = buf.readCharSequence(buf.readableBytes(), StandardCharsets.UTF_8).toString();
+    return new LocalInfilePacket(sequencer, fileName);
+  }
+
+  public Sequencer getSequencer() {
+    return sequencer;
+  }
+
+  public String getFileName() {
+    return fileName;
+  }
+}
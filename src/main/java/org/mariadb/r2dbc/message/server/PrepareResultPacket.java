@@ -18,6 +18,7 @@ package org.mariadb.r2dbc.message.server;
 
 import io.netty.buffer.ByteBuf;
 import org.mariadb.r2dbc.client.Context;
+import org.mariadb.r2dbc.util.ServerPrepareResult;
 import org.mariadb.r2dbc.util.constants.Capabilities;
 
 public final class PrepareResultPacket implements ServerMessage {
@@ -26,27 +27,42 @@ public final class PrepareResultPacket implements ServerMessage {
   private final int numColumns;
   private final int numParams;
   private final boolean eofDeprecated;
+  private final boolean executeFollows;
   private Sequencer sequencer;
+  private ServerPrepareResult prepareResult;
 
   private PrepareResultPacket(
       final Sequencer sequencer,
       final int statementId,
       final int numColumns,
       final int numParams,
-      final boolean eofDeprecated) {
+      final boolean eofDeprecated,
+      final boolean executeFollows) {
     this.sequencer = sequencer;
     this.statementId = statementId;
     this.numColumns = numColumns;
     this.numParams = numParams;
     this.eofDeprecated = eofDeprecated;
+    this.executeFollows = executeFollows;
   }
 
   @Override
   public boolean ending() {
-    return numParams == 0 && numColumns == 0 && eofDeprecated;
+    // no parameter nor column definition follows
+    return numParams == 0 && numColumns == 0 && !executeFollows;
   }
 
-  public static PrepareResultPacket decode(Sequencer sequencer, ByteBuf buffer, Context context) {
+  /**
+   * Decode prepare response first packet.
+   *
+   * @param sequencer packet sequencer
+   * @param buffer packet buffer
+   * @param context connection context
+   * @param executeFollows indicate that a pipelined execute response follows
+   * @return prepare result packet
+   */
+  public static PrepareResultPacket decode(
+      Sequencer sequencer, ByteBuf buffer, Context context, boolean executeFollows) {
     /* Prepared Statement OK */
     buffer.readByte(); /* skip field count */
     final int statementId = buffer.readIntLE();
@@ -57,7 +73,8 @@ public final class PrepareResultPacket implements ServerMessage {
         statementId,
         numColumns,
         numParams,
-        ((context.getServerCapabilities() & Capabilities.CLIENT_DEPRECATE_EOF) > 0));
+        ((context.getServerCapabilities() & Capabilities.CLIENT_DEPRECATE_EOF) > 0),
+        executeFollows);
   }
 
   public int getStatementId() {
@@ -75,4 +92,17 @@ public final class PrepareResultPacket implements ServerMessage {
   public boolean isEofDeprecated() {
     return eofDeprecated;
   }
+
+  /**
+   * Prepared statement created from this response, or the one already cached for the same sql.
+   *
+   * @return prepare result
+   */
+  public ServerPrepareResult getPrepareResult() {
+    return prepareResult;
+  }
+
+  public void setPrepareResult(ServerPrepareResult prepareResult) {
+    this.prepareResult = prepareResult;
+  }
 }
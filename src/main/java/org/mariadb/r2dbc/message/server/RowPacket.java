@@ -17,16 +17,46 @@
 package org.mariadb.r2dbc.message.server;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.util.internal.ObjectPool;
 
 public final class RowPacket implements ServerMessage {
 
+  // row holders are pooled: decoder emits one per row, released by result once mapped
+  private static final ObjectPool<RowPacket> POOL = ObjectPool.newPool(RowPacket::new);
+
+  private final ObjectPool.Handle<RowPacket> handle;
   private ByteBuf raw;
 
   public RowPacket(ByteBuf raw) {
+    this.handle = null;
     this.raw = raw.retain();
   }
 
+  private RowPacket(ObjectPool.Handle<RowPacket> handle) {
+    this.handle = handle;
+  }
+
+  /**
+   * Get a pooled row holder, pointing to row data slice.
+   *
+   * @param raw row data, retained until {@link #release()}
+   * @return row packet
+   */
+  public static RowPacket newInstance(ByteBuf raw) {
+    RowPacket packet = POOL.get();
+    packet.raw = raw.retain();
+    return packet;
+  }
+
   public ByteBuf getRaw() {
     return raw;
   }
+
+  /** Release row data, returning holder to pool. Packet must not be used anymore. */
+  public void release() {
+    ByteBuf buf = raw;
+    raw = null;
+    buf.release();
+    if (handle != null) handle.recycle(this);
+  }
 }
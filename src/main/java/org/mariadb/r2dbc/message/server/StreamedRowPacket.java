@@ -0,0 +1,125 @@
+/*
+ * Copyright 2020 MariaDB Ab.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mariadb.r2dbc.message.server;
+
+import io.netty.buffer.ByteBuf;
+import io.r2dbc.spi.Blob;
+import io.r2dbc.spi.Clob;
+import io.r2dbc.spi.R2dbcNonTransientResourceException;
+
+/**
+ * Row exceeding packet size, emitted by decoder before being completely received. Columns before
+ * first streamed LOB column are available in raw data, following LOB columns are streamed as they
+ * are received, and other following columns are skipped.
+ */
+public final class StreamedRowPacket implements ServerMessage {
+
+  private final ByteBuf raw;
+  private final int firstStreamed;
+  private final LobStream[] lobs;
+
+  public StreamedRowPacket(ByteBuf raw, int firstStreamed, LobStream[] lobs) {
+    this.raw = raw;
+    this.firstStreamed = firstStreamed;
+    this.lobs = lobs;
+  }
+
+  /**
+   * Indicate if column can be streamed. TEXT columns are reported with VARCHAR type.
+   *
+   * @param column column definition
+   * @return true if column value can be read as Blob or Clob
+   */
+  public static boolean isLob(ColumnDefinitionPacket column) {
+    switch (column.getType()) {
+      case TINYBLOB:
+      case BLOB:
+      case MEDIUMBLOB:
+      case LONGBLOB:
+      case VARCHAR:
+      case VARSTRING:
+      case STRING:
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  public ByteBuf getRaw() {
+    return raw;
+  }
+
+  /**
+   * Indicate if column value is streamed, not available in raw data.
+   *
+   * @param index column index
+   * @return true if column is streamed
+   */
+  public boolean isStreamed(int index) {
+    return index >= firstStreamed;
+  }
+
+  /**
+   * Get streamed column value.
+   *
+   * @param index column index
+   * @param column column definition
+   * @param type requested type
+   * @param <T> requested type
+   * @return Blob or Clob value, null if LOB is null
+   */
+  @SuppressWarnings("unchecked")
+  public <T> T get(int index, ColumnDefinitionPacket column, Class<T> type) {
+    if (!isLob(column)) {
+      throw new R2dbcNonTransientResourceException(
+          String.format(
+              "Column %d follows streamed LOB column %d and cannot be read. Large columns must be"
+                  + " selected last",
+              index, firstStreamed));
+    }
+    LobStream lob = lobs[index];
+    if (type == Object.class) {
+      if (lob == null) return null;
+      return (T) (column.isBinary() ? lob.toBlob() : lob.toClob());
+    }
+    if (type.isAssignableFrom(Blob.class)) {
+      return lob == null ? null : (T) lob.toBlob();
+    }
+    if (type.isAssignableFrom(Clob.class)) {
+      return lob == null ? null : (T) lob.toClob();
+    }
+    throw new R2dbcNonTransientResourceException(
+        String.format(
+            "Streamed column %d can only be read as %s or %s",
+            index, Blob.class.getName(), Clob.class.getName()));
+  }
+
+  /** Discard LOBs that have not been retrieved, since nobody will consume them. */
+  public void discardUnclaimed() {
+    for (LobStream lob : lobs) {
+      if (lob != null && !lob.isClaimed()) lob.discard();
+    }
+  }
+
+  /** Discard all LOBs and release raw data, when row will never be read. */
+  public void discard() {
+    for (LobStream lob : lobs) {
+      if (lob != null) lob.discard();
+    }
+    raw.release();
+  }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2020 MariaDB Ab.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mariadb.r2dbc.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram, with log-linear buckets: values are recorded with a relative error
+ * of at most 1/32 (about 3%), whatever their magnitude, using a fixed memory footprint.
+ *
+ * <p>Values below 64 have their own bucket. Greater values are grouped by power of two, each power
+ * of two range being divided into 32 buckets of equal width.
+ */
+public final class LatencyHistogram {
+
+  private static final int SUB_BUCKET_BITS = 5;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int LINEAR_LIMIT = SUB_BUCKETS << 1;
+  static final int BUCKETS = LINEAR_LIMIT + (62 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+  private final AtomicLong max = new AtomicLong();
+  private final LongAdder sum = new LongAdder();
+
+  static int index(long value) {
+    if (value < LINEAR_LIMIT) {
+      return value < 0 ? 0 : (int) value;
+    }
+    int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+    return LINEAR_LIMIT + (shift - 1) * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+  }
+
+  static long highestValue(int index) {
+    if (index < LINEAR_LIMIT) {
+      return index;
+    }
+    int shift = (index - LINEAR_LIMIT) / SUB_BUCKETS + 1;
+    long sub = (index - LINEAR_LIMIT) % SUB_BUCKETS + SUB_BUCKETS;
+    return ((sub + 1) << shift) - 1;
+  }
+
+  /**
+   * Record a value.
+   *
+   * @param nanos latency in nanoseconds
+   */
+  public void record(long nanos) {
+    counts.incrementAndGet(index(nanos));
+    sum.add(nanos);
+    long current;
+    while (nanos > (current = max.get())) {
+      if (max.compareAndSet(current, nanos)) break;
+    }
+  }
+
+  /**
+   * Copy current recorded values.
+   *
+   * @return histogram snapshot
+   */
+  public Snapshot snapshot() {
+    long[] copy = new long[BUCKETS];
+    for (int i = 0; i < BUCKETS; i++) {
+      copy[i] = counts.get(i);
+    }
+    return new Snapshot(copy, sum.sum(), max.get());
+  }
+
+  /** Immutable histogram values. */
+  public static final class Snapshot {
+    private final long[] counts;
+    private final long count;
+    private final long max;
+    private final double mean;
+
+    private Snapshot(long[] counts, long sum, long max) {
+      this.counts = counts;
+      long total = 0;
+      for (long bucketCount : counts) {
+        total += bucketCount;
+      }
+      this.count = total;
+      this.max = max;
+      this.mean = total == 0 ? 0 : (double) sum / total;
+    }
+
+    /**
+     * Number of recorded values.
+     *
+     * @return value count
+     */
+    public long getCount() {
+      return count;
+    }
+
+    /**
+     * Highest recorded value.
+     *
+     * @param unit time unit
+     * @return max latency
+     */
+    public long getMax(TimeUnit unit) {
+      return unit.convert(max, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Mean of recorded values.
+     *
+     * @param unit time unit
+     * @return mean latency
+     */
+    public double getMean(TimeUnit unit) {
+      return mean / unit.toNanos(1);
+    }
+
+    /**
+     * Value under which the given percentage of recorded values fall.
+     *
+     * @param percentile percentile, between 0 and 100
+     * @param unit time unit
+     * @return latency at percentile, 0 if no value has been recorded
+     */
+    public long getPercentile(double percentile, TimeUnit unit) {
+      if (percentile < 0 || percentile > 100) {
+        throw new IllegalArgumentException(
+            String.format("percentile must be between 0 and 100, was %s", percentile));
+      }
+      if (count == 0) return 0;
+      long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+      long seen = 0;
+      for (int i = 0; i < counts.length; i++) {
+        seen += counts[i];
+        if (seen >= rank) {
+          return unit.convert(Math.min(highestValue(i), max), TimeUnit.NANOSECONDS);
+        }
+      }
+      return unit.convert(max, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public String toString() {
+      return "Latency{count="
+          + count
+          + ", mean="
+          + getMean(TimeUnit.MICROSECONDS)
+          + "us, p50="
+          + getPercentile(50, TimeUnit.MICROSECONDS)
+          + "us, p99="
+          + getPercentile(99, TimeUnit.MICROSECONDS)
+          + "us, p999="
+          + getPercentile(99.9, TimeUnit.MICROSECONDS)
+          + "us, max="
+          + getMax(TimeUnit.MICROSECONDS)
+          + "us}";
+    }
+  }
+}
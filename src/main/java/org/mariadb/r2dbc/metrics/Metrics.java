@@ -0,0 +1,84 @@
+/*
+ * Copyright 2020 MariaDB Ab.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mariadb.r2dbc.metrics;
+
+/**
+ * Driver metrics listener. Methods are called on I/O threads while processing commands, so
+ * implementations must be thread-safe and must not block.
+ *
+ * <p>All methods do nothing by default. {@link #NONE} is used when no metrics are configured, and
+ * {@link SimpleMetrics} provides an implementation that can be read on demand.
+ */
+public interface Metrics {
+
+  /** Default metrics, recording nothing. */
+  Metrics NONE =
+      new Metrics() {
+        @Override
+        public String toString() {
+          return "none";
+        }
+      };
+
+  /** A connection has been created. */
+  default void connectionCreated() {}
+
+  /** A connection has been closed, either explicitly or by a connection error. */
+  default void connectionClosed() {}
+
+  /** A command has been submitted, waiting for its response. */
+  default void commandSubmitted() {}
+
+  /**
+   * A command response has been fully received.
+   *
+   * @param latencyNanos time in nanoseconds since command submission
+   */
+  default void commandCompleted(long latencyNanos) {}
+
+  /** A submitted command will not receive any response, since connection failed or closed. */
+  default void commandAborted() {}
+
+  /** A command has been put in sending queue, waiting for previous command to complete. */
+  default void commandQueued() {}
+
+  /** A command has been removed from sending queue to be sent. */
+  default void commandDequeued() {}
+
+  /**
+   * A packet has been written.
+   *
+   * @param bytes packet size, header included
+   */
+  default void packetSent(int bytes) {}
+
+  /**
+   * A packet has been read.
+   *
+   * @param bytes packet size, header included
+   */
+  default void packetReceived(int bytes) {}
+
+  /** A command has been executed using an already prepared statement. */
+  default void prepareCacheHit() {}
+
+  /** A command had to be prepared. */
+  default void prepareCacheMiss() {}
+
+  /** A prepared statement has been evicted from prepare cache. */
+  default void prepareCacheEviction() {}
+}
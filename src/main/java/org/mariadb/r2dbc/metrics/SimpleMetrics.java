@@ -0,0 +1,307 @@
+/*
+ * Copyright 2020 MariaDB Ab.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mariadb.r2dbc.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link Metrics} implementation accumulating counters in memory, read using {@link #snapshot()}.
+ * An instance is usually shared by all connections of a connection factory.
+ *
+ * <pre>{@code
+ * SimpleMetrics metrics = new SimpleMetrics();
+ * MariadbConnectionConfiguration conf = MariadbConnectionConfiguration.builder()
+ *     ...
+ *     .metrics(metrics)
+ *     .build();
+ * ...
+ * SimpleMetrics.Snapshot snapshot = metrics.snapshot();
+ * long p99 = snapshot.getLatency().getPercentile(99, TimeUnit.MICROSECONDS);
+ * }</pre>
+ */
+public class SimpleMetrics implements Metrics {
+
+  private final LongAdder connectionsCreated = new LongAdder();
+  private final LongAdder connectionsClosed = new LongAdder();
+  private final LongAdder commandsSubmitted = new LongAdder();
+  private final LongAdder commandsCompleted = new LongAdder();
+  private final LongAdder commandsAborted = new LongAdder();
+  private final LongAdder commandsQueued = new LongAdder();
+  private final LongAdder commandsDequeued = new LongAdder();
+  private final LongAdder packetsSent = new LongAdder();
+  private final LongAdder bytesSent = new LongAdder();
+  private final LongAdder packetsReceived = new LongAdder();
+  private final LongAdder bytesReceived = new LongAdder();
+  private final LongAdder prepareCacheHits = new LongAdder();
+  private final LongAdder prepareCacheMisses = new LongAdder();
+  private final LongAdder prepareCacheEvictions = new LongAdder();
+  private final LatencyHistogram latency = new LatencyHistogram();
+
+  @Override
+  public void connectionCreated() {
+    connectionsCreated.increment();
+  }
+
+  @Override
+  public void connectionClosed() {
+    connectionsClosed.increment();
+  }
+
+  @Override
+  public void commandSubmitted() {
+    commandsSubmitted.increment();
+  }
+
+  @Override
+  public void commandCompleted(long latencyNanos) {
+    commandsCompleted.increment();
+    latency.record(latencyNanos);
+  }
+
+  @Override
+  public void commandAborted() {
+    commandsAborted.increment();
+  }
+
+  @Override
+  public void commandQueued() {
+    commandsQueued.increment();
+  }
+
+  @Override
+  public void commandDequeued() {
+    commandsDequeued.increment();
+  }
+
+  @Override
+  public void packetSent(int bytes) {
+    packetsSent.increment();
+    bytesSent.add(bytes);
+  }
+
+  @Override
+  public void packetReceived(int bytes) {
+    packetsReceived.increment();
+    bytesReceived.add(bytes);
+  }
+
+  @Override
+  public void prepareCacheHit() {
+    prepareCacheHits.increment();
+  }
+
+  @Override
+  public void prepareCacheMiss() {
+    prepareCacheMisses.increment();
+  }
+
+  @Override
+  public void prepareCacheEviction() {
+    prepareCacheEvictions.increment();
+  }
+
+  /**
+   * Read current metric values. Counters are read one by one while commands may be running, so
+   * values are not guaranteed to be consistent with each other.
+   *
+   * @return current values
+   */
+  public Snapshot snapshot() {
+    return new Snapshot(this);
+  }
+
+  /** Metric values at a point in time. */
+  public static final class Snapshot {
+    private final long timestamp;
+    private final long connectionsCreated;
+    private final long connectionsClosed;
+    private final long commandsSubmitted;
+    private final long commandsCompleted;
+    private final long commandsAborted;
+    private final long commandsQueued;
+    private final long commandsDequeued;
+    private final long packetsSent;
+    private final long bytesSent;
+    private final long packetsReceived;
+    private final long bytesReceived;
+    private final long prepareCacheHits;
+    private final long prepareCacheMisses;
+    private final long prepareCacheEvictions;
+    private final LatencyHistogram.Snapshot latency;
+
+    private Snapshot(SimpleMetrics metrics) {
+      this.timestamp = System.nanoTime();
+      this.connectionsCreated = metrics.connectionsCreated.sum();
+      this.connectionsClosed = metrics.connectionsClosed.sum();
+      // read completions before submissions, so in-flight count is never negative
+      this.commandsCompleted = metrics.commandsCompleted.sum();
+      this.commandsAborted = metrics.commandsAborted.sum();
+      this.commandsSubmitted = metrics.commandsSubmitted.sum();
+      this.commandsDequeued = metrics.commandsDequeued.sum();
+      this.commandsQueued = metrics.commandsQueued.sum();
+      this.packetsSent = metrics.packetsSent.sum();
+      this.bytesSent = metrics.bytesSent.sum();
+      this.packetsReceived = metrics.packetsReceived.sum();
+      this.bytesReceived = metrics.bytesReceived.sum();
+      this.prepareCacheHits = metrics.prepareCacheHits.sum();
+      this.prepareCacheMisses = metrics.prepareCacheMisses.sum();
+      this.prepareCacheEvictions = metrics.prepareCacheEvictions.sum();
+      this.latency = metrics.latency.snapshot();
+    }
+
+    public long getConnectionsCreated() {
+      return connectionsCreated;
+    }
+
+    public long getConnectionsClosed() {
+      return connectionsClosed;
+    }
+
+    /**
+     * Number of connections currently open.
+     *
+     * @return open connections
+     */
+    public long getOpenConnections() {
+      return connectionsCreated - connectionsClosed;
+    }
+
+    public long getCommandsCompleted() {
+      return commandsCompleted;
+    }
+
+    public long getCommandsAborted() {
+      return commandsAborted;
+    }
+
+    /**
+     * Number of commands waiting for their response, queued commands included.
+     *
+     * @return in-flight commands
+     */
+    public long getInFlightCommands() {
+      return commandsSubmitted - commandsCompleted - commandsAborted;
+    }
+
+    /**
+     * Number of commands waiting in sending queue for previous command to complete, when pipelining
+     * is disabled.
+     *
+     * @return queued commands
+     */
+    public long getQueuedCommands() {
+      return commandsQueued - commandsDequeued;
+    }
+
+    public long getPacketsSent() {
+      return packetsSent;
+    }
+
+    public long getBytesSent() {
+      return bytesSent;
+    }
+
+    public long getPacketsReceived() {
+      return packetsReceived;
+    }
+
+    public long getBytesReceived() {
+      return bytesReceived;
+    }
+
+    public long getPrepareCacheHits() {
+      return prepareCacheHits;
+    }
+
+    public long getPrepareCacheMisses() {
+      return prepareCacheMisses;
+    }
+
+    public long getPrepareCacheEvictions() {
+      return prepareCacheEvictions;
+    }
+
+    /**
+     * Ratio of prepared commands executed without preparation.
+     *
+     * @return hit ratio between 0 and 1, or 0 if no command has been prepared
+     */
+    public double getPrepareCacheHitRatio() {
+      long total = prepareCacheHits + prepareCacheMisses;
+      return total == 0 ? 0 : (double) prepareCacheHits / total;
+    }
+
+    /**
+     * Command latency, from command submission to end of response.
+     *
+     * @return latency histogram
+     */
+    public LatencyHistogram.Snapshot getLatency() {
+      return latency;
+    }
+
+    /**
+     * Connection creations per second since a previous snapshot.
+     *
+     * @param previous previous snapshot
+     * @return creation rate
+     */
+    public double getConnectionCreateRate(Snapshot previous) {
+      return rate(connectionsCreated - previous.connectionsCreated, previous);
+    }
+
+    /**
+     * Connection closings per second since a previous snapshot.
+     *
+     * @param previous previous snapshot
+     * @return close rate
+     */
+    public double getConnectionCloseRate(Snapshot previous) {
+      return rate(connectionsClosed - previous.connectionsClosed, previous);
+    }
+
+    private double rate(long delta, Snapshot previous) {
+      long elapsed = timestamp - previous.timestamp;
+      return elapsed <= 0 ? 0 : delta * 1_000_000_000d / elapsed;
+    }
+
+    @Override
+    public String toString() {
+      return "Metrics{openConnections="
+          + getOpenConnections()
+          + ", inFlightCommands="
+          + getInFlightCommands()
+          + ", queuedCommands="
+          + getQueuedCommands()
+          + ", packetsSent="
+          + packetsSent
+          + ", bytesSent="
+          + bytesSent
+          + ", packetsReceived="
+          + packetsReceived
+          + ", bytesReceived="
+          + bytesReceived
+          + ", prepareCacheHitRatio="
+          + getPrepareCacheHitRatio()
+          + ", prepareCacheEvictions="
+          + prepareCacheEvictions
+          + ", latency="
+          + latency
+          + '}';
+    }
+  }
+}
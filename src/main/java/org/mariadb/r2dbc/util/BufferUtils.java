@@ -21,6 +21,7 @@ import java.nio.charset.StandardCharsets;
 import java.time.format.DateTimeFormatter;
 import org.mariadb.r2dbc.client.Context;
 import org.mariadb.r2dbc.util.constants.ServerStatus;
+import reactor.core.publisher.Flux;
 
 public class BufferUtils {
 
@@ -33,6 +34,26 @@ public class BufferUtils {
   private static final DateTimeFormatter TIMESTAMP_FORMAT_NO_FRACTIONAL =
       DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
+  /**
+   * Split buffer in slices of at most maxChunkSize bytes, created on request. Buffer is released
+   * when all slices have been emitted.
+   *
+   * @param buf buffer
+   * @param maxChunkSize maximum slice size
+   * @return retained slices
+   */
+  public static Flux<ByteBuf> split(ByteBuf buf, int maxChunkSize) {
+    return Flux.<ByteBuf>generate(
+            sink -> {
+              if (buf.isReadable()) {
+                sink.next(buf.readRetainedSlice(Math.min(maxChunkSize, buf.readableBytes())));
+              } else {
+                sink.complete();
+              }
+            })
+        .doFinally(s -> buf.release());
+  }
+
   public static void skipLengthEncode(ByteBuf buf) {
     short type = buf.readUnsignedByte();
     switch (type) {
@@ -102,14 +123,7 @@ public class BufferUtils {
     }
 
     buf.writeByte((byte) 0xfe);
-    buf.writeByte((byte) length);
-    buf.writeByte((byte) (length >>> 8));
-    buf.writeByte((byte) (length >>> 16));
-    buf.writeByte((byte) (length >>> 24));
-    buf.writeByte((byte) (length >>> 32));
-    buf.writeByte((byte) (length >>> 40));
-    buf.writeByte((byte) (length >>> 48));
-    buf.writeByte((byte) (length >>> 54));
+    buf.writeLongLE(length);
   }
 
   public static void writeLengthEncode(String val, ByteBuf buf) {
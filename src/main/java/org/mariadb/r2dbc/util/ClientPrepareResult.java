@@ -26,10 +26,12 @@ public class ClientPrepareResult implements PrepareResult {
   private final List<String> paramNameList;
   private final boolean rewriteType;
   private final int paramCount;
-  private boolean isQueryMultiValuesRewritable;
-  private boolean isQueryMultipleRewritable;
-  private boolean isReturning;
-  private boolean supportAddingReturning;
+  private final boolean isQueryMultiValuesRewritable;
+  private final boolean isQueryMultipleRewritable;
+  private final boolean isReturning;
+  private final boolean supportAddingReturning;
+  private final int valuesTupleStart;
+  private final int valuesTupleEnd;
 
   private ClientPrepareResult(
       List<byte[]> queryParts,
@@ -38,7 +40,9 @@ public class ClientPrepareResult implements PrepareResult {
       boolean isQueryMultipleRewritable,
       boolean rewriteType,
       boolean isReturning,
-      boolean supportAddingReturning) {
+      boolean supportAddingReturning,
+      int valuesTupleStart,
+      int valuesTupleEnd) {
     this.queryParts = queryParts;
     this.paramNameList = paramNameList;
     this.isQueryMultiValuesRewritable = isQueryMultiValuesRewritable;
@@ -47,12 +51,19 @@ public class ClientPrepareResult implements PrepareResult {
     this.rewriteType = rewriteType;
     this.isReturning = isReturning;
     this.supportAddingReturning = supportAddingReturning;
+    this.valuesTupleStart = valuesTupleStart;
+    this.valuesTupleEnd = valuesTupleEnd;
   }
 
   /**
    * Separate query in a String list and set flag isQueryMultipleRewritable. The resulting string
    * list is separated by ? or :name that are not in comments.
    *
+   * <p>Query is multi-values rewritable when it is an INSERT/REPLACE with a single VALUES tuple
+   * containing all parameters, like {@code INSERT INTO t(a,b) VALUES (?, ?) ON DUPLICATE KEY UPDATE
+   * b=VALUES(b)}: tuple can then be repeated for each parameter set. Parentheses of ON DUPLICATE
+   * KEY UPDATE clause are not considered as tuples.
+   *
    * @param queryString query
    * @param noBackslashEscapes escape mode
    * @return ClientPrepareResult
@@ -71,6 +82,14 @@ public class ClientPrepareResult implements PrepareResult {
     boolean singleQuotes = false;
     int lastParameterPosition = 0;
 
+    // multi-values rewrite detection
+    int parenthesisDepth = 0;
+    boolean valuesKeyword = false;
+    int valuesTupleStart = -1;
+    int valuesTupleEnd = -1;
+    boolean valuesRewritable = true;
+    boolean duplicateKeyUpdate = false;
+
     char[] query = queryString.toCharArray();
     int queryLength = query.length;
     for (int i = 0; i < queryLength; i++) {
@@ -151,10 +170,68 @@ public class ClientPrepareResult implements PrepareResult {
           if (state == LexState.Normal) {
             endingSemicolon = true;
             multipleQueriesPrepare = false;
+            valuesRewritable = false;
+          }
+          break;
+
+        case '(':
+          if (state == LexState.Normal) {
+            if (parenthesisDepth == 0 && valuesKeyword && !duplicateKeyUpdate) {
+              if (valuesTupleStart == -1) {
+                valuesTupleStart = i;
+              } else {
+                // query already has multiple tuples
+                valuesRewritable = false;
+              }
+            }
+            parenthesisDepth++;
+            if (endingSemicolon) {
+              endingSemicolon = false;
+              multipleQueriesPrepare = true;
+            }
+          }
+          break;
+
+        case ')':
+          if (state == LexState.Normal) {
+            parenthesisDepth--;
+            if (parenthesisDepth == 0 && valuesTupleStart != -1 && valuesTupleEnd == -1) {
+              valuesTupleEnd = i + 1;
+            }
+            if (endingSemicolon) {
+              endingSemicolon = false;
+              multipleQueriesPrepare = true;
+            }
+          }
+          break;
+
+        case 'v':
+        case 'V':
+          if (state == LexState.Normal
+              && !valuesKeyword
+              && parenthesisDepth == 0
+              && queryLength > i + 5
+              && (query[i + 1] == 'a' || query[i + 1] == 'A')
+              && (query[i + 2] == 'l' || query[i + 2] == 'L')
+              && (query[i + 3] == 'u' || query[i + 3] == 'U')
+              && (query[i + 4] == 'e' || query[i + 4] == 'E')
+              && (i == 0 || query[i - 1] <= ' ' || query[i - 1] == ')')) {
+            int end = (query[i + 5] == 's' || query[i + 5] == 'S') ? i + 6 : i + 5;
+            if (end == queryLength || query[end] <= ' ' || query[end] == '(') {
+              valuesKeyword = true;
+              i = end - 1;
+              car = query[i];
+            }
+          }
+          if (endingSemicolon && state == LexState.Normal) {
+            endingSemicolon = false;
+            multipleQueriesPrepare = true;
           }
           break;
+
         case '?':
           if (state == LexState.Normal) {
+            if (valuesTupleStart == -1 || valuesTupleEnd != -1) valuesRewritable = false;
             partList.add(
                 queryString.substring(lastParameterPosition, i).getBytes(StandardCharsets.UTF_8));
             lastParameterPosition = i + 1;
@@ -164,6 +241,7 @@ public class ClientPrepareResult implements PrepareResult {
 
         case ':':
           if (state == LexState.Normal) {
+            if (valuesTupleStart == -1 || valuesTupleEnd != -1) valuesRewritable = false;
             partList.add(
                 queryString.substring(lastParameterPosition, i).getBytes(StandardCharsets.UTF_8));
             String placeholderName = "";
@@ -257,6 +335,8 @@ public class ClientPrepareResult implements PrepareResult {
             }
 
             supportAddingReturning = true;
+            // ON DUPLICATE KEY UPDATE clause following VALUES tuple
+            if (valuesTupleEnd != -1) duplicateKeyUpdate = true;
             i += 6;
           }
           break;
@@ -314,6 +394,27 @@ public class ClientPrepareResult implements PrepareResult {
               .getBytes(StandardCharsets.UTF_8));
     }
 
+    int tupleStartOffset = -1;
+    int tupleEndOffset = -1;
+    String command = queryString.trim();
+    if (valuesRewritable
+        && !paramNameList.isEmpty()
+        && valuesTupleEnd != -1
+        && !returning
+        && command.length() > 7
+        && (command.substring(0, 6).equalsIgnoreCase("INSERT")
+            || command.substring(0, 7).equalsIgnoreCase("REPLACE"))) {
+      reWritablePrepare = true;
+      // offsets in bytes of VALUES tuple, in first and last query parts
+      tupleStartOffset =
+          queryString.substring(0, valuesTupleStart).getBytes(StandardCharsets.UTF_8).length;
+      tupleEndOffset =
+          queryString
+              .substring(lastParameterPosition, valuesTupleEnd)
+              .getBytes(StandardCharsets.UTF_8)
+              .length;
+    }
+
     return new ClientPrepareResult(
         partList,
         paramNameList,
@@ -321,7 +422,9 @@ public class ClientPrepareResult implements PrepareResult {
         multipleQueriesPrepare,
         false,
         returning,
-        supportAddingReturning);
+        supportAddingReturning,
+        tupleStartOffset,
+        tupleEndOffset);
   }
 
   /**
@@ -443,6 +546,130 @@ public class ClientPrepareResult implements PrepareResult {
     return false;
   }
 
+  /**
+   * Check if SQL contains a {@code LOAD DATA [LOW_PRIORITY | CONCURRENT] LOCAL} command. Keywords
+   * may be separated by comments, and are ignored inside strings, identifiers and comments.
+   *
+   * @param queryString query
+   * @param noBackslashEscapes escape mode
+   * @return true if query contains LOAD DATA LOCAL keywords
+   */
+  public static boolean isLoadDataLocal(String queryString, boolean noBackslashEscapes) {
+
+    LexState state = LexState.Normal;
+    char lastChar = '\0';
+    boolean singleQuotes = false;
+    // number of LOAD DATA LOCAL keywords found in sequence
+    int keywords = 0;
+    int wordStart = -1;
+
+    char[] query = queryString.toCharArray();
+    int queryLength = query.length;
+    for (int i = 0; i <= queryLength; i++) {
+      char car = i < queryLength ? query[i] : ' ';
+      if (state == LexState.Escape) {
+        state = LexState.String;
+        lastChar = car;
+        continue;
+      }
+      boolean wasNormal = state == LexState.Normal;
+      switch (car) {
+        case '*':
+          if (state == LexState.Normal && lastChar == '/') {
+            state = LexState.SlashStarComment;
+          }
+          break;
+
+        case '/':
+          if (state == LexState.SlashStarComment && lastChar == '*') {
+            state = LexState.Normal;
+            // comment end must not start a new comment
+            car = ' ';
+          } else if (state == LexState.Normal && lastChar == '/') {
+            state = LexState.EOLComment;
+          }
+          break;
+
+        case '#':
+          if (state == LexState.Normal) {
+            state = LexState.EOLComment;
+          }
+          break;
+
+        case '-':
+          if (state == LexState.Normal && lastChar == '-') {
+            state = LexState.EOLComment;
+          }
+          break;
+
+        case '\n':
+          if (state == LexState.EOLComment) {
+            state = LexState.Normal;
+          }
+          break;
+
+        case '"':
+          if (state == LexState.Normal) {
+            state = LexState.String;
+            singleQuotes = false;
+          } else if (state == LexState.String && !singleQuotes) {
+            state = LexState.Normal;
+          }
+          break;
+
+        case '\'':
+          if (state == LexState.Normal) {
+            state = LexState.String;
+            singleQuotes = true;
+          } else if (state == LexState.String && singleQuotes) {
+            state = LexState.Normal;
+          }
+          break;
+
+        case '\\':
+          if (!noBackslashEscapes && state == LexState.String) {
+            state = LexState.Escape;
+          }
+          break;
+
+        case '`':
+          if (state == LexState.Backtick) {
+            state = LexState.Normal;
+          } else if (state == LexState.Normal) {
+            state = LexState.Backtick;
+          }
+          break;
+      }
+      lastChar = car;
+
+      if (wasNormal
+          && state == LexState.Normal
+          && (Character.isLetterOrDigit(car) || car == '_' || car == '$')) {
+        if (wordStart == -1) wordStart = i;
+      } else if (wordStart != -1) {
+        // word is ended by any other character, comments included
+        int length = i - wordStart;
+        if (isWord(queryString, wordStart, length, "LOAD")) {
+          keywords = 1;
+        } else if (keywords == 1 && isWord(queryString, wordStart, length, "DATA")) {
+          keywords = 2;
+        } else if (keywords == 2 && isWord(queryString, wordStart, length, "LOCAL")) {
+          return true;
+        } else if (keywords != 2
+            || !(isWord(queryString, wordStart, length, "LOW_PRIORITY")
+                || isWord(queryString, wordStart, length, "CONCURRENT"))) {
+          keywords = 0;
+        }
+        wordStart = -1;
+      }
+    }
+    return false;
+  }
+
+  private static boolean isWord(String query, int offset, int length, String keyword) {
+    return length == keyword.length() && query.regionMatches(true, offset, keyword, 0, length);
+  }
+
   public List<byte[]> getQueryParts() {
     return queryParts;
   }
@@ -459,6 +686,24 @@ public class ClientPrepareResult implements PrepareResult {
     return isQueryMultipleRewritable;
   }
 
+  /**
+   * Byte offset of VALUES tuple opening parenthesis in first query part.
+   *
+   * @return tuple start offset, or -1 if query is not multi-values rewritable
+   */
+  public int getValuesTupleStart() {
+    return valuesTupleStart;
+  }
+
+  /**
+   * Byte offset following VALUES tuple closing parenthesis in last query part.
+   *
+   * @return tuple end offset, or -1 if query is not multi-values rewritable
+   */
+  public int getValuesTupleEnd() {
+    return valuesTupleEnd;
+  }
+
   public boolean isRewriteType() {
     return rewriteType;
   }
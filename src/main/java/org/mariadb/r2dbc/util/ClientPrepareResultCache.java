@@ -0,0 +1,153 @@
+/*
+ * Copyright 2020 MariaDB Ab.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mariadb.r2dbc.util;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache of client query parsing results, shared by all connections of a connection factory. {@link
+ * ClientPrepareResult} being immutable, the same result can be used by many statements
+ * concurrently. Results depend on NO_BACKSLASH_ESCAPES mode, so each mode has its own cache, both
+ * bounded to maxSize.
+ *
+ * <p>Lookups are lock-free. When cache is full, insertion evicts the least recently used query
+ * among a sample of cached entries, cached entries being sampled in turn: eviction is an
+ * approximate LRU.
+ */
+public final class ClientPrepareResultCache {
+
+  private static final int EVICTION_SAMPLE = 8;
+
+  private final int maxSize;
+  private final Region cache;
+  private final Region noBackslashEscapesCache;
+  private final AtomicLong clock = new AtomicLong();
+  private final LongAdder hitCount = new LongAdder();
+  private final LongAdder missCount = new LongAdder();
+
+  /**
+   * Create cache.
+   *
+   * @param maxSize maximum number of results kept for each NO_BACKSLASH_ESCAPES mode. 0 disables
+   *     caching.
+   */
+  public ClientPrepareResultCache(int maxSize) {
+    this.maxSize = Math.max(maxSize, 0);
+    this.cache = new Region(this.maxSize);
+    this.noBackslashEscapesCache = new Region(this.maxSize);
+  }
+
+  /**
+   * Get parsing result of query, parsing it if not already cached.
+   *
+   * @param sql query
+   * @param noBackslashEscapes must backslash be considered as an escape character
+   * @return parsing result
+   */
+  public ClientPrepareResult get(String sql, boolean noBackslashEscapes) {
+    if (maxSize == 0) {
+      missCount.increment();
+      return ClientPrepareResult.parameterParts(sql, noBackslashEscapes);
+    }
+
+    Region region = noBackslashEscapes ? noBackslashEscapesCache : cache;
+    Node node = region.map.get(sql);
+    if (node != null) {
+      node.lastAccess = clock.incrementAndGet();
+      hitCount.increment();
+      return node.result;
+    }
+
+    // Concurrent parsing of the same query gives equivalent results
+    missCount.increment();
+    ClientPrepareResult result = ClientPrepareResult.parameterParts(sql, noBackslashEscapes);
+    if (region.map.putIfAbsent(sql, new Node(result, clock.incrementAndGet())) == null
+        && region.map.size() > maxSize) {
+      region.evict(maxSize);
+    }
+    return result;
+  }
+
+  public long getHitCount() {
+    return hitCount.sum();
+  }
+
+  public long getMissCount() {
+    return missCount.sum();
+  }
+
+  public int size() {
+    return cache.map.size() + noBackslashEscapesCache.map.size();
+  }
+
+  @Override
+  public String toString() {
+    return "ClientPrepareResultCache{maxSize="
+        + maxSize
+        + ", hitCount="
+        + getHitCount()
+        + ", missCount="
+        + getMissCount()
+        + '}';
+  }
+
+  private static final class Node {
+    private final ClientPrepareResult result;
+    private volatile long lastAccess;
+
+    Node(ClientPrepareResult result, long lastAccess) {
+      this.result = result;
+      this.lastAccess = lastAccess;
+    }
+  }
+
+  private static final class Region {
+    private final ConcurrentHashMap<String, Node> map;
+    // sampling position, continued by each eviction. Guarded by this region.
+    private Iterator<Map.Entry<String, Node>> sampling;
+
+    Region(int maxSize) {
+      this.map = new ConcurrentHashMap<>(Math.max(16, maxSize * 4 / 3 + 1));
+    }
+
+    /**
+     * Evict least recently used entries of samples, until size is back to maxSize.
+     *
+     * @param maxSize maximum size
+     */
+    synchronized void evict(int maxSize) {
+      while (map.size() > maxSize) {
+        Map.Entry<String, Node> victim = null;
+        for (int i = 0; i < EVICTION_SAMPLE; i++) {
+          if (sampling == null || !sampling.hasNext()) {
+            sampling = map.entrySet().iterator();
+            if (!sampling.hasNext()) return;
+          }
+          Map.Entry<String, Node> entry = sampling.next();
+          if (victim == null || entry.getValue().lastAccess < victim.getValue().lastAccess) {
+            victim = entry;
+          }
+        }
+        map.remove(victim.getKey(), victim.getValue());
+      }
+    }
+  }
+}
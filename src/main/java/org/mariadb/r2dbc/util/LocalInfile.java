@@ -0,0 +1,252 @@
+/*
+ * Copyright 2020 MariaDB Ab.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mariadb.r2dbc.util;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import io.r2dbc.spi.R2dbcNonTransientResourceException;
+import io.r2dbc.spi.R2dbcPermissionDeniedException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/** Sources of {@code LOAD DATA LOCAL INFILE} content, and packet sizing of this content. */
+public final class LocalInfile {
+
+  private static final byte[] NULL_VALUE = "\\N".getBytes(StandardCharsets.US_ASCII);
+
+  private LocalInfile() {}
+
+  /**
+   * Read a file requested by server. File must be in one of the allowed directories, symbolic links
+   * being resolved, so a malicious server cannot read any other file.
+   *
+   * @param fileName file name requested by server
+   * @param allowedDirectories allowed directories
+   * @param chunkSize maximum size of read buffers
+   * @param allocator buffer allocator
+   * @return file content
+   */
+  public static Flux<ByteBuf> readFile(
+      String fileName, List<String> allowedDirectories, int chunkSize, ByteBufAllocator allocator) {
+    return Flux.defer(
+            () -> {
+              Path path = resolve(fileName, allowedDirectories);
+              return Flux.using(
+                  () -> FileChannel.open(path, StandardOpenOption.READ),
+                  channel ->
+                      Flux.<ByteBuf>generate(
+                          sink -> {
+                            ByteBuf buf = allocator.ioBuffer(chunkSize, chunkSize);
+                            try {
+                              if (buf.writeBytes(channel, chunkSize) < 0) {
+                                buf.release();
+                                sink.complete();
+                              } else {
+                                sink.next(buf);
+                              }
+                            } catch (IOException e) {
+                              buf.release();
+                              sink.error(
+                                  new R2dbcNonTransientResourceException(
+                                      String.format("Error reading file '%s'", fileName), e));
+                            }
+                          }),
+                  channel -> {
+                    try {
+                      channel.close();
+                    } catch (IOException e) {
+                      // eat
+                    }
+                  });
+            })
+        .subscribeOn(Schedulers.boundedElastic());
+  }
+
+  private static Path resolve(String fileName, List<String> allowedDirectories) {
+    if (!allowedDirectories.isEmpty()) {
+      try {
+        Path path = Paths.get(fileName).toRealPath();
+        for (String directory : allowedDirectories) {
+          if (path.startsWith(Paths.get(directory).toRealPath())) return path;
+        }
+      } catch (IOException | RuntimeException e) {
+        // file or directory doesn't exist: refused like any other file
+      }
+    }
+    throw new R2dbcPermissionDeniedException(
+        String.format(
+            "LOAD DATA LOCAL INFILE request for file '%s' refused: file is not in"
+                + " localInfileDirectories %s",
+            fileName, allowedDirectories));
+  }
+
+  /**
+   * Regroup data in buffers of {@code maxSize} bytes, last one being smaller, so many small source
+   * buffers don't each result in a packet, and big ones are split.
+   *
+   * @param data data, buffers being released once consumed
+   * @param maxSize buffer size
+   * @param allocator buffer allocator
+   * @return data buffers
+   */
+  public static Flux<ByteBuf> packets(
+      Publisher<ByteBuf> data, int maxSize, ByteBufAllocator allocator) {
+    return Flux.defer(
+        () -> {
+          Aggregator aggregator = new Aggregator(maxSize, allocator);
+          return Flux.from(data)
+              .concatMapIterable(aggregator::add, 1)
+              .concatWith(Mono.fromSupplier(aggregator::flush))
+              .doFinally(s -> aggregator.release());
+        });
+  }
+
+  /**
+   * Serialize rows in the default {@code LOAD DATA} format: fields terminated by tab, lines
+   * terminated by new line, special characters escaped by backslash and null as {@code \N}.
+   *
+   * @param rows rows
+   * @return one buffer by row
+   */
+  public static Flux<ByteBuf> encodeRows(Publisher<Object[]> rows) {
+    return Flux.from(rows).map(LocalInfile::encodeRow);
+  }
+
+  private static ByteBuf encodeRow(Object[] row) {
+    ByteBuf buf = Unpooled.buffer();
+    for (int i = 0; i < row.length; i++) {
+      if (i > 0) buf.writeByte('\t');
+      Object value = row[i];
+      if (value == null) {
+        buf.writeBytes(NULL_VALUE);
+      } else if (value instanceof byte[]) {
+        for (byte b : (byte[]) value) writeEscaped(buf, b);
+      } else if (value instanceof ByteBuffer) {
+        ByteBuffer bb = ((ByteBuffer) value).duplicate();
+        while (bb.hasRemaining()) writeEscaped(buf, bb.get());
+      } else if (value instanceof Boolean) {
+        buf.writeByte((Boolean) value ? '1' : '0');
+      } else {
+        writeEscaped(buf, value.toString());
+      }
+    }
+    buf.writeByte('\n');
+    return buf;
+  }
+
+  private static void writeEscaped(ByteBuf buf, byte b) {
+    char escaped = escape((char) b);
+    if (escaped == 0) {
+      buf.writeByte(b);
+    } else {
+      buf.writeByte('\\');
+      buf.writeByte(escaped);
+    }
+  }
+
+  private static void writeEscaped(ByteBuf buf, String value) {
+    int start = 0;
+    for (int i = 0; i < value.length(); i++) {
+      char escaped = escape(value.charAt(i));
+      if (escaped != 0) {
+        buf.writeCharSequence(value.subSequence(start, i), StandardCharsets.UTF_8);
+        buf.writeByte('\\');
+        buf.writeByte(escaped);
+        start = i + 1;
+      }
+    }
+    buf.writeCharSequence(value.subSequence(start, value.length()), StandardCharsets.UTF_8);
+  }
+
+  private static char escape(char c) {
+    switch (c) {
+      case '\\':
+        return '\\';
+      case '\t':
+        return 't';
+      case '\n':
+        return 'n';
+      case '\r':
+        return 'r';
+      case '\0':
+        return '0';
+      default:
+        return 0;
+    }
+  }
+
+  private static final class Aggregator {
+    private final int maxSize;
+    private final ByteBufAllocator allocator;
+    private ByteBuf pending;
+
+    Aggregator(int maxSize, ByteBufAllocator allocator) {
+      this.maxSize = maxSize;
+      this.allocator = allocator;
+    }
+
+    List<ByteBuf> add(ByteBuf buf) {
+      List<ByteBuf> full = Collections.emptyList();
+      try {
+        while (buf.isReadable()) {
+          ByteBuf packet;
+          if (pending == null && buf.readableBytes() >= maxSize) {
+            packet = buf.readRetainedSlice(maxSize);
+          } else {
+            if (pending == null) pending = allocator.ioBuffer(buf.readableBytes(), maxSize);
+            pending.writeBytes(
+                buf, Math.min(buf.readableBytes(), maxSize - pending.readableBytes()));
+            if (pending.readableBytes() < maxSize) continue;
+            packet = pending;
+            pending = null;
+          }
+          if (full.isEmpty()) full = new ArrayList<>(2);
+          full.add(packet);
+        }
+        return full;
+      } finally {
+        buf.release();
+      }
+    }
+
+    ByteBuf flush() {
+      ByteBuf last = pending;
+      pending = null;
+      return last;
+    }
+
+    void release() {
+      if (pending != null) {
+        pending.release();
+        pending = null;
+      }
+    }
+  }
+}
@@ -16,44 +16,274 @@
 
 package org.mariadb.r2dbc.util;
 
-import java.util.LinkedHashMap;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import org.mariadb.r2dbc.client.Client;
+import org.mariadb.r2dbc.metrics.Metrics;
 
-public class PrepareCache extends LinkedHashMap<String, ServerPrepareResult> {
+/**
+ * Cache of server prepared statements of a connection.
+ *
+ * <p>Lookups are lock-free and don't modify cache structure, permitting statements to be executed
+ * from any thread. Insertions, that only occur after a prepare response, are serialized.
+ *
+ * <p>When cache is full, a new statement is admitted only if it has been used more often than the
+ * least frequently used statement among a sample of cached statements (least recently used one for
+ * equal frequencies), which is then evicted. Cached statements are sampled in turn, so insertion
+ * cost doesn't depend on cache size. Usage frequencies are estimated with a count-min sketch,
+ * periodically halved to follow workload changes. A statement executed once then won't evict
+ * frequently used ones.
+ *
+ * <p>Evicted or rejected statements are closed when their last user releases them.
+ */
+public class PrepareCache {
+
+  private static final int EVICTION_SAMPLE = 8;
 
-  private static final long serialVersionUID = -8922905563713952695L;
   private final int maxSize;
   private final Client client;
+  private final Metrics metrics;
+  private final ConcurrentHashMap<String, Node> map;
+  private final FrequencySketch sketch;
+  private final AtomicLong clock = new AtomicLong();
+  private final LongAdder hitCount = new LongAdder();
+  private final LongAdder missCount = new LongAdder();
+  private final LongAdder evictionCount = new LongAdder();
+  private final LongAdder rejectionCount = new LongAdder();
+  // sampling position, continued by each eviction. Guarded by this cache.
+  private Iterator<Map.Entry<String, Node>> sampling;
 
   public PrepareCache(int size, Client client) {
-    super(size, .75f, true);
-    this.maxSize = size;
+    this(size, client, Metrics.NONE);
+  }
+
+  public PrepareCache(int size, Client client, Metrics metrics) {
+    this.maxSize = Math.max(size, 0);
     this.client = client;
+    this.metrics = metrics;
+    this.map = new ConcurrentHashMap<>(Math.max(16, this.maxSize * 4 / 3 + 1));
+    this.sketch = new FrequencySketch(this.maxSize);
   }
 
-  @Override
-  public boolean removeEldestEntry(Map.Entry<String, ServerPrepareResult> eldest) {
-    if (this.size() > maxSize) {
-      eldest.getValue().unCache(client);
-      return true;
+  /**
+   * Get cached prepared statement. This doesn't count as statement usage, see {@link
+   * #recordHit(String)}.
+   *
+   * @param sql sql command
+   * @return cached prepared statement, null if not cached
+   */
+  public ServerPrepareResult get(String sql) {
+    Node node = map.get(sql);
+    return node == null ? null : node.result;
+  }
+
+  /**
+   * Record execution of a command using an already prepared statement.
+   *
+   * @param sql sql command
+   */
+  public void recordHit(String sql) {
+    hitCount.increment();
+    metrics.prepareCacheHit();
+    sketch.increment(sql);
+    Node node = map.get(sql);
+    if (node != null) {
+      node.lastAccess = clock.incrementAndGet();
     }
-    return false;
   }
 
+  /**
+   * Cache a new prepare result.
+   *
+   * @param key sql command
+   * @param result prepare result
+   * @return already cached prepare result, with its use count incremented, or null if there was
+   *     none
+   */
   public synchronized ServerPrepareResult put(String key, ServerPrepareResult result) {
-    ServerPrepareResult cached = super.get(key);
+    // a new prepare result means command has been prepared
+    missCount.increment();
+    metrics.prepareCacheMiss();
+    sketch.increment(key);
 
     // if there is already some cached data, return existing cached data
-    if (cached != null) {
-      cached.incrementUse();
+    Node existing = map.get(key);
+    if (existing != null && existing.result.incrementUse()) {
+      existing.lastAccess = clock.incrementAndGet();
       result.unCache(client);
-      return cached;
+      return existing.result;
+    }
+
+    if (existing == null && map.size() >= maxSize && !evictFor(key)) {
+      rejectionCount.increment();
+      return null;
     }
 
     if (result.cache()) {
-      super.put(key, result);
+      map.put(key, new Node(result, clock.incrementAndGet()));
     }
     return null;
   }
+
+  /**
+   * Evict least frequently used statement of a sample if candidate is more frequently used.
+   *
+   * @param key candidate sql command
+   * @return true if a statement has been evicted
+   */
+  private boolean evictFor(String key) {
+    Map.Entry<String, Node> victim = null;
+    int victimFrequency = Integer.MAX_VALUE;
+    for (int i = 0; i < EVICTION_SAMPLE; i++) {
+      if (sampling == null || !sampling.hasNext()) {
+        sampling = map.entrySet().iterator();
+        if (!sampling.hasNext()) break;
+      }
+      Map.Entry<String, Node> entry = sampling.next();
+      int frequency = sketch.frequency(entry.getKey());
+      if (frequency < victimFrequency
+          || (frequency == victimFrequency
+              && entry.getValue().lastAccess < victim.getValue().lastAccess)) {
+        victim = entry;
+        victimFrequency = frequency;
+      }
+    }
+    if (victim == null || sketch.frequency(key) <= victimFrequency) {
+      return false;
+    }
+    map.remove(victim.getKey(), victim.getValue());
+    evictionCount.increment();
+    metrics.prepareCacheEviction();
+    victim.getValue().result.unCache(client);
+    return true;
+  }
+
+  /** Server has deallocated all prepared statements (connection reset): discard cached entries. */
+  public synchronized void reset() {
+    Iterator<Node> iterator = map.values().iterator();
+    while (iterator.hasNext()) {
+      iterator.next().result.reset();
+      iterator.remove();
+    }
+    sampling = null;
+  }
+
+  public int size() {
+    return map.size();
+  }
+
+  public long getHitCount() {
+    return hitCount.sum();
+  }
+
+  public long getMissCount() {
+    return missCount.sum();
+  }
+
+  public long getEvictionCount() {
+    return evictionCount.sum();
+  }
+
+  /**
+   * Number of prepared statements not cached, because cache was full of more frequently used
+   * statements.
+   *
+   * @return rejection count
+   */
+  public long getRejectionCount() {
+    return rejectionCount.sum();
+  }
+
+  @Override
+  public String toString() {
+    return "PrepareCache{maxSize="
+        + maxSize
+        + ", size="
+        + size()
+        + ", hitCount="
+        + getHitCount()
+        + ", missCount="
+        + getMissCount()
+        + ", evictionCount="
+        + getEvictionCount()
+        + ", rejectionCount="
+        + getRejectionCount()
+        + '}';
+  }
+
+  private static final class Node {
+    private final ServerPrepareResult result;
+    private volatile long lastAccess;
+
+    Node(ServerPrepareResult result, long lastAccess) {
+      this.result = result;
+      this.lastAccess = lastAccess;
+    }
+  }
+
+  /**
+   * Count-min sketch of 4 rows of saturating counters, estimating how often each sql command has
+   * been used. All counters are halved each time 10 * cache size usages have been recorded.
+   */
+  private static final class FrequencySketch {
+    private static final int MAX_COUNT = 15;
+    private static final long[] SEEDS = {
+      0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+    };
+
+    private final AtomicIntegerArray table;
+    private final int mask;
+    private final int sampleSize;
+    private final AtomicLong additions = new AtomicLong();
+
+    FrequencySketch(int maxSize) {
+      int size = Integer.highestOneBit(Math.max(16, maxSize) * 8 - 1) << 1;
+      this.table = new AtomicIntegerArray(size);
+      this.mask = size - 1;
+      this.sampleSize = 10 * Math.max(16, maxSize);
+    }
+
+    private int indexOf(int hash, int row) {
+      long h = (hash + SEEDS[row]) * SEEDS[row];
+      h += h >>> 32;
+      return (int) h & mask;
+    }
+
+    void increment(String key) {
+      int hash = key.hashCode();
+      for (int row = 0; row < SEEDS.length; row++) {
+        int index = indexOf(hash, row);
+        int count;
+        do {
+          count = table.get(index);
+        } while (count < MAX_COUNT && !table.compareAndSet(index, count, count + 1));
+      }
+      if (additions.incrementAndGet() == sampleSize) {
+        age();
+      }
+    }
+
+    int frequency(String key) {
+      int hash = key.hashCode();
+      int frequency = MAX_COUNT;
+      for (int row = 0; row < SEEDS.length; row++) {
+        frequency = Math.min(frequency, table.get(indexOf(hash, row)));
+      }
+      return frequency;
+    }
+
+    private void age() {
+      for (int i = 0; i < table.length(); i++) {
+        int count;
+        do {
+          count = table.get(i);
+        } while (!table.compareAndSet(i, count, count >>> 1));
+      }
+      additions.addAndGet(-sampleSize / 2);
+    }
+  }
 }
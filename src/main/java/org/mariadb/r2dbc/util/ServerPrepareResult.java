@@ -16,22 +16,31 @@
 
 package org.mariadb.r2dbc.util;
 
+import io.r2dbc.spi.RowMetadata;
 import java.util.Objects;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import org.mariadb.r2dbc.client.Client;
 import org.mariadb.r2dbc.message.client.ClosePreparePacket;
+import org.mariadb.r2dbc.message.server.ColumnDefinitionPacket;
 
 public class ServerPrepareResult {
 
+  // use count offset when statement is closing. Remaining users can still decrement use count,
+  // which stays negative.
+  private static final int CLOSED = Integer.MIN_VALUE / 2;
+
   private final int statementId;
   private final int numColumns;
   private final int numParams;
 
-  private final AtomicBoolean closing = new AtomicBoolean();
+  // number of users of this statement, CLOSED offset added when closing
   private final AtomicInteger use = new AtomicInteger(1);
   private final AtomicBoolean cached = new AtomicBoolean(false);
 
+  private ColumnDefinitionPacket[] columns;
+  private RowMetadata rowMetadata;
+
   public ServerPrepareResult(int statementId, int numColumns, int numParams) {
     this.statementId = statementId;
     this.numColumns = numColumns;
@@ -50,35 +59,95 @@ public class ServerPrepareResult {
     return numParams;
   }
 
+  /**
+   * Result-set columns, as sent in prepare response, or in the last execute response containing
+   * metadata.
+   *
+   * @return columns, null if unknown
+   */
+  public synchronized ColumnDefinitionPacket[] getColumns() {
+    return columns;
+  }
+
+  public synchronized void setColumns(ColumnDefinitionPacket[] columns) {
+    this.columns = columns;
+    this.rowMetadata = null;
+  }
+
+  /**
+   * Row metadata built from columns, shared by all results of this prepared statement.
+   *
+   * @param columns columns the row metadata has been built from
+   * @return row metadata, null if not built or if columns have changed since
+   */
+  public synchronized RowMetadata getRowMetadata(ColumnDefinitionPacket[] columns) {
+    return this.columns == columns ? rowMetadata : null;
+  }
+
+  public synchronized void setRowMetadata(
+      ColumnDefinitionPacket[] columns, RowMetadata rowMetadata) {
+    if (this.columns == columns) {
+      this.rowMetadata = rowMetadata;
+    }
+  }
+
+  /**
+   * Close statement if not cached and not used anymore. Close command is sent only once.
+   *
+   * @param client client
+   */
   public void close(Client client) {
-    if (!cached.get() && closing.compareAndSet(false, true)) {
+    if (!cached.get() && use.compareAndSet(0, CLOSED)) {
       client.sendCommandWithoutResult(new ClosePreparePacket(this.statementId));
     }
   }
 
   public void decrementUse(Client client) {
-    if (use.decrementAndGet() <= 0 && !cached.get()) {
+    if (use.decrementAndGet() == 0 && !cached.get()) {
       close(client);
     }
   }
 
+  /**
+   * Register a new user of this statement.
+   *
+   * @return false if statement is closing and cannot be used anymore
+   */
   public boolean incrementUse() {
-    if (closing.get()) {
-      return false;
-    }
-    use.getAndIncrement();
+    int current;
+    do {
+      current = use.get();
+      if (current < 0) {
+        return false;
+      }
+    } while (!use.compareAndSet(current, current + 1));
     return true;
   }
 
+  /**
+   * Statement has been removed from cache: close it now if not used, or when last user releases it.
+   *
+   * @param client client
+   */
   public void unCache(Client client) {
     cached.set(false);
-    if (use.get() <= 0) {
-      close(client);
-    }
+    close(client);
+  }
+
+  /** Statement has been deallocated by server, without needing any COM_STMT_CLOSE. */
+  public void reset() {
+    int current;
+    do {
+      current = use.get();
+      if (current < 0) {
+        break;
+      }
+    } while (!use.compareAndSet(current, current + CLOSED));
+    cached.set(false);
   }
 
   public boolean cache() {
-    if (closing.get()) {
+    if (use.get() < 0) {
       return false;
     }
     return cached.compareAndSet(false, true);
@@ -86,6 +155,7 @@ public class ServerPrepareResult {
 
   @Override
   public String toString() {
+    int current = use.get();
     return "ServerPrepareResult{"
         + "statementId="
         + statementId
@@ -94,9 +164,9 @@ public class ServerPrepareResult {
         + ", numParams="
         + numParams
         + ", closing="
-        + closing
+        + (current < 0)
         + ", use="
-        + use
+        + (current < 0 ? current - CLOSED : current)
         + ", cached="
         + cached
         + '}';
@@ -52,4 +52,8 @@ public class Capabilities {
       1L << 32; /* Client support progress indicator (since 10.2) */
   public static final long MARIADB_CLIENT_COM_MULTI =
       1L << 33; /* bundle command during connection */
+  public static final long MARIADB_CLIENT_STMT_BULK_OPERATIONS =
+      1L << 34; /* support of array binding (COM_STMT_BULK_EXECUTE) */
+  public static final long MARIADB_CLIENT_CACHE_METADATA =
+      1L << 36; /* prepared statement metadata only sent when changed */
 }
@@ -16,6 +16,7 @@
 
 package org.mariadb.r2dbc.integration;
 
+import io.r2dbc.spi.Clob;
 import java.math.BigInteger;
 import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.jupiter.api.AfterAll;
@@ -25,6 +26,8 @@ import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mariadb.r2dbc.BaseConnectionTest;
+import org.mariadb.r2dbc.MariadbConnectionFactory;
+import org.mariadb.r2dbc.TestConfiguration;
 import org.mariadb.r2dbc.api.MariadbConnection;
 import org.mariadb.r2dbc.api.MariadbConnectionMetadata;
 import org.mariadb.r2dbc.api.MariadbResult;
@@ -66,6 +69,123 @@ public class BigResultSetTest extends BaseConnectionTest {
         .verifyComplete();
   }
 
+  @Test
+  void slowSubscriber() {
+    Assumptions.assumeTrue(Boolean.parseBoolean(System.getProperty("RUN_LONG_TEST", "true")));
+    MariadbConnectionMetadata meta = sharedConn.getMetadata();
+    // sequence table requirement
+    Assumptions.assumeTrue(meta.isMariaDBServer() && minVersion(10, 1, 0));
+
+    // subscriber request by small chunks: socket reading is paused / resumed following demand
+    sharedConn
+        .createStatement("SELECT * FROM seq_1_to_100000")
+        .execute()
+        .flatMap(r -> r.map((row, metadata) -> row.get(0, Long.class)))
+        .limitRate(10)
+        .as(StepVerifier::create)
+        .expectNextCount(100000)
+        .verifyComplete();
+
+    // ensure connection is still usable
+    sharedConn
+        .createStatement("SELECT 1")
+        .execute()
+        .flatMap(r -> r.map((row, metadata) -> row.get(0, Integer.class)))
+        .as(StepVerifier::create)
+        .expectNext(1)
+        .verifyComplete();
+  }
+
+  @Test
+  void fetchSizeCursor() {
+    Assumptions.assumeTrue(Boolean.parseBoolean(System.getProperty("RUN_LONG_TEST", "true")));
+    MariadbConnectionMetadata meta = sharedConn.getMetadata();
+    // sequence table requirement
+    Assumptions.assumeTrue(meta.isMariaDBServer() && minVersion(10, 1, 0));
+
+    // rows are retrieved by chunks of 100 rows using a server cursor
+    sharedConnPrepare
+        .createStatement("SELECT * FROM seq_1_to_10000 WHERE 1 = ?")
+        .bind(0, 1)
+        .fetchSize(100)
+        .execute()
+        .flatMap(r -> r.map((row, metadata) -> row.get(0, Long.class)))
+        .as(StepVerifier::create)
+        .expectNextCount(10000)
+        .verifyComplete();
+
+    // cancelling before end
+    sharedConnPrepare
+        .createStatement("SELECT * FROM seq_1_to_10000 WHERE 1 = ?")
+        .bind(0, 1)
+        .fetchSize(100)
+        .execute()
+        .flatMap(r -> r.map((row, metadata) -> row.get(0, Long.class)))
+        .take(150)
+        .as(StepVerifier::create)
+        .expectNextCount(150)
+        .verifyComplete();
+
+    Assertions.assertThrows(
+        IllegalArgumentException.class,
+        () -> sharedConnPrepare.createStatement("SELECT ?").fetchSize(-1));
+
+    // ensure connection is still usable
+    sharedConnPrepare
+        .createStatement("SELECT ?")
+        .bind(0, 1)
+        .execute()
+        .flatMap(r -> r.map((row, metadata) -> row.get(0, Integer.class)))
+        .as(StepVerifier::create)
+        .expectNext(1)
+        .verifyComplete();
+  }
+
+  @Test
+  void fetchSizeCursorCancelThenReuse() {
+    Assumptions.assumeTrue(Boolean.parseBoolean(System.getProperty("RUN_LONG_TEST", "true")));
+    MariadbConnectionMetadata meta = sharedConn.getMetadata();
+    // sequence table requirement
+    Assumptions.assumeTrue(meta.isMariaDBServer() && minVersion(10, 1, 0));
+    String sql = "SELECT * FROM seq_1_to_1000 WHERE 2 = ?";
+    long initialResets = stmtResetCount();
+
+    sharedConnPrepare
+        .createStatement(sql)
+        .bind(0, 2)
+        .fetchSize(100)
+        .execute()
+        .flatMap(r -> r.map((row, metadata) -> row.get(0, Long.class)))
+        .take(150)
+        .as(StepVerifier::create)
+        .expectNextCount(150)
+        .verifyComplete();
+
+    // cached statement is executed again: a new cursor is read from first row
+    sharedConnPrepare
+        .createStatement(sql)
+        .bind(0, 2)
+        .fetchSize(100)
+        .execute()
+        .flatMap(r -> r.map((row, metadata) -> row.get(0, Long.class)))
+        .as(StepVerifier::create)
+        .expectNext(1L, 2L, 3L)
+        .expectNextCount(997)
+        .verifyComplete();
+
+    // cancelled cursor has been closed using COM_STMT_RESET
+    Assertions.assertEquals(initialResets + 1, stmtResetCount());
+  }
+
+  private long stmtResetCount() {
+    // commands are sent in order: reset of cancelled cursor precedes this query
+    return sharedConnPrepare
+        .createStatement("SHOW SESSION STATUS LIKE 'Com_stmt_reset'")
+        .execute()
+        .flatMap(r -> r.map((row, metadata) -> Long.parseLong(row.get(1, String.class))))
+        .blockLast();
+  }
+
   @Test
   void multipleFluxSubscription() {
     Assumptions.assumeTrue(Boolean.parseBoolean(System.getProperty("RUN_LONG_TEST", "true")));
@@ -106,6 +226,35 @@ public class BigResultSetTest extends BaseConnectionTest {
     multiPacketRow(sharedConnPrepare);
   }
 
+  @Test
+  void multiPacketRowCompression() throws Exception {
+    Assumptions.assumeTrue(
+        checkMaxAllowedPacketMore20m(sharedConn)
+            && Boolean.parseBoolean(System.getProperty("RUN_LONG_TEST", "true")));
+    MariadbConnection connection =
+        new MariadbConnectionFactory(
+                TestConfiguration.defaultBuilder
+                    .clone()
+                    .useCompression(true)
+                    .compressionThreshold(100)
+                    .build())
+            .create()
+            .block();
+    try {
+      multiPacketRow(connection);
+      connection
+          .createStatement("SELECT REPEAT('a', 1000), ?")
+          .bind(0, 1)
+          .execute()
+          .flatMap(r -> r.map((row, metadata) -> row.get(0, String.class).length()))
+          .as(StepVerifier::create)
+          .expectNext(1000)
+          .verifyComplete();
+    } finally {
+      connection.close().block();
+    }
+  }
+
   void multiPacketRow(MariadbConnection connection) {
     final char[] array19m = new char[19000000];
     for (int i = 0; i < array19m.length; i++) {
@@ -136,6 +285,81 @@ public class BigResultSetTest extends BaseConnectionTest {
             .toCharArray());
   }
 
+  @Test
+  void multiPacketRowStreaming() throws Exception {
+    Assumptions.assumeTrue(
+        checkMaxAllowedPacketMore20m(sharedConn)
+            && Boolean.parseBoolean(System.getProperty("RUN_LONG_TEST", "true")));
+    multiPacketRowStreaming(false);
+    multiPacketRowStreaming(true);
+  }
+
+  void multiPacketRowStreaming(boolean useServerPrepStmts) throws Exception {
+    sharedConn.createStatement("TRUNCATE TABLE multiPacketRow").execute().blockLast();
+    MariadbConnection connection =
+        new MariadbConnectionFactory(
+                TestConfiguration.defaultBuilder
+                    .clone()
+                    .useServerPrepStmts(useServerPrepStmts)
+                    .lobChunkSize(64 * 1024)
+                    .build())
+            .create()
+            .block();
+    try {
+      final char[] array19m = new char[19000000];
+      for (int i = 0; i < array19m.length; i++) {
+        array19m[i] = (char) (0x30 + (i % 10));
+      }
+      connection
+          .createStatement("INSERT INTO multiPacketRow VALUES (?, ?)")
+          .bind(0, new String(array19m))
+          .bind(1, 2025)
+          .execute()
+          .blockLast();
+
+      StringBuilder sb = new StringBuilder();
+      AtomicInteger maxChunk = new AtomicInteger();
+      connection
+          .createStatement("SELECT id, val, 'after' FROM multiPacketRow WHERE id > ?")
+          .bind(0, 0)
+          .execute()
+          .flatMap(
+              r ->
+                  r.map(
+                      (row, metadata) -> {
+                        Assertions.assertEquals(2025, row.get(0));
+                        return row.get(1, Clob.class);
+                      }))
+          .concatMap(Clob::stream)
+          .doOnNext(
+              s -> {
+                maxChunk.accumulateAndGet(s.length(), Math::max);
+                sb.append(s);
+              })
+          .blockLast();
+      Assertions.assertArrayEquals(array19m, sb.toString().toCharArray());
+      Assertions.assertTrue(maxChunk.get() <= 64 * 1024);
+
+      // LOB not retrieved is discarded, next command can be executed
+      connection
+          .createStatement("SELECT id, val FROM multiPacketRow")
+          .execute()
+          .flatMap(r -> r.map((row, metadata) -> row.get(0, Integer.class)))
+          .as(StepVerifier::create)
+          .expectNext(2025)
+          .verifyComplete();
+      connection
+          .createStatement("SELECT 1")
+          .execute()
+          .flatMap(r -> r.map((row, metadata) -> row.get(0, Integer.class)))
+          .as(StepVerifier::create)
+          .expectNext(1)
+          .verifyComplete();
+    } finally {
+      connection.close().block();
+    }
+  }
+
   public boolean checkMaxAllowedPacketMore20m(MariadbConnection connection) {
     BigInteger maxAllowedPacket =
         connection
@@ -642,6 +642,33 @@ public class ConnectionTest extends BaseConnectionTest {
     sharedConn.setAutoCommit(true).block();
   }
 
+  @Test
+  void factoryEventLoops() throws Exception {
+    MariadbConnectionConfiguration conf =
+        TestConfiguration.defaultBuilder
+            .clone()
+            .eventLoopThreads(1)
+            .preferNativeTransport(false)
+            .tcpNoDelay(true)
+            .socketReceiveBufferSize(256 * 1024)
+            .adaptiveReadBufferMaxSize(256 * 1024)
+            .build();
+    MariadbConnectionFactory factory = new MariadbConnectionFactory(conf);
+    MariadbConnection connection = factory.create().block();
+    try {
+      connection
+          .createStatement("SELECT 1")
+          .execute()
+          .flatMap(r -> r.map((row, metadata) -> Thread.currentThread().getName()))
+          .as(StepVerifier::create)
+          .expectNextMatches(name -> name.startsWith("mariadb-r2dbc-nio-"))
+          .verifyComplete();
+    } finally {
+      connection.close().block();
+      factory.close().block();
+    }
+  }
+
   @Test
   void toStringTest() {
     Assertions.assertTrue(
@@ -0,0 +1,209 @@
+/*
+ * Copyright 2020 MariaDB Ab.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mariadb.r2dbc.integration;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.r2dbc.spi.R2dbcPermissionDeniedException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mariadb.r2dbc.BaseConnectionTest;
+import org.mariadb.r2dbc.MariadbConnectionConfiguration;
+import org.mariadb.r2dbc.MariadbConnectionFactory;
+import org.mariadb.r2dbc.TestConfiguration;
+import org.mariadb.r2dbc.api.MariadbConnection;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+public class LocalInfileTest extends BaseConnectionTest {
+  @BeforeAll
+  public static void before2() {
+    sharedConn
+        .createStatement("CREATE TABLE localInfile(id int, val VARCHAR(100))")
+        .execute()
+        .blockLast();
+  }
+
+  @AfterAll
+  public static void after2() {
+    sharedConn.createStatement("DROP TABLE localInfile").execute().blockLast();
+  }
+
+  @BeforeEach
+  public void beforeEach() {
+    Assumptions.assumeTrue(
+        sharedConn
+            .createStatement("SELECT @@local_infile")
+            .execute()
+            .flatMap(r -> r.map((row, metadata) -> row.get(0, Boolean.class)))
+            .blockLast());
+    sharedConn.createStatement("TRUNCATE TABLE localInfile").execute().blockLast();
+  }
+
+  private static ByteBuf line(String line) {
+    return Unpooled.copiedBuffer(line, StandardCharsets.UTF_8);
+  }
+
+  @Test
+  void loadData() {
+    sharedConn
+        .loadData(
+            "LOAD DATA LOCAL INFILE 'dummy' INTO TABLE localInfile",
+            Flux.range(0, 100_000).map(i -> line(i + "\tval" + i + "\n")))
+        .as(StepVerifier::create)
+        .expectNext(100_000L)
+        .verifyComplete();
+    sharedConn
+        .createStatement("SELECT COUNT(*), MAX(val) FROM localInfile")
+        .execute()
+        .flatMap(r -> r.map((row, metadata) -> row.get(0, Long.class) + "/" + row.get(1)))
+        .as(StepVerifier::create)
+        .expectNext("100000/val99999")
+        .verifyComplete();
+  }
+
+  @Test
+  void loadRows() {
+    sharedConn
+        .loadRows(
+            "LOAD DATA LOCAL INFILE 'dummy' INTO TABLE localInfile",
+            Flux.just(new Object[] {1, "a\tb\nc\\"}, new Object[] {2, null}))
+        .as(StepVerifier::create)
+        .expectNext(2L)
+        .verifyComplete();
+    sharedConn
+        .createStatement("SELECT id, val FROM localInfile ORDER BY id")
+        .execute()
+        .flatMap(r -> r.map((row, metadata) -> row.get(0, Integer.class) + "/" + row.get(1)))
+        .as(StepVerifier::create)
+        .expectNext("1/a\tb\nc\\", "2/null")
+        .verifyComplete();
+  }
+
+  @Test
+  void loadDataCompression() throws Exception {
+    MariadbConnectionConfiguration conf =
+        TestConfiguration.defaultBuilder
+            .clone()
+            .useCompression(true)
+            .compressionThreshold(100)
+            .build();
+    MariadbConnection connection = new MariadbConnectionFactory(conf).create().block();
+    try {
+      connection
+          .loadData(
+              "LOAD DATA LOCAL INFILE 'dummy' INTO TABLE localInfile",
+              Flux.range(0, 100_000).map(i -> line(i + "\tval" + i + "\n")))
+          .as(StepVerifier::create)
+          .expectNext(100_000L)
+          .verifyComplete();
+      // compressed sequence restarts for next command
+      connection
+          .createStatement("SELECT COUNT(*), MAX(val) FROM localInfile")
+          .execute()
+          .flatMap(r -> r.map((row, metadata) -> row.get(0, Long.class) + "/" + row.get(1)))
+          .as(StepVerifier::create)
+          .expectNext("100000/val99999")
+          .verifyComplete();
+    } finally {
+      connection.close().block();
+    }
+  }
+
+  @Test
+  void pipelinedCommandsWaitForData() {
+    Flux.merge(
+            sharedConn
+                .loadData(
+                    "LOAD DATA LOCAL INFILE 'dummy' INTO TABLE localInfile",
+                    Flux.range(0, 10_000).map(i -> line(i + "\tval\n")))
+                .map(String::valueOf),
+            sharedConn
+                .createStatement("SELECT 'after'")
+                .execute()
+                .flatMap(r -> r.map((row, metadata) -> row.get(0, String.class))))
+        .as(StepVerifier::create)
+        .expectNext("10000", "after")
+        .verifyComplete();
+  }
+
+  @Test
+  void dataError() {
+    sharedConn
+        .loadData(
+            "LOAD DATA LOCAL INFILE 'dummy' INTO TABLE localInfile",
+            Flux.concat(Flux.just(line("1\tval\n")), Flux.error(new IllegalStateException("boom"))))
+        .as(StepVerifier::create)
+        .expectErrorMatches(
+            throwable ->
+                throwable instanceof IllegalStateException && throwable.getMessage().equals("boom"))
+        .verify();
+    // connection is still usable
+    sharedConn
+        .createStatement("SELECT 1")
+        .execute()
+        .flatMap(r -> r.map((row, metadata) -> row.get(0, Integer.class)))
+        .as(StepVerifier::create)
+        .expectNext(1)
+        .verifyComplete();
+  }
+
+  @Test
+  void localFile() throws Exception {
+    Path dir = Files.createTempDirectory("infile");
+    Path file =
+        Files.write(dir.resolve("data.tsv"), "1\ta\n2\tb\n".getBytes(StandardCharsets.UTF_8));
+    String sql =
+        String.format(
+            "LOAD DATA LOCAL INFILE '%s' INTO TABLE localInfile",
+            file.toString().replace("\\", "/"));
+    try {
+      // refused by default
+      sharedConn
+          .createStatement(sql)
+          .execute()
+          .flatMap(r -> r.getRowsUpdated())
+          .as(StepVerifier::create)
+          .expectError(R2dbcPermissionDeniedException.class)
+          .verify();
+
+      MariadbConnectionConfiguration conf =
+          TestConfiguration.defaultBuilder.clone().localInfileDirectories(dir.toString()).build();
+      MariadbConnection connection = new MariadbConnectionFactory(conf).create().block();
+      try {
+        connection
+            .createStatement(sql)
+            .execute()
+            .flatMap(r -> r.getRowsUpdated())
+            .as(StepVerifier::create)
+            .expectNext(2)
+            .verifyComplete();
+      } finally {
+        connection.close().block();
+      }
+    } finally {
+      Files.delete(file);
+      Files.delete(dir);
+    }
+  }
+}
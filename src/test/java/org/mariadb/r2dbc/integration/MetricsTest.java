@@ -0,0 +1,118 @@
+/*
+ * Copyright 2020 MariaDB Ab.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mariadb.r2dbc.integration;
+
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mariadb.r2dbc.BaseConnectionTest;
+import org.mariadb.r2dbc.MariadbConnectionConfiguration;
+import org.mariadb.r2dbc.MariadbConnectionFactory;
+import org.mariadb.r2dbc.MariadbConnectionFactoryProvider;
+import org.mariadb.r2dbc.TestConfiguration;
+import org.mariadb.r2dbc.api.MariadbConnection;
+import org.mariadb.r2dbc.metrics.SimpleMetrics;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+public class MetricsTest extends BaseConnectionTest {
+
+  @Test
+  void option() throws Exception {
+    SimpleMetrics metrics = new SimpleMetrics();
+    ConnectionFactoryOptions options =
+        ConnectionFactoryOptions.builder()
+            .option(ConnectionFactoryOptions.DRIVER, "mariadb")
+            .option(ConnectionFactoryOptions.HOST, "someHost")
+            .option(ConnectionFactoryOptions.USER, "myUser")
+            .option(MariadbConnectionFactoryProvider.METRICS, metrics)
+            .build();
+    Assertions.assertSame(
+        metrics, MariadbConnectionConfiguration.fromOptions(options).build().getMetrics());
+    Assertions.assertTrue(
+        TestConfiguration.defaultBuilder.clone().build().toString().contains("metrics=none"));
+  }
+
+  @Test
+  void commandMetrics() throws Exception {
+    SimpleMetrics metrics = new SimpleMetrics();
+    MariadbConnectionConfiguration conf =
+        TestConfiguration.defaultBuilder.clone().metrics(metrics).build();
+    MariadbConnection connection = new MariadbConnectionFactory(conf).create().block();
+    try {
+      SimpleMetrics.Snapshot before = metrics.snapshot();
+      Assertions.assertEquals(1, before.getOpenConnections());
+      Assertions.assertEquals(0, before.getInFlightCommands());
+
+      Flux.range(0, 10)
+          .concatMap(
+              i ->
+                  connection
+                      .createStatement("SELECT " + i)
+                      .execute()
+                      .flatMap(r -> r.map((row, metadata) -> row.get(0, Integer.class))))
+          .as(StepVerifier::create)
+          .expectNextCount(10)
+          .verifyComplete();
+
+      SimpleMetrics.Snapshot after = metrics.snapshot();
+      Assertions.assertEquals(10, after.getCommandsCompleted() - before.getCommandsCompleted());
+      Assertions.assertEquals(0, after.getInFlightCommands());
+      Assertions.assertEquals(0, after.getQueuedCommands());
+      Assertions.assertEquals(10, after.getPacketsSent() - before.getPacketsSent());
+      Assertions.assertTrue(after.getBytesReceived() > before.getBytesReceived());
+      Assertions.assertTrue(after.getLatency().getPercentile(50, TimeUnit.NANOSECONDS) > 0);
+    } finally {
+      connection.close().block();
+    }
+    Assertions.assertEquals(1, metrics.snapshot().getConnectionsClosed());
+    Assertions.assertEquals(0, metrics.snapshot().getOpenConnections());
+  }
+
+  @Test
+  void prepareCacheMetrics() throws Exception {
+    SimpleMetrics metrics = new SimpleMetrics();
+    MariadbConnectionConfiguration conf =
+        TestConfiguration.defaultBuilder
+            .clone()
+            .useServerPrepStmts(true)
+            .prepareCacheSize(2)
+            .metrics(metrics)
+            .build();
+    MariadbConnection connection = new MariadbConnectionFactory(conf).create().block();
+    try {
+      // last statement is only cached when prepared a second time, evicting "SELECT 1, ?"
+      for (String sql :
+          new String[] {"SELECT ?", "SELECT ?", "SELECT 1, ?", "SELECT 2, ?", "SELECT 2, ?"}) {
+        connection
+            .createStatement(sql)
+            .bind(0, 1)
+            .execute()
+            .flatMap(r -> r.getRowsUpdated())
+            .blockLast();
+      }
+      SimpleMetrics.Snapshot snapshot = metrics.snapshot();
+      Assertions.assertEquals(1, snapshot.getPrepareCacheHits());
+      Assertions.assertEquals(4, snapshot.getPrepareCacheMisses());
+      Assertions.assertEquals(1, snapshot.getPrepareCacheEvictions());
+      Assertions.assertEquals(0.2, snapshot.getPrepareCacheHitRatio());
+    } finally {
+      connection.close().block();
+    }
+  }
+}
@@ -0,0 +1,274 @@
+/*
+ * Copyright 2020 MariaDB Ab.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mariadb.r2dbc.integration;
+
+import io.r2dbc.spi.R2dbcTimeoutException;
+import java.time.Duration;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mariadb.r2dbc.BaseConnectionTest;
+import org.mariadb.r2dbc.MariadbConnectionConfiguration;
+import org.mariadb.r2dbc.MariadbConnectionFactory;
+import org.mariadb.r2dbc.TestConfiguration;
+import org.mariadb.r2dbc.api.MariadbConnection;
+import org.mariadb.r2dbc.api.MariadbPoolMetrics;
+import reactor.test.StepVerifier;
+
+public class PoolTest extends BaseConnectionTest {
+
+  @Test
+  void wrongPoolSize() {
+    Assertions.assertThrows(
+        IllegalArgumentException.class,
+        () -> TestConfiguration.defaultBuilder.clone().pool(true).maxPoolSize(0).build());
+    Assertions.assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            TestConfiguration.defaultBuilder
+                .clone()
+                .pool(true)
+                .minPoolSize(5)
+                .maxPoolSize(2)
+                .build());
+  }
+
+  @Test
+  void reuseConnection() throws Exception {
+    MariadbConnectionConfiguration conf =
+        TestConfiguration.defaultBuilder.clone().pool(true).maxPoolSize(2).build();
+    MariadbConnectionFactory poolFactory = new MariadbConnectionFactory(conf);
+    try {
+      MariadbPoolMetrics metrics = poolFactory.getPoolMetrics();
+      Assertions.assertNotNull(metrics);
+      Assertions.assertNull(factory.getPoolMetrics());
+
+      MariadbConnection connection = poolFactory.create().block();
+      Long threadId = threadId(connection);
+      Assertions.assertEquals(1, metrics.getAcquiredSize());
+      connection.close().block();
+      Assertions.assertEquals(0, metrics.getAcquiredSize());
+      Assertions.assertEquals(1, metrics.getIdleSize());
+
+      // closed connection cannot be used anymore
+      Assertions.assertThrows(
+          IllegalStateException.class, () -> connection.createStatement("SELECT 1"));
+      connection
+          .validate(io.r2dbc.spi.ValidationDepth.LOCAL)
+          .as(StepVerifier::create)
+          .expectNext(false)
+          .verifyComplete();
+
+      MariadbConnection connection2 = poolFactory.create().block();
+      Assertions.assertEquals(threadId, threadId(connection2));
+
+      // pool full: request wait for a connection to be released
+      MariadbConnection connection3 = poolFactory.create().block();
+      poolFactory
+          .create()
+          .as(StepVerifier::create)
+          .then(() -> Assertions.assertEquals(1, metrics.getPendingAcquireSize()))
+          .then(() -> connection3.close().subscribe())
+          .consumeNextWith(c -> c.close().block())
+          .verifyComplete();
+
+      connection2.close().block();
+      Assertions.assertEquals(2, metrics.getAllocatedSize());
+      Assertions.assertEquals(2, metrics.getCreatedCount());
+      Assertions.assertEquals(4, metrics.getAcquireCount());
+      Assertions.assertTrue(metrics.getMaxAcquireTime().compareTo(Duration.ZERO) > 0);
+    } finally {
+      poolFactory.close().block();
+    }
+    poolFactory
+        .create()
+        .as(StepVerifier::create)
+        .expectErrorMatches(t -> t.getMessage().equals("Connection pool is closed"))
+        .verify();
+  }
+
+  @Test
+  void resetConnection() throws Exception {
+    MariadbConnectionConfiguration conf =
+        TestConfiguration.defaultBuilder.clone().pool(true).maxPoolSize(1).build();
+    MariadbConnectionFactory poolFactory = new MariadbConnectionFactory(conf);
+    try {
+      MariadbConnection connection = poolFactory.create().block();
+      connection.createStatement("SET @myVar = 5").execute().blockLast();
+      connection.beginTransaction().block();
+      connection.close().block();
+
+      connection = poolFactory.create().block();
+      Assertions.assertTrue(connection.isAutoCommit());
+      connection
+          .createStatement("SELECT @myVar, @@in_transaction")
+          .execute()
+          .flatMap(r -> r.map((row, metadata) -> "" + row.get(0, String.class) + row.get(1)))
+          .as(StepVerifier::create)
+          .expectNext(
+              isMariaDBServer() && minVersion(10, 2, 4) || !isMariaDBServer() ? "null0" : "50")
+          .verifyComplete();
+      connection.close().block();
+    } finally {
+      poolFactory.close().block();
+    }
+  }
+
+  @Test
+  void preparedStatementKeptWithoutReset() throws Exception {
+    MariadbConnectionConfiguration conf =
+        TestConfiguration.defaultBuilder
+            .clone()
+            .pool(true)
+            .maxPoolSize(1)
+            .useServerPrepStmts(true)
+            .poolResetConnection(false)
+            .build();
+    MariadbConnectionFactory poolFactory = new MariadbConnectionFactory(conf);
+    try {
+      long prepareCount = -1;
+      for (int i = 0; i < 3; i++) {
+        MariadbConnection connection = poolFactory.create().block();
+        connection.setAutoCommit(false).block();
+        connection
+            .createStatement("SELECT ?")
+            .bind(0, i)
+            .execute()
+            .flatMap(r -> r.map((row, metadata) -> row.get(0, Integer.class)))
+            .as(StepVerifier::create)
+            .expectNext(i)
+            .verifyComplete();
+        long count = prepareCount(connection);
+        if (i > 0) {
+          // statement prepared by first borrower is reused: no new prepare on server session
+          Assertions.assertEquals(prepareCount, count);
+        }
+        prepareCount = count;
+        connection.close().block();
+      }
+      MariadbConnection connection = poolFactory.create().block();
+      // autocommit restored on release
+      Assertions.assertTrue(connection.isAutoCommit());
+      connection.close().block();
+      Assertions.assertEquals(1, poolFactory.getPoolMetrics().getCreatedCount());
+    } finally {
+      poolFactory.close().block();
+    }
+  }
+
+  @Test
+  void preparedStatementClearedOnReset() throws Exception {
+    MariadbConnectionConfiguration conf =
+        TestConfiguration.defaultBuilder
+            .clone()
+            .pool(true)
+            .maxPoolSize(1)
+            .useServerPrepStmts(true)
+            .build();
+    MariadbConnectionFactory poolFactory = new MariadbConnectionFactory(conf);
+    try {
+      // COM_RESET_CONNECTION closes server statements: client cache must not reuse them
+      for (int i = 0; i < 3; i++) {
+        MariadbConnection connection = poolFactory.create().block();
+        connection
+            .createStatement("SELECT ?")
+            .bind(0, i)
+            .execute()
+            .flatMap(r -> r.map((row, metadata) -> row.get(0, Integer.class)))
+            .as(StepVerifier::create)
+            .expectNext(i)
+            .verifyComplete();
+        connection.close().block();
+      }
+      Assertions.assertEquals(1, poolFactory.getPoolMetrics().getCreatedCount());
+    } finally {
+      poolFactory.close().block();
+    }
+  }
+
+  @Test
+  void acquireTimeout() throws Exception {
+    MariadbConnectionConfiguration conf =
+        TestConfiguration.defaultBuilder
+            .clone()
+            .pool(true)
+            .maxPoolSize(1)
+            .poolAcquireTimeout(Duration.ofMillis(200))
+            .build();
+    MariadbConnectionFactory poolFactory = new MariadbConnectionFactory(conf);
+    try {
+      MariadbPoolMetrics metrics = poolFactory.getPoolMetrics();
+      MariadbConnection connection = poolFactory.create().block();
+      poolFactory
+          .create()
+          .as(StepVerifier::create)
+          .expectError(R2dbcTimeoutException.class)
+          .verify(Duration.ofSeconds(5));
+      Assertions.assertEquals(0, metrics.getPendingAcquireSize());
+      connection.close().block();
+
+      // pool usable again once connection is released
+      poolFactory.create().flatMap(c -> c.close()).as(StepVerifier::create).verifyComplete();
+    } finally {
+      poolFactory.close().block();
+    }
+  }
+
+  private static long prepareCount(MariadbConnection connection) {
+    return connection
+        .createStatement("SHOW SESSION STATUS LIKE 'Com_stmt_prepare'")
+        .execute()
+        .flatMap(r -> r.map((row, metadata) -> Long.parseLong(row.get(1, String.class))))
+        .blockLast();
+  }
+
+  @Test
+  void minPoolSize() throws Exception {
+    MariadbConnectionConfiguration conf =
+        TestConfiguration.defaultBuilder
+            .clone()
+            .pool(true)
+            .minPoolSize(2)
+            .maxPoolSize(4)
+            .poolValidationInterval(Duration.ofMillis(200))
+            .build();
+    MariadbConnectionFactory poolFactory = new MariadbConnectionFactory(conf);
+    try {
+      MariadbPoolMetrics metrics = poolFactory.getPoolMetrics();
+      // maintenance only starts on first request
+      Thread.sleep(300);
+      Assertions.assertEquals(0, metrics.getAllocatedSize());
+      poolFactory.create().flatMap(c -> c.close()).block();
+      for (int i = 0; i < 50 && metrics.getIdleSize() < 2; i++) {
+        Thread.sleep(50);
+      }
+      Assertions.assertEquals(2, metrics.getIdleSize());
+      Thread.sleep(500);
+      // background validation keeps connections
+      Assertions.assertEquals(2, metrics.getAllocatedSize());
+    } finally {
+      poolFactory.close().block();
+    }
+  }
+
+  private Long threadId(MariadbConnection connection) {
+    return connection
+        .createStatement("SELECT CONNECTION_ID()")
+        .execute()
+        .flatMap(r -> r.map((row, metadata) -> row.get(0, Long.class)))
+        .blockLast();
+  }
+}
@@ -17,10 +17,11 @@
 package org.mariadb.r2dbc.integration;
 
 import io.r2dbc.spi.R2dbcTransientResourceException;
+import io.r2dbc.spi.RowMetadata;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 import org.junit.jupiter.api.*;
 import org.mariadb.r2dbc.BaseConnectionTest;
@@ -452,6 +453,62 @@ public class PrepareResultSetTest extends BaseConnectionTest {
         "Parameter at position 0 is not set");
   }
 
+  @Test
+  void metadataCache() {
+    sharedConnPrepare
+        .createStatement("CREATE TEMPORARY TABLE metadataCache (a int, b varchar(10))")
+        .execute()
+        .blockLast();
+    sharedConnPrepare
+        .createStatement("INSERT INTO metadataCache VALUES (1, 'one')")
+        .execute()
+        .blockLast();
+    String sql = "SELECT * FROM metadataCache WHERE a = ?";
+    // executes after prepare reuse cached columns when server skips metadata, or when metadata
+    // are unchanged: row metadata is built once
+    List<RowMetadata> rowMetadatas = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      sharedConnPrepare
+          .createStatement(sql)
+          .bind(0, 1)
+          .execute()
+          .flatMap(
+              r ->
+                  r.map(
+                      (row, metadata) -> {
+                        rowMetadatas.add(metadata);
+                        return metadata.getColumnNames().size()
+                            + row.get("b", String.class)
+                            + row.get(0, Integer.class);
+                      }))
+          .as(StepVerifier::create)
+          .expectNext("2one1")
+          .verifyComplete();
+    }
+    Assertions.assertSame(rowMetadatas.get(0), rowMetadatas.get(1));
+    Assertions.assertSame(rowMetadatas.get(0), rowMetadatas.get(2));
+
+    // metadata changes are received again
+    sharedConnPrepare
+        .createStatement("ALTER TABLE metadataCache ADD COLUMN c int DEFAULT 3")
+        .execute()
+        .blockLast();
+    sharedConnPrepare
+        .createStatement(sql)
+        .bind(0, 1)
+        .execute()
+        .flatMap(
+            r ->
+                r.map(
+                    (row, metadata) ->
+                        metadata.getColumnNames().size()
+                            + row.get("b", String.class)
+                            + row.get("c", Integer.class)))
+        .as(StepVerifier::create)
+        .expectNext("3one3")
+        .verifyComplete();
+  }
+
   private List<String> prepareInfo(MariadbConnection connection) {
     return connection
         .createStatement(
@@ -477,7 +534,6 @@ public class PrepareResultSetTest extends BaseConnectionTest {
   }
 
   @Test
-  @SuppressWarnings("unchecked")
   void cacheReuse() throws Throwable {
     MariadbConnectionConfiguration confPipeline =
         TestConfiguration.defaultBuilder
@@ -490,101 +546,68 @@ public class PrepareResultSetTest extends BaseConnectionTest {
       Method method = connection.getClass().getDeclaredMethod("_test_prepareCache");
       method.setAccessible(true);
       PrepareCache cache = (PrepareCache) method.invoke(connection);
-      ServerPrepareResult[] prepareResults = new ServerPrepareResult[5];
 
       for (long i = 0; i < 5; i++) {
-
-        connection
-            .createStatement("SELECT " + i + ", ?")
-            .bind(0, i)
-            .execute()
-            .flatMap(r -> r.map((row, metadata) -> row.get(0, Long.class)))
-            .as(StepVerifier::create)
-            .expectNext(i)
-            .verifyComplete();
-
-        Object[] entriesArr = cache.entrySet().toArray();
-        switch ((int) i) {
-          case 0:
-            Assertions.assertEquals(
-                "SELECT 0, ?=ServerPrepareResult{statementId=1, numColumns=2, numParams=1, closing=false, use=0, cached=true}",
-                entriesArr[0].toString());
-            prepareResults[0] = ((Map.Entry<String, ServerPrepareResult>) entriesArr[0]).getValue();
-            break;
-          case 1:
-            Assertions.assertEquals(
-                "SELECT 0, ?=ServerPrepareResult{statementId=1, numColumns=2, numParams=1, closing=false, use=0, cached=true}",
-                entriesArr[0].toString());
-            Assertions.assertEquals(
-                "SELECT 1, ?=ServerPrepareResult{statementId=2, numColumns=2, numParams=1, closing=false, use=0, cached=true}",
-                entriesArr[1].toString());
-            prepareResults[1] = ((Map.Entry<String, ServerPrepareResult>) entriesArr[1]).getValue();
-            break;
-          case 2:
-            Assertions.assertEquals(
-                "SELECT 0, ?=ServerPrepareResult{statementId=1, numColumns=2, numParams=1, closing=false, use=0, cached=true}",
-                entriesArr[0].toString());
-            Assertions.assertEquals(
-                "SELECT 1, ?=ServerPrepareResult{statementId=2, numColumns=2, numParams=1, closing=false, use=0, cached=true}",
-                entriesArr[1].toString());
-            Assertions.assertEquals(
-                "SELECT 2, ?=ServerPrepareResult{statementId=3, numColumns=2, numParams=1, closing=false, use=0, cached=true}",
-                entriesArr[2].toString());
-            prepareResults[2] = ((Map.Entry<String, ServerPrepareResult>) entriesArr[2]).getValue();
-            break;
-          case 3:
-            Assertions.assertEquals(
-                "SELECT 2, ?=ServerPrepareResult{statementId=3, numColumns=2, numParams=1, closing=false, use=0, cached=true}",
-                entriesArr[0].toString());
-            Assertions.assertEquals(
-                "SELECT 1, ?=ServerPrepareResult{statementId=2, numColumns=2, numParams=1, closing=false, use=0, cached=true}",
-                entriesArr[1].toString());
-            Assertions.assertEquals(
-                "SELECT 3, ?=ServerPrepareResult{statementId=4, numColumns=2, numParams=1, closing=false, use=0, cached=true}",
-                entriesArr[2].toString());
-            prepareResults[3] = ((Map.Entry<String, ServerPrepareResult>) entriesArr[2]).getValue();
-            break;
-          case 4:
-            Assertions.assertEquals(
-                "SELECT 1, ?=ServerPrepareResult{statementId=2, numColumns=2, numParams=1, closing=false, use=0, cached=true}",
-                entriesArr[0].toString());
-            Assertions.assertEquals(
-                "SELECT 3, ?=ServerPrepareResult{statementId=4, numColumns=2, numParams=1, closing=false, use=0, cached=true}",
-                entriesArr[1].toString());
-            Assertions.assertEquals(
-                "SELECT 4, ?=ServerPrepareResult{statementId=5, numColumns=2, numParams=1, closing=false, use=0, cached=true}",
-                entriesArr[2].toString());
-            prepareResults[4] = ((Map.Entry<String, ServerPrepareResult>) entriesArr[2]).getValue();
-            break;
-        }
-
+        selectLong(connection, "SELECT " + i + ", ?", i);
         if (i % 2 == 0) {
-          connection.createStatement("SELECT 1, ?").bind(0, i).execute().blockLast();
+          selectLong(connection, "SELECT 1, ?", i);
         }
       }
 
+      // "SELECT 3, ?" and "SELECT 4, ?" have been used once: they don't evict cached statements
+      ServerPrepareResult first = cache.get("SELECT 0, ?");
       Assertions.assertEquals(
-          "ServerPrepareResult{statementId=1, numColumns=2, numParams=1, closing=true, use=0, cached=false}",
-          prepareResults[0].toString());
+          "ServerPrepareResult{statementId=1, numColumns=2, numParams=1, closing=false, use=0, cached=true}",
+          first.toString());
       Assertions.assertEquals(
           "ServerPrepareResult{statementId=2, numColumns=2, numParams=1, closing=false, use=0, cached=true}",
-          prepareResults[1].toString());
+          cache.get("SELECT 1, ?").toString());
       Assertions.assertEquals(
-          "ServerPrepareResult{statementId=3, numColumns=2, numParams=1, closing=true, use=0, cached=false}",
-          prepareResults[2].toString());
+          "ServerPrepareResult{statementId=3, numColumns=2, numParams=1, closing=false, use=0, cached=true}",
+          cache.get("SELECT 2, ?").toString());
+      Assertions.assertNull(cache.get("SELECT 3, ?"));
+      Assertions.assertNull(cache.get("SELECT 4, ?"));
+      Assertions.assertEquals(3, cache.size());
+      Assertions.assertEquals(2, cache.getRejectionCount());
+      Assertions.assertEquals(0, cache.getEvictionCount());
+      Assertions.assertEquals(3, cache.getHitCount());
+      Assertions.assertEquals(5, cache.getMissCount());
+
+      // rejected statements are closed after use
+      List<String> status = prepareInfo(connection);
+      Assertions.assertEquals("2", status.get(0), status.get(0));
+      Assertions.assertEquals("5", status.get(1), status.get(1));
+
+      // used again, "SELECT 3, ?" evicts least recently used statement
+      selectLong(connection, "SELECT 3, ?", 3);
+      Assertions.assertNull(cache.get("SELECT 0, ?"));
       Assertions.assertEquals(
-          "ServerPrepareResult{statementId=4, numColumns=2, numParams=1, closing=false, use=0, cached=true}",
-          prepareResults[3].toString());
+          "ServerPrepareResult{statementId=6, numColumns=2, numParams=1, closing=false, use=0, cached=true}",
+          cache.get("SELECT 3, ?").toString());
       Assertions.assertEquals(
-          "ServerPrepareResult{statementId=5, numColumns=2, numParams=1, closing=false, use=0, cached=true}",
-          prepareResults[4].toString());
+          "ServerPrepareResult{statementId=1, numColumns=2, numParams=1, closing=true, use=0, cached=false}",
+          first.toString());
+      Assertions.assertEquals(1, cache.getEvictionCount());
 
       List<String> endingStatus = prepareInfo(connection);
+      // Com_stmt_close
+      Assertions.assertEquals("3", endingStatus.get(0), endingStatus.get(0));
       // Com_stmt_prepare
-      Assertions.assertEquals("5", endingStatus.get(1), endingStatus.get(1));
+      Assertions.assertEquals("6", endingStatus.get(1), endingStatus.get(1));
 
     } finally {
       connection.close().block();
     }
   }
+
+  private void selectLong(MariadbConnection connection, String sql, long value) {
+    connection
+        .createStatement(sql)
+        .bind(0, value)
+        .execute()
+        .flatMap(r -> r.map((row, metadata) -> row.get(1, Long.class)))
+        .as(StepVerifier::create)
+        .expectNext(value)
+        .verifyComplete();
+  }
 }
@@ -17,13 +17,18 @@
 package org.mariadb.r2dbc.integration;
 
 import io.r2dbc.spi.R2dbcTransientResourceException;
+import io.r2dbc.spi.Row;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.Random;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Assumptions;
 import org.junit.jupiter.api.Test;
 import org.mariadb.r2dbc.BaseConnectionTest;
 import org.mariadb.r2dbc.api.MariadbConnection;
+import org.mariadb.r2dbc.api.MariadbRow;
 import reactor.test.StepVerifier;
 
 public class ResultsetTest extends BaseConnectionTest {
@@ -220,4 +225,139 @@ public class ResultsetTest extends BaseConnectionTest {
                     && throwable.getMessage().equals("Column index -5 must be positive"))
         .verify();
   }
+
+  @Test
+  void primitiveAccessors() {
+    primitiveAccessors(sharedConn);
+    primitiveAccessors(sharedConnPrepare);
+  }
+
+  private void primitiveAccessors(MariadbConnection connection) {
+    connection
+        .createStatement(
+            "SELECT CAST(? AS SIGNED) as a, 2.5E0 as b, CAST(NULL AS SIGNED) as c, '7' as d")
+        .bind(0, -3)
+        .execute()
+        .flatMap(
+            r ->
+                r.map(
+                    (row, metadata) -> {
+                      MariadbRow mariadbRow = (MariadbRow) row;
+                      Assertions.assertEquals(-3L, mariadbRow.getLong(0));
+                      Assertions.assertEquals(-3, mariadbRow.getInt("A"));
+                      Assertions.assertEquals((short) -3, mariadbRow.getShort(0));
+                      Assertions.assertEquals((byte) -3, mariadbRow.getByte(0));
+                      Assertions.assertTrue(mariadbRow.getBoolean(0));
+                      Assertions.assertFalse(mariadbRow.wasNull());
+                      Assertions.assertEquals(2.5D, mariadbRow.getDouble("b"));
+                      Assertions.assertEquals(2.5F, mariadbRow.getFloat(1));
+                      Assertions.assertEquals(0, mariadbRow.getInt(2));
+                      Assertions.assertTrue(mariadbRow.wasNull());
+                      Assertions.assertEquals(7, mariadbRow.getInt("d"));
+                      Assertions.assertFalse(mariadbRow.wasNull());
+                      return "ok";
+                    }))
+        .as(StepVerifier::create)
+        .expectNext("ok")
+        .verifyComplete();
+  }
+
+  @Test
+  void reuseRow() {
+    reuseRow(sharedConn);
+    reuseRow(sharedConnPrepare);
+  }
+
+  private void reuseRow(MariadbConnection connection) {
+    Set<Row> rows = Collections.newSetFromMap(new IdentityHashMap<>());
+    connection
+        .createStatement(
+            "SELECT 1, CONCAT('a', ?) UNION ALL SELECT 2, 'a2' UNION ALL SELECT 3, 'a3'")
+        .bind(0, "1")
+        .execute()
+        .flatMap(
+            r ->
+                r.reuseRow()
+                    .map(
+                        (row, metadata) -> {
+                          rows.add(row);
+                          return ((MariadbRow) row).getInt(0) + row.get(1, String.class);
+                        }))
+        .as(StepVerifier::create)
+        .expectNext("1a1", "2a2", "3a3")
+        .verifyComplete();
+    Assertions.assertEquals(1, rows.size());
+  }
+
+  @Test
+  void mapTo() {
+    mapTo(sharedConn);
+    mapTo(sharedConnPrepare);
+  }
+
+  private void mapTo(MariadbConnection connection) {
+    connection
+        .createStatement(
+            "SELECT 1 as id, CONCAT('a', ?) as first_name UNION ALL SELECT 2, 'a2' UNION ALL SELECT 3, NULL")
+        .bind(0, "1")
+        .execute()
+        .flatMap(r -> r.mapTo(Person.class))
+        .map(Person::toString)
+        .as(StepVerifier::create)
+        .expectNext("1:a1", "2:a2", "3:null")
+        .verifyComplete();
+
+    connection
+        .createStatement("SELECT 1, 'a1' UNION ALL SELECT 2, 'a2'")
+        .execute()
+        .flatMap(r -> r.mapTo(Pair.class))
+        .map(Pair::toString)
+        .as(StepVerifier::create)
+        .expectNext("1/a1", "2/a2")
+        .verifyComplete();
+
+    connection
+        .createStatement("SELECT 1 as unknown")
+        .execute()
+        .flatMap(r -> r.mapTo(Person.class))
+        .as(StepVerifier::create)
+        .expectErrorMatches(
+            throwable ->
+                throwable instanceof R2dbcTransientResourceException
+                    && throwable.getMessage().contains("Cannot map result to"))
+        .verify();
+  }
+
+  public static class Person {
+    private long id;
+    private String firstName;
+
+    public void setId(long id) {
+      this.id = id;
+    }
+
+    public void setFirstName(String firstName) {
+      this.firstName = firstName;
+    }
+
+    @Override
+    public String toString() {
+      return id + ":" + firstName;
+    }
+  }
+
+  public static class Pair {
+    private final int first;
+    private final String second;
+
+    public Pair(int first, String second) {
+      this.first = first;
+      this.second = second;
+    }
+
+    @Override
+    public String toString() {
+      return first + "/" + second;
+    }
+  }
 }
@@ -208,4 +208,26 @@ public class RowMetadataTest extends BaseConnectionTest {
         .expectNext(Optional.of("some🌟"), Optional.of("1"), Optional.of("0"), Optional.of("3"))
         .verifyComplete();
   }
+
+  @Test
+  void columnNameIndex() {
+    sharedConn
+        .createStatement("SELECT 1 as a, 2 as A, 3 as Bb")
+        .execute()
+        .flatMap(
+            r ->
+                r.map(
+                    (row, metadata) -> {
+                      assertEquals("Bb", metadata.getColumnMetadata("bB").getName());
+                      this.assertThrows(
+                          IllegalArgumentException.class,
+                          () -> row.get("c"),
+                          "Column name 'c' does not exist in column names [a, A, Bb]");
+                      // case-insensitive lookup: first column wins
+                      return "" + row.get("A", Integer.class) + row.get("BB", Integer.class);
+                    }))
+        .as(StepVerifier::create)
+        .expectNext("13")
+        .verifyComplete();
+  }
 }
@@ -16,9 +16,18 @@
 
 package org.mariadb.r2dbc.integration;
 
+import io.r2dbc.spi.R2dbcException;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
 import org.junit.jupiter.api.Test;
 import org.mariadb.r2dbc.BaseConnectionTest;
+import org.mariadb.r2dbc.MariadbConnectionFactory;
+import org.mariadb.r2dbc.TestConfiguration;
 import org.mariadb.r2dbc.api.MariadbConnection;
+import org.mariadb.r2dbc.api.MariadbConnectionMetadata;
+import org.mariadb.r2dbc.api.MariadbStatement;
 import reactor.test.StepVerifier;
 
 public class StatementBatchingTest extends BaseConnectionTest {
@@ -33,6 +42,220 @@ public class StatementBatchingTest extends BaseConnectionTest {
     batchStatement(sharedConnPrepare);
   }
 
+  @Test
+  void bulkBatch() {
+    sharedConnPrepare
+        .createStatement(
+            "CREATE TEMPORARY TABLE bulkBatch (id int not null primary key, test varchar(10))")
+        .execute()
+        .blockLast();
+
+    MariadbStatement stmt =
+        sharedConnPrepare.createStatement("INSERT INTO bulkBatch values (?, ?)");
+    for (int i = 1; i <= 1000; i++) {
+      stmt.bind(0, i);
+      // null values and type change must be handled
+      if (i % 10 == 0) {
+        stmt.bindNull(1, String.class);
+      } else if (i == 500) {
+        stmt.bind(1, 500);
+      } else {
+        stmt.bind(1, "t" + i);
+      }
+      stmt.add();
+    }
+    List<Integer> rowsUpdated =
+        stmt.execute().concatMap(r -> r.getRowsUpdated()).collectList().block();
+    Assertions.assertEquals(1000, rowsUpdated.stream().mapToInt(Integer::intValue).sum());
+    MariadbConnectionMetadata meta = sharedConnPrepare.getMetadata();
+    if (meta.isMariaDBServer() && meta.minVersion(10, 2, 0)) {
+      // one result per bulk command, with cumulated affected rows: parameter type change for
+      // id 500 splits batch in 3 bulk commands
+      Assertions.assertEquals(Arrays.asList(499, 1, 500), rowsUpdated);
+    } else {
+      Assertions.assertEquals(1000, rowsUpdated.size());
+    }
+
+    sharedConnPrepare
+        .createStatement("SELECT COUNT(*), COUNT(test), SUM(id) FROM bulkBatch")
+        .execute()
+        .flatMap(
+            r ->
+                r.map(
+                    (row, metadata) ->
+                        row.get(0, Long.class)
+                            + ","
+                            + row.get(1, Long.class)
+                            + ","
+                            + row.get(2, Long.class)))
+        .as(StepVerifier::create)
+        .expectNext("1000,900,500500")
+        .verifyComplete();
+    sharedConnPrepare
+        .createStatement("SELECT id, test FROM bulkBatch WHERE id IN (1, 10, 500, 999) ORDER BY id")
+        .execute()
+        .flatMap(r -> r.map((row, metadata) -> row.get(0, Integer.class) + ":" + row.get(1)))
+        .as(StepVerifier::create)
+        .expectNext("1:t1", "10:null", "500:500", "999:t999")
+        .verifyComplete();
+  }
+
+  @Test
+  void bulkBatchReturning() {
+    MariadbConnectionMetadata meta = sharedConnPrepare.getMetadata();
+    Assumptions.assumeTrue(meta.isMariaDBServer() && meta.minVersion(10, 5, 1));
+    sharedConnPrepare
+        .createStatement(
+            "CREATE TEMPORARY TABLE bulkBatchReturning (id int not null primary key auto_increment,"
+                + " test varchar(10))")
+        .execute()
+        .blockLast();
+
+    // second execution uses cached statement: server may then skip result-set metadata
+    for (int exec = 0; exec < 2; exec++) {
+      MariadbStatement stmt =
+          sharedConnPrepare
+              .createStatement("INSERT INTO bulkBatchReturning(test) values (?)")
+              .returnGeneratedValues("id", "test");
+      for (int i = 1; i <= 3; i++) {
+        stmt.bind(0, "t" + (exec * 3 + i)).add();
+      }
+      int first = exec * 3 + 1;
+      stmt.execute()
+          .flatMap(r -> r.map((row, metadata) -> row.get(0, Integer.class) + ":" + row.get(1)))
+          .as(StepVerifier::create)
+          .expectNext(
+              first + ":t" + first,
+              (first + 1) + ":t" + (first + 1),
+              (first + 2) + ":t" + (first + 2))
+          .verifyComplete();
+    }
+  }
+
+  @Test
+  void rewriteBatch() throws Exception {
+    MariadbConnection connection =
+        new MariadbConnectionFactory(
+                TestConfiguration.defaultBuilder.clone().rewriteBatchedStatements(true).build())
+            .create()
+            .block();
+    try {
+      connection
+          .createStatement(
+              "CREATE TEMPORARY TABLE rewriteBatch (id int not null primary key, test varchar(10))")
+          .execute()
+          .blockLast();
+
+      MariadbStatement stmt =
+          connection.createStatement(
+              "INSERT INTO rewriteBatch values (?, ?) ON DUPLICATE KEY UPDATE test = 'dup'");
+      for (int i = 1; i <= 1000; i++) {
+        stmt.bind(0, i);
+        if (i % 10 == 0) {
+          stmt.bindNull(1, String.class);
+        } else {
+          stmt.bind(1, "t" + i);
+        }
+        stmt.add();
+      }
+      stmt.execute()
+          .flatMap(r -> r.getRowsUpdated())
+          .reduce(0, Integer::sum)
+          .as(StepVerifier::create)
+          .expectNext(1000)
+          .verifyComplete();
+
+      connection
+          .createStatement("SELECT COUNT(*), COUNT(test), SUM(id) FROM rewriteBatch")
+          .execute()
+          .flatMap(
+              r ->
+                  r.map(
+                      (row, metadata) ->
+                          row.get(0, Long.class)
+                              + ","
+                              + row.get(1, Long.class)
+                              + ","
+                              + row.get(2, Long.class)))
+          .as(StepVerifier::create)
+          .expectNext("1000,900,500500")
+          .verifyComplete();
+    } finally {
+      connection.close().block();
+    }
+  }
+
+  @Test
+  void pipelinedPrepareBatch() throws Exception {
+    MariadbConnection connection =
+        new MariadbConnectionFactory(
+                TestConfiguration.defaultBuilder
+                    .clone()
+                    .useServerPrepStmts(true)
+                    .allowPipelining(true)
+                    .useBulkStmts(false)
+                    .build())
+            .create()
+            .block();
+    try {
+      connection
+          .createStatement(
+              "CREATE TEMPORARY TABLE pipelinedPrepareBatch (id int not null primary key, test varchar(10))")
+          .execute()
+          .blockLast();
+
+      // statement is not prepared: prepare and executes are sent without waiting for prepare result
+      MariadbStatement stmt =
+          connection.createStatement("INSERT INTO pipelinedPrepareBatch values (?, ?)");
+      for (int i = 1; i <= 100; i++) {
+        stmt.bind(0, i).bind(1, "t" + i).add();
+      }
+      stmt.execute()
+          .flatMap(r -> r.getRowsUpdated())
+          .as(StepVerifier::create)
+          .expectNextCount(100)
+          .verifyComplete();
+
+      connection
+          .createStatement("SELECT COUNT(*), SUM(id) FROM pipelinedPrepareBatch")
+          .execute()
+          .flatMap(
+              r -> r.map((row, metadata) -> row.get(0, Long.class) + "," + row.get(1, Long.class)))
+          .as(StepVerifier::create)
+          .expectNext("100,5050")
+          .verifyComplete();
+    } finally {
+      connection.close().block();
+    }
+  }
+
+  @Test
+  void prepareErrorBatch() {
+    sharedConnPrepare
+        .createStatement("INSERT INTO prepareErrorBatchUnknownTable values (?)")
+        .bind(0, 1)
+        .add()
+        .bind(0, 2)
+        .add()
+        .execute()
+        .flatMap(r -> r.getRowsUpdated())
+        .as(StepVerifier::create)
+        .expectErrorMatches(
+            throwable ->
+                throwable instanceof R2dbcException
+                    && throwable.getMessage().contains("prepareErrorBatchUnknownTable"))
+        .verify();
+
+    // connection must remain usable
+    sharedConnPrepare
+        .createStatement("SELECT 1")
+        .execute()
+        .flatMap(r -> r.map((row, metadata) -> row.get(0, Integer.class)))
+        .as(StepVerifier::create)
+        .expectNext(1)
+        .verifyComplete();
+  }
+
   void batchStatement(MariadbConnection connection) {
     connection
         .createStatement(
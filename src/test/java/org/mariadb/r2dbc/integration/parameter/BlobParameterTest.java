@@ -235,6 +235,69 @@ public class BlobParameterTest extends BaseConnectionTest {
         ByteBuffer.wrap(new byte[] {0}));
   }
 
+  @Test
+  void longDataPrepare() {
+    sharedConnPrepare
+        .createStatement("CREATE TEMPORARY TABLE BlobParamLong (t1 LONGBLOB, t2 LONGBLOB, t3 int)")
+        .execute()
+        .blockLast();
+    byte[] streamed = new byte[600_000];
+    byte[] array = new byte[300_000];
+    for (int i = 0; i < streamed.length; i++) streamed[i] = (byte) i;
+    for (int i = 0; i < array.length; i++) array[i] = (byte) (i * 7);
+
+    // blob is sent by chunks, whatever size of publisher buffers
+    Blob blob =
+        Blob.from(
+            Flux.range(0, 3).map(i -> ByteBuffer.wrap(streamed, i * 200_000, 200_000).slice()));
+    sharedConnPrepare
+        .createStatement("INSERT INTO BlobParamLong VALUES (?,?,?)")
+        .bind(0, blob)
+        .bind(1, array)
+        .bind(2, 1)
+        .add()
+        .bind(0, new ByteArrayInputStream(streamed))
+        .bind(1, new byte[0])
+        .bind(2, 2)
+        .execute()
+        .flatMap(r -> r.getRowsUpdated())
+        .as(StepVerifier::create)
+        .expectNext(1, 1)
+        .verifyComplete();
+
+    sharedConnPrepare
+        .createStatement("SELECT t1, t2 FROM BlobParamLong WHERE t3 = ?")
+        .bind(0, 1)
+        .execute()
+        .flatMap(
+            r ->
+                r.map(
+                    (row, metadata) -> {
+                      Assertions.assertArrayEquals(streamed, row.get(0, byte[].class));
+                      Assertions.assertArrayEquals(array, row.get(1, byte[].class));
+                      return true;
+                    }))
+        .as(StepVerifier::create)
+        .expectNext(true)
+        .verifyComplete();
+    sharedConnPrepare
+        .createStatement("SELECT t1, t2 FROM BlobParamLong WHERE t3 = ?")
+        .bind(0, 2)
+        .execute()
+        .flatMap(
+            r ->
+                r.map(
+                    (row, metadata) -> {
+                      Assertions.assertArrayEquals(streamed, row.get(0, byte[].class));
+                      Assertions.assertArrayEquals(new byte[0], row.get(1, byte[].class));
+                      return true;
+                    }))
+        .as(StepVerifier::create)
+        .expectNext(true)
+        .verifyComplete();
+    sharedConnPrepare.createStatement("DROP TEMPORARY TABLE BlobParamLong").execute().blockLast();
+  }
+
   @Test
   void streamValue() {
     streamValue(sharedConn);
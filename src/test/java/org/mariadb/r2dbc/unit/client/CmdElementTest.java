@@ -0,0 +1,102 @@
+/*
+ * Copyright 2020 MariaDB Ab.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mariadb.r2dbc.unit.client;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+import org.mariadb.r2dbc.client.CmdElement;
+import org.mariadb.r2dbc.client.DecoderState;
+import org.mariadb.r2dbc.message.server.ServerMessage;
+import org.mariadb.r2dbc.message.server.SkipPacket;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Flux;
+
+public class CmdElementTest {
+
+  @Test
+  void bufferedFollowsDemand() {
+    AtomicReference<CmdElement> element = new AtomicReference<>();
+    AtomicInteger demandSignals = new AtomicInteger();
+    BaseSubscriber<ServerMessage> subscriber =
+        new BaseSubscriber<ServerMessage>() {
+          @Override
+          protected void hookOnSubscribe(org.reactivestreams.Subscription subscription) {
+            request(2);
+          }
+        };
+    Flux.<ServerMessage>create(
+            sink -> element.set(new CmdElement(sink, DecoderState.QUERY_RESPONSE)))
+        .subscribe(subscriber);
+
+    CmdElement cmdElement = element.get();
+    cmdElement.setDemandListener(demandSignals::incrementAndGet);
+    assertEquals(0, cmdElement.getBuffered());
+
+    ServerMessage msg = SkipPacket.decode(false);
+    assertEquals(0, cmdElement.emit(msg));
+    assertEquals(0, cmdElement.emit(msg));
+    assertEquals(1, cmdElement.emit(msg));
+    assertEquals(2, cmdElement.emit(msg));
+
+    subscriber.request(1);
+    assertEquals(1, cmdElement.getBuffered());
+    assertEquals(1, demandSignals.get());
+
+    subscriber.request(10);
+    assertEquals(0, cmdElement.getBuffered());
+    assertEquals(2, demandSignals.get());
+    subscriber.dispose();
+  }
+
+  @Test
+  void unboundedDemand() {
+    AtomicReference<CmdElement> element = new AtomicReference<>();
+    Flux.<ServerMessage>create(
+            sink -> element.set(new CmdElement(sink, DecoderState.QUERY_RESPONSE)))
+        .subscribe();
+
+    CmdElement cmdElement = element.get();
+    ServerMessage msg = SkipPacket.decode(false);
+    for (int i = 0; i < 10_000; i++) {
+      assertEquals(0, cmdElement.emit(msg));
+    }
+  }
+
+  @Test
+  void pipelinedResponses() {
+    AtomicReference<CmdElement> element = new AtomicReference<>();
+    Flux.<ServerMessage>create(
+            sink ->
+                element.set(
+                    new CmdElement(sink, DecoderState.PREPARE_AND_EXECUTE_RESPONSE, "SELECT ?", 3)))
+        .subscribe();
+
+    CmdElement cmdElement = element.get();
+    assertFalse(cmdElement.endResponse());
+    assertFalse(cmdElement.endResponse());
+    assertTrue(cmdElement.endResponse());
+
+    // default is a single response
+    Flux.<ServerMessage>create(
+            sink -> element.set(new CmdElement(sink, DecoderState.QUERY_RESPONSE)))
+        .subscribe();
+    assertTrue(element.get().endResponse());
+  }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2020 MariaDB Ab.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mariadb.r2dbc.unit.client;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.mariadb.r2dbc.client.CompressionDecoder;
+import org.mariadb.r2dbc.client.CompressionEncoder;
+
+public class CompressionTest {
+
+  private static ByteBuf encode(ByteBuf data, int threshold) {
+    EmbeddedChannel channel = new EmbeddedChannel(new CompressionEncoder(threshold));
+    assertTrue(channel.writeOutbound(data));
+    ByteBuf encoded = channel.readOutbound();
+    assertFalse(channel.finish());
+    return encoded;
+  }
+
+  private static ByteBuf decode(ByteBuf encoded, int chunkSize) {
+    EmbeddedChannel channel = new EmbeddedChannel(new CompressionDecoder());
+    // send data in chunks to check partial packets
+    while (encoded.isReadable()) {
+      channel.writeInbound(encoded.readRetainedSlice(Math.min(chunkSize, encoded.readableBytes())));
+    }
+    encoded.release();
+    ByteBuf result = Unpooled.buffer();
+    ByteBuf part;
+    while ((part = channel.readInbound()) != null) {
+      result.writeBytes(part);
+      part.release();
+    }
+    channel.finish();
+    return result;
+  }
+
+  @Test
+  void smallPayloadNotCompressed() {
+    ByteBuf encoded = encode(Unpooled.wrappedBuffer(new byte[] {1, 2, 3}), 50);
+    assertEquals(10, encoded.readableBytes());
+    assertEquals(3, encoded.getUnsignedMediumLE(0));
+    assertEquals(0, encoded.getByte(3));
+    assertEquals(0, encoded.getUnsignedMediumLE(4));
+
+    ByteBuf decoded = decode(encoded, 4);
+    assertArrayEquals(new byte[] {1, 2, 3}, toArray(decoded));
+  }
+
+  @Test
+  void compressedRoundTrip() {
+    byte[] data = new byte[100_000];
+    for (int i = 0; i < data.length; i++) data[i] = (byte) ('a' + (i % 7));
+    ByteBuf encoded = encode(Unpooled.wrappedBuffer(data), 50);
+    // compressed: uncompressed length is set in header
+    assertEquals(data.length, encoded.getUnsignedMediumLE(4));
+    assertTrue(encoded.readableBytes() < data.length / 10);
+
+    ByteBuf decoded = decode(encoded, 1000);
+    assertArrayEquals(data, toArray(decoded));
+  }
+
+  @Test
+  void incompressibleSentRaw() {
+    byte[] data = new byte[5000];
+    new Random(0).nextBytes(data);
+    ByteBuf encoded = encode(Unpooled.wrappedBuffer(data), 50);
+    assertEquals(0, encoded.getUnsignedMediumLE(4));
+    assertEquals(data.length + 7, encoded.readableBytes());
+
+    ByteBuf decoded = decode(encoded, 333);
+    assertArrayEquals(data, toArray(decoded));
+  }
+
+  @Test
+  void directBuffersMixedSizes() {
+    // direct buffers are copied to scratch arrays, or to pooled buffers above 64KB
+    EmbeddedChannel encoderChannel = new EmbeddedChannel(new CompressionEncoder(50));
+    EmbeddedChannel decoderChannel = new EmbeddedChannel(new CompressionDecoder());
+    for (int size : new int[] {1000, 300_000, 70_000, 2000, 65_000}) {
+      byte[] data = new byte[size];
+      for (int i = 0; i < size; i++) data[i] = (byte) ('a' + (i % 13) + (size % 5));
+      ByteBuf direct = Unpooled.directBuffer(size).writeBytes(data);
+      assertTrue(encoderChannel.writeOutbound(direct));
+      ByteBuf encoded = encoderChannel.readOutbound();
+      assertEquals(size, encoded.getUnsignedMediumLE(4));
+
+      ByteBuf directEncoded = Unpooled.directBuffer(encoded.readableBytes()).writeBytes(encoded);
+      encoded.release();
+      decoderChannel.writeInbound(directEncoded);
+      ByteBuf decoded = decoderChannel.readInbound();
+      assertArrayEquals(data, toArray(decoded));
+    }
+    assertFalse(encoderChannel.finish());
+    assertFalse(decoderChannel.finish());
+  }
+
+  @Test
+  void sequenceContinuesExchange() {
+    CompressionEncoder encoder = new CompressionEncoder(50);
+    EmbeddedChannel channel = new EmbeddedChannel(new CompressionDecoder(encoder), encoder);
+
+    // command: standard sequence 0, compressed sequence 0
+    assertTrue(channel.writeOutbound(Unpooled.wrappedBuffer(new byte[] {1, 0, 0, 0, 3})));
+    ByteBuf encoded = channel.readOutbound();
+    assertEquals(0, encoded.getByte(3));
+    encoded.release();
+
+    // server LOCAL INFILE request: compressed sequence 1
+    ByteBuf response = Unpooled.buffer();
+    response.writeMediumLE(6).writeByte(1).writeMediumLE(0);
+    response.writeMediumLE(2).writeByte(1).writeByte(0xfb).writeByte('a');
+    channel.writeInbound(response);
+    ByteBuf received = channel.readInbound();
+    received.release();
+
+    // content packets continue exchange
+    for (int i = 2; i < 4; i++) {
+      assertTrue(channel.writeOutbound(Unpooled.wrappedBuffer(new byte[] {1, 0, 0, (byte) i, 5})));
+      encoded = channel.readOutbound();
+      assertEquals(i, encoded.getByte(3));
+      encoded.release();
+    }
+
+    // next command restarts sequence
+    assertTrue(channel.writeOutbound(Unpooled.wrappedBuffer(new byte[] {1, 0, 0, 0, 3})));
+    encoded = channel.readOutbound();
+    assertEquals(0, encoded.getByte(3));
+    encoded.release();
+    assertFalse(channel.finish());
+  }
+
+  private static byte[] toArray(ByteBuf buf) {
+    byte[] arr = new byte[buf.readableBytes()];
+    buf.readBytes(arr);
+    buf.release();
+    return arr;
+  }
+}
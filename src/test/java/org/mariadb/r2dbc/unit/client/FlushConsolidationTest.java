@@ -0,0 +1,183 @@
+/*
+ * Copyright 2020 MariaDB Ab.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mariadb.r2dbc.unit.client;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.jupiter.api.Test;
+import org.mariadb.r2dbc.client.MariadbFlushConsolidationHandler;
+
+public class FlushConsolidationTest {
+
+  private static final long MAX_DELAY = 1_000_000_000L;
+
+  private static class FlushCounter extends ChannelOutboundHandlerAdapter {
+    private int flushes;
+
+    @Override
+    public void flush(ChannelHandlerContext ctx) {
+      flushes++;
+      ctx.flush();
+    }
+  }
+
+  private static ByteBuf data(int length) {
+    return Unpooled.wrappedBuffer(new byte[length]);
+  }
+
+  private static void release(EmbeddedChannel channel) {
+    ByteBuf buf;
+    while ((buf = channel.readOutbound()) != null) buf.release();
+    channel.finishAndReleaseAll();
+  }
+
+  @Test
+  void isolatedFlush() {
+    FlushCounter counter = new FlushCounter();
+    EmbeddedChannel channel =
+        new EmbeddedChannel(counter, new MariadbFlushConsolidationHandler(MAX_DELAY, 1024));
+    channel.write(data(10));
+    channel.flush();
+    assertEquals(0, counter.flushes);
+    assertNull(channel.readOutbound());
+
+    // flushed at the end of current event loop tasks, without any timer
+    channel.runPendingTasks();
+    assertEquals(1, counter.flushes);
+    ByteBuf buf = channel.readOutbound();
+    assertEquals(10, buf.readableBytes());
+    buf.release();
+    release(channel);
+  }
+
+  @Test
+  void consecutiveFlushes() {
+    FlushCounter counter = new FlushCounter();
+    EmbeddedChannel channel =
+        new EmbeddedChannel(counter, new MariadbFlushConsolidationHandler(MAX_DELAY, 1024));
+    // embedded channel runs pending tasks on each write reaching it, so writes are done first
+    for (int i = 0; i < 10; i++) {
+      channel.write(data(10));
+    }
+    for (int i = 0; i < 10; i++) {
+      channel.flush();
+    }
+    assertEquals(0, counter.flushes);
+    channel.runPendingTasks();
+    assertEquals(1, counter.flushes);
+    int count = 0;
+    ByteBuf buf;
+    while ((buf = channel.readOutbound()) != null) {
+      count++;
+      buf.release();
+    }
+    assertEquals(10, count);
+    release(channel);
+  }
+
+  @Test
+  void maxPendingBytes() {
+    FlushCounter counter = new FlushCounter();
+    EmbeddedChannel channel =
+        new EmbeddedChannel(counter, new MariadbFlushConsolidationHandler(MAX_DELAY, 25));
+    channel.write(data(10));
+    channel.flush();
+    assertEquals(0, counter.flushes);
+    channel.runPendingTasks();
+    assertEquals(1, counter.flushes);
+
+    channel.write(data(10));
+    channel.write(data(20));
+    channel.flush();
+    assertEquals(2, counter.flushes);
+
+    // no pending flush left
+    channel.runPendingTasks();
+    assertEquals(2, counter.flushes);
+    release(channel);
+  }
+
+  private static void flushRepeatedly(EmbeddedChannel channel, int remaining) {
+    channel.flush();
+    channel.flush();
+    if (remaining > 1) {
+      channel.eventLoop().execute(() -> flushRepeatedly(channel, remaining - 1));
+    }
+  }
+
+  @Test
+  void maxDelay() {
+    // flush postponed as long as other flushes are requested
+    FlushCounter counter = new FlushCounter();
+    EmbeddedChannel channel =
+        new EmbeddedChannel(counter, new MariadbFlushConsolidationHandler(MAX_DELAY, 1024));
+    flushRepeatedly(channel, 5);
+    channel.runPendingTasks();
+    assertEquals(1, counter.flushes);
+    release(channel);
+
+    // unless maximum delay is reached
+    counter = new FlushCounter();
+    channel = new EmbeddedChannel(counter, new MariadbFlushConsolidationHandler(0, 1024));
+    flushRepeatedly(channel, 5);
+    channel.runPendingTasks();
+    assertEquals(5, counter.flushes);
+    release(channel);
+  }
+
+  @Test
+  void flushOnReadComplete() {
+    FlushCounter counter = new FlushCounter();
+    EmbeddedChannel channel =
+        new EmbeddedChannel(
+            counter,
+            new MariadbFlushConsolidationHandler(MAX_DELAY, 1024),
+            new ChannelInboundHandlerAdapter() {
+              @Override
+              public void channelRead(ChannelHandlerContext ctx, Object msg) {
+                // answer each message, like commands sent when receiving a response
+                ctx.writeAndFlush(msg);
+              }
+            });
+    channel.pipeline().fireChannelRead(data(10));
+    channel.pipeline().fireChannelRead(data(10));
+    assertEquals(0, counter.flushes);
+    channel.pipeline().fireChannelReadComplete();
+    assertEquals(1, counter.flushes);
+    channel.runPendingTasks();
+    assertEquals(1, counter.flushes);
+    release(channel);
+  }
+
+  @Test
+  void flushOnClose() {
+    FlushCounter counter = new FlushCounter();
+    EmbeddedChannel channel =
+        new EmbeddedChannel(counter, new MariadbFlushConsolidationHandler(MAX_DELAY, 1024));
+    channel.write(data(10));
+    channel.flush();
+    channel.close();
+    assertEquals(1, counter.flushes);
+    release(channel);
+  }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2020 MariaDB Ab.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mariadb.r2dbc.unit.client;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.DefaultEventLoopGroup;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.local.LocalAddress;
+import io.netty.channel.local.LocalChannel;
+import io.netty.channel.local.LocalServerChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.mariadb.r2dbc.client.CmdElement;
+import org.mariadb.r2dbc.client.Context;
+import org.mariadb.r2dbc.client.DecoderState;
+import org.mariadb.r2dbc.client.MariadbPacketDecoder;
+import org.mariadb.r2dbc.message.server.RowPacket;
+import org.mariadb.r2dbc.message.server.ServerMessage;
+import org.mariadb.r2dbc.metrics.Metrics;
+import org.mariadb.r2dbc.util.constants.Capabilities;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+public class ReadBackpressureTest {
+
+  private static final int ROWS = 50_000;
+
+  /** Text result-set of one column, without ending packet. */
+  private static ByteBuf resultSet() {
+    ByteBuf buf = Unpooled.buffer();
+    int sequence = 1;
+    buf.writeMediumLE(1).writeByte(sequence++).writeByte(1);
+
+    ByteBuf column = Unpooled.buffer();
+    for (int i = 0; i < 4; i++) column.writeByte(0);
+    for (int i = 0; i < 2; i++) {
+      column.writeByte(1).writeCharSequence("a", StandardCharsets.UTF_8);
+    }
+    column.writeShortLE(63); // charset
+    column.writeIntLE(10); // length
+    column.writeByte(3); // type INT
+    column.writeShortLE(0); // flags
+    column.writeByte(0); // decimals
+    column.writeShortLE(0); // filler
+    buf.writeMediumLE(column.readableBytes()).writeByte(sequence++).writeBytes(column);
+    column.release();
+
+    for (int i = 0; i < ROWS; i++) {
+      buf.writeMediumLE(2).writeByte(sequence++).writeByte(1).writeByte('1');
+    }
+    return buf;
+  }
+
+  /**
+   * Subscriber requests messages one by one from another thread than event loop, so pausing socket
+   * reading on event loop and resuming on subscriber demand race each other. All rows must be
+   * received, without socket reading being left paused.
+   */
+  @Test
+  void concurrentPauseAndResume() throws Exception {
+    EventLoopGroup group = new DefaultEventLoopGroup(2);
+    Scheduler scheduler = Schedulers.newSingle("subscriber");
+    try {
+      for (int iteration = 0; iteration < 5; iteration++) {
+        LocalAddress address = new LocalAddress("backpressure-" + iteration);
+        Channel server =
+            new ServerBootstrap()
+                .group(group)
+                .channel(LocalServerChannel.class)
+                .childHandler(
+                    new ChannelInboundHandlerAdapter() {
+                      @Override
+                      public void channelActive(ChannelHandlerContext ctx) {
+                        ByteBuf data = resultSet();
+                        while (data.isReadable()) {
+                          ctx.write(data.readRetainedSlice(Math.min(8192, data.readableBytes())));
+                        }
+                        data.release();
+                        ctx.flush();
+                      }
+                    })
+                .bind(address)
+                .sync()
+                .channel();
+
+        Queue<CmdElement> receivers = new ConcurrentLinkedQueue<>();
+        CountDownLatch latch = new CountDownLatch(ROWS + 2);
+        Flux.<ServerMessage>create(
+                sink -> receivers.add(new CmdElement(sink, DecoderState.QUERY_RESPONSE)))
+            .publishOn(scheduler, 1)
+            .subscribe(
+                msg -> {
+                  if (msg instanceof RowPacket) ((RowPacket) msg).release();
+                  latch.countDown();
+                });
+
+        MariadbPacketDecoder decoder = new MariadbPacketDecoder(receivers, null, Metrics.NONE, 0);
+        decoder.setContext(
+            new Context(
+                "10.6.0-MariaDB",
+                1,
+                new byte[0],
+                Capabilities.CLIENT_DEPRECATE_EOF,
+                (short) 0,
+                true));
+        Channel client =
+            new Bootstrap()
+                .group(group)
+                .channel(LocalChannel.class)
+                .handler(decoder)
+                .connect(address)
+                .sync()
+                .channel();
+
+        assertTrue(latch.await(30, TimeUnit.SECONDS), "remaining " + latch.getCount());
+        client.eventLoop().submit(() -> {}).sync();
+        assertTrue(client.config().isAutoRead());
+        client.close().sync();
+        server.close().sync();
+      }
+    } finally {
+      scheduler.dispose();
+      group.shutdownGracefully(0, 1, TimeUnit.SECONDS).sync();
+    }
+  }
+}
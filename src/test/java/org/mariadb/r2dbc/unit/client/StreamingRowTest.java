@@ -0,0 +1,292 @@
+/*
+ * Copyright 2020 MariaDB Ab.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mariadb.r2dbc.unit.client;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.r2dbc.spi.Blob;
+import io.r2dbc.spi.Clob;
+import io.r2dbc.spi.R2dbcNonTransientResourceException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import org.junit.jupiter.api.Test;
+import org.mariadb.r2dbc.client.CmdElement;
+import org.mariadb.r2dbc.client.Context;
+import org.mariadb.r2dbc.client.DecoderState;
+import org.mariadb.r2dbc.client.MariadbPacketDecoder;
+import org.mariadb.r2dbc.message.server.ColumnDefinitionPacket;
+import org.mariadb.r2dbc.message.server.RowPacket;
+import org.mariadb.r2dbc.message.server.ServerMessage;
+import org.mariadb.r2dbc.message.server.StreamedRowPacket;
+import org.mariadb.r2dbc.metrics.Metrics;
+import org.mariadb.r2dbc.util.ServerPrepareResult;
+import org.mariadb.r2dbc.util.constants.Capabilities;
+import reactor.core.publisher.Flux;
+
+public class StreamingRowTest {
+
+  private static final int TYPE_LONG = 3;
+  private static final int TYPE_MEDIUM_BLOB = 250;
+  private static final int TYPE_LONG_BLOB = 251;
+  private static final int BINARY_CHARSET = 63;
+  private static final int UTF8_CHARSET = 33;
+
+  private final List<ServerMessage> messages = new ArrayList<>();
+  private EmbeddedChannel channel;
+
+  private void connect(int lobChunkSize, ServerPrepareResult prepareResult) {
+    Queue<CmdElement> receivers = new ArrayDeque<>();
+    Flux.<ServerMessage>create(
+            sink -> {
+              CmdElement element = new CmdElement(sink, DecoderState.QUERY_RESPONSE);
+              element.setPrepareResult(prepareResult);
+              receivers.add(element);
+            })
+        .subscribe(messages::add);
+    MariadbPacketDecoder decoder =
+        new MariadbPacketDecoder(receivers, null, Metrics.NONE, lobChunkSize);
+    decoder.setContext(
+        new Context(
+            "10.6.0-MariaDB", 1, new byte[0], Capabilities.CLIENT_DEPRECATE_EOF, (short) 0, true));
+    channel = new EmbeddedChannel(decoder);
+  }
+
+  private static ByteBuf columnDefinition(String name, int type, int charset) {
+    ByteBuf buf = Unpooled.buffer();
+    for (int i = 0; i < 4; i++) buf.writeByte(0);
+    for (int i = 0; i < 2; i++) {
+      buf.writeByte(name.length()).writeCharSequence(name, StandardCharsets.UTF_8);
+    }
+    buf.writeShortLE(charset);
+    buf.writeIntLE(10); // length
+    buf.writeByte(type);
+    buf.writeShortLE(0); // flags
+    buf.writeByte(0); // decimals
+    buf.writeShortLE(0); // filler
+    return buf;
+  }
+
+  private static ColumnDefinitionPacket column(String name, int type, int charset) {
+    ByteBuf buf = columnDefinition(name, type, charset);
+    try {
+      return ColumnDefinitionPacket.decode(null, buf, null, false);
+    } finally {
+      buf.release();
+    }
+  }
+
+  /** Send payload, split in packets of 16M like server does. */
+  private void send(ByteBuf payload) {
+    ByteBuf out = Unpooled.buffer();
+    int sequence = 0;
+    while (true) {
+      int len = Math.min(0xffffff, payload.readableBytes());
+      out.writeMediumLE(len).writeByte(sequence++);
+      out.writeBytes(payload, len);
+      if (len < 0xffffff) break;
+    }
+    payload.release();
+    // send data in parts to check partial packets
+    while (out.isReadable()) {
+      channel.writeInbound(out.readRetainedSlice(Math.min(65536, out.readableBytes())));
+    }
+    out.release();
+  }
+
+  private void sendColumns(ByteBuf... definitions) {
+    send(Unpooled.buffer().writeByte(definitions.length));
+    for (ByteBuf definition : definitions) {
+      send(definition);
+    }
+  }
+
+  private static void writeLength(ByteBuf buf, long length) {
+    if (length < 251) {
+      buf.writeByte((int) length);
+    } else {
+      buf.writeByte(0xfe).writeLongLE(length);
+    }
+  }
+
+  @Test
+  void textRowStreamedClob() {
+    connect(1_000_000, null);
+    ColumnDefinitionPacket[] columns = {
+      column("id", TYPE_LONG, BINARY_CHARSET),
+      column("txt", TYPE_LONG_BLOB, UTF8_CHARSET),
+      column("small", TYPE_MEDIUM_BLOB, UTF8_CHARSET),
+      column("n", TYPE_MEDIUM_BLOB, BINARY_CHARSET),
+      column("after", TYPE_LONG, BINARY_CHARSET)
+    };
+    sendColumns(
+        columnDefinition("id", TYPE_LONG, BINARY_CHARSET),
+        columnDefinition("txt", TYPE_LONG_BLOB, UTF8_CHARSET),
+        columnDefinition("small", TYPE_MEDIUM_BLOB, UTF8_CHARSET),
+        columnDefinition("n", TYPE_MEDIUM_BLOB, BINARY_CHARSET),
+        columnDefinition("after", TYPE_LONG, BINARY_CHARSET));
+
+    // 3 bytes pattern, split between chunks
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 6_000_000; i++) sb.append(i % 2 == 0 ? "aé" : "bè");
+    String text = sb.toString();
+    byte[] textBytes = text.getBytes(StandardCharsets.UTF_8);
+    byte[] small = "héllo".getBytes(StandardCharsets.UTF_8);
+
+    ByteBuf row = Unpooled.buffer();
+    writeLength(row, 1);
+    row.writeByte('1');
+    writeLength(row, textBytes.length);
+    row.writeBytes(textBytes);
+    writeLength(row, small.length);
+    row.writeBytes(small);
+    row.writeByte(251); // NULL
+    writeLength(row, 1);
+    row.writeByte('7');
+    send(row);
+
+    assertEquals(7, messages.size());
+    StreamedRowPacket rowPacket = (StreamedRowPacket) messages.get(6);
+    // columns before streamed column are available
+    assertFalse(rowPacket.isStreamed(0));
+    assertTrue(rowPacket.isStreamed(1));
+    assertEquals(2, rowPacket.getRaw().readableBytes());
+    assertEquals('1', rowPacket.getRaw().getByte(1));
+    rowPacket.getRaw().release();
+
+    Clob clob = rowPacket.get(1, columns[1], Clob.class);
+    Clob smallClob = rowPacket.get(2, columns[2], Clob.class);
+    Blob nullBlob = rowPacket.get(3, columns[3], Blob.class);
+    assertThrows(
+        R2dbcNonTransientResourceException.class, () -> rowPacket.get(2, columns[2], String.class));
+    assertThrows(
+        R2dbcNonTransientResourceException.class,
+        () -> rowPacket.get(4, columns[4], Integer.class));
+
+    StringBuilder received = new StringBuilder();
+    Flux.from(clob.stream()).doOnNext(received::append).blockLast();
+    assertEquals(text, received.toString());
+
+    assertEquals("héllo", Flux.from(smallClob.stream()).blockLast().toString());
+    // text protocol NULL LOB is empty
+    assertNull(Flux.from(nullBlob.stream()).blockLast());
+    channel.finishAndReleaseAll();
+  }
+
+  @Test
+  void binaryRowStreamedBlob() {
+    connect(1 << 20, new ServerPrepareResult(1, 3, 0));
+    ColumnDefinitionPacket[] columns = {
+      column("id", TYPE_LONG, BINARY_CHARSET),
+      column("data", TYPE_LONG_BLOB, BINARY_CHARSET),
+      column("n", TYPE_MEDIUM_BLOB, BINARY_CHARSET)
+    };
+    sendColumns(
+        columnDefinition("id", TYPE_LONG, BINARY_CHARSET),
+        columnDefinition("data", TYPE_LONG_BLOB, BINARY_CHARSET),
+        columnDefinition("n", TYPE_MEDIUM_BLOB, BINARY_CHARSET));
+
+    byte[] data = new byte[20_000_000];
+    for (int i = 0; i < data.length; i++) data[i] = (byte) (i % 251);
+
+    ByteBuf row = Unpooled.buffer();
+    row.writeByte(0); // header
+    row.writeByte(1 << (2 + 2)); // null bitmap: third column is null
+    row.writeIntLE(42);
+    writeLength(row, data.length);
+    row.writeBytes(data);
+    send(row);
+
+    StreamedRowPacket rowPacket = (StreamedRowPacket) messages.get(4);
+    ByteBuf raw = rowPacket.getRaw();
+    assertEquals(6, raw.readableBytes());
+    assertEquals(42, raw.getIntLE(2));
+    raw.release();
+    assertNull(rowPacket.get(2, columns[2], Blob.class));
+
+    Blob blob = rowPacket.get(1, columns[1], Blob.class);
+    byte[] received = new byte[data.length];
+    int[] pos = new int[1];
+    Flux.from(blob.stream())
+        .doOnNext(
+            chunk -> {
+              assertTrue(chunk.remaining() <= 1 << 20);
+              int len = chunk.remaining();
+              chunk.get(received, pos[0], len);
+              pos[0] += len;
+            })
+        .blockLast();
+    assertEquals(data.length, pos[0]);
+    assertArrayEquals(data, received);
+    channel.finishAndReleaseAll();
+  }
+
+  @Test
+  void unclaimedLobDiscarded() {
+    connect(256 * 1024, null);
+    ColumnDefinitionPacket data = column("data", TYPE_LONG_BLOB, BINARY_CHARSET);
+    sendColumns(columnDefinition("data", TYPE_LONG_BLOB, BINARY_CHARSET));
+
+    ByteBuf row = Unpooled.buffer();
+    writeLength(row, 18_000_000);
+    row.writeZero(18_000_000);
+    ByteBuf firstPart = row.readRetainedSlice(8 << 20);
+    ByteBuf out = Unpooled.buffer();
+    out.writeMediumLE(0xffffff).writeByte(0).writeBytes(firstPart);
+    firstPart.release();
+    channel.writeInbound(out);
+
+    StreamedRowPacket rowPacket = (StreamedRowPacket) messages.get(2);
+    // chunks wait for subscriber, socket reading is stopped
+    assertFalse(channel.config().isAutoRead());
+    rowPacket.discardUnclaimed();
+    rowPacket.getRaw().release();
+    assertTrue(channel.config().isAutoRead());
+
+    // following chunks are dropped
+    ByteBuf rest = Unpooled.buffer();
+    rest.writeBytes(row, 0xffffff - (8 << 20));
+    rest.writeMediumLE(row.readableBytes()).writeByte(1).writeBytes(row);
+    row.release();
+    channel.writeInbound(rest);
+    assertTrue(channel.config().isAutoRead());
+    Blob blob = rowPacket.get(0, data, Blob.class);
+    assertThrows(IllegalStateException.class, () -> Flux.from(blob.stream()).blockLast());
+    channel.finishAndReleaseAll();
+  }
+
+  @Test
+  void rowWithoutBigLobNotStreamed() {
+    connect(32 << 20, null);
+    sendColumns(columnDefinition("data", TYPE_LONG_BLOB, BINARY_CHARSET));
+
+    ByteBuf row = Unpooled.buffer();
+    writeLength(row, 17_000_000);
+    row.writeZero(17_000_000);
+    send(row);
+
+    RowPacket rowPacket = (RowPacket) messages.get(2);
+    assertEquals(17_000_009, rowPacket.getRaw().readableBytes());
+    rowPacket.getRaw().release();
+    channel.finishAndReleaseAll();
+  }
+}
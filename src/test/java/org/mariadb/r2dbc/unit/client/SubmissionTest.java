@@ -0,0 +1,319 @@
+/*
+ * Copyright 2020 MariaDB Ab.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mariadb.r2dbc.unit.client;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.DefaultEventLoopGroup;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.local.LocalAddress;
+import io.netty.channel.local.LocalChannel;
+import io.netty.channel.local.LocalServerChannel;
+import io.netty.util.ReferenceCountUtil;
+import io.r2dbc.spi.R2dbcNonTransientResourceException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mariadb.r2dbc.MariadbConnectionConfiguration;
+import org.mariadb.r2dbc.client.ClientPipelineImpl;
+import org.mariadb.r2dbc.message.client.QueryPacket;
+import org.mariadb.r2dbc.message.server.InitialHandshakePacket;
+import org.mariadb.r2dbc.message.server.Sequencer;
+import org.mariadb.r2dbc.metrics.Metrics;
+import org.mariadb.r2dbc.util.constants.ServerStatus;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.netty.Connection;
+import reactor.netty.ConnectionObserver;
+import reactor.netty.channel.ChannelOperations;
+import reactor.test.StepVerifier;
+
+public class SubmissionTest {
+
+  private static final int PRODUCERS = 4;
+  private static final int COMMANDS = 500;
+
+  private EventLoopGroup group;
+  private Channel server;
+  private Channel channel;
+  private Recorder recorder;
+
+  /** Record queries written to socket and flushes. */
+  private static class Recorder extends ChannelOutboundHandlerAdapter {
+    private final List<String> queries = new ArrayList<>();
+    private int flushes;
+
+    @Override
+    public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
+      ByteBuf buf = (ByteBuf) msg;
+      int length = buf.getUnsignedMediumLE(buf.readerIndex());
+      // skip header and command byte
+      queries.add(buf.toString(buf.readerIndex() + 5, length - 1, StandardCharsets.UTF_8));
+      ctx.write(msg, promise);
+    }
+
+    @Override
+    public void flush(ChannelHandlerContext ctx) {
+      flushes++;
+      ctx.flush();
+    }
+  }
+
+  @BeforeEach
+  void connect() throws Exception {
+    group = new DefaultEventLoopGroup(1);
+    LocalAddress address = new LocalAddress("submission");
+    server =
+        new ServerBootstrap()
+            .group(group)
+            .channel(LocalServerChannel.class)
+            .childHandler(
+                new ChannelInboundHandlerAdapter() {
+                  @Override
+                  public void channelRead(ChannelHandlerContext ctx, Object msg) {
+                    ReferenceCountUtil.release(msg);
+                  }
+                })
+            .bind(address)
+            .sync()
+            .channel();
+    recorder = new Recorder();
+    channel =
+        new Bootstrap()
+            .group(group)
+            .channel(LocalChannel.class)
+            .handler(new ChannelInboundHandlerAdapter())
+            .connect(address)
+            .sync()
+            .channel();
+  }
+
+  @AfterEach
+  void close() throws Exception {
+    channel.close().sync();
+    server.close().sync();
+    group.shutdownGracefully(0, 1, TimeUnit.SECONDS).sync();
+  }
+
+  private ClientPipelineImpl client(Metrics metrics) {
+    MariadbConnectionConfiguration conf =
+        MariadbConnectionConfiguration.builder()
+            .host("localhost")
+            .username("root")
+            .flushMaxDelay(Duration.ZERO)
+            .metrics(metrics)
+            .build();
+    Connection connection =
+        new ChannelOperations<>(Connection.from(channel), ConnectionObserver.emptyListener());
+    ClientPipelineImpl client = new ClientPipelineImpl(connection, conf);
+    client.setContext(InitialHandshakePacket.decode(new Sequencer((byte) 0), handshake()));
+    // recorder is set closest to socket, receiving encoded packets
+    channel.pipeline().addFirst(recorder);
+    return client;
+  }
+
+  /** Initial handshake of a MariaDB server, not in transaction. */
+  private static ByteBuf handshake() {
+    ByteBuf buf = Unpooled.buffer();
+    buf.writeByte(0x0a);
+    buf.writeCharSequence("10.6.1-MariaDB", StandardCharsets.US_ASCII);
+    buf.writeByte(0);
+    buf.writeIntLE(1); // thread id
+    buf.writeZero(8 + 1); // seed, filler
+    buf.writeShortLE(0); // capabilities
+    buf.writeByte(33); // collation
+    buf.writeShortLE(ServerStatus.AUTOCOMMIT);
+    buf.writeShortLE(0); // capabilities
+    buf.writeZero(1 + 6);
+    buf.writeIntLE(0); // MariaDB capabilities
+    buf.writeByte(0);
+    return buf;
+  }
+
+  /** Subscribe to command, recording errors. Server never answers, so command never completes. */
+  private static void subscribe(Publisher<?> command, AtomicReference<Throwable> error) {
+    Flux.from(command).subscribe(msg -> {}, error::set);
+  }
+
+  private List<String> recorded(int expected) throws Exception {
+    for (int i = 0; i < 500; i++) {
+      List<String> queries =
+          channel.eventLoop().submit(() -> new ArrayList<>(recorder.queries)).get();
+      if (queries.size() >= expected) return queries;
+      Thread.sleep(10);
+    }
+    fail("commands not written");
+    return null;
+  }
+
+  private int flushes() throws Exception {
+    return channel.eventLoop().submit(() -> recorder.flushes).get();
+  }
+
+  /** Block event loop, until returned latch is released. */
+  private CountDownLatch blockEventLoop() throws Exception {
+    CountDownLatch blocked = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    channel
+        .eventLoop()
+        .execute(
+            () -> {
+              blocked.countDown();
+              try {
+                release.await();
+              } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+              }
+            });
+    blocked.await();
+    return release;
+  }
+
+  @Test
+  void concurrentProducersKeepOrder() throws Exception {
+    ClientPipelineImpl client = client(Metrics.NONE);
+    ExecutorService executor = Executors.newFixedThreadPool(PRODUCERS);
+    try {
+      CountDownLatch start = new CountDownLatch(1);
+      for (int producer = 0; producer < PRODUCERS; producer++) {
+        int id = producer;
+        executor.execute(
+            () -> {
+              try {
+                start.await();
+              } catch (InterruptedException e) {
+                return;
+              }
+              for (int i = 0; i < COMMANDS; i++) {
+                client.sendCommandWithoutResult(new QueryPacket(id + "-" + i));
+              }
+            });
+      }
+      // event loop producer, interleaving with other threads
+      AtomicInteger loopCount = new AtomicInteger();
+      Runnable loopProducer =
+          new Runnable() {
+            @Override
+            public void run() {
+              int i = loopCount.getAndIncrement();
+              client.sendCommandWithoutResult(new QueryPacket(PRODUCERS + "-" + i));
+              if (i + 1 < COMMANDS) channel.eventLoop().execute(this);
+            }
+          };
+      start.countDown();
+      channel.eventLoop().execute(loopProducer);
+
+      List<String> queries = recorded((PRODUCERS + 1) * COMMANDS);
+      assertEquals((PRODUCERS + 1) * COMMANDS, queries.size());
+      int[] next = new int[PRODUCERS + 1];
+      for (String query : queries) {
+        String[] parts = query.split("-");
+        int id = Integer.parseInt(parts[0]);
+        assertEquals(next[id]++, Integer.parseInt(parts[1]), "producer " + id + " order");
+      }
+      for (int count : next) assertEquals(COMMANDS, count);
+      assertTrue(flushes() <= queries.size());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void oneFlushPerDrain() throws Exception {
+    ClientPipelineImpl client = client(Metrics.NONE);
+    int initialFlushes = flushes();
+    CountDownLatch release = blockEventLoop();
+    try {
+      for (int i = 0; i < COMMANDS; i++) {
+        client.sendCommandWithoutResult(new QueryPacket("0-" + i));
+      }
+    } finally {
+      release.countDown();
+    }
+
+    List<String> queries = recorded(COMMANDS);
+    for (int i = 0; i < COMMANDS; i++) assertEquals("0-" + i, queries.get(i));
+    // all submissions are written by a single drain
+    assertEquals(1, flushes() - initialFlushes);
+  }
+
+  @Test
+  void submittedTransactionNotSkipped() throws Exception {
+    ClientPipelineImpl client = client(Metrics.NONE);
+    AtomicReference<Throwable> error = new AtomicReference<>();
+    CountDownLatch release = blockEventLoop();
+    try {
+      subscribe(client.sendCommand(new QueryPacket("BEGIN")), error);
+      // BEGIN is submitted but not yet drained: COMMIT must not rely on server status
+      subscribe(client.getTransactionAction().commitTransaction(), error);
+    } finally {
+      release.countDown();
+    }
+
+    List<String> queries = recorded(2);
+    assertEquals("BEGIN", queries.get(0));
+    assertEquals("COMMIT", queries.get(1));
+    assertNull(error.get());
+  }
+
+  @Test
+  void failedWriteErrorsCommand() throws Exception {
+    AtomicBoolean failed = new AtomicBoolean();
+    Metrics metrics =
+        new Metrics() {
+          @Override
+          public void commandSubmitted() {
+            if (failed.compareAndSet(false, true)) throw new IllegalStateException("boom");
+          }
+        };
+    ClientPipelineImpl client = client(metrics);
+    client
+        .sendCommand(new QueryPacket("failing"))
+        .as(StepVerifier::create)
+        .expectErrorMatches(
+            throwable ->
+                throwable instanceof R2dbcNonTransientResourceException
+                    && throwable.getCause() instanceof IllegalStateException)
+        .verify(Duration.ofSeconds(5));
+
+    // following submissions are still drained
+    AtomicReference<Throwable> error = new AtomicReference<>();
+    subscribe(client.sendCommand(new QueryPacket("after")), error);
+    assertEquals("after", recorded(1).get(0));
+    assertNull(error.get());
+  }
+}
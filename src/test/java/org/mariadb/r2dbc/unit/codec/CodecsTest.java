@@ -0,0 +1,81 @@
+/*
+ * Copyright 2020 MariaDB Ab.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mariadb.r2dbc.unit.codec;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+import org.mariadb.r2dbc.codec.Codecs;
+import org.mariadb.r2dbc.codec.TextRowDecoder;
+import org.mariadb.r2dbc.codec.list.BigIntegerCodec;
+import org.mariadb.r2dbc.codec.list.IntCodec;
+import org.mariadb.r2dbc.codec.list.LongCodec;
+import org.mariadb.r2dbc.codec.list.StringCodec;
+import org.mariadb.r2dbc.message.server.ColumnDefinitionPacket;
+
+public class CodecsTest {
+
+  @Test
+  void encoder() {
+    assertSame(IntCodec.INSTANCE, Codecs.encoder(Integer.class));
+    assertSame(StringCodec.INSTANCE, Codecs.encoder(String.class));
+    assertSame(BigIntegerCodec.INSTANCE, Codecs.encoder(BigInteger.class));
+    assertNull(Codecs.encoder(Thread.class));
+    assertNull(Codecs.encoder(Thread.class));
+  }
+
+  @Test
+  void decoder() {
+    // BIGINT column
+    ColumnDefinitionPacket column = ColumnDefinitionPacket.fromGeneratedId("id");
+    assertSame(LongCodec.INSTANCE, Codecs.decoder(column, Long.class));
+    assertSame(LongCodec.INSTANCE, Codecs.decoder(column, long.class));
+    assertSame(IntCodec.INSTANCE, Codecs.decoder(column, Integer.class));
+    assertSame(StringCodec.INSTANCE, Codecs.decoder(column, String.class));
+    assertNull(Codecs.decoder(column, Thread.class));
+    assertNull(Codecs.decoder(column, Thread.class));
+  }
+
+  @Test
+  void rowDecoderReusesResolvedDecoder() {
+    ColumnDefinitionPacket[] columns =
+        new ColumnDefinitionPacket[] {
+          ColumnDefinitionPacket.fromGeneratedId("a"), ColumnDefinitionPacket.fromGeneratedId("b")
+        };
+    TextRowDecoder decoder = new TextRowDecoder(2, columns);
+    ByteBuf row = Unpooled.buffer();
+    row.writeByte(2).writeCharSequence("12", StandardCharsets.US_ASCII);
+    row.writeByte(3).writeCharSequence("345", StandardCharsets.US_ASCII);
+    try {
+      for (int i = 0; i < 3; i++) {
+        decoder.resetRow(row);
+        assertEquals(12L, decoder.get(0, columns[0], Long.class));
+        assertEquals("345", decoder.get(1, columns[1], String.class));
+        assertEquals(345, decoder.get(1, columns[1], Integer.class));
+        assertThrows(
+            IllegalArgumentException.class, () -> decoder.get(0, columns[0], Thread.class));
+        row.readerIndex(0);
+      }
+    } finally {
+      row.release();
+    }
+  }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2020 MariaDB Ab.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mariadb.r2dbc.unit.codec;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+import org.mariadb.r2dbc.codec.BinaryRowDecoder;
+import org.mariadb.r2dbc.codec.RowDecoder;
+import org.mariadb.r2dbc.codec.TextRowDecoder;
+import org.mariadb.r2dbc.message.server.ColumnDefinitionPacket;
+import org.mariadb.r2dbc.util.constants.ColumnFlags;
+
+public class RowDecoderPrimitiveTest {
+
+  private static final int TYPE_LONG = 3;
+  private static final int TYPE_FLOAT = 4;
+  private static final int TYPE_DOUBLE = 5;
+  private static final int TYPE_VAR_STRING = 253;
+
+  private static ColumnDefinitionPacket column(String name, int type, int flags) {
+    ByteBuf buf = Unpooled.buffer();
+    try {
+      for (int i = 0; i < 4; i++) buf.writeByte(0);
+      for (int i = 0; i < 2; i++) {
+        buf.writeByte(name.length()).writeCharSequence(name, StandardCharsets.UTF_8);
+      }
+      buf.writeShortLE(type == TYPE_VAR_STRING ? 33 : 63); // charset
+      buf.writeIntLE(10); // length
+      buf.writeByte(type);
+      buf.writeShortLE(flags);
+      buf.writeByte(0); // decimals
+      buf.writeShortLE(0); // filler
+      return ColumnDefinitionPacket.decode(null, buf, null, false);
+    } finally {
+      buf.release();
+    }
+  }
+
+  private static final ColumnDefinitionPacket[] COLUMNS =
+      new ColumnDefinitionPacket[] {
+        column("i", TYPE_LONG, 0),
+        column("u", TYPE_LONG, ColumnFlags.UNSIGNED),
+        column("d", TYPE_DOUBLE, 0),
+        column("f", TYPE_FLOAT, 0),
+        column("s", TYPE_VAR_STRING, 0),
+        column("n", TYPE_LONG, 0)
+      };
+
+  private static void text(ByteBuf row, String value) {
+    if (value == null) {
+      row.writeByte(251);
+    } else {
+      row.writeByte(value.length()).writeCharSequence(value, StandardCharsets.US_ASCII);
+    }
+  }
+
+  private static void check(RowDecoder decoder) {
+    assertTrue(RowDecoder.isLongCompatible(COLUMNS[0]));
+    assertFalse(RowDecoder.isLongCompatible(COLUMNS[2]));
+
+    assertEquals(-12L, decoder.getLong(0, COLUMNS[0]));
+    assertFalse(decoder.wasNull());
+    assertEquals(4294967295L, decoder.getLong(1, COLUMNS[1]));
+    assertEquals(-12D, decoder.getDouble(0, COLUMNS[0]));
+    assertEquals(1.5D, decoder.getDouble(2, COLUMNS[2]));
+    assertEquals(2.25F, decoder.getFloat(3, COLUMNS[3]));
+    assertEquals(2.25D, decoder.getDouble(3, COLUMNS[3]));
+    // string column is converted using codec
+    assertEquals(42L, decoder.getLong(4, COLUMNS[4]));
+    assertEquals(42D, decoder.getDouble(4, COLUMNS[4]));
+
+    assertEquals(0L, decoder.getLong(5, COLUMNS[5]));
+    assertTrue(decoder.wasNull());
+    assertEquals(0D, decoder.getDouble(5, COLUMNS[5]));
+    assertTrue(decoder.wasNull());
+
+    // backward access
+    assertEquals(-12L, decoder.getLong(0, COLUMNS[0]));
+    assertFalse(decoder.wasNull());
+    assertNull(decoder.get(5, COLUMNS[5], Long.class));
+    assertTrue(decoder.wasNull());
+  }
+
+  @Test
+  void textPrimitives() {
+    ByteBuf row = Unpooled.buffer();
+    text(row, "-12");
+    text(row, "4294967295");
+    text(row, "1.5");
+    text(row, "2.25");
+    text(row, "42");
+    text(row, null);
+    try {
+      TextRowDecoder decoder = new TextRowDecoder(COLUMNS.length, COLUMNS);
+      decoder.resetRow(row);
+      check(decoder);
+    } finally {
+      row.release();
+    }
+  }
+
+  @Test
+  void binaryPrimitives() {
+    ByteBuf row = Unpooled.buffer();
+    row.writeByte(0x00);
+    // null bitmap: offset of 2 bits, column 5 is null
+    row.writeByte(1 << (5 + 2));
+    row.writeIntLE(-12);
+    row.writeIntLE((int) 4294967295L);
+    row.writeDoubleLE(1.5D);
+    row.writeFloatLE(2.25F);
+    row.writeByte(2).writeCharSequence("42", StandardCharsets.US_ASCII);
+    try {
+      BinaryRowDecoder decoder = new BinaryRowDecoder(COLUMNS.length, COLUMNS);
+      decoder.resetRow(row);
+      check(decoder);
+    } finally {
+      row.release();
+    }
+  }
+
+  @Test
+  void outOfOrderAccess() {
+    TextRowDecoder decoder = new TextRowDecoder(COLUMNS.length, COLUMNS);
+    for (String s : new String[] {"7", "123456"}) {
+      ByteBuf row = Unpooled.buffer();
+      text(row, "-" + s);
+      text(row, s);
+      text(row, "1.5");
+      text(row, "2.25");
+      text(row, s + s);
+      text(row, null);
+      try {
+        decoder.resetRow(row);
+        assertEquals(s + s, decoder.get(4, COLUMNS[4], String.class));
+        assertEquals(Long.parseLong(s), decoder.getLong(1, COLUMNS[1]));
+        assertNull(decoder.get(5, COLUMNS[5], Long.class));
+        assertEquals(-Long.parseLong(s), decoder.getLong(0, COLUMNS[0]));
+        assertEquals(s + s, decoder.get(4, COLUMNS[4], String.class));
+        assertEquals(2.25F, decoder.getFloat(3, COLUMNS[3]));
+      } finally {
+        row.release();
+      }
+    }
+  }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2020 MariaDB Ab.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mariadb.r2dbc.unit.message;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.mariadb.r2dbc.client.Context;
+import org.mariadb.r2dbc.codec.Parameter;
+import org.mariadb.r2dbc.codec.list.IntCodec;
+import org.mariadb.r2dbc.codec.list.StringCodec;
+import org.mariadb.r2dbc.message.client.BatchQueryWithParametersPacket;
+import org.mariadb.r2dbc.util.ClientPrepareResult;
+
+public class BatchQueryWithParametersPacketTest {
+
+  private static Context context(int maxAllowedPacket) {
+    Context context = new Context("10.5.5-MariaDB", 1, new byte[0], 0, (short) 0, true);
+    context.setMaxAllowedPacket(maxAllowedPacket);
+    return context;
+  }
+
+  private static List<Parameter<?>[]> rows(int number) {
+    List<Parameter<?>[]> rows = new ArrayList<>();
+    for (int i = 0; i < number; i++) {
+      rows.add(
+          new Parameter<?>[] {
+            new Parameter<>(IntCodec.INSTANCE, i), new Parameter<>(StringCodec.INSTANCE, "s" + i)
+          });
+    }
+    return rows;
+  }
+
+  private static String query(ByteBuf buf) {
+    assertEquals(0x03, buf.readByte());
+    return buf.toString(StandardCharsets.UTF_8);
+  }
+
+  @Test
+  void multiValues() {
+    ClientPrepareResult prepareResult =
+        ClientPrepareResult.parameterParts(
+            "INSERT INTO t VALUES (?, ?) ON DUPLICATE KEY UPDATE b = 'x'", false);
+    BatchQueryWithParametersPacket packet =
+        new BatchQueryWithParametersPacket(prepareResult, rows(3), 0, true);
+    ByteBuf buf = packet.encode(context(1024), UnpooledByteBufAllocator.DEFAULT);
+    try {
+      assertEquals(3, packet.getNextIndex());
+      assertEquals(
+          "INSERT INTO t VALUES (0, 's0'),(1, 's1'),(2, 's2') ON DUPLICATE KEY UPDATE b = 'x'",
+          query(buf));
+    } finally {
+      buf.release();
+    }
+  }
+
+  @Test
+  void multiValuesDuplicateKeyUpdateValues() {
+    ClientPrepareResult prepareResult =
+        ClientPrepareResult.parameterParts(
+            "INSERT INTO t (a, b) VALUES (?, ?) ON DUPLICATE KEY UPDATE b = VALUES(b)", false);
+    BatchQueryWithParametersPacket packet =
+        new BatchQueryWithParametersPacket(prepareResult, rows(3), 0, true);
+    ByteBuf buf = packet.encode(context(1024), UnpooledByteBufAllocator.DEFAULT);
+    try {
+      assertEquals(3, packet.getNextIndex());
+      assertEquals(
+          "INSERT INTO t (a, b) VALUES (0, 's0'),(1, 's1'),(2, 's2')"
+              + " ON DUPLICATE KEY UPDATE b = VALUES(b)",
+          query(buf));
+    } finally {
+      buf.release();
+    }
+  }
+
+  @Test
+  void multiStatement() {
+    ClientPrepareResult prepareResult =
+        ClientPrepareResult.parameterParts("UPDATE t SET b = ? WHERE a = ?", false);
+    BatchQueryWithParametersPacket packet =
+        new BatchQueryWithParametersPacket(prepareResult, rows(2), 0, false);
+    ByteBuf buf = packet.encode(context(1024), UnpooledByteBufAllocator.DEFAULT);
+    try {
+      assertEquals(2, packet.getNextIndex());
+      assertEquals(
+          "UPDATE t SET b = 0 WHERE a = 's0';UPDATE t SET b = 1 WHERE a = 's1'", query(buf));
+    } finally {
+      buf.release();
+    }
+  }
+
+  @Test
+  void splitOnMaxAllowedPacket() {
+    ClientPrepareResult prepareResult =
+        ClientPrepareResult.parameterParts("INSERT INTO t VALUES (?, ?)", false);
+    List<Parameter<?>[]> rows = rows(100);
+    int index = 0;
+    int commands = 0;
+    while (index < rows.size()) {
+      BatchQueryWithParametersPacket packet =
+          new BatchQueryWithParametersPacket(prepareResult, rows, index, true);
+      ByteBuf buf = packet.encode(context(100), UnpooledByteBufAllocator.DEFAULT);
+      try {
+        assertTrue(buf.readableBytes() <= 100);
+        assertTrue(packet.getNextIndex() > index);
+        String query = query(buf);
+        assertTrue(query.startsWith("INSERT INTO t VALUES (" + index + ", 's" + index + "')"));
+        assertTrue(query.endsWith(")"));
+      } finally {
+        buf.release();
+      }
+      index = packet.getNextIndex();
+      commands++;
+    }
+    assertTrue(commands > 1);
+  }
+}
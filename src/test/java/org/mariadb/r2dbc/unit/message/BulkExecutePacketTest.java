@@ -0,0 +1,126 @@
+/*
+ * Copyright 2020 MariaDB Ab.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mariadb.r2dbc.unit.message;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.mariadb.r2dbc.client.Context;
+import org.mariadb.r2dbc.codec.DataType;
+import org.mariadb.r2dbc.codec.Parameter;
+import org.mariadb.r2dbc.codec.list.IntCodec;
+import org.mariadb.r2dbc.codec.list.StringCodec;
+import org.mariadb.r2dbc.message.client.BulkExecutePacket;
+
+public class BulkExecutePacketTest {
+
+  private static Context context(int maxAllowedPacket) {
+    Context context = new Context("10.5.5-MariaDB", 1, new byte[0], 0, (short) 0, true);
+    context.setMaxAllowedPacket(maxAllowedPacket);
+    return context;
+  }
+
+  private static Map<Integer, Parameter<?>> row(Integer i, String s) {
+    Map<Integer, Parameter<?>> row = new HashMap<>();
+    row.put(0, i == null ? Parameter.NULL_PARAMETER : new Parameter<>(IntCodec.INSTANCE, i));
+    row.put(1, new Parameter<>(StringCodec.INSTANCE, s));
+    return row;
+  }
+
+  @Test
+  void encode() {
+    List<Map<Integer, Parameter<?>>> rows = new ArrayList<>();
+    rows.add(row(null, "a"));
+    rows.add(row(2, "bc"));
+
+    BulkExecutePacket packet = new BulkExecutePacket(5, 2, rows, 0);
+    ByteBuf buf = packet.encode(context(1024), UnpooledByteBufAllocator.DEFAULT);
+    try {
+      assertEquals(2, packet.getNextIndex());
+      assertEquals(0xfa, buf.readUnsignedByte());
+      assertEquals(5, buf.readIntLE());
+      assertEquals(128, buf.readShortLE());
+      // types use first non-null value
+      assertEquals(DataType.INTEGER.get(), buf.readShortLE());
+      assertEquals(DataType.VARSTRING.get(), buf.readShortLE());
+      // first row: null indicator then string value
+      assertEquals(1, buf.readByte());
+      assertEquals(0, buf.readByte());
+      assertEquals(1, buf.readByte());
+      assertEquals('a', buf.readByte());
+      // second row
+      assertEquals(0, buf.readByte());
+      assertEquals(2, buf.readIntLE());
+      assertEquals(0, buf.readByte());
+      assertEquals(2, buf.readByte());
+      assertEquals('b', buf.readByte());
+      assertEquals('c', buf.readByte());
+      assertFalse(buf.isReadable());
+    } finally {
+      buf.release();
+    }
+  }
+
+  @Test
+  void splitOnMaxAllowedPacket() {
+    List<Map<Integer, Parameter<?>>> rows = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      rows.add(row(i, "0123456789"));
+    }
+
+    int index = 0;
+    int commands = 0;
+    while (index < rows.size()) {
+      BulkExecutePacket packet = new BulkExecutePacket(1, 2, rows, index);
+      ByteBuf buf = packet.encode(context(200), UnpooledByteBufAllocator.DEFAULT);
+      try {
+        assertTrue(buf.readableBytes() <= 200);
+        assertTrue(packet.getNextIndex() > index);
+      } finally {
+        buf.release();
+      }
+      index = packet.getNextIndex();
+      commands++;
+    }
+    // header 11 bytes, each row 17 bytes: 11 rows per command
+    assertEquals(10, commands);
+  }
+
+  @Test
+  void splitOnTypeChange() {
+    List<Map<Integer, Parameter<?>>> rows = new ArrayList<>();
+    rows.add(row(1, "a"));
+    Map<Integer, Parameter<?>> otherType = new HashMap<>();
+    otherType.put(0, new Parameter<>(StringCodec.INSTANCE, "2"));
+    otherType.put(1, new Parameter<>(StringCodec.INSTANCE, "b"));
+    rows.add(otherType);
+
+    BulkExecutePacket packet = new BulkExecutePacket(1, 2, rows, 0);
+    packet.encode(context(1024), UnpooledByteBufAllocator.DEFAULT).release();
+    assertEquals(1, packet.getNextIndex());
+
+    packet = new BulkExecutePacket(1, 2, rows, 1);
+    packet.encode(context(1024), UnpooledByteBufAllocator.DEFAULT).release();
+    assertEquals(2, packet.getNextIndex());
+  }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2020 MariaDB Ab.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mariadb.r2dbc.unit.message;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.r2dbc.spi.RowMetadata;
+import org.junit.jupiter.api.Test;
+import org.mariadb.r2dbc.client.Context;
+import org.mariadb.r2dbc.message.server.ColumnCountPacket;
+import org.mariadb.r2dbc.message.server.ColumnDefinitionPacket;
+import org.mariadb.r2dbc.util.ServerPrepareResult;
+import org.mariadb.r2dbc.util.constants.Capabilities;
+
+public class ColumnCountPacketTest {
+
+  private static Context context(long capabilities) {
+    return new Context("10.6.1-MariaDB", 1, new byte[0], capabilities, (short) 0, true);
+  }
+
+  @Test
+  void metadataSkipped() {
+    ServerPrepareResult prepareResult = new ServerPrepareResult(1, 2, 0);
+    Context context = context(Capabilities.MARIADB_CLIENT_CACHE_METADATA);
+
+    ByteBuf buf = Unpooled.wrappedBuffer(new byte[] {2, 0});
+    ColumnCountPacket packet = ColumnCountPacket.decode(null, buf, context, prepareResult);
+    assertEquals(2, packet.getColumnCount());
+    assertFalse(packet.isMetaFollows());
+    assertSame(prepareResult, packet.getPrepareResult());
+
+    buf = Unpooled.wrappedBuffer(new byte[] {2, 1});
+    packet = ColumnCountPacket.decode(null, buf, context, prepareResult);
+    assertTrue(packet.isMetaFollows());
+
+    // text protocol results always contain metadata
+    buf = Unpooled.wrappedBuffer(new byte[] {2, 0});
+    packet = ColumnCountPacket.decode(null, buf, context, null);
+    assertTrue(packet.isMetaFollows());
+    assertNull(packet.getPrepareResult());
+  }
+
+  @Test
+  void capabilityNotNegotiated() {
+    ServerPrepareResult prepareResult = new ServerPrepareResult(1, 2, 0);
+    ByteBuf buf = Unpooled.wrappedBuffer(new byte[] {2});
+    ColumnCountPacket packet = ColumnCountPacket.decode(null, buf, context(0), prepareResult);
+    assertEquals(2, packet.getColumnCount());
+    assertTrue(packet.isMetaFollows());
+    assertNull(packet.getPrepareResult());
+  }
+
+  @Test
+  void cachedRowMetadata() {
+    ServerPrepareResult prepareResult = new ServerPrepareResult(1, 1, 0);
+    ColumnDefinitionPacket[] columns =
+        new ColumnDefinitionPacket[] {ColumnDefinitionPacket.fromGeneratedId("ID")};
+    RowMetadata rowMetadata =
+        new RowMetadata() {
+          @Override
+          public io.r2dbc.spi.ColumnMetadata getColumnMetadata(int index) {
+            return null;
+          }
+
+          @Override
+          public io.r2dbc.spi.ColumnMetadata getColumnMetadata(String name) {
+            return null;
+          }
+
+          @Override
+          public Iterable<? extends io.r2dbc.spi.ColumnMetadata> getColumnMetadatas() {
+            return null;
+          }
+
+          @Override
+          public java.util.Collection<String> getColumnNames() {
+            return null;
+          }
+        };
+
+    prepareResult.setColumns(columns);
+    assertNull(prepareResult.getRowMetadata(columns));
+    prepareResult.setRowMetadata(columns, rowMetadata);
+    assertSame(rowMetadata, prepareResult.getRowMetadata(columns));
+
+    // metadata changed: row metadata built from previous columns is discarded
+    ColumnDefinitionPacket[] newColumns =
+        new ColumnDefinitionPacket[] {ColumnDefinitionPacket.fromGeneratedId("ID2")};
+    prepareResult.setColumns(newColumns);
+    assertSame(newColumns, prepareResult.getColumns());
+    assertNull(prepareResult.getRowMetadata(newColumns));
+    prepareResult.setRowMetadata(columns, rowMetadata);
+    assertNull(prepareResult.getRowMetadata(newColumns));
+  }
+
+  @Test
+  void sameDefinition() {
+    ColumnDefinitionPacket column = ColumnDefinitionPacket.fromGeneratedId("ID");
+    assertTrue(column.sameDefinition(ColumnDefinitionPacket.fromGeneratedId("ID")));
+    assertFalse(column.sameDefinition(ColumnDefinitionPacket.fromGeneratedId("ID2")));
+  }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2020 MariaDB Ab.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mariadb.r2dbc.unit.message;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import io.r2dbc.spi.Blob;
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.mariadb.r2dbc.client.Context;
+import org.mariadb.r2dbc.codec.DataType;
+import org.mariadb.r2dbc.codec.Parameter;
+import org.mariadb.r2dbc.codec.list.BlobCodec;
+import org.mariadb.r2dbc.codec.list.ByteArrayCodec;
+import org.mariadb.r2dbc.codec.list.IntCodec;
+import org.mariadb.r2dbc.codec.list.StreamCodec;
+import org.mariadb.r2dbc.message.client.ExecutePacket;
+import org.mariadb.r2dbc.message.client.LongDataPacket;
+import reactor.core.publisher.Flux;
+
+public class LongDataPacketTest {
+
+  private static final Context context =
+      new Context("10.5.5-MariaDB", 1, new byte[0], 0, (short) 0, true);
+
+  private static int[] sizes(List<ByteBuf> chunks) {
+    int[] sizes = new int[chunks.size()];
+    for (int i = 0; i < sizes.length; i++) {
+      sizes[i] = chunks.get(i).readableBytes();
+      chunks.get(i).release();
+    }
+    return sizes;
+  }
+
+  @Test
+  void encode() {
+    ByteBuf chunk = Unpooled.wrappedBuffer(new byte[] {1, 2, 3});
+    ByteBuf buf = new LongDataPacket(5, 2, chunk).encode(context, UnpooledByteBufAllocator.DEFAULT);
+    try {
+      assertEquals(0, chunk.refCnt());
+      assertEquals(0x18, buf.readUnsignedByte());
+      assertEquals(5, buf.readIntLE());
+      assertEquals(2, buf.readShortLE());
+      assertEquals(1, buf.readByte());
+      assertEquals(2, buf.readByte());
+      assertEquals(3, buf.readByte());
+      assertFalse(buf.isReadable());
+    } finally {
+      buf.release();
+    }
+    assertFalse(new LongDataPacket(5, 2, Unpooled.EMPTY_BUFFER).expectResponse());
+  }
+
+  @Test
+  void executeSkipsLongData() {
+    byte[] big = new byte[LongDataPacket.MAX_CHUNK_SIZE + 1];
+    Map<Integer, Parameter<?>> parameters = new HashMap<>();
+    parameters.put(0, new Parameter<>(IntCodec.INSTANCE, 3));
+    parameters.put(1, new Parameter<>(ByteArrayCodec.INSTANCE, big));
+    parameters.put(2, new Parameter<>(ByteArrayCodec.INSTANCE, new byte[] {9}));
+    assertFalse(parameters.get(0).useLongData());
+    assertTrue(parameters.get(1).useLongData());
+    assertFalse(parameters.get(2).useLongData());
+
+    ByteBuf buf =
+        new ExecutePacket(1, parameters).encode(context, UnpooledByteBufAllocator.DEFAULT);
+    try {
+      assertEquals(0x17, buf.readUnsignedByte());
+      assertEquals(1, buf.readIntLE());
+      buf.skipBytes(5); // cursor flag and iteration count
+      assertEquals(0, buf.readByte()); // no null value
+      assertEquals(1, buf.readByte()); // types sent
+      assertEquals(DataType.INTEGER.get(), buf.readShortLE());
+      assertEquals(DataType.BLOB.get(), buf.readShortLE());
+      assertEquals(DataType.BLOB.get(), buf.readShortLE());
+      // long parameter value is not part of execute packet
+      assertEquals(3, buf.readIntLE());
+      assertEquals(1, buf.readByte());
+      assertEquals(9, buf.readByte());
+      assertFalse(buf.isReadable());
+    } finally {
+      buf.release();
+    }
+  }
+
+  @Test
+  void byteArrayChunks() {
+    byte[] big = new byte[LongDataPacket.MAX_CHUNK_SIZE * 2 + 10];
+    assertArrayEquals(
+        new int[] {LongDataPacket.MAX_CHUNK_SIZE, LongDataPacket.MAX_CHUNK_SIZE, 10},
+        sizes(
+            ByteArrayCodec.INSTANCE
+                .encodeLongData(big, LongDataPacket.MAX_CHUNK_SIZE)
+                .collectList()
+                .block()));
+  }
+
+  @Test
+  void streamChunks() {
+    StreamCodec codec = StreamCodec.INSTANCE;
+    assertArrayEquals(
+        new int[] {100, 100, 50},
+        sizes(
+            codec
+                .encodeLongData(new ByteArrayInputStream(new byte[250]), 100)
+                .collectList()
+                .block()));
+    assertArrayEquals(
+        new int[] {100, 100},
+        sizes(
+            codec
+                .encodeLongData(new ByteArrayInputStream(new byte[200]), 100)
+                .collectList()
+                .block()));
+    // empty stream still sends one chunk, server then uses an empty value
+    assertArrayEquals(
+        new int[] {0},
+        sizes(
+            codec
+                .encodeLongData(new ByteArrayInputStream(new byte[0]), 100)
+                .collectList()
+                .block()));
+  }
+
+  @Test
+  void blobChunks() {
+    Blob blob = Blob.from(Flux.just(ByteBuffer.wrap(new byte[150]), ByteBuffer.wrap(new byte[30])));
+    assertArrayEquals(
+        new int[] {100, 50, 30},
+        sizes(BlobCodec.INSTANCE.encodeLongData(blob, 100).collectList().block()));
+    assertArrayEquals(
+        new int[] {0},
+        sizes(
+            BlobCodec.INSTANCE.encodeLongData(Blob.from(Flux.empty()), 100).collectList().block()));
+  }
+}
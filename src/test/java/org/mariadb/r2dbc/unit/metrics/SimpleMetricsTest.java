@@ -0,0 +1,118 @@
+/*
+ * Copyright 2020 MariaDB Ab.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mariadb.r2dbc.unit.metrics;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mariadb.r2dbc.metrics.LatencyHistogram;
+import org.mariadb.r2dbc.metrics.SimpleMetrics;
+
+public class SimpleMetricsTest {
+
+  @Test
+  public void histogram() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    Assertions.assertEquals(0, histogram.snapshot().getPercentile(99, TimeUnit.NANOSECONDS));
+
+    for (long i = 1; i <= 10_000; i++) {
+      histogram.record(i * 1000);
+    }
+    LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+    Assertions.assertEquals(10_000, snapshot.getCount());
+    Assertions.assertEquals(10_000_000, snapshot.getMax(TimeUnit.NANOSECONDS));
+    Assertions.assertEquals(5_000_500, snapshot.getMean(TimeUnit.NANOSECONDS), 0.1);
+    assertApproximately(5_000_000, snapshot.getPercentile(50, TimeUnit.NANOSECONDS));
+    assertApproximately(9_900_000, snapshot.getPercentile(99, TimeUnit.NANOSECONDS));
+    assertApproximately(9_990_000, snapshot.getPercentile(99.9, TimeUnit.NANOSECONDS));
+    Assertions.assertEquals(10_000_000, snapshot.getPercentile(100, TimeUnit.NANOSECONDS));
+    Assertions.assertEquals(10, snapshot.getMax(TimeUnit.MILLISECONDS));
+    Assertions.assertThrows(
+        IllegalArgumentException.class, () -> snapshot.getPercentile(101, TimeUnit.NANOSECONDS));
+  }
+
+  @Test
+  public void histogramExtremeValues() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record(0);
+    histogram.record(63);
+    histogram.record(Long.MAX_VALUE);
+    LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+    Assertions.assertEquals(0, snapshot.getPercentile(10, TimeUnit.NANOSECONDS));
+    Assertions.assertEquals(63, snapshot.getPercentile(50, TimeUnit.NANOSECONDS));
+    Assertions.assertEquals(Long.MAX_VALUE, snapshot.getPercentile(100, TimeUnit.NANOSECONDS));
+  }
+
+  private static void assertApproximately(long expected, long value) {
+    Assertions.assertTrue(
+        Math.abs(value - expected) <= expected / 32,
+        String.format("expected %s, but was %s", expected, value));
+  }
+
+  @Test
+  public void counters() throws Exception {
+    SimpleMetrics metrics = new SimpleMetrics();
+    SimpleMetrics.Snapshot initial = metrics.snapshot();
+    Assertions.assertEquals(0, initial.getPrepareCacheHitRatio());
+
+    metrics.connectionCreated();
+    metrics.connectionCreated();
+    metrics.connectionClosed();
+    for (int i = 0; i < 5; i++) {
+      metrics.commandSubmitted();
+    }
+    metrics.commandQueued();
+    metrics.commandQueued();
+    metrics.commandDequeued();
+    metrics.commandCompleted(1000);
+    metrics.commandCompleted(3000);
+    metrics.commandAborted();
+    metrics.packetSent(20);
+    metrics.packetReceived(11);
+    metrics.packetReceived(7);
+    metrics.prepareCacheMiss();
+    metrics.prepareCacheHit();
+    metrics.prepareCacheHit();
+    metrics.prepareCacheHit();
+    metrics.prepareCacheEviction();
+    Thread.sleep(10);
+
+    SimpleMetrics.Snapshot snapshot = metrics.snapshot();
+    Assertions.assertEquals(2, snapshot.getConnectionsCreated());
+    Assertions.assertEquals(1, snapshot.getConnectionsClosed());
+    Assertions.assertEquals(1, snapshot.getOpenConnections());
+    Assertions.assertEquals(2, snapshot.getCommandsCompleted());
+    Assertions.assertEquals(1, snapshot.getCommandsAborted());
+    Assertions.assertEquals(2, snapshot.getInFlightCommands());
+    Assertions.assertEquals(1, snapshot.getQueuedCommands());
+    Assertions.assertEquals(1, snapshot.getPacketsSent());
+    Assertions.assertEquals(20, snapshot.getBytesSent());
+    Assertions.assertEquals(2, snapshot.getPacketsReceived());
+    Assertions.assertEquals(18, snapshot.getBytesReceived());
+    Assertions.assertEquals(3, snapshot.getPrepareCacheHits());
+    Assertions.assertEquals(1, snapshot.getPrepareCacheMisses());
+    Assertions.assertEquals(1, snapshot.getPrepareCacheEvictions());
+    Assertions.assertEquals(0.75, snapshot.getPrepareCacheHitRatio());
+    Assertions.assertEquals(2, snapshot.getLatency().getCount());
+    Assertions.assertEquals(2000, snapshot.getLatency().getMean(TimeUnit.NANOSECONDS));
+
+    double createRate = snapshot.getConnectionCreateRate(initial);
+    Assertions.assertTrue(createRate > 0 && createRate <= 200, "rate " + createRate);
+    Assertions.assertEquals(createRate / 2, snapshot.getConnectionCloseRate(initial), 0.0001);
+    Assertions.assertTrue(snapshot.toString().contains("inFlightCommands=2"));
+  }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2020 MariaDB Ab.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mariadb.r2dbc.unit.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mariadb.r2dbc.util.ClientPrepareResult;
+import org.mariadb.r2dbc.util.ClientPrepareResultCache;
+
+public class ClientPrepareResultCacheTest {
+
+  @Test
+  public void hitAndMiss() {
+    ClientPrepareResultCache cache = new ClientPrepareResultCache(10);
+    ClientPrepareResult res = cache.get("SELECT ?", false);
+    Assertions.assertEquals(1, res.getParamCount());
+    Assertions.assertSame(res, cache.get("SELECT ?", false));
+    Assertions.assertEquals(1, cache.getHitCount());
+    Assertions.assertEquals(1, cache.getMissCount());
+
+    // NO_BACKSLASH_ESCAPES mode changes parsing
+    Assertions.assertEquals(1, cache.get("SELECT '\\'', ?", false).getParamCount());
+    Assertions.assertEquals(0, cache.get("SELECT '\\'', ?", true).getParamCount());
+    Assertions.assertEquals(3, cache.getMissCount());
+    Assertions.assertEquals(3, cache.size());
+  }
+
+  @Test
+  public void lruEviction() {
+    ClientPrepareResultCache cache = new ClientPrepareResultCache(2);
+    cache.get("SELECT 1, ?", false);
+    cache.get("SELECT 2, ?", false);
+    cache.get("SELECT 1, ?", false);
+    cache.get("SELECT 3, ?", false);
+    Assertions.assertEquals(2, cache.size());
+
+    // least recently used query has been evicted
+    cache.get("SELECT 1, ?", false);
+    Assertions.assertEquals(2, cache.getHitCount());
+    cache.get("SELECT 2, ?", false);
+    Assertions.assertEquals(2, cache.getHitCount());
+    Assertions.assertEquals(4, cache.getMissCount());
+  }
+
+  @Test
+  public void concurrentAccess() throws Exception {
+    ClientPrepareResultCache cache = new ClientPrepareResultCache(50);
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < 4; t++) {
+        futures.add(
+            executor.submit(
+                () -> {
+                  for (int i = 0; i < 10_000; i++) {
+                    // hot query used between each cold one
+                    Assertions.assertEquals(1, cache.get("SELECT ?", false).getParamCount());
+                    cache.get("SELECT " + (i % 500) + ", ?", false);
+                  }
+                }));
+      }
+      for (Future<?> future : futures) future.get();
+    } finally {
+      executor.shutdownNow();
+    }
+    Assertions.assertTrue(cache.size() <= 50, "size " + cache.size());
+    Assertions.assertEquals(80_000, cache.getHitCount() + cache.getMissCount());
+  }
+
+  @Test
+  public void disabled() {
+    ClientPrepareResultCache cache = new ClientPrepareResultCache(0);
+    Assertions.assertNotSame(cache.get("SELECT ?", false), cache.get("SELECT ?", false));
+    Assertions.assertEquals(0, cache.getHitCount());
+    Assertions.assertEquals(2, cache.getMissCount());
+    Assertions.assertEquals(0, cache.size());
+  }
+}
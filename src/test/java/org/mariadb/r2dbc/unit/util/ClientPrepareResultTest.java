@@ -378,4 +378,48 @@ public class ClientPrepareResultTest {
     Assertions.assertFalse(ClientPrepareResult.hasParameter("SELECT #? \n '?'", false));
     Assertions.assertFalse(ClientPrepareResult.hasParameter("SELECT --? \n '?'", false));
   }
+
+  @Test
+  public void multiValuesRewritable() {
+    ClientPrepareResult res =
+        ClientPrepareResult.parameterParts(
+            "INSERT INTO tt (a, b) VALUES (?, ?) ON DUPLICATE KEY UPDATE b = 1", false);
+    Assertions.assertTrue(res.isQueryMultiValuesRewritable());
+    // offsets are relative to first and last query parts
+    Assertions.assertEquals(29, res.getValuesTupleStart());
+    Assertions.assertEquals(1, res.getValuesTupleEnd());
+
+    res = ClientPrepareResult.parameterParts("REPLACE INTO tt VALUE (?, ?, 'é(') ", false);
+    Assertions.assertTrue(res.isQueryMultiValuesRewritable());
+    Assertions.assertEquals(22, res.getValuesTupleStart());
+    // tuple end is a byte offset: 'é' is encoded on 2 bytes
+    Assertions.assertEquals(8, res.getValuesTupleEnd());
+
+    res =
+        ClientPrepareResult.parameterParts(
+            "INSERT INTO tt (a, b) VALUES (?, ?) ON DUPLICATE KEY UPDATE b = VALUES(b)", false);
+    Assertions.assertTrue(res.isQueryMultiValuesRewritable());
+    Assertions.assertEquals(29, res.getValuesTupleStart());
+    Assertions.assertEquals(1, res.getValuesTupleEnd());
+
+    Assertions.assertFalse(
+        ClientPrepareResult.parameterParts(
+                "INSERT INTO tt VALUES (?, ?) ON DUPLICATE KEY UPDATE b = ?", false)
+            .isQueryMultiValuesRewritable());
+    Assertions.assertFalse(
+        ClientPrepareResult.parameterParts("INSERT INTO tt VALUES (?, 1), (?, 2)", false)
+            .isQueryMultiValuesRewritable());
+    Assertions.assertFalse(
+        ClientPrepareResult.parameterParts("INSERT INTO tt VALUES (?, 1), (3, 2)", false)
+            .isQueryMultiValuesRewritable());
+    Assertions.assertFalse(
+        ClientPrepareResult.parameterParts("UPDATE tt SET a = ? WHERE b = ?", false)
+            .isQueryMultiValuesRewritable());
+    Assertions.assertFalse(
+        ClientPrepareResult.parameterParts("INSERT INTO tt VALUES (?, ?) RETURNING a", false)
+            .isQueryMultiValuesRewritable());
+    Assertions.assertFalse(
+        ClientPrepareResult.parameterParts("INSERT INTO tt SELECT ?, ? FROM dual", false)
+            .isQueryMultiValuesRewritable());
+  }
 }
@@ -0,0 +1,194 @@
+/*
+ * Copyright 2020 MariaDB Ab.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mariadb.r2dbc.unit.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import io.r2dbc.spi.R2dbcPermissionDeniedException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.mariadb.r2dbc.client.DecoderState;
+import org.mariadb.r2dbc.message.client.QueryPacket;
+import org.mariadb.r2dbc.util.LocalInfile;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+public class LocalInfileTest {
+
+  private static int[] sizes(List<ByteBuf> buffers) {
+    int[] sizes = new int[buffers.size()];
+    for (int i = 0; i < sizes.length; i++) {
+      sizes[i] = buffers.get(i).readableBytes();
+      buffers.get(i).release();
+    }
+    return sizes;
+  }
+
+  private static String content(List<ByteBuf> buffers) {
+    StringBuilder sb = new StringBuilder();
+    for (ByteBuf buf : buffers) {
+      sb.append(buf.toString(StandardCharsets.UTF_8));
+      buf.release();
+    }
+    return sb.toString();
+  }
+
+  @Test
+  void packetsRegroupSmallBuffers() {
+    Flux<ByteBuf> data = Flux.range(0, 25).map(i -> Unpooled.wrappedBuffer(new byte[10]));
+    assertArrayEquals(
+        new int[] {100, 100, 50},
+        sizes(
+            LocalInfile.packets(data, 100, UnpooledByteBufAllocator.DEFAULT)
+                .collectList()
+                .block()));
+  }
+
+  @Test
+  void packetsSplitBigBuffers() {
+    Flux<ByteBuf> data =
+        Flux.just(
+            Unpooled.wrappedBuffer(new byte[30]),
+            Unpooled.wrappedBuffer(new byte[250]),
+            Unpooled.wrappedBuffer(new byte[100]));
+    assertArrayEquals(
+        new int[] {100, 100, 100, 80},
+        sizes(
+            LocalInfile.packets(data, 100, UnpooledByteBufAllocator.DEFAULT)
+                .collectList()
+                .block()));
+    assertArrayEquals(
+        new int[0],
+        sizes(
+            LocalInfile.packets(Flux.empty(), 100, UnpooledByteBufAllocator.DEFAULT)
+                .collectList()
+                .block()));
+  }
+
+  @Test
+  void packetsReleaseOnError() {
+    ByteBuf buf = Unpooled.wrappedBuffer(new byte[10]);
+    LocalInfile.packets(
+            Flux.concat(Flux.just(buf), Flux.error(new IllegalStateException("boom"))),
+            100,
+            UnpooledByteBufAllocator.DEFAULT)
+        .as(StepVerifier::create)
+        .expectError(IllegalStateException.class)
+        .verify();
+    assertEquals(0, buf.refCnt());
+  }
+
+  @Test
+  void encodeRows() {
+    List<ByteBuf> rows =
+        LocalInfile.encodeRows(
+                Flux.just(
+                    new Object[] {1, "a\tb\\c", null, true},
+                    new Object[] {"l1\nl2\r\0", new byte[] {'x', '\t'}, "é", false}))
+            .collectList()
+            .block();
+    assertEquals("1\ta\\tb\\\\c\t\\N\t1\n" + "l1\\nl2\\r\\0\tx\\t\té\t0\n", content(rows));
+  }
+
+  @Test
+  void readAllowedFile() throws Exception {
+    Path dir = Files.createTempDirectory("infile");
+    Path file = Files.write(dir.resolve("data.tsv"), "a\tb\n".getBytes(StandardCharsets.UTF_8));
+    try {
+      assertEquals(
+          "a\tb\n",
+          content(
+              LocalInfile.readFile(
+                      file.toString(),
+                      Collections.singletonList(dir.toString()),
+                      2,
+                      UnpooledByteBufAllocator.DEFAULT)
+                  .collectList()
+                  .block()));
+
+      // outside allowed directory
+      LocalInfile.readFile(
+              dir.resolve("../data.tsv").toString(),
+              Collections.singletonList(dir.toString()),
+              2,
+              UnpooledByteBufAllocator.DEFAULT)
+          .as(StepVerifier::create)
+          .expectError(R2dbcPermissionDeniedException.class)
+          .verify();
+
+      // no allowed directory
+      LocalInfile.readFile(
+              file.toString(), Collections.emptyList(), 2, UnpooledByteBufAllocator.DEFAULT)
+          .as(StepVerifier::create)
+          .expectError(R2dbcPermissionDeniedException.class)
+          .verify();
+    } finally {
+      Files.delete(file);
+      Files.delete(dir);
+    }
+  }
+
+  @Test
+  void detectLoadDataLocal() {
+    for (String sql :
+        Arrays.asList(
+            "LOAD DATA LOCAL INFILE 'f' INTO TABLE t",
+            "  load\tdata\n local infile 'f' INTO TABLE t",
+            "SELECT 1; LOAD DATA LOCAL INFILE 'f' INTO TABLE t",
+            "/*c*/LOAD DATA LOCAL INFILE 'f' INTO TABLE t",
+            "LOAD/**/DATA LOCAL INFILE 'f' INTO TABLE t",
+            "# comment\nLOAD DATA/* c */LOCAL INFILE 'f' INTO TABLE t",
+            "-- comment\nLOAD DATA LOCAL INFILE 'f' INTO TABLE t",
+            "LOAD DATA LOW_PRIORITY LOCAL INFILE 'f' INTO TABLE t",
+            "SELECT 'a\\'' ; LOAD DATA LOCAL INFILE 'f' INTO TABLE t")) {
+      assertTrue(new QueryPacket(sql).mayRequestLocalInfile(false), sql);
+    }
+    for (String sql :
+        Arrays.asList(
+            "LOAD DATA INFILE 'f' INTO TABLE t",
+            "SELECT 'LOADDATA LOCAL'",
+            "SELECT 1",
+            "LOAD",
+            "SELECT 'LOAD DATA LOCAL'",
+            "SELECT 1 /* LOAD DATA LOCAL */",
+            "SELECT `LOAD DATA LOCAL`",
+            "SELECT 1 # LOAD DATA LOCAL")) {
+      assertFalse(new QueryPacket(sql).mayRequestLocalInfile(false), sql);
+    }
+    // with NO_BACKSLASH_ESCAPES, backslash does not escape the quote that ends string
+    assertTrue(
+        new QueryPacket("SELECT 'a\\'; LOAD DATA LOCAL INFILE 'f' INTO TABLE t")
+            .mayRequestLocalInfile(true));
+    assertFalse(
+        new QueryPacket("SELECT 'a\\'; LOAD DATA LOCAL INFILE 'f' INTO TABLE t")
+            .mayRequestLocalInfile(false));
+    assertTrue(new QueryPacket("SELECT 1", Flux.empty()).mayRequestLocalInfile(false));
+  }
+
+  @Test
+  void localInfileResponse() {
+    assertEquals(DecoderState.LOCAL_INFILE, DecoderState.QUERY_RESPONSE.decoder((short) 251, 5, 0));
+  }
+}
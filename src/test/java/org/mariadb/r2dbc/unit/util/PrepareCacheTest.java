@@ -0,0 +1,169 @@
+/*
+ * Copyright 2020 MariaDB Ab.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.mariadb.r2dbc.unit.util;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mariadb.r2dbc.client.Client;
+import org.mariadb.r2dbc.message.client.ClientMessage;
+import org.mariadb.r2dbc.util.PrepareCache;
+import org.mariadb.r2dbc.util.ServerPrepareResult;
+
+public class PrepareCacheTest {
+
+  private final List<Integer> closedStatements = new ArrayList<>();
+  private final Client client =
+      (Client)
+          Proxy.newProxyInstance(
+              Client.class.getClassLoader(),
+              new Class<?>[] {Client.class},
+              (proxy, method, args) -> {
+                if (!method.getName().equals("sendCommandWithoutResult")) {
+                  throw new UnsupportedOperationException(method.getName());
+                }
+                ByteBuf buf =
+                    ((ClientMessage) args[0]).encode(null, UnpooledByteBufAllocator.DEFAULT);
+                closedStatements.add(buf.getIntLE(1));
+                buf.release();
+                return null;
+              });
+
+  private ServerPrepareResult prepare(PrepareCache cache, String sql, int statementId) {
+    ServerPrepareResult result = new ServerPrepareResult(statementId, 0, 1);
+    Assertions.assertNull(cache.put(sql, result));
+    // release prepare use, as statement does after execution
+    result.decrementUse(client);
+    return result;
+  }
+
+  @Test
+  public void hitAndMiss() {
+    PrepareCache cache = new PrepareCache(10, client);
+    Assertions.assertNull(cache.get("SELECT ?"));
+    ServerPrepareResult result = prepare(cache, "SELECT ?", 1);
+    Assertions.assertSame(result, cache.get("SELECT ?"));
+    cache.recordHit("SELECT ?");
+
+    // concurrent preparation of the same command: new result is closed, cached one is used
+    ServerPrepareResult other = new ServerPrepareResult(2, 0, 1);
+    Assertions.assertSame(result, cache.put("SELECT ?", other));
+    other.decrementUse(client);
+    Assertions.assertEquals(1, closedStatements.size());
+    Assertions.assertEquals(2, closedStatements.get(0));
+    result.decrementUse(client);
+
+    Assertions.assertEquals(1, cache.size());
+    Assertions.assertEquals(1, cache.getHitCount());
+    Assertions.assertEquals(2, cache.getMissCount());
+    Assertions.assertTrue(cache.toString().contains("hitCount=1"));
+  }
+
+  @Test
+  public void frequentStatementsAreKept() {
+    PrepareCache cache = new PrepareCache(2, client);
+    prepare(cache, "SELECT 1, ?", 1);
+    prepare(cache, "SELECT 2, ?", 2);
+    cache.recordHit("SELECT 1, ?");
+    cache.recordHit("SELECT 2, ?");
+
+    // statements used once are not cached, and closed when released
+    for (int i = 3; i < 10; i++) {
+      ServerPrepareResult oneOff = prepare(cache, "SELECT " + i + ", ?", i);
+      Assertions.assertNull(cache.get("SELECT " + i + ", ?"));
+      Assertions.assertFalse(oneOff.incrementUse());
+    }
+    Assertions.assertNotNull(cache.get("SELECT 1, ?"));
+    Assertions.assertNotNull(cache.get("SELECT 2, ?"));
+    Assertions.assertEquals(7, cache.getRejectionCount());
+    Assertions.assertEquals(7, closedStatements.size());
+
+    // statement used more often than least recently used one is cached
+    cache.recordHit("SELECT 1, ?");
+    ServerPrepareResult evicted = cache.get("SELECT 2, ?");
+    prepare(cache, "SELECT 3, ?", 10);
+    prepare(cache, "SELECT 3, ?", 11);
+    Assertions.assertNull(cache.get("SELECT 2, ?"));
+    Assertions.assertNotNull(cache.get("SELECT 3, ?"));
+    Assertions.assertFalse(evicted.incrementUse());
+    Assertions.assertEquals(1, cache.getEvictionCount());
+    Assertions.assertEquals(9, closedStatements.size());
+  }
+
+  @Test
+  public void sampledEviction() {
+    PrepareCache cache = new PrepareCache(100, client);
+    for (int i = 0; i < 100; i++) {
+      prepare(cache, "SELECT " + i + ", ?", i);
+    }
+    Assertions.assertEquals(100, cache.size());
+
+    // frequently used statements evict one of the sampled statements
+    for (int i = 100; i < 120; i++) {
+      for (int j = 0; j < 3; j++) cache.recordHit("SELECT " + i + ", ?");
+      prepare(cache, "SELECT " + i + ", ?", i);
+      Assertions.assertNotNull(cache.get("SELECT " + i + ", ?"));
+      Assertions.assertEquals(100, cache.size());
+    }
+    Assertions.assertEquals(20, cache.getEvictionCount());
+    Assertions.assertEquals(20, closedStatements.size());
+  }
+
+  @Test
+  public void evictedStatementClosedAfterUse() {
+    PrepareCache cache = new PrepareCache(1, client);
+    ServerPrepareResult used = prepare(cache, "SELECT 1, ?", 1);
+    Assertions.assertTrue(used.incrementUse());
+
+    ServerPrepareResult next = new ServerPrepareResult(2, 0, 1);
+    cache.put("SELECT 2, ?", next);
+    cache.put("SELECT 2, ?", next);
+    Assertions.assertNull(cache.get("SELECT 1, ?"));
+    Assertions.assertTrue(closedStatements.isEmpty());
+
+    // still in use: close is sent only when released
+    used.decrementUse(client);
+    Assertions.assertEquals(1, closedStatements.size());
+    used.decrementUse(client);
+    Assertions.assertEquals(1, closedStatements.size());
+  }
+
+  @Test
+  public void reset() {
+    PrepareCache cache = new PrepareCache(10, client);
+    ServerPrepareResult result = prepare(cache, "SELECT ?", 1);
+    Assertions.assertTrue(result.incrementUse());
+    cache.reset();
+    Assertions.assertEquals(0, cache.size());
+    Assertions.assertFalse(result.incrementUse());
+    result.decrementUse(client);
+    // server already deallocated statement
+    Assertions.assertTrue(closedStatements.isEmpty());
+  }
+
+  @Test
+  public void disabled() {
+    PrepareCache cache = new PrepareCache(0, client);
+    prepare(cache, "SELECT ?", 1);
+    Assertions.assertNull(cache.get("SELECT ?"));
+    Assertions.assertEquals(1, closedStatements.size());
+  }
+}